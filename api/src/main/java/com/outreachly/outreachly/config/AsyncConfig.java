@@ -0,0 +1,66 @@
+package com.outreachly.outreachly.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for @Async methods and outbound I/O (provider sends, enrichment,
+ * webhooks): a bounded pool of platform threads, since the project builds and
+ * runs on Java 17. Concurrency against each downstream service is capped
+ * separately by OutboundLimiter, not by the size of this executor.
+ *
+ * The platform pool rejects work when its queue is full instead of running it
+ * on the submitting thread: callers such as the delivery pipeline submit from
+ * timer threads that must never run a send themselves, and handle the
+ * RejectedExecutionException. Backpressure is applied before submitting, by
+ * the bounded sender lanes and per-user send slots.
+ */
+@Configuration
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    @Value("${async.platform-threads:64}")
+    private int platformThreads;
+
+    @Value("${async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService outboundExecutor() {
+        log.info("Outbound executor using {} platform threads", platformThreads);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(platformThreads, platformThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbound-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Submitters handle rejection; running the task inline would block timer threads
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return new TaskExecutorAdapter(outboundExecutor());
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (error, method, params) -> log.error("Async method {} failed", method.getName(), error);
+    }
+}
@@ -0,0 +1,55 @@
+package com.outreachly.outreachly.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the durable checkpoint delivery queue.
+ * Only active when delivery.queue.enabled=true; otherwise checkpoints are sent
+ * in-process by EmailDeliveryService.
+ */
+@Configuration
+@ConditionalOnProperty(name = "delivery.queue.enabled", havingValue = "true")
+@Slf4j
+public class DeliveryQueueConfig {
+
+    @Value("${delivery.queue.name:checkpoint-delivery}")
+    private String queueName;
+
+    /**
+     * Durable queue holding one message per checkpoint lead.
+     * Rejected messages are routed to the dead letter queue instead of being requeued.
+     */
+    @Bean
+    public Queue checkpointDeliveryQueue() {
+        log.info("Checkpoint delivery queue enabled: {}", queueName);
+        return QueueBuilder.durable(queueName)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(queueName + ".dlq")
+                .build();
+    }
+
+    /**
+     * Dead letter queue for messages a worker could not process
+     */
+    @Bean
+    public Queue checkpointDeliveryDeadLetterQueue() {
+        return QueueBuilder.durable(queueName + ".dlq").build();
+    }
+
+    /**
+     * JSON converter used by RabbitTemplate and the listener containers
+     */
+    @Bean
+    public MessageConverter deliveryMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
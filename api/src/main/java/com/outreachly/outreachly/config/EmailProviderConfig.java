@@ -7,7 +7,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,12 +23,13 @@ import java.util.Map;
 public class EmailProviderConfig {
 
     /**
-     * WebClient for Resend API calls
+     * WebClient for Resend API calls, on the shared outbound connection pool
      */
     @Bean
-    public WebClient resendWebClient() {
+    public WebClient resendWebClient(HttpClient outboundHttpClient) {
         return WebClient.builder()
                 .baseUrl("https://api.resend.com")
+                .clientConnector(new ReactorClientHttpConnector(outboundHttpClient))
                 .build();
     }
 
@@ -3,15 +3,21 @@ package com.outreachly.outreachly.config;
 import com.outreachly.outreachly.security.OAuth2AuthenticationFailureHandler;
 import com.outreachly.outreachly.security.OAuth2AuthenticationSuccessHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
@@ -33,7 +39,7 @@ public class OAuth2Config {
                                                 .maxSessionsPreventsLogin(false))
                                 .authorizeHttpRequests(authz -> authz
                                                 .requestMatchers("/", "/login", "/oauth2/**", "/actuator/**",
-                                                                "/api/auth/**")
+                                                                "/api/auth/**", "/track/**")
                                                 .permitAll()
                                                 .requestMatchers("/api/**")
                                                 .authenticated()
@@ -56,4 +62,21 @@ public class OAuth2Config {
                 return new org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService(
                                 clientRegistrationRepository);
         }
+
+        /**
+         * Authorized client manager for use outside a web request (e.g. scheduled
+         * Gmail sends). Refreshes access tokens that expire within the refresh skew.
+         */
+        @Bean
+        public OAuth2AuthorizedClientManager authorizedClientManager(
+                        ClientRegistrationRepository clientRegistrationRepository,
+                        OAuth2AuthorizedClientService authorizedClientService,
+                        @Value("${gmail.client-cache.refresh-skew-seconds:300}") long refreshSkewSeconds) {
+                AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                                clientRegistrationRepository, authorizedClientService);
+                manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                                .refreshToken(refresh -> refresh.clockSkew(Duration.ofSeconds(refreshSkewSeconds)))
+                                .build());
+                return manager;
+        }
 }
@@ -0,0 +1,79 @@
+package com.outreachly.outreachly.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Shared HTTP layer for outbound API calls (Resend, Hunter, webhooks).
+ * All clients run on one reactor-netty connection pool: keep-alive
+ * connections are reused across calls so TLS handshakes are paid once per
+ * connection, HTTP/2 is negotiated where the server supports it, and every
+ * remote host gets its own pool capped at {@code outbound.http.max-connections-per-host}.
+ */
+@Configuration
+@Slf4j
+public class OutboundHttpConfig {
+
+    @Value("${outbound.http.max-connections-per-host:50}")
+    private int maxConnectionsPerHost;
+
+    // Requests waiting for a pooled connection before new ones are rejected
+    @Value("${outbound.http.max-pending-acquires:500}")
+    private int maxPendingAcquires;
+
+    @Value("${outbound.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${outbound.http.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    // Close pooled connections idle this long, before servers drop them on their side
+    @Value("${outbound.http.max-idle-ms:30000}")
+    private long maxIdleMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider() {
+        log.info("Outbound HTTP pool: {} connections per host, connect timeout {} ms, read timeout {} ms",
+                maxConnectionsPerHost, connectTimeoutMs, readTimeoutMs);
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(Duration.ofMillis(readTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .build();
+    }
+
+    /**
+     * Pooled HTTP client with the default read timeout. Clients that need a
+     * different timeout derive from it with {@code responseTimeout(...)}, which
+     * keeps the same pool.
+     */
+    @Bean
+    public HttpClient outboundHttpClient(ConnectionProvider outboundConnectionProvider) {
+        return HttpClient.create(outboundConnectionProvider)
+                // HTTP/2 is negotiated over TLS (ALPN); plain http:// URLs use HTTP/1.1
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+    }
+
+    /**
+     * Blocking client on the shared pool, for webhook delivery
+     */
+    @Bean
+    public RestTemplate outboundRestTemplate(HttpClient outboundHttpClient) {
+        return new RestTemplate(new ReactorClientHttpRequestFactory(outboundHttpClient));
+    }
+}
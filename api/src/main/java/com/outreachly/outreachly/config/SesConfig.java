@@ -0,0 +1,86 @@
+package com.outreachly.outreachly.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.service.EmailEventService;
+import com.outreachly.outreachly.service.SesEmailService;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.SesAsyncClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * AWS SES provider, registered when {@code aws.ses.enabled=true}.
+ * {@code aws.ses.endpoint} points the client at a local SES stand-in
+ * (e.g. LocalStack) instead of AWS.
+ */
+@Configuration
+@ConditionalOnProperty(name = "aws.ses.enabled", havingValue = "true")
+@Slf4j
+public class SesConfig {
+
+    @Value("${aws.ses.region:us-east-1}")
+    private String region;
+
+    @Value("${aws.ses.endpoint:}")
+    private String endpoint;
+
+    // Static credentials, mainly for local stand-ins; otherwise the default AWS chain
+    @Value("${aws.ses.access-key-id:}")
+    private String accessKeyId;
+
+    @Value("${aws.ses.secret-access-key:}")
+    private String secretAccessKey;
+
+    @Value("${outbound.ses.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${outbound.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${outbound.http.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public SesAsyncClient sesAsyncClient() {
+        SesAsyncClientBuilder builder = SesAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .connectionTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .readTimeout(Duration.ofMillis(readTimeoutMs)));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+            log.info("SES client using endpoint {}", endpoint);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public SesEmailService sesEmailService(SesAsyncClient sesAsyncClient, EmailEventService emailEventService,
+            OutboundLimiter outboundLimiter, ProviderRateLimiter providerRateLimiter, ObjectMapper objectMapper) {
+        return new SesEmailService(sesAsyncClient, emailEventService, outboundLimiter, providerRateLimiter,
+                objectMapper);
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        if (!accessKeyId.isBlank() && !secretAccessKey.isBlank()) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+}
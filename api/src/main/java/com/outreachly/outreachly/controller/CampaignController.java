@@ -3,18 +3,18 @@ package com.outreachly.outreachly.controller;
 import com.outreachly.outreachly.entity.Campaign;
 import com.outreachly.outreachly.entity.CampaignCheckpoint;
 import com.outreachly.outreachly.entity.CampaignCheckpointLead;
-import com.outreachly.outreachly.entity.Lead;
 import com.outreachly.outreachly.entity.Template;
 import com.outreachly.outreachly.entity.User;
 import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
-import com.outreachly.outreachly.repository.LeadRepository;
-import com.outreachly.outreachly.repository.TemplateRepository;
 import com.outreachly.outreachly.service.ActivityFeedService;
 import com.outreachly.outreachly.service.CampaignService;
 import com.outreachly.outreachly.service.CampaignCheckpointService;
 import com.outreachly.outreachly.service.EmailDeliveryService;
 import com.outreachly.outreachly.service.TemplateService;
 import com.outreachly.outreachly.service.UserService;
+import com.outreachly.outreachly.service.delivery.DeliveryContext;
+import com.outreachly.outreachly.service.delivery.DeliveryContextLoader;
+import com.outreachly.outreachly.service.delivery.LeadSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -38,9 +38,8 @@ public class CampaignController {
     private final UserService userService;
     private final ActivityFeedService activityFeedService;
     private final CampaignCheckpointLeadRepository checkpointLeadRepository;
-    private final LeadRepository leadRepository;
-    private final TemplateRepository templateRepository;
     private final EmailDeliveryService emailDeliveryService;
+    private final DeliveryContextLoader deliveryContextLoader;
 
     @GetMapping
     public ResponseEntity<?> getAllCampaigns(Authentication authentication) {
@@ -542,6 +541,10 @@ public class CampaignController {
 
             log.info("Retrying {} failed leads for checkpoint: {}", failedLeads.size(), checkpoint.getName());
 
+            // Resolve campaign creator, template and leads once for the whole retry
+            DeliveryContext context = deliveryContextLoader.load(checkpoint);
+            Map<UUID, LeadSnapshot> leads = deliveryContextLoader.loadLeads(failedLeads, checkpoint.getOrgId());
+
             // Retry sending emails to failed leads
             int successCount = 0;
             int failureCount = 0;
@@ -557,7 +560,7 @@ public class CampaignController {
                     checkpointLeadRepository.save(checkpointLead);
 
                     // Get lead details
-                    Lead lead = leadRepository.findById(checkpointLead.getLeadId()).orElse(null);
+                    LeadSnapshot lead = leads.get(checkpointLead.getLeadId());
                     if (lead == null) {
                         log.warn("Lead not found for retry: {}", checkpointLead.getLeadId());
                         checkpointLead.setStatus(CampaignCheckpointLead.DeliveryStatus.failed);
@@ -567,14 +570,8 @@ public class CampaignController {
                         continue;
                     }
 
-                    // Get template
-                    Template emailTemplate = null;
-                    if (checkpoint.getEmailTemplateId() != null) {
-                        emailTemplate = templateRepository.findById(checkpoint.getEmailTemplateId()).orElse(null);
-                    }
-
                     // Send email using EmailDeliveryService
-                    emailDeliveryService.sendEmailToLead(lead, emailTemplate, checkpoint);
+                    emailDeliveryService.sendEmailToLead(lead, context);
 
                     // Mark as sent
                     checkpointLead.setStatus(CampaignCheckpointLead.DeliveryStatus.sent);
@@ -583,7 +580,7 @@ public class CampaignController {
                     checkpointLeadRepository.save(checkpointLead);
 
                     successCount++;
-                    log.info("Successfully retried email to: {} ({}/{})", lead.getEmail(), i + 1, failedLeads.size());
+                    log.info("Successfully retried email to: {} ({}/{})", lead.email(), i + 1, failedLeads.size());
 
                 } catch (Exception e) {
                     log.error("Failed to retry email for lead: {}", checkpointLead.getLeadId(), e);
@@ -62,20 +62,29 @@ public class DeliveryMetricsController {
     }
 
     /**
-     * Get delivery trend data for a specific period
+     * Get delivery trend data for a specific period, bucketed by hour, day or
+     * week in the user's timezone
      */
     @GetMapping("/delivery-rate/trends")
     public ResponseEntity<List<DeliveryTrackingService.TrendData>> getDeliveryTrends(
             @RequestParam(defaultValue = "7") int days,
             @RequestParam(required = false) String campaignId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String timezone,
             Authentication authentication) {
+        DeliveryTrackingService.Granularity bucketSize;
+        try {
+            bucketSize = DeliveryTrackingService.Granularity.parse(granularity);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
         try {
             // Extract user ID from authentication
             String userId = getUserIdFromAuth(authentication);
 
-            // Get user's timezone
-            String userTimezone = "UTC±0"; // Default
-            if (userId != null) {
+            // Get user's timezone, unless the request names one
+            String userTimezone = timezone != null ? timezone : "UTC±0";
+            if (timezone == null && userId != null) {
                 User user = userService.findByEmail(authentication.getName());
                 if (user != null && user.getTimezone() != null) {
                     userTimezone = user.getTimezone();
@@ -83,7 +92,7 @@ public class DeliveryMetricsController {
             }
 
             List<DeliveryTrackingService.TrendData> trends = deliveryTrackingService.getDeliveryTrends(days, userId,
-                    campaignId, userTimezone);
+                    campaignId, userTimezone, bucketSize);
             return ResponseEntity.ok(trends);
         } catch (Exception e) {
             log.error("Error getting delivery trends", e);
@@ -39,10 +39,11 @@ public class EmailController {
         UUID orgId = getOrgIdFromAuthentication(authentication);
         User user = getUser(authentication);
 
-        // Check rate limit before sending
-        if (!rateLimitService.canSendEmails(user.getId().toString(),
+        // Reserve quota before sending
+        RateLimitService.QuotaReservation reservation = rateLimitService.reserve(user.getId().toString(),
                 user.getOrgId() != null ? user.getOrgId().toString() : null,
-                emailRequest.getRecipients().size())) {
+                emailRequest.getRecipients().size()).orElse(null);
+        if (reservation == null) {
             return ResponseEntity.status(429).body(EmailResponse.builder()
                     .success(false)
                     .message("Rate limit exceeded. Please wait before sending more emails.")
@@ -54,7 +55,12 @@ public class EmailController {
                 authentication.getName(),
                 orgId);
 
-        EmailResponse response = emailService.sendEmail(orgId, emailRequest);
+        EmailResponse response = null;
+        try {
+            response = emailService.sendEmail(orgId, emailRequest);
+        } finally {
+            settleReservation(reservation, response);
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -72,10 +78,11 @@ public class EmailController {
                 .mapToInt(req -> req.getRecipients().size())
                 .sum();
 
-        // Check rate limit before sending
-        if (!rateLimitService.canSendEmails(user.getId().toString(),
+        // Reserve quota before sending
+        RateLimitService.QuotaReservation reservation = rateLimitService.reserve(user.getId().toString(),
                 user.getOrgId() != null ? user.getOrgId().toString() : null,
-                totalRecipients)) {
+                totalRecipients).orElse(null);
+        if (reservation == null) {
             return ResponseEntity.status(429).body(EmailResponse.builder()
                     .success(false)
                     .message("Rate limit exceeded. Please wait before sending more emails.")
@@ -87,11 +94,25 @@ public class EmailController {
                 authentication.getName(),
                 orgId);
 
-        EmailResponse response = emailService.sendBulkEmail(orgId, emailRequests);
+        EmailResponse response = null;
+        try {
+            response = emailService.sendBulkEmail(orgId, emailRequests);
+        } finally {
+            settleReservation(reservation, response);
+        }
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Keep quota for the recipients that were sent to and give back the rest
+     */
+    private void settleReservation(RateLimitService.QuotaReservation reservation, EmailResponse response) {
+        int sent = response != null ? Math.min(reservation.count(), response.getSuccessfulRecipients()) : 0;
+        rateLimitService.commit(reservation, sent);
+        rateLimitService.release(reservation, reservation.count() - sent);
+    }
+
     @GetMapping("/rate-limit")
     public ResponseEntity<Map<String, Object>> getRateLimit(Authentication authentication) {
         User user = getUser(authentication);
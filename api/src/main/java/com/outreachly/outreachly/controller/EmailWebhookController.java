@@ -3,9 +3,10 @@ package com.outreachly.outreachly.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.outreachly.outreachly.entity.EmailEvent;
-import com.outreachly.outreachly.service.EmailEventService;
+import com.outreachly.outreachly.service.events.EmailEventWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,20 +18,24 @@ import java.time.LocalDateTime;
 @Slf4j
 public class EmailWebhookController {
 
-    private final EmailEventService emailEventService;
+    private final EmailEventWriter emailEventWriter;
     private final ObjectMapper objectMapper;
 
+    /**
+     * SNS notification for an SES event. The event is only queued here and
+     * written by EmailEventWriter, so SNS gets its answer without waiting on
+     * the database; 503 when the writer's queue is full makes SNS retry later.
+     */
     @PostMapping("/ses")
     public ResponseEntity<String> handleSesWebhook(@RequestBody String payload) {
         try {
-            log.info("Received SES webhook: {}", payload);
-
             JsonNode root = objectMapper.readTree(payload);
-            String notificationType = root.get("Type").asText();
+            String notificationType = root.path("Type").asText();
+            log.debug("Received SES webhook {} ({})", root.path("MessageId").asText(), notificationType);
 
             if ("Notification".equals(notificationType)) {
-                String message = root.get("Message").asText();
-                JsonNode messageNode = objectMapper.readTree(message);
+                // The SES event is a JSON document embedded as a string in the SNS envelope
+                JsonNode messageNode = objectMapper.readTree(root.get("Message").asText());
 
                 String eventType = messageNode.get("eventType").asText();
                 String messageId = messageNode.get("mail").get("messageId").asText();
@@ -49,6 +54,7 @@ public class EmailWebhookController {
                         .eventType(emailEventType)
                         .timestamp(LocalDateTime.now())
                         .rawMessage(payload)
+                        .snsMessageId(root.hasNonNull("MessageId") ? root.get("MessageId").asText() : null)
                         .processed(false)
                         .build();
 
@@ -56,18 +62,21 @@ public class EmailWebhookController {
                 if ("bounce".equals(eventType)) {
                     JsonNode bounce = messageNode.get("bounce");
                     if (bounce != null) {
-                        emailEvent.setBounceType(bounce.get("bounceType").asText());
-                        emailEvent.setBounceSubtype(bounce.get("bounceSubType").asText());
+                        emailEvent.setBounceType(bounce.path("bounceType").asText(null));
+                        emailEvent.setBounceSubtype(bounce.path("bounceSubType").asText(null));
                     }
                 } else if ("complaint".equals(eventType)) {
                     JsonNode complaint = messageNode.get("complaint");
                     if (complaint != null) {
-                        emailEvent.setComplaintFeedbackType(complaint.get("complaintFeedbackType").asText());
+                        emailEvent.setComplaintFeedbackType(complaint.path("complaintFeedbackType").asText(null));
                     }
                 }
 
-                emailEventService.saveEmailEvent(emailEvent);
-                log.info("Processed SES event: {} for email: {}", eventType, emailAddress);
+                if (!emailEventWriter.submit(emailEvent)) {
+                    log.warn("Email event queue full, deferring SES {} event for {}", eventType, emailAddress);
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Busy, retry later");
+                }
+                log.debug("Queued SES event: {} for email: {}", eventType, emailAddress);
             }
 
             return ResponseEntity.ok("OK");
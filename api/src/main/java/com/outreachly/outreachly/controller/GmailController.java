@@ -4,6 +4,9 @@ import com.outreachly.outreachly.service.GmailService;
 import com.outreachly.outreachly.service.LeadDataService;
 import com.outreachly.outreachly.service.DeliveryTrackingService;
 import com.outreachly.outreachly.service.UserService;
+import com.outreachly.outreachly.service.template.CompiledTemplate;
+import com.outreachly.outreachly.service.template.ParsedTemplate;
+import com.outreachly.outreachly.service.template.ParsedTemplateCache;
 import com.outreachly.outreachly.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,7 +14,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -24,6 +29,7 @@ public class GmailController {
     private final LeadDataService leadDataService;
     private final DeliveryTrackingService deliveryTrackingService;
     private final UserService userService;
+    private final ParsedTemplateCache parsedTemplateCache;
 
     @PostMapping("/send")
     public ResponseEntity<Map<String, Object>> sendEmail(
@@ -73,7 +79,7 @@ public class GmailController {
             }
 
             // Process variables in email body if it contains variables
-            String processedBody = processEmailVariables(request.getBody(), leadData);
+            String processedBody = processEmailVariables(CompiledTemplate.compile(request.getBody()), leadData);
 
             // Generate unique message ID for tracking
             String messageId = "gmail_" + System.currentTimeMillis() + "_" +
@@ -131,28 +137,20 @@ public class GmailController {
     /**
      * Process email variables like {{firstName}}, {{lastName}}, etc.
      */
-    private String processEmailVariables(String emailBody, Map<String, String> leadData) {
-        if (emailBody == null || leadData == null) {
-            return emailBody;
+    private String processEmailVariables(CompiledTemplate emailBody, Map<String, String> leadData) {
+        if (leadData == null) {
+            leadData = Map.of();
         }
 
-        String processedBody = emailBody;
-
-        // Replace all variables in the format {{variableName}}
+        // Also accept lowercase placeholders such as {{firstname}}
+        Map<String, String> variables = new HashMap<>(leadData.size() * 4);
         for (Map.Entry<String, String> entry : leadData.entrySet()) {
-            String variableName = entry.getKey();
             String variableValue = entry.getValue() != null ? entry.getValue() : "";
-
-            // Replace {{variableName}} with the actual value
-            String placeholder = "{{" + variableName + "}}";
-            processedBody = processedBody.replace(placeholder, variableValue);
-
-            // Also handle case-insensitive replacement
-            String placeholderLower = "{{" + variableName.toLowerCase() + "}}";
-            processedBody = processedBody.replace(placeholderLower, variableValue);
+            variables.put(entry.getKey(), variableValue);
+            variables.putIfAbsent(entry.getKey().toLowerCase(), variableValue);
         }
 
-        return processedBody;
+        return emailBody.render(variables);
     }
 
     /**
@@ -223,6 +221,19 @@ public class GmailController {
                 return ResponseEntity.badRequest().body(response);
             }
 
+            // Use a saved template instead of an inline subject/body when one is given
+            if (request.getTemplateId() != null && !request.getTemplateId().isBlank()) {
+                ParsedTemplate template = resolveTemplate(request.getTemplateId(), authentication);
+                if (template == null) {
+                    response.put("success", false);
+                    response.put("message", "Template not found");
+                    return ResponseEntity.badRequest().body(response);
+                }
+                request.setSubject(template.subject());
+                request.setBody(template.body());
+                request.setHtml(template.isHtml());
+            }
+
             if (request.getSubject() == null || request.getSubject().trim().isEmpty()) {
                 response.put("success", false);
                 response.put("message", "Subject is required");
@@ -263,63 +274,69 @@ public class GmailController {
     }
 
     /**
-     * Process bulk emails with individual lead data for each recipient
+     * Load a saved template from the parsed template cache for the user's organization
+     */
+    private ParsedTemplate resolveTemplate(String templateId, Authentication authentication) {
+        String orgId = getOrgId(authentication);
+        if (orgId == null) {
+            return null;
+        }
+        try {
+            return parsedTemplateCache.get(java.util.UUID.fromString(orgId), java.util.UUID.fromString(templateId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid template ID for bulk email: {}", templateId);
+            return null;
+        }
+    }
+
+    /**
+     * Process bulk emails with individual lead data for each recipient.
+     * Messages are personalized up front and sent as one Gmail batch.
      */
     private BulkEmailResult processBulkEmails(BulkGmailRequest request, String userEmail) {
         BulkEmailResult result = new BulkEmailResult();
 
+        // Compile the shared body once for all recipients
+        CompiledTemplate body = CompiledTemplate.compile(request.getBody());
+
+        List<GmailService.BatchEmail> emails = new ArrayList<>(request.getRecipients().size());
         for (String recipient : request.getRecipients()) {
+            // Get lead data for this specific recipient
+            Map<String, String> leadData;
             try {
-                // Get lead data for this specific recipient
-                Map<String, String> leadData;
-                try {
-                    leadData = leadDataService.getLeadDataForEmail(recipient, userEmail);
-                } catch (Exception e) {
-                    log.warn("Failed to fetch lead data for email: {}, using basic data", recipient, e);
-                    leadData = new HashMap<>();
-                    leadData.put("email", recipient);
-                    leadData.put("firstName", extractFirstNameFromEmail(recipient));
-                }
+                leadData = leadDataService.getLeadDataForEmail(recipient, userEmail);
+            } catch (Exception e) {
+                log.warn("Failed to fetch lead data for email: {}, using basic data", recipient, e);
+                leadData = new HashMap<>();
+                leadData.put("email", recipient);
+                leadData.put("firstName", extractFirstNameFromEmail(recipient));
+            }
 
-                // Process variables in email body
-                String processedBody = processEmailVariables(request.getBody(), leadData);
-
-                // Generate unique message ID for tracking
-                String messageId = "gmail_bulk_" + System.currentTimeMillis() + "_" +
-                        java.util.UUID.randomUUID().toString().substring(0, 8);
-
-                // Send individual email
-                try {
-                    gmailService.sendEmail(recipient, request.getSubject(), processedBody,
-                            request.isHtml(), request.getFrom());
-
-                    // Record successful delivery
-                    deliveryTrackingService.recordEmailDelivered(
-                            messageId,
-                            recipient,
-                            request.getCampaignId(),
-                            request.getUserId(),
-                            request.getOrgId());
-
-                    // Record success
-                    result.addSuccess(recipient, "Email sent successfully");
-
-                } catch (Exception gmailException) {
-                    // Record failed delivery
-                    deliveryTrackingService.recordEmailRejected(
-                            messageId,
-                            recipient,
-                            request.getCampaignId(),
-                            request.getUserId(),
-                            request.getOrgId(),
-                            gmailException.getMessage());
-
-                    throw gmailException; // Re-throw to be caught by outer catch block
-                }
+            // Process variables in email body
+            emails.add(new GmailService.BatchEmail(recipient, request.getSubject(),
+                    processEmailVariables(body, leadData), request.isHtml()));
+        }
 
-            } catch (Exception e) {
-                log.error("Failed to send email to: {}", recipient, e);
-                result.addFailure(recipient, "Failed to send email: " + e.getMessage());
+        for (GmailService.BatchResult sent : gmailService.sendBatch(emails, request.getFrom(), null)) {
+            if (sent.success()) {
+                // Record successful delivery under Gmail's message ID
+                deliveryTrackingService.recordEmailDelivered(
+                        sent.messageId(),
+                        sent.to(),
+                        request.getCampaignId(),
+                        request.getUserId(),
+                        request.getOrgId());
+                result.addSuccess(sent.to(), "Email sent successfully");
+            } else {
+                // Record failed delivery
+                deliveryTrackingService.recordEmailRejected(
+                        null,
+                        sent.to(),
+                        request.getCampaignId(),
+                        request.getUserId(),
+                        request.getOrgId(),
+                        sent.error());
+                result.addFailure(sent.to(), "Failed to send email: " + sent.error());
             }
         }
 
@@ -499,6 +516,7 @@ public class GmailController {
     // Inner class for bulk Gmail API request body
     public static class BulkGmailRequest {
         private java.util.List<String> recipients;
+        private String templateId;
         private String subject;
         private String body;
         private boolean html = false;
@@ -526,6 +544,14 @@ public class GmailController {
             this.recipients = recipients;
         }
 
+        public String getTemplateId() {
+            return templateId;
+        }
+
+        public void setTemplateId(String templateId) {
+            this.templateId = templateId;
+        }
+
         public String getSubject() {
             return subject;
         }
@@ -1,9 +1,13 @@
 package com.outreachly.outreachly.controller;
 
 import com.outreachly.outreachly.service.DeliveryTrackingService;
+import com.outreachly.outreachly.service.links.ShortLinkService;
+import com.outreachly.outreachly.service.links.TrackingPixelService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.view.RedirectView;
@@ -20,6 +24,47 @@ import java.util.HashMap;
 public class LinkTrackingController {
 
     private final DeliveryTrackingService deliveryTrackingService;
+    private final ShortLinkService shortLinkService;
+    private final TrackingPixelService trackingPixelService;
+
+    // Built once; every pixel response shares them
+    private static final HttpHeaders PIXEL_HEADERS = pixelHeaders();
+
+    /**
+     * Redirect a short link created at send time
+     * URL format: /track/c/{code}
+     *
+     * The target comes from the short link cache, so the database is only hit
+     * for links not seen by this instance yet.
+     */
+    @GetMapping("/c/{code}")
+    public RedirectView followShortLink(@PathVariable("code") String code) {
+        ShortLinkService.Target target;
+        try {
+            target = shortLinkService.resolve(code);
+        } catch (Exception e) {
+            log.error("Error resolving short link: {}", code, e);
+            target = null;
+        }
+
+        if (target == null) {
+            log.warn("Unknown or expired short link: {}", code);
+            return new RedirectView(fallbackUrl());
+        }
+
+        shortLinkService.recordClick(code);
+        deliveryTrackingService.recordLinkClick(
+                target.messageId(),
+                target.recipientEmail(),
+                target.originalUrl(),
+                target.campaignId(),
+                target.userId(),
+                target.orgId());
+
+        log.debug("Tracked short link click: {} -> {} from message: {}", code, target.originalUrl(),
+                target.messageId());
+        return new RedirectView(target.originalUrl());
+    }
 
     /**
      * Track link clicks and redirect to original URL
@@ -72,13 +117,52 @@ public class LinkTrackingController {
                 return new RedirectView(originalUrl);
             } catch (Exception decodeError) {
                 log.error("Failed to decode URL: {}", encodedOriginalUrl, decodeError);
-                // Fallback URL - use appropriate domain for environment
-                String fallbackUrl = isProductionEnvironment() ? "https://outreach-ly.com" : "http://localhost:3000";
-                return new RedirectView(fallbackUrl);
+                return new RedirectView(fallbackUrl());
             }
         }
     }
 
+    /**
+     * Tracking pixel embedded in HTML emails
+     * URL format: /track/open/{token}
+     *
+     * The token is signed and carries everything needed to record the open, so
+     * nothing is looked up here. The same GIF is served for invalid tokens.
+     */
+    @GetMapping("/open/{token}")
+    public ResponseEntity<byte[]> trackOpen(@PathVariable("token") String token) {
+        ShortLinkService.LinkContext email = trackingPixelService.verify(token);
+        if (email != null) {
+            deliveryTrackingService.recordEmailOpen(
+                    email.messageId(),
+                    email.recipientEmail(),
+                    email.campaignId(),
+                    email.userId(),
+                    email.orgId());
+        } else {
+            log.debug("Ignoring open with invalid tracking token");
+        }
+        return new ResponseEntity<>(TrackingPixelService.pixel(), PIXEL_HEADERS, HttpStatus.OK);
+    }
+
+    // Mail clients and proxies must fetch the pixel on every open
+    private static HttpHeaders pixelHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_GIF);
+        headers.setContentLength(TrackingPixelService.pixel().length);
+        headers.setCacheControl("no-store, no-cache, must-revalidate, max-age=0");
+        headers.setPragma("no-cache");
+        headers.setExpires(0);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Fallback URL - use appropriate domain for environment
+     */
+    private String fallbackUrl() {
+        return isProductionEnvironment() ? "https://outreach-ly.com" : "http://localhost:3000";
+    }
+
     /**
      * Check if we're running in production environment
      */
@@ -185,6 +185,36 @@ public class SettingsController {
         return ResponseEntity.ok(updatedSettings);
     }
 
+    /**
+     * Update the organization's daily email limit. Owners only, capped at
+     * rate-limit.daily-max.
+     */
+    @PutMapping("/daily-email-limit")
+    public ResponseEntity<?> updateDailyEmailLimit(
+            @RequestBody Map<String, Integer> request,
+            Authentication authentication) {
+
+        UUID orgId = getOrgIdFromAuthentication(authentication);
+        User user = getUser(authentication);
+        if (user.getRole() != User.Role.OWNER) {
+            return ResponseEntity.status(403)
+                    .body(Map.of("error", "Only organization owners can change the daily email limit"));
+        }
+
+        Integer dailyEmailLimit = request.get("dailyEmailLimit");
+        if (dailyEmailLimit == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "dailyEmailLimit is required"));
+        }
+
+        try {
+            OrganizationSettingsDto updatedSettings = settingsService.updateDailyEmailLimit(orgId, dailyEmailLimit);
+            log.info("Updated daily email limit for org: {} by user: {}", orgId, authentication.getName());
+            return ResponseEntity.ok(updatedSettings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Update feature flags
      */
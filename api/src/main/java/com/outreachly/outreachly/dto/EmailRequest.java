@@ -19,6 +19,8 @@ public class EmailRequest {
     @NotNull(message = "Recipients are required")
     private List<@Email(message = "Invalid email format") String> recipients;
 
+    // With a templateId, providers that render templates themselves (SES bulk sends)
+    // take subject and content as unrendered {{name}} text and the values from templateData
     private String templateId;
     private Map<String, Object> templateData;
     private boolean html = true;
@@ -20,4 +20,6 @@ public class EmailResponse {
     private List<String> failedRecipients;
     private int totalRecipients;
     private int successfulRecipients;
+    // Bulk sends only: provider message ID per request, in request order (null where it failed)
+    private List<String> messageIds;
 }
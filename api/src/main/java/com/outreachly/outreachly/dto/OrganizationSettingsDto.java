@@ -31,4 +31,8 @@ public class OrganizationSettingsDto {
 
     @JsonProperty("featureFlags")
     private Map<String, Object> featureFlags;
+
+    // Shown to members but only changed by owners through PUT /api/settings/daily-email-limit
+    @JsonProperty(value = "dailyEmailLimit", access = JsonProperty.Access.READ_ONLY)
+    private Integer dailyEmailLimit;
 }
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -55,6 +56,18 @@ public class CampaignCheckpoint {
     @Builder.Default
     private CheckpointStatus status = CheckpointStatus.pending;
 
+    // Lease held by the instance running this checkpoint. Only written through
+    // CampaignCheckpointRepository's lease queries, never by entity saves.
+    @Column(name = "claimed_by", insertable = false, updatable = false)
+    private String claimedBy;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private Instant leaseUntil;
+
+    // Leads taken out of pending by delivery runs, committed after every chunk
+    @Column(name = "leads_processed", insertable = false, updatable = false)
+    private Integer leadsProcessed;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
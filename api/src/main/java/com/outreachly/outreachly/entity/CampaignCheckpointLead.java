@@ -92,6 +92,8 @@ public class CampaignCheckpointLead {
 
     public enum DeliveryStatus {
         pending, // Not yet sent
+        queued, // Published to the delivery queue, waiting for a worker
+        sending, // Claimed by a queue worker, send in progress
         sent, // API call succeeded
         delivered, // Confirmed delivered (same as sent for now)
         failed // API call failed
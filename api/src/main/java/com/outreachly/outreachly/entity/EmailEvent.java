@@ -49,6 +49,10 @@ public class EmailEvent {
     @Column(name = "raw_message", columnDefinition = "TEXT")
     private String rawMessage;
 
+    // SNS notification MessageId, unique; null for events not received over SNS
+    @Column(name = "sns_message_id", unique = true)
+    private String snsMessageId;
+
     @Builder.Default
     @Column(name = "processed", nullable = false)
     private boolean processed = false;
@@ -38,6 +38,10 @@ public class OrganizationSettings {
     @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
     private String featureFlags;
 
+    // Emails each user may send per day; null uses the application default
+    @Column(name = "daily_email_limit")
+    private Integer dailyEmailLimit;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,47 @@
+package com.outreachly.outreachly.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Emails reserved and used by a user in an organization (or with none) on one
+ * day. Only changed through the conditional updates in SendQuotaRepository.
+ */
+@Entity
+@Table(name = "send_quota")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendQuota {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    // Null for users without an organization
+    @Column(name = "org_id")
+    private UUID orgId;
+
+    @Column(name = "quota_date", nullable = false)
+    private LocalDate quotaDate;
+
+    @Column(name = "reserved", nullable = false)
+    private int reserved;
+
+    @Column(name = "used", nullable = false)
+    private int used;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,57 @@
+package com.outreachly.outreachly.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A tracked link in a sent email. Created by ShortLinkService at send time and
+ * resolved by /track/c/{shortCode}.
+ */
+@Entity
+@Table(name = "short_links")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLink {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "short_code", nullable = false, unique = true, length = 10)
+    private String shortCode;
+
+    @Column(name = "original_url", nullable = false, columnDefinition = "TEXT")
+    private String originalUrl;
+
+    @Column(name = "message_id")
+    private String messageId;
+
+    @Column(name = "recipient_email")
+    private String recipientEmail;
+
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "campaign_id")
+    private String campaignId;
+
+    @Column(name = "org_id")
+    private String orgId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Flushed in batches by ShortLinkService, so it trails live clicks by a few seconds
+    @Column(name = "click_count")
+    private Integer clickCount;
+}
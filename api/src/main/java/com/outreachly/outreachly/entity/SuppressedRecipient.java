@@ -0,0 +1,37 @@
+package com.outreachly.outreachly.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recipient that is not emailed until {@code suppressedUntil}.
+ * Written through SuppressedRecipientRepository.suppress, read by SuppressionList.
+ */
+@Entity
+@Table(name = "suppressed_recipients")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuppressedRecipient {
+
+    // Lowercased
+    @Id
+    @Column(name = "email_address")
+    private String emailAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false)
+    private EmailEvent.EmailEventType reason;
+
+    @Column(name = "suppressed_until", nullable = false)
+    private LocalDateTime suppressedUntil;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,12 +1,16 @@
 package com.outreachly.outreachly.repository;
 
 import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +29,63 @@ public interface CampaignCheckpointLeadRepository extends JpaRepository<Campaign
     List<CampaignCheckpointLead> findByCheckpointIdAndStatus(@Param("checkpointId") UUID checkpointId,
             @Param("status") CampaignCheckpointLead.DeliveryStatus status);
 
+    // First chunk of pending leads for a checkpoint, in id order
+    @Query("SELECT ccl FROM CampaignCheckpointLead ccl WHERE ccl.checkpointId = :checkpointId AND ccl.status = 'pending' ORDER BY ccl.id")
+    List<CampaignCheckpointLead> findPendingChunk(@Param("checkpointId") UUID checkpointId, Pageable pageable);
+
+    // Next chunk of pending leads after the last id of the previous chunk
+    @Query("SELECT ccl FROM CampaignCheckpointLead ccl WHERE ccl.checkpointId = :checkpointId AND ccl.status = 'pending' AND ccl.id > :afterId ORDER BY ccl.id")
+    List<CampaignCheckpointLead> findPendingChunkAfter(@Param("checkpointId") UUID checkpointId,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    // Move a checkpoint lead from one status to another, only if it is still in
+    // the expected status (returns 0 when another node already moved it)
+    @Modifying
+    @Transactional
+    @Query("UPDATE CampaignCheckpointLead ccl SET ccl.status = :status, ccl.updatedAt = :now WHERE ccl.id = :id AND ccl.status = :expected")
+    int transitionStatus(@Param("id") UUID id,
+            @Param("expected") CampaignCheckpointLead.DeliveryStatus expected,
+            @Param("status") CampaignCheckpointLead.DeliveryStatus status,
+            @Param("now") LocalDateTime now);
+
+    // Leads of active checkpoints left in a status since before the cutoff, oldest first
+    @Query("SELECT ccl FROM CampaignCheckpointLead ccl JOIN ccl.checkpoint cp WHERE ccl.status = :status AND ccl.updatedAt < :updatedBefore AND cp.status = 'active' ORDER BY ccl.updatedAt")
+    List<CampaignCheckpointLead> findStale(@Param("status") CampaignCheckpointLead.DeliveryStatus status,
+            @Param("updatedBefore") LocalDateTime updatedBefore, Pageable pageable);
+
+    // Leads of active checkpoints left sending since before the cutoff whose checkpoint
+    // no instance holds a live lease on (a run still holding it may be sending them)
+    @Query("SELECT ccl FROM CampaignCheckpointLead ccl JOIN ccl.checkpoint cp WHERE ccl.status = 'sending' AND ccl.updatedAt < :updatedBefore AND cp.status = 'active' AND (cp.leaseUntil IS NULL OR cp.leaseUntil < CURRENT_TIMESTAMP) ORDER BY ccl.updatedAt")
+    List<CampaignCheckpointLead> findInterrupted(@Param("updatedBefore") LocalDateTime updatedBefore,
+            Pageable pageable);
+
+    // Mark a stale lead as just updated, only if it is still in the status and stale
+    // (returns 0 when another node got to it first)
+    @Modifying
+    @Transactional
+    @Query("UPDATE CampaignCheckpointLead ccl SET ccl.updatedAt = :now WHERE ccl.id = :id AND ccl.status = :status AND ccl.updatedAt < :updatedBefore")
+    int touchStale(@Param("id") UUID id,
+            @Param("status") CampaignCheckpointLead.DeliveryStatus status,
+            @Param("updatedBefore") LocalDateTime updatedBefore,
+            @Param("now") LocalDateTime now);
+
+    // Move pending leads to sending in one statement and return the ids that were moved;
+    // leads another run already took are left out
+    @Transactional
+    @Query(value = "UPDATE campaign_checkpoint_leads SET status = 'sending', updated_at = :now " +
+            "WHERE id IN (:ids) AND status = 'pending' RETURNING id", nativeQuery = true)
+    List<UUID> claimPending(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // Like transitionStatus, also recording an error message
+    @Modifying
+    @Transactional
+    @Query("UPDATE CampaignCheckpointLead ccl SET ccl.status = :status, ccl.errorMessage = :errorMessage, ccl.updatedAt = :now WHERE ccl.id = :id AND ccl.status = :expected")
+    int transitionStatus(@Param("id") UUID id,
+            @Param("expected") CampaignCheckpointLead.DeliveryStatus expected,
+            @Param("status") CampaignCheckpointLead.DeliveryStatus status,
+            @Param("errorMessage") String errorMessage,
+            @Param("now") LocalDateTime now);
+
     // Find specific checkpoint lead
     Optional<CampaignCheckpointLead> findByCheckpointIdAndLeadId(UUID checkpointId, UUID leadId);
 
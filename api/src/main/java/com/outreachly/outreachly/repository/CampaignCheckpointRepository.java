@@ -2,12 +2,16 @@ package com.outreachly.outreachly.repository;
 
 import com.outreachly.outreachly.entity.CampaignCheckpoint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +32,10 @@ public interface CampaignCheckpointRepository extends JpaRepository<CampaignChec
         @Query("SELECT cp FROM CampaignCheckpoint cp WHERE cp.scheduledDate = :scheduledDate AND cp.status = 'active' ORDER BY cp.timeOfDay")
         List<CampaignCheckpoint> findActiveCheckpointsForDate(@Param("scheduledDate") LocalDate scheduledDate);
 
+        // Find active checkpoints scheduled on or after a date (for the scheduler's timing wheel)
+        @Query("SELECT cp FROM CampaignCheckpoint cp WHERE cp.scheduledDate >= :fromDate AND cp.status = 'active'")
+        List<CampaignCheckpoint> findActiveCheckpointsFrom(@Param("fromDate") LocalDate fromDate);
+
         // Find checkpoint by ID and verify campaign belongs to organization
         @Query("SELECT cp FROM CampaignCheckpoint cp JOIN cp.campaign c WHERE cp.id = :checkpointId AND c.orgId = :orgId")
         Optional<CampaignCheckpoint> findByIdAndOrgId(@Param("checkpointId") UUID checkpointId,
@@ -56,6 +64,57 @@ public interface CampaignCheckpointRepository extends JpaRepository<CampaignChec
                         @Param("status") CampaignCheckpoint.CheckpointStatus status,
                         @Param("currentTime") LocalTime currentTime);
 
+        // Move a checkpoint to a new status only if it is still in the expected status
+        @Modifying
+        @Transactional
+        @Query("UPDATE CampaignCheckpoint cp SET cp.status = :status, cp.updatedAt = :now WHERE cp.id = :id AND cp.status = :expected")
+        int transitionStatus(@Param("id") UUID id,
+                        @Param("expected") CampaignCheckpoint.CheckpointStatus expected,
+                        @Param("status") CampaignCheckpoint.CheckpointStatus status,
+                        @Param("now") LocalDateTime now);
+
+        // Claim an active checkpoint for an instance unless another instance holds a live lease.
+        // Lease times come from the database clock so instance clocks and zones do not matter.
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE campaign_checkpoints SET claimed_by = :owner, " +
+                        "lease_until = NOW() + make_interval(secs => :leaseSeconds) " +
+                        "WHERE id = :id AND status = 'active' " +
+                        "AND (lease_until IS NULL OR lease_until < NOW() OR claimed_by = :owner)", nativeQuery = true)
+        int claim(@Param("id") UUID id,
+                        @Param("owner") String owner,
+                        @Param("leaseSeconds") long leaseSeconds);
+
+        // Active checkpoints whose lease expired (owner died mid-run). Rows locked by another
+        // instance's recovery pass are skipped so instances split the work.
+        @Query(value = "SELECT id FROM campaign_checkpoints " +
+                        "WHERE status = 'active' AND lease_until IS NOT NULL AND lease_until < NOW() " +
+                        "ORDER BY lease_until LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+        List<UUID> lockExpiredLeases(@Param("limit") int limit);
+
+        // Extend a lease still held by the given instance
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE campaign_checkpoints SET lease_until = NOW() + make_interval(secs => :leaseSeconds) " +
+                        "WHERE id IN (:ids) AND claimed_by = :owner", nativeQuery = true)
+        int renewLeases(@Param("ids") Collection<UUID> ids,
+                        @Param("owner") String owner,
+                        @Param("leaseSeconds") long leaseSeconds);
+
+        // Give up a lease held by the given instance
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE campaign_checkpoints SET claimed_by = NULL, lease_until = NULL " +
+                        "WHERE id = :id AND claimed_by = :owner", nativeQuery = true)
+        int releaseLease(@Param("id") UUID id, @Param("owner") String owner);
+
+        // Commit delivery progress for a checkpoint
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE campaign_checkpoints SET leads_processed = leads_processed + :count " +
+                        "WHERE id = :id", nativeQuery = true)
+        int addLeadsProcessed(@Param("id") UUID id, @Param("count") int count);
+
         // Count checkpoints by status
         long countByStatus(CampaignCheckpoint.CheckpointStatus status);
 }
@@ -1,6 +1,7 @@
 package com.outreachly.outreachly.repository;
 
 import com.outreachly.outreachly.entity.EmailEvent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,6 +37,12 @@ public interface EmailEventRepository extends JpaRepository<EmailEvent, Long> {
         @Query("SELECT COUNT(e) FROM EmailEvent e WHERE e.emailAddress = :emailAddress AND e.eventType = 'COMPLAINT' AND e.timestamp >= :since")
         long countComplaintsSince(@Param("emailAddress") String emailAddress, @Param("since") LocalDateTime since);
 
+        // Bounce times since the given time, newest first; page to pick the n-th most recent.
+        // Matches the address case-insensitively; pass it trimmed and lower-cased
+        @Query("SELECT e.timestamp FROM EmailEvent e WHERE LOWER(TRIM(e.emailAddress)) = :emailAddress AND e.eventType = 'BOUNCE' AND e.timestamp >= :since ORDER BY e.timestamp DESC")
+        List<LocalDateTime> findBounceTimesSince(@Param("emailAddress") String emailAddress,
+                        @Param("since") LocalDateTime since, Pageable pageable);
+
         // Delivery tracking methods
         long countByEventType(EmailEvent.EmailEventType eventType);
 
@@ -68,6 +75,88 @@ public interface EmailEventRepository extends JpaRepository<EmailEvent, Long> {
         long countByUserIdAndOrgIdAndTimestampBetweenAndEventType(String userId, UUID orgId,
                         LocalDateTime start, LocalDateTime end, EmailEvent.EmailEventType eventType);
 
+        // Event counts per time bucket and event type, bucketed in SQL: timestamps
+        // (stored in :storedZone's clock) are shifted to :zone and truncated to
+        // :unit ('hour', 'day' or 'week'). Filters apply only when their flag is set,
+        // so no parameter is ever bound as null.
+        String EVENT_BUCKETS_SQL = "SELECT date_trunc(:unit, timestamp AT TIME ZONE :storedZone AT TIME ZONE :zone) AS bucket, " +
+                        "event_type AS \"eventType\", COUNT(*) AS count FROM email_events " +
+                        "WHERE timestamp >= :start AND timestamp < :end " +
+                        "AND (:byUser = FALSE OR user_id = :userId) " +
+                        "AND (:byCampaign = FALSE OR campaign_id = :campaignId) " +
+                        "GROUP BY 1, 2 ORDER BY 1";
+
+        // Same buckets from the hourly rollups; exact when :zone and :storedZone differ by whole hours
+        String ROLLUP_BUCKETS_SQL = "SELECT date_trunc(:unit, bucket_start AT TIME ZONE :storedZone AT TIME ZONE :zone) AS bucket, " +
+                        "event_type AS \"eventType\", CAST(SUM(event_count) AS BIGINT) AS count FROM email_event_rollups " +
+                        "WHERE bucket_start >= :start AND bucket_start < :end " +
+                        "AND (:byUser = FALSE OR user_id = :userId) " +
+                        "AND (:byCampaign = FALSE OR campaign_id = :campaignId) " +
+                        "GROUP BY 1, 2 ORDER BY 1";
+
+        @Query(value = EVENT_BUCKETS_SQL, nativeQuery = true)
+        List<EventBucketCount> countEventsByBucket(@Param("unit") String unit,
+                        @Param("storedZone") String storedZone,
+                        @Param("zone") String zone,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        @Param("byUser") boolean byUser,
+                        @Param("userId") String userId,
+                        @Param("byCampaign") boolean byCampaign,
+                        @Param("campaignId") UUID campaignId);
+
+        @Query(value = ROLLUP_BUCKETS_SQL, nativeQuery = true)
+        List<EventBucketCount> sumRollupsByBucket(@Param("unit") String unit,
+                        @Param("storedZone") String storedZone,
+                        @Param("zone") String zone,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        @Param("byUser") boolean byUser,
+                        @Param("userId") String userId,
+                        @Param("byCampaign") boolean byCampaign,
+                        @Param("campaignId") UUID campaignId);
+
+        // Rollup totals (email_event_rollups, kept in step with email_events by triggers)
+        // Rows are [event_type, count]
+        @Query(value = "SELECT event_type, SUM(event_count) FROM email_event_rollups GROUP BY event_type", nativeQuery = true)
+        List<Object[]> sumByEventType();
+
+        @Query(value = "SELECT event_type, SUM(event_count) FROM email_event_rollups WHERE user_id = :userId " +
+                        "GROUP BY event_type", nativeQuery = true)
+        List<Object[]> sumByEventTypeForUser(@Param("userId") String userId);
+
+        @Query(value = "SELECT event_type, SUM(event_count) FROM email_event_rollups WHERE campaign_id = :campaignId " +
+                        "GROUP BY event_type", nativeQuery = true)
+        List<Object[]> sumByEventTypeForCampaign(@Param("campaignId") UUID campaignId);
+
+        // One row: deliveries since :dayStart, :weekStart and :monthStart, up to :end
+        @Query(value = "SELECT COALESCE(SUM(event_count) FILTER (WHERE bucket_start >= :dayStart), 0), " +
+                        "COALESCE(SUM(event_count) FILTER (WHERE bucket_start >= :weekStart), 0), " +
+                        "COALESCE(SUM(event_count), 0) FROM email_event_rollups " +
+                        "WHERE org_id = :orgId AND user_id = :userId AND event_type = 'DELIVERY' " +
+                        "AND bucket_start >= :monthStart AND bucket_start < :end", nativeQuery = true)
+        List<Object[]> sumDeliveriesSince(@Param("orgId") UUID orgId, @Param("userId") String userId,
+                        @Param("dayStart") LocalDateTime dayStart, @Param("weekStart") LocalDateTime weekStart,
+                        @Param("monthStart") LocalDateTime monthStart, @Param("end") LocalDateTime end);
+
+        // Deliveries per user and organization in a time range (seeds the in-memory quota counters)
+        @Query("SELECT e.userId, e.orgId, COUNT(e) FROM EmailEvent e WHERE e.eventType = 'DELIVERY' " +
+                        "AND e.userId IS NOT NULL AND e.timestamp >= :start AND e.timestamp < :end " +
+                        "GROUP BY e.userId, e.orgId")
+        List<Object[]> countDeliveriesByUserAndOrg(@Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
         // User-specific methods
         List<EmailEvent> findByUserIdAndOrgIdOrderByTimestampDesc(String userId, UUID orgId);
+
+        /**
+         * Events of one type in one time bucket; the bucket is in the requested zone
+         */
+        interface EventBucketCount {
+                LocalDateTime getBucket();
+
+                String getEventType();
+
+                long getCount();
+        }
 }
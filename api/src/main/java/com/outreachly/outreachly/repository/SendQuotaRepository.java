@@ -0,0 +1,146 @@
+package com.outreachly.outreachly.repository;
+
+import com.outreachly.outreachly.entity.SendQuota;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Quota rows are keyed by user, org and day. Users without an organization
+ * have a null org_id; queries take an org key instead, which is the nil UUID
+ * for them, so no null is ever bound.
+ */
+@Repository
+public interface SendQuotaRepository extends JpaRepository<SendQuota, UUID> {
+
+        String NIL_UUID = "CAST('00000000-0000-0000-0000-000000000000' AS uuid)";
+        String QUOTA_ROW = "user_id = :userId AND COALESCE(org_id, " + NIL_UUID + ") = :orgKey " +
+                        "AND quota_date = :quotaDate";
+
+        // Create the day's quota row if it does not exist yet
+        @Modifying
+        @Transactional
+        @Query(value = "INSERT INTO send_quota (user_id, org_id, quota_date) " +
+                        "VALUES (:userId, NULLIF(:orgKey, " + NIL_UUID + "), :quotaDate) " +
+                        "ON CONFLICT (user_id, (COALESCE(org_id, " + NIL_UUID + ")), quota_date) DO NOTHING",
+                        nativeQuery = true)
+        int createIfAbsent(@Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate);
+
+        // Quota left under the limit: what reserve() would still grant. Used (or
+        // delivered, whichever is higher) plus reserved, with no row counting as zero.
+        @Query(value = "SELECT GREATEST(:dailyLimit - GREATEST(COALESCE(MAX(used), 0), :delivered) " +
+                        "- COALESCE(MAX(reserved), 0), 0) FROM send_quota WHERE " + QUOTA_ROW, nativeQuery = true)
+        long remaining(@Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate,
+                        @Param("delivered") long delivered,
+                        @Param("dailyLimit") int dailyLimit);
+
+        // Reserve emails only if used (or delivered, whichever is higher) plus
+        // reserved stays within the limit, and record the reservation with its
+        // owner and expiry. Returns 0 when the quota is exhausted.
+        @Modifying
+        @Transactional
+        @Query(value = "WITH quota AS (UPDATE send_quota SET reserved = reserved + :count, updated_at = NOW() " +
+                        "WHERE " + QUOTA_ROW + " " +
+                        "AND GREATEST(used, :delivered) + reserved + :count <= :dailyLimit RETURNING id) " +
+                        "INSERT INTO send_quota_reservations (id, user_id, org_id, quota_date, owner, remaining, " +
+                        "expires_at) SELECT :id, :userId, NULLIF(:orgKey, " + NIL_UUID + "), :quotaDate, :owner, " +
+                        ":count, NOW() + make_interval(secs => :ttlSeconds) FROM quota", nativeQuery = true)
+        int reserve(@Param("id") UUID id,
+                        @Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate,
+                        @Param("owner") String owner,
+                        @Param("count") int count,
+                        @Param("delivered") long delivered,
+                        @Param("dailyLimit") int dailyLimit,
+                        @Param("ttlSeconds") long ttlSeconds);
+
+        // Take up to :count from a reservation, then add the sent emails to used and
+        // drop what the reservation still held from reserved. A reservation that was
+        // already reclaimed takes nothing, but the sent emails still count as used.
+        @Modifying
+        @Transactional
+        @Query(value = "WITH taken AS (SELECT id, LEAST(remaining, :count) AS amount " +
+                        "FROM send_quota_reservations WHERE id = :id FOR UPDATE), " +
+                        "settled AS (UPDATE send_quota_reservations r SET remaining = r.remaining - taken.amount " +
+                        "FROM taken WHERE r.id = taken.id) " +
+                        "UPDATE send_quota SET " +
+                        "reserved = GREATEST(reserved - COALESCE((SELECT amount FROM taken), 0), 0), " +
+                        "used = used + :count, updated_at = NOW() WHERE " + QUOTA_ROW, nativeQuery = true)
+        int commit(@Param("id") UUID id,
+                        @Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate,
+                        @Param("count") int count);
+
+        // Give back reserved emails that were not sent
+        @Modifying
+        @Transactional
+        @Query(value = "WITH taken AS (SELECT id, LEAST(remaining, :count) AS amount " +
+                        "FROM send_quota_reservations WHERE id = :id FOR UPDATE), " +
+                        "settled AS (UPDATE send_quota_reservations r SET remaining = r.remaining - taken.amount " +
+                        "FROM taken WHERE r.id = taken.id) " +
+                        "UPDATE send_quota SET reserved = GREATEST(reserved - taken.amount, 0), updated_at = NOW() " +
+                        "FROM taken WHERE " + QUOTA_ROW, nativeQuery = true)
+        int release(@Param("id") UUID id,
+                        @Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate,
+                        @Param("count") int count);
+
+        // Give back emails counted as used that were not sent after all
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE send_quota SET used = GREATEST(used - :count, 0), updated_at = NOW() " +
+                        "WHERE " + QUOTA_ROW, nativeQuery = true)
+        int refund(@Param("userId") String userId,
+                        @Param("orgKey") UUID orgKey,
+                        @Param("quotaDate") LocalDate quotaDate,
+                        @Param("count") int count);
+
+        // Keep a reservation alive while its run makes progress
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE send_quota_reservations SET expires_at = NOW() + make_interval(secs => :ttlSeconds) " +
+                        "WHERE id = :id", nativeQuery = true)
+        int renew(@Param("id") UUID id, @Param("ttlSeconds") long ttlSeconds);
+
+        // Drop settled and expired reservations, giving back whatever they still held
+        @Modifying
+        @Transactional
+        @Query(value = "WITH dropped AS (DELETE FROM send_quota_reservations " +
+                        "WHERE remaining = 0 OR expires_at < NOW() " +
+                        "RETURNING user_id, COALESCE(org_id, " + NIL_UUID + ") AS org_key, quota_date, remaining), " +
+                        "totals AS (SELECT user_id, org_key, quota_date, SUM(remaining) AS remaining FROM dropped " +
+                        "GROUP BY user_id, org_key, quota_date HAVING SUM(remaining) > 0) " +
+                        "UPDATE send_quota q SET reserved = GREATEST(q.reserved - t.remaining, 0), " +
+                        "updated_at = NOW() " +
+                        "FROM totals t WHERE q.user_id = t.user_id " +
+                        "AND COALESCE(q.org_id, " + NIL_UUID + ") = t.org_key AND q.quota_date = t.quota_date",
+                        nativeQuery = true)
+        int reclaimExpired();
+
+        // Give back every reservation of an owner whose run is gone
+        @Modifying
+        @Transactional
+        @Query(value = "WITH dropped AS (DELETE FROM send_quota_reservations WHERE owner = :owner " +
+                        "RETURNING user_id, COALESCE(org_id, " + NIL_UUID + ") AS org_key, quota_date, remaining), " +
+                        "totals AS (SELECT user_id, org_key, quota_date, SUM(remaining) AS remaining FROM dropped " +
+                        "GROUP BY user_id, org_key, quota_date HAVING SUM(remaining) > 0) " +
+                        "UPDATE send_quota q SET reserved = GREATEST(q.reserved - t.remaining, 0), " +
+                        "updated_at = NOW() " +
+                        "FROM totals t WHERE q.user_id = t.user_id " +
+                        "AND COALESCE(q.org_id, " + NIL_UUID + ") = t.org_key AND q.quota_date = t.quota_date",
+                        nativeQuery = true)
+        int releaseOwnedBy(@Param("owner") String owner);
+}
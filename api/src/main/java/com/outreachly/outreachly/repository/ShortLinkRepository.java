@@ -0,0 +1,13 @@
+package com.outreachly.outreachly.repository;
+
+import com.outreachly.outreachly.entity.ShortLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ShortLinkRepository extends JpaRepository<ShortLink, Long> {
+
+    Optional<ShortLink> findByShortCode(String shortCode);
+}
@@ -0,0 +1,42 @@
+package com.outreachly.outreachly.repository;
+
+import com.outreachly.outreachly.entity.SuppressedRecipient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SuppressedRecipientRepository extends JpaRepository<SuppressedRecipient, String> {
+
+        // Suppress a recipient until the given time, never shortening an existing suppression
+        @Modifying
+        @Transactional
+        @Query(value = "INSERT INTO suppressed_recipients (email_address, reason, suppressed_until, updated_at) " +
+                        "VALUES (:emailAddress, :reason, :until, NOW()) " +
+                        "ON CONFLICT (email_address) DO UPDATE SET " +
+                        "reason = CASE WHEN EXCLUDED.suppressed_until > suppressed_recipients.suppressed_until " +
+                        "THEN EXCLUDED.reason ELSE suppressed_recipients.reason END, " +
+                        "suppressed_until = GREATEST(suppressed_recipients.suppressed_until, EXCLUDED.suppressed_until), " +
+                        "updated_at = NOW()", nativeQuery = true)
+        int suppress(@Param("emailAddress") String emailAddress,
+                        @Param("reason") String reason,
+                        @Param("until") LocalDateTime until);
+
+        @Query("SELECT s FROM SuppressedRecipient s WHERE s.suppressedUntil > :now")
+        List<SuppressedRecipient> findActive(@Param("now") LocalDateTime now);
+
+        @Query("SELECT s FROM SuppressedRecipient s WHERE s.updatedAt >= :since AND s.suppressedUntil > :now")
+        List<SuppressedRecipient> findActiveUpdatedSince(@Param("since") LocalDateTime since,
+                        @Param("now") LocalDateTime now);
+
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM SuppressedRecipient s WHERE s.suppressedUntil <= :now")
+        int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -9,8 +9,10 @@ import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
 import com.outreachly.outreachly.repository.LeadRepository;
 import com.outreachly.outreachly.repository.CampaignLeadRepository;
 import com.outreachly.outreachly.entity.Template;
+import com.outreachly.outreachly.service.scheduling.CheckpointChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +36,7 @@ public class CampaignCheckpointService {
     private final LeadRepository leadRepository;
     private final TemplateService templateService;
     private final CampaignLeadRepository campaignLeadRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new campaign checkpoint
@@ -72,6 +75,7 @@ public class CampaignCheckpointService {
 
         CampaignCheckpoint savedCheckpoint = checkpointRepository.save(checkpoint);
         log.info("Created checkpoint with ID: {}", savedCheckpoint.getId());
+        eventPublisher.publishEvent(new CheckpointChangedEvent(savedCheckpoint.getId()));
 
         // Add leads to the checkpoint if provided
         if (leadIds != null && !leadIds.isEmpty()) {
@@ -139,6 +143,7 @@ public class CampaignCheckpointService {
 
         CampaignCheckpoint updatedCheckpoint = checkpointRepository.save(checkpoint);
         log.info("Updated checkpoint {}", checkpointId);
+        eventPublisher.publishEvent(new CheckpointChangedEvent(checkpointId));
 
         return updatedCheckpoint;
     }
@@ -154,6 +159,7 @@ public class CampaignCheckpointService {
 
         checkpointRepository.delete(checkpoint);
         log.info("Deleted checkpoint {}", checkpointId);
+        eventPublisher.publishEvent(new CheckpointChangedEvent(checkpointId));
     }
 
     /**
@@ -196,12 +196,17 @@ public class CampaignService {
         long totalLeads = campaignLeadRepository.countByCampaignIdAndStatus(
                 campaignId, CampaignLead.CampaignLeadStatus.active);
 
-        // Get real email tracking stats from email events
+        // Get real email tracking stats from the email event rollups
         // Use same logic as rate limiter: count DELIVERY events only (successful sends)
-        long emailsDelivered = emailEventRepository.countByEventTypeAndCampaignId(
-                EmailEvent.EmailEventType.DELIVERY, campaignId);
-        long emailsFailed = emailEventRepository.countByEventTypeAndCampaignId(
-                EmailEvent.EmailEventType.REJECT, campaignId);
+        long emailsDelivered = 0;
+        long emailsFailed = 0;
+        for (Object[] row : emailEventRepository.sumByEventTypeForCampaign(campaignId)) {
+            if (EmailEvent.EmailEventType.DELIVERY.name().equals(row[0])) {
+                emailsDelivered = ((Number) row[1]).longValue();
+            } else if (EmailEvent.EmailEventType.REJECT.name().equals(row[0])) {
+                emailsFailed = ((Number) row[1]).longValue();
+            }
+        }
 
         // Total emails sent = only successful deliveries (like rate limiter)
         long emailsSent = emailsDelivered;
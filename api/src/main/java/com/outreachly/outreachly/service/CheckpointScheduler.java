@@ -9,28 +9,71 @@ import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
 import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
 import com.outreachly.outreachly.repository.CampaignRepository;
 import com.outreachly.outreachly.repository.UserRepository;
+import com.outreachly.outreachly.service.delivery.CheckpointDeliveryPublisher;
+import com.outreachly.outreachly.service.scheduling.CheckpointChangedEvent;
+import com.outreachly.outreachly.service.scheduling.CheckpointLeaseService;
+import com.outreachly.outreachly.service.scheduling.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Scheduler service for processing campaign checkpoints.
- * Runs every 5 minutes to check for ready-to-execute checkpoints.
- * 
- * TODO: Upgrade to Redis/RabbitMQ for better scalability and reliability
+ * Active checkpoints are kept in an in-memory hierarchical timing wheel with
+ * their due time precomputed in UTC from the campaign creator's timezone, and
+ * each one fires at its due second. CampaignCheckpointService publishes a
+ * CheckpointChangedEvent on every change so the wheel stays in sync; a
+ * periodic reconcile against the database catches anything else.
+ *
+ * Every instance keeps its own wheel; CheckpointLeaseService makes sure only
+ * one instance executes a given checkpoint and that checkpoints abandoned by a
+ * dead instance are picked up again.
+ *
+ * The tick only collects due checkpoints; they run on a separate pool of
+ * {@code checkpoint.scheduler.max-concurrent-runs} threads, so a long
+ * checkpoint does not hold up the wheel or other scheduled jobs.
+ *
+ * When delivery.queue.enabled is set, leads are published to the RabbitMQ
+ * delivery queue and sent by CheckpointDeliveryWorker on any replica. Leads
+ * that sit in the queue statuses for longer than a lease are recovered along
+ * with abandoned checkpoints.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CheckpointScheduler {
 
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 60;
+    private static final int WHEEL_LEVELS = 4; // seconds, minutes, hours, ~2.5 day buckets
+
     private final CampaignCheckpointRepository checkpointRepository;
     private final CampaignCheckpointLeadRepository checkpointLeadRepository;
     private final CampaignRepository campaignRepository;
@@ -38,130 +81,344 @@ public class CheckpointScheduler {
     private final TimeService timeService;
     private final EmailDeliveryService emailDeliveryService;
     private final ActivityFeedService activityFeedService;
+    private final CheckpointLeaseService leaseService;
+    private final RateLimitService rateLimitService;
+    private final ObjectProvider<CheckpointDeliveryPublisher> deliveryPublisherProvider;
+
+    private final HierarchicalTimingWheel<UUID> timingWheel = new HierarchicalTimingWheel<>(
+            TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+
+    @Value("${checkpoint.scheduler.missed-grace-minutes:5}")
+    private long missedGraceMinutes;
+
+    @Value("${checkpoint.scheduler.recovery-batch-size:10}")
+    private int recoveryBatchSize;
+
+    @Value("${checkpoint.scheduler.max-concurrent-runs:4}")
+    private int maxConcurrentRuns;
+
+    // Queued leads untouched for a lease are taken to have lost their message, sending leads their result
+    @Value("${checkpoint.scheduler.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${delivery.queue.recovery-batch-size:500}")
+    private int queueRecoveryBatchSize;
+
+    // Checkpoints queued or running on this instance, so a checkpoint is never handed over twice
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor runExecutor;
+    private volatile LocalDateTime lastReconcileTime;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        runExecutor = new ThreadPoolExecutor(maxConcurrentRuns, maxConcurrentRuns, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "checkpoint-run-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        runExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    /**
+     * Load the timing wheel once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSchedule() {
+        reconcile();
+    }
 
     /**
-     * Process all ready checkpoints every minute
+     * Hand every checkpoint whose due time has been reached to the run pool
      */
-    @Scheduled(fixedRate = 60000)
-    @Transactional
-    public void processReadyCheckpoints() {
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        List<UUID> dueCheckpoints = timingWheel.advanceTo(System.currentTimeMillis());
+        for (UUID checkpointId : dueCheckpoints) {
+            dispatch(checkpointId, () -> executeCheckpoint(checkpointId));
+        }
+    }
+
+    /**
+     * Rebuild the timing wheel from the database. Catches changes that did not
+     * go through CampaignCheckpointService, such as creator timezone changes.
+     */
+    @Scheduled(initialDelayString = "${checkpoint.scheduler.reconcile-ms:900000}", fixedDelayString = "${checkpoint.scheduler.reconcile-ms:900000}")
+    public void reconcile() {
         try {
-            LocalDateTime nowUtc = timeService.nowUtc();
-            LocalDate today = nowUtc.toLocalDate();
+            // One day back so creators ahead of UTC are still covered
+            LocalDate fromDate = timeService.nowUtc().toLocalDate().minusDays(1);
+            List<CampaignCheckpoint> activeCheckpoints = checkpointRepository.findActiveCheckpointsFrom(fromDate);
+            Map<UUID, String> creatorTimezones = resolveCreatorTimezones(activeCheckpoints);
 
-            // Find all active checkpoints for today
-            List<CampaignCheckpoint> activeCheckpoints = checkpointRepository
-                    .findActiveCheckpointsForDate(today);
+            Set<UUID> scheduled = new HashSet<>();
+            for (CampaignCheckpoint checkpoint : activeCheckpoints) {
+                if (scheduleCheckpoint(checkpoint, creatorTimezones.get(checkpoint.getCampaignId()))) {
+                    scheduled.add(checkpoint.getId());
+                }
+            }
 
-            if (activeCheckpoints.isEmpty()) {
+            // Drop anything that is no longer active
+            for (UUID checkpointId : timingWheel.keys()) {
+                if (!scheduled.contains(checkpointId)) {
+                    timingWheel.cancel(checkpointId);
+                }
+            }
+
+            lastReconcileTime = timeService.nowUtc();
+            log.info("Checkpoint schedule reconciled: {} checkpoints scheduled", scheduled.size());
+        } catch (Exception e) {
+            log.error("Error reconciling checkpoint schedule", e);
+        }
+    }
+
+    /**
+     * Reschedule or drop a checkpoint after it was changed through CampaignCheckpointService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckpointChanged(CheckpointChangedEvent event) {
+        try {
+            CampaignCheckpoint checkpoint = checkpointRepository.findById(event.checkpointId()).orElse(null);
+            if (checkpoint == null || checkpoint.getStatus() != CampaignCheckpoint.CheckpointStatus.active) {
+                if (timingWheel.cancel(event.checkpointId())) {
+                    log.debug("Unscheduled checkpoint {}", event.checkpointId());
+                }
                 return;
             }
 
-            log.info("Processing {} active checkpoints for {}", activeCheckpoints.size(), today);
+            scheduleCheckpoint(checkpoint, resolveCreatorTimezone(checkpoint));
+        } catch (Exception e) {
+            log.error("Failed to reschedule checkpoint: {}", event.checkpointId(), e);
+        }
+    }
 
-            // Process each checkpoint with timezone awareness
-            int successCount = 0;
-            int failureCount = 0;
+    /**
+     * Put a checkpoint on the wheel at its due time. Checkpoints that are due
+     * now (or missed by less than the grace period) fire on the next tick.
+     */
+    private boolean scheduleCheckpoint(CampaignCheckpoint checkpoint, String creatorTimezone) {
+        if (creatorTimezone == null) {
+            log.warn("Campaign creator or timezone not found for checkpoint: {}", checkpoint.getId());
+            timingWheel.cancel(checkpoint.getId());
+            return false;
+        }
 
-            for (CampaignCheckpoint checkpoint : activeCheckpoints) {
-                try {
-                    // Check if this checkpoint should execute now based on timezone
-                    // AND hasn't already been executed today
-                    if (shouldExecuteCheckpoint(checkpoint, nowUtc) && !hasBeenExecutedToday(checkpoint)) {
-                        log.info("Executing checkpoint: {} at {}", checkpoint.getName(), nowUtc);
+        long dueMillis = dueInstant(checkpoint, creatorTimezone).toEpochMilli();
+        long nowMillis = System.currentTimeMillis();
 
-                        // Send emails for this checkpoint
-                        emailDeliveryService.sendCheckpointEmails(checkpoint);
+        if (dueMillis < nowMillis - TimeUnit.MINUTES.toMillis(missedGraceMinutes)) {
+            log.debug("Checkpoint {} missed its window, not scheduling", checkpoint.getName());
+            timingWheel.cancel(checkpoint.getId());
+            return false;
+        }
 
-                        // Mark as executed today to prevent duplicate runs
-                        markAsExecutedToday(checkpoint);
+        timingWheel.schedule(checkpoint.getId(), Math.max(dueMillis, nowMillis + TICK_MILLIS));
+        log.debug("Scheduled checkpoint {} for {} UTC", checkpoint.getName(), Instant.ofEpochMilli(dueMillis));
+        return true;
+    }
 
-                        // Determine checkpoint status based on results
-                        updateCheckpointStatus(checkpoint);
+    /**
+     * Due time of a checkpoint: its scheduled date and time of day in the creator's timezone
+     */
+    private Instant dueInstant(CampaignCheckpoint checkpoint, String creatorTimezone) {
+        ZoneOffset userTimezone = ZoneOffset.of(timeService.getTimezoneOffset(creatorTimezone));
+        return LocalDateTime.of(checkpoint.getScheduledDate(), checkpoint.getTimeOfDay().withSecond(0).withNano(0))
+                .atOffset(userTimezone)
+                .toInstant();
+    }
 
-                        successCount++;
-                    } else if (shouldExecuteCheckpoint(checkpoint, nowUtc)) {
-                        log.debug("Checkpoint {} already executed today, skipping", checkpoint.getName());
-                    }
+    /**
+     * Look up creator timezones for many checkpoints with one campaign and one user query
+     */
+    private Map<UUID, String> resolveCreatorTimezones(List<CampaignCheckpoint> checkpoints) {
+        Set<UUID> campaignIds = checkpoints.stream()
+                .map(CampaignCheckpoint::getCampaignId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Long> creatorByCampaign = new HashMap<>();
+        for (Campaign campaign : campaignRepository.findAllById(campaignIds)) {
+            if (campaign.getCreatedBy() != null) {
+                creatorByCampaign.put(campaign.getId(), campaign.getCreatedBy());
+            }
+        }
 
-                } catch (Exception e) {
-                    failureCount++;
-                    log.error("Failed to process checkpoint: {} (ID: {})",
-                            checkpoint.getName(), checkpoint.getId(), e);
-
-                    // Mark checkpoint as paused on failure
-                    checkpoint.setStatus(CampaignCheckpoint.CheckpointStatus.paused);
-                    checkpoint.setUpdatedAt(LocalDateTime.now());
-                    checkpointRepository.save(checkpoint);
-                }
+        Map<Long, String> timezoneByUser = new HashMap<>();
+        for (User user : userRepository.findAllById(new HashSet<>(creatorByCampaign.values()))) {
+            if (user.getTimezone() != null) {
+                timezoneByUser.put(user.getId(), user.getTimezone());
             }
+        }
 
-            if (successCount > 0 || failureCount > 0) {
-                log.info("Checkpoint processing completed. Success: {}, Failures: {}", successCount, failureCount);
+        Map<UUID, String> timezones = new HashMap<>();
+        creatorByCampaign.forEach((campaignId, userId) -> {
+            String timezone = timezoneByUser.get(userId);
+            if (timezone != null) {
+                timezones.put(campaignId, timezone);
             }
+        });
+        return timezones;
+    }
 
-        } catch (Exception e) {
-            log.error("Error in checkpoint scheduler", e);
-        }
+    private String resolveCreatorTimezone(CampaignCheckpoint checkpoint) {
+        return resolveCreatorTimezones(List.of(checkpoint)).get(checkpoint.getCampaignId());
     }
 
     /**
-     * Check if a checkpoint should execute now based on timezone
+     * Pick up active checkpoints whose lease expired because the instance
+     * running them went away, give back the send quota such runs left
+     * reserved, recover queued leads whose message was lost and fail leads
+     * whose send was interrupted
      */
-    private boolean shouldExecuteCheckpoint(CampaignCheckpoint checkpoint, LocalDateTime nowUtc) {
+    @Scheduled(initialDelayString = "${checkpoint.scheduler.recovery-ms:60000}", fixedDelayString = "${checkpoint.scheduler.recovery-ms:60000}")
+    public void recoverAbandonedCheckpoints() {
         try {
-            // Get campaign creator's timezone
-            Campaign campaign = campaignRepository.findById(checkpoint.getCampaignId()).orElse(null);
-            if (campaign == null) {
-                log.warn("Campaign not found for checkpoint: {}", checkpoint.getId());
-                return false;
+            List<UUID> recovered = leaseService.claimExpired(recoveryBatchSize);
+            for (UUID checkpointId : recovered) {
+                log.info("Recovering checkpoint {} abandoned by another instance", checkpointId);
+                // The lease is already ours and is renewed while the run waits in the pool
+                if (!dispatch(checkpointId, () -> runClaimedCheckpoint(checkpointId))) {
+                    leaseService.release(checkpointId);
+                }
             }
+        } catch (Exception e) {
+            log.error("Error recovering abandoned checkpoints", e);
+        }
 
-            User campaignCreator = userRepository.findById(campaign.getCreatedBy()).orElse(null);
-            if (campaignCreator == null || campaignCreator.getTimezone() == null) {
-                log.warn("Campaign creator or timezone not found for checkpoint: {}", checkpoint.getId());
-                return false;
+        try {
+            rateLimitService.reclaimExpiredReservations();
+        } catch (Exception e) {
+            log.error("Error reclaiming expired quota reservations", e);
+        }
+
+        Duration staleAfter = Duration.ofSeconds(leaseSeconds);
+        CheckpointDeliveryPublisher deliveryPublisher = deliveryPublisherProvider.getIfAvailable();
+        if (deliveryPublisher != null) {
+            try {
+                // Leads left queued: never published, dead-lettered, or their worker died before claiming them
+                deliveryPublisher.republishStale(staleAfter, queueRecoveryBatchSize);
+            } catch (Exception e) {
+                log.error("Error republishing queued checkpoint leads", e);
             }
+        }
+
+        try {
+            failInterruptedLeads(staleAfter);
+        } catch (Exception e) {
+            log.error("Error failing interrupted checkpoint leads", e);
+        }
+    }
 
-            // Parse user's timezone and get current time in user's timezone
-            LocalDateTime nowInUserTz = timeService.nowInTimezone(campaignCreator.getTimezone());
+    /**
+     * Fail leads left sending (a run or worker died mid-send, or could not
+     * save the result), then settle their checkpoints, which no run will do
+     * anymore
+     */
+    private void failInterruptedLeads(Duration staleAfter) {
+        for (UUID checkpointId : emailDeliveryService.failInterrupted(staleAfter, queueRecoveryBatchSize)) {
+            checkpointRepository.findById(checkpointId)
+                    .filter(checkpoint -> checkpoint.getStatus() == CampaignCheckpoint.CheckpointStatus.active)
+                    .ifPresent(this::updateCheckpointStatus);
+        }
+    }
+
+    /**
+     * Queue a checkpoint run unless this instance already has one queued or
+     * running for it. Returns whether the run was queued.
+     */
+    private boolean dispatch(UUID checkpointId, Runnable run) {
+        if (!inFlight.add(checkpointId)) {
+            log.debug("Checkpoint {} is already running on this instance", checkpointId);
+            return false;
+        }
+        try {
+            runExecutor.execute(() -> {
+                try {
+                    run.run();
+                } catch (Exception e) {
+                    log.error("Checkpoint run failed: {}", checkpointId, e);
+                } finally {
+                    inFlight.remove(checkpointId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the checkpoint is picked up again by recovery or the next reconcile
+            inFlight.remove(checkpointId);
+            log.warn("Checkpoint {} not started: {}", checkpointId, e.getMessage());
+            return false;
+        }
+    }
 
-            // Convert checkpoint time to UTC
-            LocalDateTime checkpointTimeInUserTz = nowInUserTz
-                    .withHour(checkpoint.getTimeOfDay().getHour())
-                    .withMinute(checkpoint.getTimeOfDay().getMinute())
-                    .withSecond(0)
-                    .withNano(0);
+    /**
+     * Run a checkpoint that came due on the wheel, unless another instance
+     * already claimed it
+     */
+    private void executeCheckpoint(UUID checkpointId) {
+        if (!leaseService.tryClaim(checkpointId)) {
+            log.debug("Checkpoint {} is inactive or claimed by another instance, skipping", checkpointId);
+            return;
+        }
+        runClaimedCheckpoint(checkpointId);
+    }
 
-            // Convert to UTC for comparison
-            ZoneOffset userTimezone = ZoneOffset.of(timeService.getTimezoneOffset(campaignCreator.getTimezone()));
-            LocalDateTime checkpointTimeInUtc = checkpointTimeInUserTz.atOffset(userTimezone).toInstant()
-                    .atOffset(ZoneOffset.UTC).toLocalDateTime();
+    private void runClaimedCheckpoint(UUID checkpointId) {
+        try {
+            runCheckpoint(checkpointId);
+        } finally {
+            leaseService.release(checkpointId);
+        }
+    }
 
-            // Check if current UTC time is within 5 minutes of checkpoint time
-            LocalDateTime fiveMinutesAgo = nowUtc.minusMinutes(5);
-            LocalDateTime fiveMinutesFromNow = nowUtc.plusMinutes(5);
+    private void runCheckpoint(UUID checkpointId) {
+        CampaignCheckpoint checkpoint = checkpointRepository.findById(checkpointId).orElse(null);
+        if (checkpoint == null || checkpoint.getStatus() != CampaignCheckpoint.CheckpointStatus.active) {
+            log.debug("Checkpoint {} no longer active, skipping", checkpointId);
+            return;
+        }
 
-            boolean shouldExecute = checkpointTimeInUtc.isAfter(fiveMinutesAgo) &&
-                    checkpointTimeInUtc.isBefore(fiveMinutesFromNow);
+        try {
+            log.info("Executing checkpoint: {} at {}", checkpoint.getName(), timeService.nowUtc());
 
-            if (shouldExecute) {
-                log.debug("Checkpoint {} ready for execution. User time: {}, UTC time: {}",
-                        checkpoint.getName(), checkpointTimeInUserTz, checkpointTimeInUtc);
-            }
+            // Send emails for this checkpoint
+            emailDeliveryService.sendCheckpointEmails(checkpoint);
 
-            return shouldExecute;
+            // Determine checkpoint status based on results
+            updateCheckpointStatus(checkpoint);
 
         } catch (Exception e) {
-            log.error("Error checking checkpoint execution time for: {}", checkpoint.getId(), e);
-            return false;
+            log.error("Failed to process checkpoint: {} (ID: {})",
+                    checkpoint.getName(), checkpoint.getId(), e);
+
+            // Mark checkpoint as paused on failure
+            checkpoint.setStatus(CampaignCheckpoint.CheckpointStatus.paused);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
         }
     }
 
     /**
-     * Update checkpoint status based on email delivery results
+     * Update checkpoint status based on email delivery results.
+     * Does nothing while leads are still pending, queued or sending, and only
+     * the caller that moves the checkpoint out of active records the completion activity.
      */
-    private void updateCheckpointStatus(CampaignCheckpoint checkpoint) {
+    public void updateCheckpointStatus(CampaignCheckpoint checkpoint) {
+        long inFlightLeads = checkpointLeadRepository.countByCheckpointIdAndStatus(
+                checkpoint.getId(), CampaignCheckpointLead.DeliveryStatus.pending)
+                + checkpointLeadRepository.countByCheckpointIdAndStatus(
+                        checkpoint.getId(), CampaignCheckpointLead.DeliveryStatus.queued)
+                + checkpointLeadRepository.countByCheckpointIdAndStatus(
+                        checkpoint.getId(), CampaignCheckpointLead.DeliveryStatus.sending);
+        if (inFlightLeads > 0) {
+            log.debug("Checkpoint {} still has {} leads in flight", checkpoint.getName(), inFlightLeads);
+            return;
+        }
+
         // Get delivery statistics for this checkpoint
         long sentLeads = checkpointLeadRepository.countByCheckpointIdAndStatus(
                 checkpoint.getId(), CampaignCheckpointLead.DeliveryStatus.sent);
@@ -177,9 +434,14 @@ public class CheckpointScheduler {
             newStatus = CampaignCheckpoint.CheckpointStatus.paused; // All failed
         }
 
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpointRepository.transitionStatus(checkpoint.getId(),
+                CampaignCheckpoint.CheckpointStatus.active, newStatus, now) == 0) {
+            log.debug("Checkpoint {} already settled, skipping status update", checkpoint.getName());
+            return;
+        }
         checkpoint.setStatus(newStatus);
-        checkpoint.setUpdatedAt(LocalDateTime.now());
-        checkpointRepository.save(checkpoint);
+        checkpoint.setUpdatedAt(now);
 
         // Create activity feed entry for checkpoint completion
         try {
@@ -197,27 +459,8 @@ public class CheckpointScheduler {
      */
     public void processCheckpointsNow() {
         log.info("Manual checkpoint processing triggered");
-        processReadyCheckpoints();
-    }
-
-    /**
-     * Check if checkpoint has already been executed today
-     */
-    private boolean hasBeenExecutedToday(CampaignCheckpoint checkpoint) {
-        // Check if checkpoint status is completed, partially_completed, or paused
-        // These statuses indicate it has already been processed
-        return checkpoint.getStatus() == CampaignCheckpoint.CheckpointStatus.completed ||
-                checkpoint.getStatus() == CampaignCheckpoint.CheckpointStatus.partially_completed ||
-                checkpoint.getStatus() == CampaignCheckpoint.CheckpointStatus.paused;
-    }
-
-    /**
-     * Mark checkpoint as executed today to prevent duplicate runs
-     */
-    private void markAsExecutedToday(CampaignCheckpoint checkpoint) {
-        // The status will be updated by updateCheckpointStatus() method
-        // This method is just for clarity and future extensibility
-        log.debug("Marking checkpoint {} as executed today", checkpoint.getName());
+        reconcile();
+        tick();
     }
 
     /**
@@ -299,6 +542,8 @@ public class CheckpointScheduler {
 
         return SchedulerStats.builder()
                 .lastRunTime(now)
+                .lastReconcileTime(lastReconcileTime)
+                .scheduledCheckpoints(timingWheel.size())
                 .activeCheckpoints(activeCheckpoints)
                 .pendingCheckpoints(pendingCheckpoints)
                 .completedCheckpoints(completedCheckpoints)
@@ -314,6 +559,8 @@ public class CheckpointScheduler {
     @lombok.Builder
     public static class SchedulerStats {
         private LocalDateTime lastRunTime;
+        private LocalDateTime lastReconcileTime;
+        private long scheduledCheckpoints;
         private long activeCheckpoints;
         private long pendingCheckpoints;
         private long completedCheckpoints;
@@ -2,14 +2,23 @@ package com.outreachly.outreachly.service;
 
 import com.outreachly.outreachly.entity.EmailEvent;
 import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.service.events.EmailEventWriter;
+import com.outreachly.outreachly.service.quota.DailySendCounters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
@@ -21,7 +30,11 @@ import java.util.HashMap;
 @Slf4j
 public class DeliveryTrackingService {
 
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
     private final EmailEventRepository emailEventRepository;
+    private final DailySendCounters dailySendCounters;
+    private final EmailEventWriter emailEventWriter;
 
     /**
      * Record a successful email delivery
@@ -42,6 +55,7 @@ public class DeliveryTrackingService {
                     .build();
 
             emailEventRepository.save(deliveryEvent);
+            dailySendCounters.increment(userId, deliveryEvent.getOrgId());
             log.info("Recorded email delivery - MessageId: {}, Recipient: {}, Campaign: {}",
                     messageId, recipientEmail, campaignId);
 
@@ -99,8 +113,9 @@ public class DeliveryTrackingService {
                     .orgId(orgId != null ? UUID.fromString(orgId) : null)
                     .build();
 
-            emailEventRepository.save(clickEvent);
-            log.info("Recorded link click - MessageId: {}, Recipient: {}, URL: {}, Campaign: {}",
+            // Written in the background so the redirect does not wait on the database
+            emailEventWriter.record(clickEvent);
+            log.debug("Recorded link click - MessageId: {}, Recipient: {}, URL: {}, Campaign: {}",
                     messageId, recipientEmail, clickedUrl, campaignId);
 
         } catch (Exception e) {
@@ -109,27 +124,40 @@ public class DeliveryTrackingService {
     }
 
     /**
-     * Get delivery statistics for a campaign
+     * Record an email open from the tracking pixel
      */
-    public DeliveryStats getCampaignDeliveryStats(String campaignId) {
+    public void recordEmailOpen(String messageId, String recipientEmail, String campaignId, String userId,
+            String orgId) {
         try {
-            UUID campaignUuid = UUID.fromString(campaignId);
-
-            long totalDelivered = emailEventRepository.countByEventTypeAndCampaignId(
-                    EmailEvent.EmailEventType.DELIVERY, campaignUuid);
+            EmailEvent openEvent = EmailEvent.builder()
+                    .messageId(messageId)
+                    .emailAddress(recipientEmail != null ? recipientEmail : "tracked@outreachly.com")
+                    .eventType(EmailEvent.EmailEventType.OPEN)
+                    .timestamp(LocalDateTime.now())
+                    .rawMessage("Tracking pixel loaded")
+                    .processed(true)
+                    .campaignId(campaignId != null ? UUID.fromString(campaignId) : null)
+                    .userId(userId)
+                    .orgId(orgId != null ? UUID.fromString(orgId) : null)
+                    .build();
 
-            long totalRejected = emailEventRepository.countByEventTypeAndCampaignId(
-                    EmailEvent.EmailEventType.REJECT, campaignUuid);
+            // Written in the background so the pixel is served without waiting on the database
+            emailEventWriter.record(openEvent);
+            log.debug("Recorded email open - MessageId: {}, Recipient: {}, Campaign: {}",
+                    messageId, recipientEmail, campaignId);
 
-            long totalSent = totalDelivered + totalRejected;
-            double deliveryRate = totalSent > 0 ? (double) totalDelivered / totalSent * 100 : 0;
+        } catch (Exception e) {
+            log.error("Failed to record email open for message: {}", messageId, e);
+        }
+    }
 
-            return DeliveryStats.builder()
-                    .totalSent(totalSent)
-                    .totalDelivered(totalDelivered)
-                    .totalFailed(totalRejected)
-                    .deliveryRate(deliveryRate)
-                    .build();
+    /**
+     * Get delivery statistics for a campaign
+     */
+    public DeliveryStats getCampaignDeliveryStats(String campaignId) {
+        try {
+            UUID campaignUuid = UUID.fromString(campaignId);
+            return toDeliveryStats(toTotals(emailEventRepository.sumByEventTypeForCampaign(campaignUuid)));
 
         } catch (Exception e) {
             log.error("Failed to get delivery stats for campaign: {}", campaignId, e);
@@ -147,21 +175,7 @@ public class DeliveryTrackingService {
      */
     public DeliveryStats getUserDeliveryStats(String userId) {
         try {
-            long totalDelivered = emailEventRepository.countByEventTypeAndUserId(
-                    EmailEvent.EmailEventType.DELIVERY, userId);
-
-            long totalRejected = emailEventRepository.countByEventTypeAndUserId(
-                    EmailEvent.EmailEventType.REJECT, userId);
-
-            long totalSent = totalDelivered + totalRejected;
-            double deliveryRate = totalSent > 0 ? (double) totalDelivered / totalSent * 100 : 0;
-
-            return DeliveryStats.builder()
-                    .totalSent(totalSent)
-                    .totalDelivered(totalDelivered)
-                    .totalFailed(totalRejected)
-                    .deliveryRate(deliveryRate)
-                    .build();
+            return toDeliveryStats(toTotals(emailEventRepository.sumByEventTypeForUser(userId)));
 
         } catch (Exception e) {
             log.error("Failed to get delivery stats for user: {}", userId, e);
@@ -179,18 +193,7 @@ public class DeliveryTrackingService {
      */
     public DeliveryStats getOverallDeliveryStats() {
         try {
-            long totalDelivered = emailEventRepository.countByEventType(EmailEvent.EmailEventType.DELIVERY);
-            long totalRejected = emailEventRepository.countByEventType(EmailEvent.EmailEventType.REJECT);
-
-            long totalSent = totalDelivered + totalRejected;
-            double deliveryRate = totalSent > 0 ? (double) totalDelivered / totalSent * 100 : 0;
-
-            return DeliveryStats.builder()
-                    .totalSent(totalSent)
-                    .totalDelivered(totalDelivered)
-                    .totalFailed(totalRejected)
-                    .deliveryRate(deliveryRate)
-                    .build();
+            return toDeliveryStats(toTotals(emailEventRepository.sumByEventType()));
 
         } catch (Exception e) {
             log.error("Failed to get overall delivery stats", e);
@@ -207,74 +210,24 @@ public class DeliveryTrackingService {
      * Get delivery trend data for a specific period with enhanced time calculations
      */
     public List<TrendData> getDeliveryTrends(int days, String userId, String campaignId, String userTimezone) {
-        try {
-            List<TrendData> trends = new ArrayList<>();
-
-            // Parse user timezone to get the appropriate ZoneOffset
-            ZoneOffset userOffset = parseUtcOffset(userTimezone);
+        return getDeliveryTrends(days, userId, campaignId, userTimezone, Granularity.DAY);
+    }
 
-            // Use user's timezone for date calculations
-            LocalDate today = LocalDate.now(userOffset);
+    /**
+     * Delivery trend for the last {@code days} days (today included) in the
+     * user's timezone, one point per {@code granularity} bucket
+     */
+    public List<TrendData> getDeliveryTrends(int days, String userId, String campaignId, String userTimezone,
+            Granularity granularity) {
+        try {
+            ZoneId zone = resolveZone(userTimezone);
 
-            // Calculate the start date based on the requested period
             // For 7 days: today + past 6 days = 7 total days
-            // For 30 days: today + past 29 days = 30 total days
+            LocalDate today = LocalDate.now(zone);
             LocalDate startDate = today.minusDays(days - 1);
 
-            // Generate data for each day in the range
-            LocalDate currentDate = startDate;
-            while (!currentDate.isAfter(today)) {
-                // Use user's timezone for time boundaries
-                LocalDateTime startOfDay = currentDate.atStartOfDay().atOffset(userOffset).toLocalDateTime();
-                LocalDateTime endOfDay = currentDate.atTime(23, 59, 59).atOffset(userOffset).toLocalDateTime();
-
-                long delivered = 0;
-                long failed = 0;
-                long clicks = 0;
-
-                if (userId != null) {
-                    delivered = emailEventRepository.countByEventTypeAndUserIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.DELIVERY, userId, startOfDay, endOfDay);
-                    failed = emailEventRepository.countByEventTypeAndUserIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.REJECT, userId, startOfDay, endOfDay);
-                    clicks = emailEventRepository.countByEventTypeAndUserIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.CLICK, userId, startOfDay, endOfDay);
-                } else if (campaignId != null) {
-                    UUID campaignUuid = UUID.fromString(campaignId);
-                    delivered = emailEventRepository.countByEventTypeAndCampaignIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.DELIVERY, campaignUuid, startOfDay, endOfDay);
-                    failed = emailEventRepository.countByEventTypeAndCampaignIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.REJECT, campaignUuid, startOfDay, endOfDay);
-                    clicks = emailEventRepository.countByEventTypeAndCampaignIdAndTimestampBetween(
-                            EmailEvent.EmailEventType.CLICK, campaignUuid, startOfDay, endOfDay);
-                } else {
-                    delivered = emailEventRepository.countByEventTypeAndTimestampBetween(
-                            EmailEvent.EmailEventType.DELIVERY, startOfDay, endOfDay);
-                    failed = emailEventRepository.countByEventTypeAndTimestampBetween(
-                            EmailEvent.EmailEventType.REJECT, startOfDay, endOfDay);
-                    clicks = emailEventRepository.countByEventTypeAndTimestampBetween(
-                            EmailEvent.EmailEventType.CLICK, startOfDay, endOfDay);
-                }
-
-                long totalSent = delivered + failed;
-                double deliveryRate = totalSent > 0 ? (double) delivered / totalSent * 100 : 0;
-                double clickRate = delivered > 0 ? (double) clicks / delivered * 100 : 0;
-
-                trends.add(TrendData.builder()
-                        .date(currentDate.toString())
-                        .delivered(delivered)
-                        .failed(failed)
-                        .totalSent(totalSent)
-                        .deliveryRate(deliveryRate)
-                        .clicks(clicks)
-                        .clickRate(clickRate)
-                        .build());
-
-                // Move to next day
-                currentDate = currentDate.plusDays(1);
-            }
-
-            return trends;
+            return getTrendSeries(granularity, zone, startDate.atStartOfDay(zone),
+                    today.plusDays(1).atStartOfDay(zone), userId, campaignId);
 
         } catch (Exception e) {
             log.error("Failed to get delivery trends for {} days", days, e);
@@ -289,12 +242,79 @@ public class DeliveryTrackingService {
         // Use UTC timezone for consistent date calculations
         LocalDate today = LocalDate.now(ZoneOffset.UTC);
         LocalDate firstDayOfMonth = today.withDayOfMonth(1);
-        long daysInMonth = ChronoUnit.DAYS.between(firstDayOfMonth, today) + 1;
 
-        log.info("Getting current month trends from {} to {} ({} days) - UTC timezone",
-                firstDayOfMonth, today, daysInMonth);
+        log.info("Getting current month trends from {} to {} - UTC timezone", firstDayOfMonth, today);
+
+        try {
+            return getTrendSeries(Granularity.DAY, ZoneOffset.UTC, firstDayOfMonth.atStartOfDay(ZoneOffset.UTC),
+                    today.plusDays(1).atStartOfDay(ZoneOffset.UTC), userId, campaignId);
+        } catch (Exception e) {
+            log.error("Failed to get current month trends", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Event counts per {@code granularity} bucket and event type between
+     * {@code from} (inclusive) and {@code to} (exclusive), bucketed in
+     * {@code zone}, from a single grouped query. Filters by user when
+     * {@code userId} is set, otherwise by campaign when {@code campaignId} is set.
+     * Reads the hourly rollups when their hours line up with the zone's hours,
+     * otherwise counts email_events directly.
+     */
+    public List<EmailEventRepository.EventBucketCount> getEventCounts(Granularity granularity, ZoneId zone,
+            ZonedDateTime from, ZonedDateTime to, String userId, String campaignId) {
+        ZoneId storedZone = ZoneId.systemDefault();
+        LocalDateTime start = from.withZoneSameInstant(storedZone).toLocalDateTime();
+        LocalDateTime end = to.withZoneSameInstant(storedZone).toLocalDateTime();
+        boolean byUser = userId != null;
+        boolean byCampaign = !byUser && campaignId != null;
+        UUID campaignUuid = byCampaign ? UUID.fromString(campaignId) : NIL_UUID;
+
+        Instant now = Instant.now();
+        int offsetDifference = zone.getRules().getOffset(now).getTotalSeconds()
+                - storedZone.getRules().getOffset(now).getTotalSeconds();
+        if (offsetDifference % 3600 == 0) {
+            return emailEventRepository.sumRollupsByBucket(granularity.unit(), sqlZoneName(storedZone),
+                    sqlZoneName(zone), start, end, byUser, byUser ? userId : "", byCampaign, campaignUuid);
+        }
+        return emailEventRepository.countEventsByBucket(granularity.unit(), sqlZoneName(storedZone),
+                sqlZoneName(zone), start, end, byUser, byUser ? userId : "", byCampaign, campaignUuid);
+    }
+
+    // One TrendData per bucket from 'from' up to 'to', zero for buckets without events
+    private List<TrendData> getTrendSeries(Granularity granularity, ZoneId zone, ZonedDateTime from,
+            ZonedDateTime to, String userId, String campaignId) {
+        Map<LocalDateTime, Map<String, Long>> counts = new HashMap<>();
+        for (EmailEventRepository.EventBucketCount row : getEventCounts(granularity, zone, from, to, userId,
+                campaignId)) {
+            counts.computeIfAbsent(row.getBucket(), bucket -> new HashMap<>()).put(row.getEventType(), row.getCount());
+        }
 
-        return getDeliveryTrends((int) daysInMonth, userId, campaignId, "UTC±0");
+        List<TrendData> trends = new ArrayList<>();
+        LocalDateTime end = to.toLocalDateTime();
+        for (LocalDateTime bucket = granularity.truncate(from.toLocalDateTime()); bucket.isBefore(end);
+                bucket = granularity.next(bucket)) {
+            Map<String, Long> bucketCounts = counts.getOrDefault(bucket, Map.of());
+            long delivered = bucketCounts.getOrDefault(EmailEvent.EmailEventType.DELIVERY.name(), 0L);
+            long failed = bucketCounts.getOrDefault(EmailEvent.EmailEventType.REJECT.name(), 0L);
+            long clicks = bucketCounts.getOrDefault(EmailEvent.EmailEventType.CLICK.name(), 0L);
+
+            long totalSent = delivered + failed;
+            double deliveryRate = totalSent > 0 ? (double) delivered / totalSent * 100 : 0;
+            double clickRate = delivered > 0 ? (double) clicks / delivered * 100 : 0;
+
+            trends.add(TrendData.builder()
+                    .date(granularity.label(bucket))
+                    .delivered(delivered)
+                    .failed(failed)
+                    .totalSent(totalSent)
+                    .deliveryRate(deliveryRate)
+                    .clicks(clicks)
+                    .clickRate(clickRate)
+                    .build());
+        }
+        return trends;
     }
 
     /**
@@ -334,17 +354,12 @@ public class DeliveryTrackingService {
 
             Map<String, Object> stats = new HashMap<>();
 
-            // Today's stats
-            long sentToday = emailEventRepository.countByUserIdAndOrgIdAndTimestampBetweenAndEventType(
-                    userId, orgId, startOfDay, endOfDay, EmailEvent.EmailEventType.DELIVERY);
-
-            // Week's stats
-            long sentThisWeek = emailEventRepository.countByUserIdAndOrgIdAndTimestampBetweenAndEventType(
-                    userId, orgId, weekStart.atStartOfDay(), endOfDay, EmailEvent.EmailEventType.DELIVERY);
-
-            // Month's stats
-            long sentThisMonth = emailEventRepository.countByUserIdAndOrgIdAndTimestampBetweenAndEventType(
-                    userId, orgId, monthStart.atStartOfDay(), endOfDay, EmailEvent.EmailEventType.DELIVERY);
+            // Today's, week's and month's deliveries in one rollup query
+            Object[] sent = emailEventRepository.sumDeliveriesSince(orgId, userId, startOfDay,
+                    weekStart.atStartOfDay(), monthStart.atStartOfDay(), endOfDay).get(0);
+            long sentToday = ((Number) sent[0]).longValue();
+            long sentThisWeek = ((Number) sent[1]).longValue();
+            long sentThisMonth = ((Number) sent[2]).longValue();
 
             // Calculate rates (simplified - in production you'd have more sophisticated
             // tracking)
@@ -421,6 +436,30 @@ public class DeliveryTrackingService {
         }
     }
 
+    // Rollup rows [event_type, count] as counts per event type name
+    private static Map<String, Long> toTotals(List<Object[]> rows) {
+        Map<String, Long> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            totals.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return totals;
+    }
+
+    private static DeliveryStats toDeliveryStats(Map<String, Long> totals) {
+        long totalDelivered = totals.getOrDefault(EmailEvent.EmailEventType.DELIVERY.name(), 0L);
+        long totalRejected = totals.getOrDefault(EmailEvent.EmailEventType.REJECT.name(), 0L);
+
+        long totalSent = totalDelivered + totalRejected;
+        double deliveryRate = totalSent > 0 ? (double) totalDelivered / totalSent * 100 : 0;
+
+        return DeliveryStats.builder()
+                .totalSent(totalSent)
+                .totalDelivered(totalDelivered)
+                .totalFailed(totalRejected)
+                .deliveryRate(deliveryRate)
+                .build();
+    }
+
     /**
      * Delivery statistics data class
      */
@@ -449,40 +488,125 @@ public class DeliveryTrackingService {
     }
 
     /**
-     * Parse UTC offset string (e.g., "UTC+5", "UTC−8", "UTC±0") to ZoneOffset
+     * Time bucket size for trend queries
      */
-    private ZoneOffset parseUtcOffset(String timezone) {
-        if (timezone == null || timezone.trim().isEmpty()) {
-            return ZoneOffset.UTC;
+    public enum Granularity {
+        HOUR("hour"),
+        DAY("day"),
+        WEEK("week");
+
+        private final String unit;
+
+        Granularity(String unit) {
+            this.unit = unit;
         }
 
-        String trimmed = timezone.trim();
+        /**
+         * Unit name for date_trunc
+         */
+        public String unit() {
+            return unit;
+        }
 
-        // Handle UTC±0 case
-        if ("UTC±0".equals(trimmed)) {
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown granularity: " + value);
+            }
+        }
+
+        // Same truncation as date_trunc; weeks start on Monday
+        LocalDateTime truncate(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            };
+        }
+
+        LocalDateTime next(LocalDateTime bucket) {
+            return switch (this) {
+                case HOUR -> bucket.plusHours(1);
+                case DAY -> bucket.plusDays(1);
+                case WEEK -> bucket.plusWeeks(1);
+            };
+        }
+
+        String label(LocalDateTime bucket) {
+            return this == HOUR ? bucket.toString() : bucket.toLocalDate().toString();
+        }
+    }
+
+    /**
+     * Resolve a user timezone: the "UTC+5" / "UTC−8" / "UTC±0" offsets stored on
+     * users, or a region ID such as "Europe/Berlin". Falls back to UTC.
+     */
+    static ZoneId resolveZone(String timezone) {
+        if (timezone == null || timezone.trim().isEmpty()) {
             return ZoneOffset.UTC;
         }
 
-        // Handle UTC+0 case
-        if ("UTC+0".equals(trimmed)) {
+        String trimmed = timezone.trim();
+
+        // Handle UTC±0 / UTC+0 case
+        if ("UTC±0".equals(trimmed) || "UTC+0".equals(trimmed)) {
             return ZoneOffset.UTC;
         }
 
         // Parse UTC±X format
-        if (trimmed.startsWith("UTC")) {
+        if (trimmed.startsWith("UTC") && trimmed.length() > 3) {
             String offsetPart = trimmed.substring(3);
 
             if (offsetPart.startsWith("+")) {
-                int hours = Integer.parseInt(offsetPart.substring(1));
-                return ZoneOffset.ofHours(hours);
+                return ZoneOffset.ofHours(Integer.parseInt(offsetPart.substring(1)));
             } else if (offsetPart.startsWith("−") || offsetPart.startsWith("-") || offsetPart.startsWith("?")) {
                 // Handle Unicode minus (U+2212), regular minus, and corrupted minus
-                String hoursStr = offsetPart.substring(1);
-                int hours = Integer.parseInt(hoursStr);
-                return ZoneOffset.ofHours(-hours);
+                return ZoneOffset.ofHours(-Integer.parseInt(offsetPart.substring(1)));
             }
         }
 
-        return ZoneOffset.UTC; // Fallback
+        try {
+            return ZoneId.of(trimmed);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC; // Fallback
+        }
+    }
+
+    /**
+     * Zone name as Postgres understands it in AT TIME ZONE. Fixed offsets go
+     * through Etc/GMT names, since Postgres reads bare offsets like '+05:00'
+     * with the POSIX (inverted) sign. Offsets that are not whole hours, which
+     * have no Etc/GMT name, become POSIX zone specs such as '<+0530>-05:30'.
+     */
+    static String sqlZoneName(ZoneId zone) {
+        if (!(zone instanceof ZoneOffset offset)) {
+            return zone.getId();
+        }
+        int seconds = offset.getTotalSeconds();
+        if (seconds == 0) {
+            return "UTC";
+        }
+        if (seconds % 3600 != 0) {
+            return posixZoneName(seconds);
+        }
+        int hours = seconds / 3600;
+        // Etc/GMT signs are inverted too: Etc/GMT-5 is UTC+5
+        return "Etc/GMT" + (hours > 0 ? "-" : "+") + Math.abs(hours);
+    }
+
+    // '<+0530>-05:30': the bracketed abbreviation, then the offset west of UTC as POSIX writes it
+    private static String posixZoneName(int totalSeconds) {
+        int abs = Math.abs(totalSeconds);
+        int hours = abs / 3600;
+        int minutes = abs / 60 % 60;
+        int seconds = abs % 60;
+        String abbreviation = String.format("%s%02d%02d", totalSeconds > 0 ? "+" : "-", hours, minutes);
+        String posixOffset = String.format("%s%02d:%02d", totalSeconds > 0 ? "-" : "+", hours, minutes);
+        if (seconds != 0) {
+            abbreviation += String.format("%02d", seconds);
+            posixOffset += String.format(":%02d", seconds);
+        }
+        return "<" + abbreviation + ">" + posixOffset;
     }
 }
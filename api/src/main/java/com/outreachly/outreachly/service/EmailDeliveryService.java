@@ -1,25 +1,48 @@
 package com.outreachly.outreachly.service;
 
+import com.outreachly.outreachly.dto.EmailRequest;
+import com.outreachly.outreachly.dto.EmailResponse;
 import com.outreachly.outreachly.entity.CampaignCheckpoint;
 import com.outreachly.outreachly.entity.CampaignCheckpointLead;
 import com.outreachly.outreachly.entity.Lead;
 import com.outreachly.outreachly.entity.Template;
 import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
-import com.outreachly.outreachly.repository.CampaignRepository;
-import com.outreachly.outreachly.repository.LeadRepository;
-import com.outreachly.outreachly.repository.TemplateRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import com.outreachly.outreachly.service.delivery.CheckpointDeliveryPipeline;
+import com.outreachly.outreachly.service.delivery.CheckpointDeliveryPublisher;
+import com.outreachly.outreachly.service.delivery.DeliveryChannel;
+import com.outreachly.outreachly.service.delivery.DeliveryContext;
+import com.outreachly.outreachly.service.delivery.DeliveryContextLoader;
+import com.outreachly.outreachly.service.delivery.DeliveryStatusWriter;
+import com.outreachly.outreachly.service.delivery.LeadSnapshot;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.delivery.ProviderThrottledException;
+import com.outreachly.outreachly.service.links.ShortLinkService;
+import com.outreachly.outreachly.service.links.TrackingPixelService;
+import com.outreachly.outreachly.service.template.CompiledTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Service for delivering emails through campaign checkpoints.
@@ -31,270 +54,516 @@ import java.util.UUID;
 public class EmailDeliveryService {
 
     private final CampaignCheckpointLeadRepository checkpointLeadRepository;
-    private final LeadRepository leadRepository;
-    private final TemplateRepository templateRepository;
     private final GmailService gmailService;
     private final OrganizationEmailService organizationEmailService;
     private final RateLimitService rateLimitService;
     private final DeliveryTrackingService deliveryTrackingService;
-    private final ObjectMapper objectMapper;
-    private final CampaignRepository campaignRepository;
+    private final CampaignCheckpointRepository checkpointRepository;
+    private final CheckpointDeliveryPipeline deliveryPipeline;
+    private final DeliveryStatusWriter deliveryStatusWriter;
+    private final ObjectProvider<CheckpointDeliveryPublisher> deliveryPublisherProvider;
+    private final DeliveryContextLoader deliveryContextLoader;
+    private final ProviderRateLimiter rateLimiter;
+    private final ShortLinkService shortLinkService;
+    private final TrackingPixelService trackingPixelService;
+
+    // Template variables for a lead's tracked links and open pixel in SES templated sends
+    static final String LINK_VARIABLE = "outreachlyLink";
+    static final String PIXEL_VARIABLE = "outreachlyOpenPixel";
+
+    // Send Resend checkpoints through the batch API instead of one call per lead
+    @Value("${delivery.resend.batch-enabled:true}")
+    private boolean resendBatchEnabled;
+
+    // Send SES checkpoints as one SES template with per-lead values instead of one call per lead
+    @Value("${delivery.ses.bulk-enabled:true}")
+    private boolean sesBulkEnabled;
 
     /**
-     * Send emails for a specific checkpoint
+     * Send emails for a specific checkpoint.
+     * Only pending leads are picked up, in chunks ordered by id. Messages are
+     * rendered here and handed to the provider's sender lane; once every status
+     * in a chunk is written the checkpoint's progress counter is committed, so a
+     * run that dies partway is resumed from the remaining pending leads. Leads
+     * are claimed (moved to sending) before they are sent, so a lead whose
+     * result was never saved is not sent again by any run.
      */
-    @Transactional
     public void sendCheckpointEmails(CampaignCheckpoint checkpoint) {
-        // Get all leads for this checkpoint
-        List<CampaignCheckpointLead> checkpointLeads = checkpointLeadRepository.findByCheckpointId(checkpoint.getId());
+        // Leads already sent or failed by an earlier, interrupted run are not pending anymore
+        long pendingLeads = checkpointLeadRepository.countByCheckpointIdAndStatus(
+                checkpoint.getId(), CampaignCheckpointLead.DeliveryStatus.pending);
 
-        if (checkpointLeads.isEmpty()) {
+        if (pendingLeads == 0) {
             log.warn("No leads found for checkpoint: {}", checkpoint.getName());
             return;
         }
 
-        log.info("Sending emails to {} leads for checkpoint: {}", checkpointLeads.size(), checkpoint.getName());
+        log.info("Sending emails to {} leads for checkpoint: {} ({} already processed)", pendingLeads,
+                checkpoint.getName(), checkpoint.getLeadsProcessed() != null ? checkpoint.getLeadsProcessed() : 0);
+
+        // Resolve campaign creator and template once for the whole checkpoint
+        DeliveryContext context = deliveryContextLoader.load(checkpoint);
 
-        // Check rate limit before sending emails
-        String campaignCreatorId = getCampaignCreatorId(checkpoint);
-        if (!rateLimitService.canSendEmails(campaignCreatorId, checkpoint.getOrgId().toString(),
-                checkpointLeads.size())) {
+        // The caller holds the checkpoint's lease, so quota still reserved for it belongs to a run that died
+        String quotaOwner = "checkpoint:" + checkpoint.getId();
+        rateLimitService.releaseOwnedBy(quotaOwner);
+
+        // Reserve quota for every pending lead up front so concurrent runs cannot overshoot the limit
+        RateLimitService.QuotaReservation reservation = rateLimitService.reserve(context.campaignCreatorId(),
+                checkpoint.getOrgId().toString(), (int) pendingLeads, quotaOwner).orElse(null);
+        if (reservation == null) {
             log.warn("🚫 Rate limit exceeded for checkpoint: {} - {} emails requested, but quota exceeded",
-                    checkpoint.getName(), checkpointLeads.size());
+                    checkpoint.getName(), pendingLeads);
 
             // Mark checkpoint as paused due to rate limit
             checkpoint.setStatus(CampaignCheckpoint.CheckpointStatus.paused);
-            campaignRepository.save(checkpoint.getCampaign());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
 
             throw new RuntimeException(
                     "Rate limit exceeded. Checkpoint paused. Please wait before sending more emails.");
         }
 
         log.info("✅ Rate limit check passed for checkpoint: {} - {} emails can be sent",
-                checkpoint.getName(), checkpointLeads.size());
+                checkpoint.getName(), pendingLeads);
+
+        // Hand the leads to the durable queue when it is enabled
+        CheckpointDeliveryPublisher deliveryPublisher = deliveryPublisherProvider.getIfAvailable();
 
-        // Get email template if specified
-        Template emailTemplate = null;
-        if (checkpoint.getEmailTemplateId() != null) {
-            emailTemplate = templateRepository.findById(checkpoint.getEmailTemplateId())
-                    .orElse(null);
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
+        int queuedCount = 0;
+        long startTime = System.currentTimeMillis();
+        int chunkSize = deliveryContextLoader.getLeadPageSize();
+        UUID lastLeadId = null;
+
+        try {
+            while (true) {
+                List<CampaignCheckpointLead> chunk = lastLeadId == null
+                        ? checkpointLeadRepository.findPendingChunk(checkpoint.getId(), PageRequest.of(0, chunkSize))
+                        : checkpointLeadRepository.findPendingChunkAfter(checkpoint.getId(), lastLeadId,
+                                PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastLeadId = chunk.get(chunk.size() - 1).getId();
+
+                int processed;
+                if (deliveryPublisher != null) {
+                    processed = deliveryPublisher.publish(checkpoint, chunk, reservation.quotaDate());
+                    queuedCount += processed;
+                } else {
+                    processed = deliverChunk(chunk, checkpoint, context, successCount, failureCount);
+                }
+                checkpointRepository.addLeadsProcessed(checkpoint.getId(), processed);
+                rateLimitService.renew(reservation);
 
-            if (emailTemplate == null) {
-                log.warn("Email template not found for checkpoint: {} (Template ID: {})",
-                        checkpoint.getName(), checkpoint.getEmailTemplateId());
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while delivering checkpoint: " + checkpoint.getName(), e);
+        } finally {
+            // Queued leads keep their quota (the worker refunds failed sends); everything not sent goes back
+            int used = Math.min(reservation.count(), deliveryPublisher != null ? queuedCount : successCount.get());
+            rateLimitService.commit(reservation, used);
+            rateLimitService.release(reservation, reservation.count() - used);
         }
 
-        // Process each lead with rate limiting
-        int successCount = 0;
-        int failureCount = 0;
-        long startTime = System.currentTimeMillis();
-
-        for (int i = 0; i < checkpointLeads.size(); i++) {
-            CampaignCheckpointLead checkpointLead = checkpointLeads.get(i);
+        if (deliveryPublisher == null) {
+            log.info("Email delivery completed for checkpoint: {}. Success: {}, Failures: {} ({} ms)",
+                    checkpoint.getName(), successCount.get(), failureCount.get(),
+                    System.currentTimeMillis() - startTime);
+        }
+    }
 
+    /**
+     * Render and send one chunk of checkpoint leads, returning once every
+     * lead's status in the chunk has been written. Resend chunks go out
+     * through the provider's batch API, SES chunks as one SES template with
+     * each lead's values; other channels through their sender lane. Sent
+     * leads whose status could not be written are written once more before
+     * the chunk fails; those still unsaved stay claimed and are not sent again.
+     */
+    private int deliverChunk(List<CampaignCheckpointLead> chunk, CampaignCheckpoint checkpoint,
+            DeliveryContext context, AtomicInteger successCount, AtomicInteger failureCount)
+            throws InterruptedException {
+        CountDownLatch remaining = new CountDownLatch(chunk.size());
+        AtomicInteger unsaved = new AtomicInteger();
+        Consumer<Boolean> onWritten = written -> {
+            if (!written) {
+                unsaved.incrementAndGet();
+            }
+            remaining.countDown();
+        };
+        Set<CampaignCheckpointLead> sentUnsaved = ConcurrentHashMap.newKeySet();
+
+        // One query for the whole chunk of leads
+        Map<UUID, LeadSnapshot> leads = deliveryContextLoader.loadLeads(chunk, checkpoint.getOrgId());
+        boolean templated = sesBulkEnabled && context.channel() == DeliveryChannel.AWS_SES
+                && context.templateId() != null;
+        boolean batched = templated || resendBatchEnabled && context.channel() == DeliveryChannel.RESEND;
+        List<RenderedLead> batch = new ArrayList<>();
+
+        // Render the whole chunk first so its short links are created with one INSERT
+        ShortLinkService.LinkBatch links = shortLinkService.newBatch();
+        List<RenderedLead> rendered = new ArrayList<>(chunk.size());
+        for (CampaignCheckpointLead checkpointLead : chunk) {
             try {
-                // Get lead details
-                Lead lead = leadRepository.findById(checkpointLead.getLeadId())
-                        .orElse(null);
+                LeadSnapshot lead = leads.get(checkpointLead.getLeadId());
 
                 if (lead == null) {
                     log.warn("Lead not found: {}", checkpointLead.getLeadId());
-                    markLeadAsFailed(checkpointLead, "Lead not found");
-                    failureCount++;
+                    failureCount.incrementAndGet();
+                    deliveryStatusWriter.markFailed(checkpointLead, "Lead not found", onWritten);
                     continue;
                 }
 
-                // Send email
-                sendEmailToLead(lead, emailTemplate, checkpoint);
-
-                // Mark as sent
-                markLeadAsSent(checkpointLead);
-                successCount++;
-
-                log.debug("Email sent successfully to: {} ({}/{})", lead.getEmail(), i + 1, checkpointLeads.size());
+                RenderedEmail email = renderEmail(lead, context);
+                if (email.isHtml()) {
+                    links.add(email.body(), trackingContext(email, context));
+                }
+                rendered.add(new RenderedLead(checkpointLead, email));
+            } catch (Exception e) {
+                log.error("Failed to render email for lead: {}", checkpointLead.getLeadId(), e);
+                failureCount.incrementAndGet();
+                deliveryStatusWriter.markFailed(checkpointLead, e.getMessage(), onWritten);
+            }
+        }
+        links.create();
 
-                // Rate limiting: Ensure we don't exceed 1 request per second for Resend
-                if (i < checkpointLeads.size() - 1) { // Don't delay after the last email
-                    long elapsedTime = System.currentTimeMillis() - startTime;
-                    long expectedTime = (i + 1) * 1000; // 1000ms per request = 1 request per second
+        // Claim the leads before any is handed to a provider; another run or instance may have taken some
+        Set<UUID> claimed = new HashSet<>();
+        if (!rendered.isEmpty()) {
+            try {
+                claimed.addAll(checkpointLeadRepository.claimPending(
+                        rendered.stream().map(r -> r.checkpointLead().getId()).toList(), LocalDateTime.now()));
+            } catch (Exception e) {
+                links.discard(rendered.stream().map(r -> r.email().messageId()).toList());
+                throw new RuntimeException("Failed to claim " + rendered.size() + " leads in checkpoint: " +
+                        checkpoint.getName(), e);
+            }
+        }
 
-                    if (elapsedTime < expectedTime) {
-                        long delayNeeded = expectedTime - elapsedTime;
-                        Thread.sleep(delayNeeded);
-                    }
-                }
+        // Links of emails that were not sent are deleted once the chunk is done
+        Set<String> unsent = ConcurrentHashMap.newKeySet();
+        for (RenderedLead pending : rendered) {
+            CampaignCheckpointLead checkpointLead = pending.checkpointLead();
+            if (!claimed.contains(checkpointLead.getId())) {
+                log.info("Skipping checkpoint lead {} already claimed by another run", checkpointLead.getId());
+                unsent.add(pending.email().messageId());
+                remaining.countDown();
+                continue;
+            }
+            if (templated) {
+                // Tracking goes into the lead's template values when the batch is sent
+                batch.add(pending);
+                continue;
+            }
 
+            RenderedEmail email;
+            try {
+                email = addTracking(pending.email(), context, links);
             } catch (Exception e) {
-                log.error("Failed to send email to lead: {}", checkpointLead.getLeadId(), e);
-                markLeadAsFailed(checkpointLead, e.getMessage());
-                failureCount++;
+                log.error("Failed to render email for lead: {}", checkpointLead.getLeadId(), e);
+                unsent.add(pending.email().messageId());
+                failureCount.incrementAndGet();
+                deliveryStatusWriter.markFailed(checkpointLead, e.getMessage(), onWritten);
+                continue;
+            }
+
+            if (batched) {
+                batch.add(new RenderedLead(checkpointLead, email));
+                continue;
+            }
 
-                // If it's a rate limit error, add extra delay before continuing
-                if (e.getMessage() != null && e.getMessage().contains("429")) {
-                    log.warn("Rate limit hit, adding extra delay before continuing...");
+            deliveryPipeline.submit(context.channel(), new CheckpointDeliveryPipeline.SendTask() {
+                @Override
+                public void send() {
                     try {
-                        Thread.sleep(1000); // Wait 1 second before continuing
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.error("Interrupted while waiting for rate limit", ie);
+                        dispatchEmail(email, context);
+                        successCount.incrementAndGet();
+                        deliveryStatusWriter.markSent(checkpointLead,
+                                onSentWritten(checkpointLead, onWritten, sentUnsaved));
+                    } catch (Exception e) {
+                        log.error("Failed to send email to lead: {}", checkpointLead.getLeadId(), e);
+                        unsent.add(email.messageId());
+                        failureCount.incrementAndGet();
+                        deliveryStatusWriter.markFailed(checkpointLead, e.getMessage(), onWritten);
                     }
                 }
-            }
+
+                @Override
+                public void abandon(String reason) {
+                    unsent.add(email.messageId());
+                    failureCount.incrementAndGet();
+                    deliveryStatusWriter.markFailed(checkpointLead, reason, onWritten);
+                }
+            });
+        }
+
+        if (!batch.isEmpty()) {
+            sendBatch(batch, context, templated ? templatedBody(context) : null, links, successCount, failureCount,
+                    onWritten, sentUnsaved, unsent);
         }
 
-        if (successCount > 0 || failureCount > 0) {
-            log.info("Email delivery completed for checkpoint: {}. Success: {}, Failures: {}",
-                    checkpoint.getName(), successCount, failureCount);
+        // Wait until every lead's status in this chunk has been written
+        remaining.await();
+        links.discard(unsent);
+        if (!sentUnsaved.isEmpty() && !deliveryStatusWriter.persistSent(sentUnsaved)) {
+            log.error("Sent checkpoint leads {} could not be recorded; they stay sending and are not sent again",
+                    sentUnsaved.stream().map(CampaignCheckpointLead::getId).toList());
         }
+        if (unsaved.get() > 0) {
+            // Those leads were not recorded; do not count the chunk as processed
+            throw new RuntimeException("Failed to save delivery status for " + unsaved.get() + " of " +
+                    chunk.size() + " leads in checkpoint: " + checkpoint.getName());
+        }
+        return chunk.size();
     }
 
     /**
-     * Send email to a specific lead using Gmail API
+     * Status callback for a sent lead that remembers it when the write fails
      */
-    public void sendEmailToLead(Lead lead, Template template, CampaignCheckpoint checkpoint) {
-        try {
-            // Parse template JSON to get subject and body
-            String subject = "No Subject";
-            String body = "No content";
-            boolean isHtml = false;
-
-            if (template != null && template.getContentJson() != null) {
-                JsonNode templateJson = objectMapper.readTree(template.getContentJson());
-                subject = templateJson.has("subject") ? templateJson.get("subject").asText() : "No Subject";
-                body = templateJson.has("body") ? templateJson.get("body").asText() : "No content";
-                isHtml = templateJson.has("isHtml") ? templateJson.get("isHtml").asBoolean() : false;
+    private static Consumer<Boolean> onSentWritten(CampaignCheckpointLead checkpointLead,
+            Consumer<Boolean> onWritten, Set<CampaignCheckpointLead> sentUnsaved) {
+        return written -> {
+            if (!written) {
+                sentUnsaved.add(checkpointLead);
             }
+            onWritten.accept(written);
+        };
+    }
 
-            // Create lead data map for personalization
-            Map<String, String> leadData = createLeadDataMap(lead);
-
-            // Personalize subject and body
-            String personalizedSubject = personalizeContent(subject, leadData);
-            String personalizedBody = personalizeContent(body, leadData);
-
-            // Generate unique message ID for tracking
-            String messageId = "campaign_" + checkpoint.getId().toString().substring(0, 8) +
-                    "_" + System.currentTimeMillis() + "_" +
-                    java.util.UUID.randomUUID().toString().substring(0, 8);
-
-            // Get campaign creator for tracking
-            String campaignCreatorId = getCampaignCreatorId(checkpoint);
-
-            // Send email using the configured provider
-            if (checkpoint.getEmailProvider() == CampaignCheckpoint.EmailProvider.GMAIL) {
-                // Send via Gmail API using campaign creator's OAuth2 token
-                Long campaignCreatorUserId = null;
-                if (campaignCreatorId != null) {
-                    try {
-                        campaignCreatorUserId = Long.parseLong(campaignCreatorId);
-                    } catch (NumberFormatException e) {
-                        log.warn("Invalid campaign creator ID format: {}", campaignCreatorId);
-                    }
-                }
+    /**
+     * Send rendered emails in one bulk call and record each lead's outcome
+     * from the per-message IDs in the response. With a templated body the
+     * requests carry the unrendered template and each lead's values.
+     */
+    private void sendBatch(List<RenderedLead> batch, DeliveryContext context, TemplatedBody templatedBody,
+            ShortLinkService.LinkBatch links, AtomicInteger successCount, AtomicInteger failureCount,
+            Consumer<Boolean> onWritten, Set<CampaignCheckpointLead> sentUnsaved, Set<String> unsent) {
+        EmailResponse response;
+        try {
+            List<EmailRequest> requests = batch.stream()
+                    .map(rendered -> templatedBody != null
+                            ? toTemplatedRequest(rendered.email(), context, templatedBody, links)
+                            : toEmailRequest(rendered.email(), context))
+                    .toList();
+            response = organizationEmailService.sendBulkEmail(context.orgId(), requests,
+                    context.channel().toProviderType());
+        } catch (Exception e) {
+            log.error("Failed to send batch of {} emails via {}", batch.size(), context.channel(), e);
+            response = null;
+        }
 
-                gmailService.sendEmail(lead.getEmail(), personalizedSubject, personalizedBody, isHtml, null,
-                        campaignCreatorUserId);
-                
-                // Record delivery for Gmail (since GmailService doesn't track delivery)
-                deliveryTrackingService.recordEmailDelivered(
-                        messageId,
-                        lead.getEmail(),
-                        checkpoint.getCampaignId().toString(),
-                        campaignCreatorId,
-                        checkpoint.getOrgId().toString());
+        for (int i = 0; i < batch.size(); i++) {
+            CampaignCheckpointLead checkpointLead = batch.get(i).checkpointLead();
+            boolean sent = response != null && (response.getMessageIds() != null
+                    ? response.getMessageIds().get(i) != null
+                    : response.isSuccess());
+            if (sent) {
+                successCount.incrementAndGet();
+                deliveryStatusWriter.markSent(checkpointLead, onSentWritten(checkpointLead, onWritten, sentUnsaved));
             } else {
-                // Send via OrganizationEmailService (SES, Resend, etc.)
-                com.outreachly.outreachly.dto.EmailRequest emailRequest = new com.outreachly.outreachly.dto.EmailRequest();
-                emailRequest.setSubject(personalizedSubject);
-                emailRequest.setContent(personalizedBody);
-                emailRequest.setRecipients(List.of(lead.getEmail()));
-                emailRequest.setHtml(isHtml);
-                emailRequest.setCampaignId(checkpoint.getCampaignId().toString());
-
-                // Convert checkpoint email provider to EmailProviderType
-                com.outreachly.outreachly.service.email.EmailProviderType providerType = checkpoint
-                        .getEmailProvider() == CampaignCheckpoint.EmailProvider.RESEND
-                                ? com.outreachly.outreachly.service.email.EmailProviderType.RESEND
-                                : com.outreachly.outreachly.service.email.EmailProviderType.AWS_SES;
-
-                organizationEmailService.sendEmail(checkpoint.getOrgId(), emailRequest, providerType);
+                unsent.add(batch.get(i).email().messageId());
+                failureCount.incrementAndGet();
+                deliveryStatusWriter.markFailed(checkpointLead,
+                        response != null ? response.getMessage() : "No response from provider", onWritten);
             }
+        }
+    }
 
-            log.debug("Email sent successfully to: {} with messageId: {} via provider: {}",
-                    lead.getEmail(), messageId, checkpoint.getEmailProvider());
+    /**
+     * Send email to a specific lead using the checkpoint's provider
+     */
+    public void sendEmailToLead(Lead lead, Template template, CampaignCheckpoint checkpoint) {
+        sendEmailToLead(LeadSnapshot.from(lead), deliveryContextLoader.load(checkpoint, template));
+    }
 
+    /**
+     * Send email to a specific lead with an already resolved delivery context
+     */
+    public void sendEmailToLead(LeadSnapshot lead, DeliveryContext context) {
+        ShortLinkService.LinkBatch links = shortLinkService.newBatch();
+        RenderedEmail email = null;
+        try {
+            email = renderEmail(lead, context);
+            if (email.isHtml()) {
+                links.add(email.body(), trackingContext(email, context));
+            }
+            links.create();
+            dispatchEmail(addTracking(email, context, links), context);
         } catch (Exception e) {
-            log.error("Failed to send email to: {}", lead.getEmail(), e);
+            log.error("Failed to send email to: {}", lead.email(), e);
+            if (email != null) {
+                links.discard(List.of(email.messageId()));
+            }
             throw new RuntimeException("Failed to send email: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Create lead data map for personalization
+     * Personalize the checkpoint's compiled template for a lead. Links and the
+     * open-tracking pixel are added later by {@link #addTracking}.
      */
-    private Map<String, String> createLeadDataMap(Lead lead) {
-        Map<String, String> leadData = new HashMap<>();
-        leadData.put("email", lead.getEmail() != null ? lead.getEmail() : "");
-        leadData.put("firstName", lead.getFirstName() != null ? lead.getFirstName() : "");
-        leadData.put("lastName", lead.getLastName() != null ? lead.getLastName() : "");
-        leadData.put("position", lead.getPosition() != null ? lead.getPosition() : "");
-        leadData.put("phone", lead.getPhone() != null ? lead.getPhone() : "");
-        leadData.put("domain", lead.getDomain() != null ? lead.getDomain() : "");
-        leadData.put("linkedinUrl", lead.getLinkedinUrl() != null ? lead.getLinkedinUrl() : "");
-        leadData.put("twitter", lead.getTwitter() != null ? lead.getTwitter() : "");
-        leadData.put("department", lead.getDepartment() != null ? lead.getDepartment() : "");
-        leadData.put("seniority", lead.getSeniority() != null ? lead.getSeniority() : "");
+    private RenderedEmail renderEmail(LeadSnapshot lead, DeliveryContext context) {
+        // Create lead data map for personalization
+        Map<String, String> leadData = createLeadDataMap(lead);
 
-        // Add computed fields
-        leadData.put("fullName", (lead.getFirstName() + " " + lead.getLastName()).trim());
-        leadData.put("first_name", lead.getFirstName() != null ? lead.getFirstName() : "");
-        leadData.put("last_name", lead.getLastName() != null ? lead.getLastName() : "");
+        // Generate unique message ID for tracking
+        String messageId = "campaign_" + context.checkpointId().toString().substring(0, 8) +
+                "_" + System.currentTimeMillis() + "_" +
+                UUID.randomUUID().toString().substring(0, 8);
 
-        return leadData;
+        return new RenderedEmail(lead.email(), context.subject().render(leadData), context.body().render(leadData),
+                context.isHtml(), messageId, leadData);
+    }
+
+    /**
+     * Links go out as short links attributed to the message, once the batch
+     * has created them, plus an open-tracking pixel
+     */
+    private RenderedEmail addTracking(RenderedEmail email, DeliveryContext context,
+            ShortLinkService.LinkBatch links) {
+        if (!email.isHtml()) {
+            return email;
+        }
+        ShortLinkService.LinkContext tracking = trackingContext(email, context);
+        String body = trackingPixelService.injectPixel(links.rewrite(email.body(), tracking), tracking);
+        return new RenderedEmail(email.to(), email.subject(), body, true, email.messageId(), email.values());
+    }
+
+    private static ShortLinkService.LinkContext trackingContext(RenderedEmail email, DeliveryContext context) {
+        return new ShortLinkService.LinkContext(email.messageId(), email.to(), context.campaignCreatorId(),
+                context.campaignId().toString(), context.orgId().toString());
     }
 
     /**
-     * Get campaign creator ID for rate limiting
+     * Hand a rendered email to the configured provider, feeding the outcome
+     * back to the provider's adaptive rate limit
      */
-    private String getCampaignCreatorId(CampaignCheckpoint checkpoint) {
+    private void dispatchEmail(RenderedEmail email, DeliveryContext context) throws Exception {
         try {
-            return campaignRepository.findById(checkpoint.getCampaignId())
-                    .map(campaign -> campaign.getCreatedBy().toString())
-                    .orElse(null);
+            sendViaProvider(email, context);
         } catch (Exception e) {
-            log.warn("Failed to get campaign creator for rate limiting: {}", e.getMessage());
-            return null;
+            ProviderThrottledException throttled = ProviderThrottledException.find(e);
+            if (throttled != null) {
+                rateLimiter.onThrottled(context.channel(), null, throttled.getRetryAfter());
+            }
+            throw e;
+        }
+        rateLimiter.onSuccess(context.channel(), null);
+    }
+
+    private void sendViaProvider(RenderedEmail email, DeliveryContext context) throws Exception {
+        if (context.channel() == DeliveryChannel.GMAIL) {
+            // Send via Gmail API using campaign creator's OAuth2 token
+            gmailService.sendEmail(email.to(), email.subject(), email.body(), email.isHtml(), null,
+                    context.campaignCreatorUserId());
+
+            // Record delivery for Gmail (since GmailService doesn't track delivery)
+            deliveryTrackingService.recordEmailDelivered(
+                    email.messageId(),
+                    email.to(),
+                    context.campaignId().toString(),
+                    context.campaignCreatorId(),
+                    context.orgId().toString());
+        } else {
+            // Send via OrganizationEmailService (SES, Resend, etc.)
+            EmailRequest emailRequest = toEmailRequest(email, context);
+
+            EmailResponse response = organizationEmailService.sendEmail(context.orgId(), emailRequest,
+                    context.channel().toProviderType());
+            if (response == null || !response.isSuccess()) {
+                throw new RuntimeException(response != null ? response.getMessage() : "No response from provider");
+            }
         }
+
+        log.debug("Email sent successfully to: {} with messageId: {} via provider: {}",
+                email.to(), email.messageId(), context.channel());
     }
 
     /**
-     * Personalize content by replacing variables like {{firstName}} with actual
-     * values
+     * The checkpoint's body as a template for the provider to render, with
+     * placeholders for each lead's tracked links and open pixel
      */
-    private String personalizeContent(String content, Map<String, String> leadData) {
-        if (content == null) {
-            return "";
+    private TemplatedBody templatedBody(DeliveryContext context) {
+        if (!context.isHtml()) {
+            return new TemplatedBody(context.body().source(), List.of(), false);
         }
+        ShortLinkService.TemplateLinks templateLinks = shortLinkService.templateLinks(context.body().source(),
+                LINK_VARIABLE);
+        String body = trackingPixelService.injectPixelPlaceholder(templateLinks.html(), "{{" + PIXEL_VARIABLE + "}}");
+        return new TemplatedBody(body, templateLinks.urls().stream().map(CompiledTemplate::compile).toList(),
+                trackingPixelService.isEnabled());
+    }
 
-        String result = content;
-        for (Map.Entry<String, String> entry : leadData.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            result = result.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
+    private EmailRequest toTemplatedRequest(RenderedEmail email, DeliveryContext context, TemplatedBody templatedBody,
+            ShortLinkService.LinkBatch links) {
+        Map<String, Object> values = new HashMap<>(email.values());
+        ShortLinkService.LinkContext tracking = trackingContext(email, context);
+        for (int i = 0; i < templatedBody.links().size(); i++) {
+            String url = templatedBody.links().get(i).render(email.values());
+            values.put(LINK_VARIABLE + i, links.trackedUrl(url, tracking));
+        }
+        if (templatedBody.pixel()) {
+            values.put(PIXEL_VARIABLE, trackingPixelService.pixelImage(tracking));
         }
 
-        return result;
+        EmailRequest emailRequest = new EmailRequest();
+        emailRequest.setTemplateId(context.templateId().toString());
+        emailRequest.setTemplateData(values);
+        emailRequest.setSubject(context.subject().source());
+        emailRequest.setContent(templatedBody.body());
+        emailRequest.setRecipients(List.of(email.to()));
+        emailRequest.setHtml(email.isHtml());
+        emailRequest.setCampaignId(context.campaignId().toString());
+        return emailRequest;
+    }
+
+    private static EmailRequest toEmailRequest(RenderedEmail email, DeliveryContext context) {
+        EmailRequest emailRequest = new EmailRequest();
+        emailRequest.setSubject(email.subject());
+        emailRequest.setContent(email.body());
+        emailRequest.setRecipients(List.of(email.to()));
+        emailRequest.setHtml(email.isHtml());
+        emailRequest.setCampaignId(context.campaignId().toString());
+        return emailRequest;
     }
 
     /**
-     * Mark a lead as successfully sent
+     * Create lead data map for personalization
+     */
+    private Map<String, String> createLeadDataMap(LeadSnapshot lead) {
+        Map<String, String> leadData = new HashMap<>();
+        leadData.put("email", lead.email() != null ? lead.email() : "");
+        leadData.put("firstName", lead.firstName() != null ? lead.firstName() : "");
+        leadData.put("lastName", lead.lastName() != null ? lead.lastName() : "");
+        leadData.put("position", lead.position() != null ? lead.position() : "");
+        leadData.put("phone", lead.phone() != null ? lead.phone() : "");
+        leadData.put("domain", lead.domain() != null ? lead.domain() : "");
+        leadData.put("linkedinUrl", lead.linkedinUrl() != null ? lead.linkedinUrl() : "");
+        leadData.put("twitter", lead.twitter() != null ? lead.twitter() : "");
+        leadData.put("department", lead.department() != null ? lead.department() : "");
+        leadData.put("seniority", lead.seniority() != null ? lead.seniority() : "");
+
+        // Add computed fields
+        leadData.put("fullName", (lead.firstName() + " " + lead.lastName()).trim());
+        leadData.put("first_name", lead.firstName() != null ? lead.firstName() : "");
+        leadData.put("last_name", lead.lastName() != null ? lead.lastName() : "");
+
+        return leadData;
+    }
+
+    /**
+     * Mark a lead as successfully sent. Goes through the batching status writer
+     * and returns once the row is written.
      */
-    @Transactional
     public void markLeadAsSent(CampaignCheckpointLead checkpointLead) {
-        checkpointLead.setStatus(CampaignCheckpointLead.DeliveryStatus.sent);
-        checkpointLead.setSentAt(LocalDateTime.now());
-        checkpointLead.setUpdatedAt(LocalDateTime.now());
-        checkpointLeadRepository.save(checkpointLead);
+        awaitPersisted(onWritten -> deliveryStatusWriter.markSent(checkpointLead, onWritten));
     }
 
     /**
@@ -313,16 +582,56 @@ public class EmailDeliveryService {
     }
 
     /**
-     * Mark a lead as failed to send
+     * Mark a lead as failed to send. Goes through the batching status writer
+     * and returns once the row is written.
      */
-    @Transactional
     public void markLeadAsFailed(CampaignCheckpointLead checkpointLead, String errorMessage) {
-        checkpointLead.setStatus(CampaignCheckpointLead.DeliveryStatus.failed);
-        checkpointLead.setErrorMessage(errorMessage);
-        checkpointLead.setUpdatedAt(LocalDateTime.now());
-        checkpointLeadRepository.save(checkpointLead);
+        awaitPersisted(onWritten -> deliveryStatusWriter.markFailed(checkpointLead, errorMessage, onWritten));
+    }
+
+    /**
+     * Fail every lead of an active checkpoint that a run or queue worker
+     * claimed more than {@code staleAfter} ago without recording a result, up
+     * to {@code limit} leads. Leads of a checkpoint whose run still holds its
+     * lease are left alone. The email may or may not have gone out, so it is
+     * not sent again. Returns the checkpoints of the failed leads.
+     */
+    public Set<UUID> failInterrupted(Duration staleAfter, int limit) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        Set<UUID> checkpointIds = new HashSet<>();
+
+        for (CampaignCheckpointLead checkpointLead : checkpointLeadRepository.findInterrupted(cutoff,
+                PageRequest.of(0, limit))) {
+            if (checkpointLeadRepository.transitionStatus(checkpointLead.getId(),
+                    CampaignCheckpointLead.DeliveryStatus.sending,
+                    CampaignCheckpointLead.DeliveryStatus.failed,
+                    "Delivery interrupted before its result was saved; the email may have been sent",
+                    LocalDateTime.now()) == 1) {
+                checkpointIds.add(checkpointLead.getCheckpointId());
+            }
+        }
+
+        if (!checkpointIds.isEmpty()) {
+            log.warn("Failed interrupted checkpoint leads of {} checkpoints", checkpointIds.size());
+        }
+        return checkpointIds;
+    }
 
-        log.error("Email failed for lead: {} - {}", checkpointLead.getLeadId(), errorMessage);
+    private void awaitPersisted(Consumer<Consumer<Boolean>> write) {
+        CompletableFuture<Boolean> written = new CompletableFuture<>();
+        write.accept(written::complete);
+        boolean saved;
+        try {
+            saved = written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving delivery status", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save delivery status", e.getCause());
+        }
+        if (!saved) {
+            throw new RuntimeException("Failed to save delivery status");
+        }
     }
 
     /**
@@ -376,4 +685,24 @@ public class EmailDeliveryService {
         private double successRate;
         private double failureRate;
     }
+
+    /**
+     * A personalized email ready to hand to a provider, with the lead's values it was rendered with
+     */
+    private record RenderedEmail(String to, String subject, String body, boolean isHtml, String messageId,
+            Map<String, String> values) {
+    }
+
+    /**
+     * Checkpoint body for provider-side rendering: link URLs by placeholder
+     * index, and whether it has an open-pixel placeholder
+     */
+    private record TemplatedBody(String body, List<CompiledTemplate> links, boolean pixel) {
+    }
+
+    /**
+     * A rendered email waiting to go out in a batch, with the lead it belongs to
+     */
+    private record RenderedLead(CampaignCheckpointLead checkpointLead, RenderedEmail email) {
+    }
 }
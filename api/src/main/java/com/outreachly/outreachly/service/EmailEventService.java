@@ -2,6 +2,7 @@ package com.outreachly.outreachly.service;
 
 import com.outreachly.outreachly.entity.EmailEvent;
 import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.service.suppression.SuppressionList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,10 +17,16 @@ import java.util.List;
 public class EmailEventService {
 
     private final EmailEventRepository emailEventRepository;
+    private final SuppressionList suppressionList;
 
     @Transactional
     public EmailEvent saveEmailEvent(EmailEvent emailEvent) {
-        return emailEventRepository.save(emailEvent);
+        EmailEvent saved = emailEventRepository.save(emailEvent);
+        if (saved.getEventType() == EmailEvent.EmailEventType.BOUNCE
+                || saved.getEventType() == EmailEvent.EmailEventType.COMPLAINT) {
+            suppressionList.onEvent(saved);
+        }
+        return saved;
     }
 
     @Transactional
@@ -57,15 +64,12 @@ public class EmailEventService {
         return emailEventRepository.countComplaintsSince(emailAddress, since);
     }
 
+    /**
+     * Suppressed after any complaint or more than 3 bounces in 30 days.
+     * Answered from the in-memory suppression list.
+     */
     public boolean isEmailSuppressed(String emailAddress) {
-        // Check for recent bounces or complaints
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-
-        long bounceCount = getBounceCountSince(emailAddress, thirtyDaysAgo);
-        long complaintCount = getComplaintCountSince(emailAddress, thirtyDaysAgo);
-
-        // Suppress if there are any complaints or more than 3 bounces in 30 days
-        return complaintCount > 0 || bounceCount > 3;
+        return suppressionList.isSuppressed(emailAddress);
     }
 
     public List<EmailEvent> getEmailHistory(String emailAddress) {
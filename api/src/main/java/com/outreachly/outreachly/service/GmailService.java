@@ -2,6 +2,7 @@ package com.outreachly.outreachly.service;
 
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
@@ -9,10 +10,19 @@ import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.model.Message;
 import com.outreachly.outreachly.entity.User;
 import com.outreachly.outreachly.repository.UserRepository;
+import com.outreachly.outreachly.service.delivery.DeliveryChannel;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.delivery.ProviderThrottledException;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
@@ -25,19 +35,81 @@ import jakarta.mail.internet.MimeMessage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.time.Instant;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends mail through the Gmail API with the user's OAuth2 token.
+ * Gmail clients are cached per user on one shared HTTP transport. Cached
+ * tokens are refreshed shortly before they expire, both on use and by a
+ * background sweep, so bulk sends do not look up the user and authorized
+ * client for every message. A refresh runs outside the client map, one at a
+ * time per user; other callers for that user wait for its result instead of
+ * blocking the map. Idle clients are dropped, and user ID lookups are kept
+ * only while their user has a cached client.
+ *
+ * Batch sends take a GMAIL permit from ProviderRateLimiter for every message
+ * and report throttled responses back to it; a throttled message is retried
+ * once the limiter allows it, up to {@code gmail.batch.max-attempts} times.
+ */
 @Service
 @Slf4j
 public class GmailService {
 
+    private static final String GMAIL_REGISTRATION = "google-gmail";
+    private static final String GOOGLE_REGISTRATION = "google";
+    // Minimum time between token lookups for a client whose token cannot be refreshed
+    private static final Duration RECHECK_INTERVAL = Duration.ofSeconds(30);
+
     private final OAuth2AuthorizedClientService authorizedClientService;
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
     private final UserRepository userRepository;
+    private final OutboundLimiter outboundLimiter;
+    private final ProviderRateLimiter rateLimiter;
+    private final ExecutorService outboundExecutor;
+    private final NetHttpTransport httpTransport;
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
 
-    public GmailService(OAuth2AuthorizedClientService authorizedClientService, UserRepository userRepository) {
+    // Refresh tokens this long before they expire
+    @Value("${gmail.client-cache.refresh-skew-seconds:300}")
+    private long refreshSkewSeconds;
+
+    // Concurrent sends per user in batch mode (the global Gmail cap still applies)
+    @Value("${gmail.batch.per-user-concurrency:4}")
+    private int perUserConcurrency;
+
+    // Attempts per message in batch mode when Gmail throttles it
+    @Value("${gmail.batch.max-attempts:3}")
+    private int maxAttempts;
+
+    // Drop clients that have not sent anything for this long
+    @Value("${gmail.client-cache.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<String, GmailClient> clients = new ConcurrentHashMap<>();
+    private final Map<Long, String> principalsByUser = new ConcurrentHashMap<>();
+    // Token refreshes in progress, so only one caller per user talks to the token endpoint
+    private final Map<String, CompletableFuture<GmailClient>> refreshing = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> userSendSlots = new ConcurrentHashMap<>();
+
+    public GmailService(OAuth2AuthorizedClientService authorizedClientService,
+            OAuth2AuthorizedClientManager authorizedClientManager, UserRepository userRepository,
+            OutboundLimiter outboundLimiter, ProviderRateLimiter rateLimiter, ExecutorService outboundExecutor) {
         this.authorizedClientService = authorizedClientService;
+        this.authorizedClientManager = authorizedClientManager;
         this.userRepository = userRepository;
+        this.outboundLimiter = outboundLimiter;
+        this.rateLimiter = rateLimiter;
+        this.outboundExecutor = outboundExecutor;
+        this.httpTransport = newHttpTransport();
     }
 
     /**
@@ -54,23 +126,26 @@ public class GmailService {
     public void sendEmail(String to, String subject, String body, boolean isHtml, String fromEmail, Long userId)
             throws IOException, MessagingException {
         try {
-            // Get OAuth2 access token - try user-specific first, then current context
-            OAuth2AccessToken accessToken = userId != null ? getAccessTokenByUserId(userId) : getCurrentAccessToken();
-            if (accessToken == null) {
+            // Get the Gmail client - try user-specific first, then current context
+            GmailClient client = userId != null ? getClientForUser(userId) : getClientForCurrentUser();
+            if (client == null) {
                 throw new IllegalStateException("No valid OAuth2 access token found");
             }
 
-            // Create Gmail service with OAuth2 credentials
-            Gmail service = createGmailService(accessToken.getTokenValue());
-
             // Create email message
             Message message = createEmailMessage(to, subject, body, isHtml, fromEmail);
 
             // Send email
-            service.users().messages().send("me", message).execute();
+            execute(client, message);
 
             log.info("Email sent successfully to: {}", to);
 
+        } catch (HttpResponseException e) {
+            log.error("Failed to send email to: {}", to, e);
+            if (isRateLimited(e)) {
+                throw new ProviderThrottledException("Gmail rate limit exceeded", retryAfter(e), e);
+            }
+            throw new RuntimeException("Failed to send email", e);
         } catch (Exception e) {
             log.error("Failed to send email to: {}", to, e);
             throw new RuntimeException("Failed to send email", e);
@@ -78,72 +153,255 @@ public class GmailService {
     }
 
     /**
-     * Get OAuth2 access token by user ID
+     * Send many messages for one user, a few at a time, on the outbound
+     * executor. The user's token is resolved once, from {@code userId} or the
+     * current security context. Returns one result per email, in order, with
+     * the Gmail message ID of every sent message.
      */
-    private OAuth2AccessToken getAccessTokenByUserId(Long userId) {
-        try {
-            // Get user by ID
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                log.warn("User not found for ID: {}", userId);
-                return null;
-            }
+    public List<BatchResult> sendBatch(List<BatchEmail> emails, String fromEmail, Long userId) {
+        GmailClient client = userId != null ? getClientForUser(userId) : getClientForCurrentUser();
+        if (client == null) {
+            return emails.stream()
+                    .map(email -> BatchResult.failed(email.to(), "No valid OAuth2 access token found"))
+                    .toList();
+        }
 
-            // Try to get Gmail-specific token first
-            OAuth2AuthorizedClient gmailClient = authorizedClientService
-                    .loadAuthorizedClient("google-gmail", user.getEmail());
-            if (gmailClient != null && gmailClient.getAccessToken() != null) {
-                return gmailClient.getAccessToken();
+        Semaphore slots = userSendSlots.computeIfAbsent(client.principalName,
+                key -> new Semaphore(Math.max(1, perUserConcurrency)));
+        List<CompletableFuture<BatchResult>> pending = new ArrayList<>(emails.size());
+        for (BatchEmail email : emails) {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.add(CompletableFuture.completedFuture(BatchResult.failed(email.to(), "Batch send interrupted")));
+                continue;
             }
-
-            // Fallback to Google OAuth token
-            OAuth2AuthorizedClient googleClient = authorizedClientService
-                    .loadAuthorizedClient("google", user.getEmail());
-            if (googleClient != null && googleClient.getAccessToken() != null) {
-                return googleClient.getAccessToken();
+            try {
+                pending.add(CompletableFuture
+                        .supplyAsync(() -> sendBatchEmail(client, email, fromEmail), outboundExecutor)
+                        .exceptionally(e -> BatchResult.failed(email.to(), e.getMessage()))
+                        .whenComplete((result, error) -> slots.release()));
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                pending.add(CompletableFuture.completedFuture(BatchResult.failed(email.to(), "Sender is busy")));
             }
+        }
 
-            log.warn("No OAuth2 token found for user: {} (ID: {})", user.getEmail(), userId);
-            return null;
+        List<BatchResult> results = pending.stream().map(CompletableFuture::join).toList();
+        log.info("Gmail batch send finished: {} of {} sent",
+                results.stream().filter(BatchResult::success).count(), emails.size());
+        return results;
+    }
 
+    // Paced by the GMAIL rate limit; throttled attempts slow the limiter down and are retried
+    private BatchResult sendBatchEmail(GmailClient client, BatchEmail email, String fromEmail) {
+        try {
+            Message message = createEmailMessage(email.to(), email.subject(), email.body(), email.isHtml(), fromEmail);
+            for (int attempt = 1; ; attempt++) {
+                rateLimiter.acquire(DeliveryChannel.GMAIL);
+                try {
+                    Message sent = execute(client, message);
+                    rateLimiter.onSuccess(DeliveryChannel.GMAIL, null);
+                    return new BatchResult(email.to(), sent.getId(), true, null);
+                } catch (HttpResponseException e) {
+                    if (!isRateLimited(e)) {
+                        throw e;
+                    }
+                    rateLimiter.onThrottled(DeliveryChannel.GMAIL, null, retryAfter(e));
+                    if (attempt >= maxAttempts) {
+                        log.warn("Gmail throttled email to {} {} times, giving up", email.to(), attempt);
+                        return BatchResult.failed(email.to(), "Gmail rate limit exceeded");
+                    }
+                    log.debug("Gmail throttled email to {}, retrying", email.to());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchResult.failed(email.to(), "Batch send interrupted");
         } catch (Exception e) {
-            log.error("Failed to get OAuth2 token for user ID: {}", userId, e);
+            log.error("Failed to send email to: {}", email.to(), e);
+            return BatchResult.failed(email.to(), e.getMessage());
+        }
+    }
+
+    private static Duration retryAfter(HttpResponseException e) {
+        String retryAfter = e.getHeaders() != null ? e.getHeaders().getFirstHeaderStringValue("Retry-After") : null;
+        return ProviderRateLimiter.parseRetryAfter(retryAfter);
+    }
+
+    /**
+     * Gmail reports throttling as 429, or as 403 with a rateLimitExceeded /
+     * userRateLimitExceeded reason
+     */
+    private boolean isRateLimited(HttpResponseException e) {
+        if (e.getStatusCode() == 429) {
+            return true;
+        }
+        String content = e.getContent();
+        return e.getStatusCode() == 403 && content != null
+                && (content.contains("rateLimitExceeded") || content.contains("userRateLimitExceeded"));
+    }
+
+    /**
+     * Send one message, dropping the cached client when Gmail rejects its token
+     */
+    private Message execute(GmailClient client, Message message) throws Exception {
+        try {
+            return outboundLimiter.call(Downstream.GMAIL,
+                    () -> client.gmail.users().messages().send("me", message).execute());
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() == 401 || (e.getStatusCode() == 403 && !isRateLimited(e))) {
+                // Revoked token or missing Gmail scope; look it up again on the next send
+                clients.remove(client.principalName, client);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cached Gmail client for a user ID
+     */
+    private GmailClient getClientForUser(Long userId) {
+        String principalName = principalsByUser.computeIfAbsent(userId,
+                id -> userRepository.findById(id).map(User::getEmail).orElse(null));
+        if (principalName == null) {
+            log.warn("User not found for ID: {}", userId);
             return null;
         }
+        // Fallback to the Google login token when Gmail was not connected separately
+        GmailClient client = getClient(principalName, GOOGLE_REGISTRATION);
+        if (client == null) {
+            // No token for the user; look the user up again next time
+            principalsByUser.remove(userId, principalName);
+        }
+        return client;
     }
 
     /**
-     * Get current OAuth2 access token from Spring Security context
+     * Cached Gmail client for the user in the Spring Security context
      */
-    private OAuth2AccessToken getCurrentAccessToken() {
+    private GmailClient getClientForCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
         if (authentication instanceof OAuth2AuthenticationToken oauth2Token) {
-            // Prefer token granted via the dedicated Gmail registration (incremental
-            // consent)
-            OAuth2AuthorizedClient gmailClient = authorizedClientService
-                    .loadAuthorizedClient("google-gmail", oauth2Token.getName());
-            if (gmailClient != null && gmailClient.getAccessToken() != null) {
-                return gmailClient.getAccessToken();
+            // Fallback to whatever registration the user logged in with
+            return getClient(oauth2Token.getName(), oauth2Token.getAuthorizedClientRegistrationId());
+        }
+        return null;
+    }
+
+    private GmailClient getClient(String principalName, String fallbackRegistrationId) {
+        Instant now = Instant.now();
+        GmailClient cached = clients.get(principalName);
+        if (cached == null || cached.needsRefresh(now)) {
+            cached = refresh(principalName, fallbackRegistrationId);
+        }
+        if (cached != null) {
+            cached.lastUsed = now;
+        }
+        return cached;
+    }
+
+    /**
+     * Refresh tokens that are about to expire and drop idle clients, so sends
+     * rarely have to wait for a token refresh
+     */
+    @Scheduled(fixedDelayString = "${gmail.client-cache.refresh-ms:60000}")
+    public void refreshClients() {
+        Instant now = Instant.now();
+        Instant idleSince = now.minus(Duration.ofMinutes(idleMinutes));
+        clients.forEach((principalName, client) -> {
+            if (client.lastUsed.isBefore(idleSince)) {
+                clients.remove(principalName, client);
+            } else if (client.needsRefresh(now)) {
+                refresh(principalName, client.registrationId);
             }
+        });
+        // Also covers clients dropped on a failed refresh or a rejected token
+        principalsByUser.values().removeIf(principalName -> !clients.containsKey(principalName));
+    }
 
-            // Fallback to whatever registration the user logged in with
-            OAuth2AuthorizedClient authorizedClient = authorizedClientService
-                    .loadAuthorizedClient(oauth2Token.getAuthorizedClientRegistrationId(), oauth2Token.getName());
-            if (authorizedClient != null) {
-                return authorizedClient.getAccessToken();
+    /**
+     * Reload the user's client unless another thread already is, then put it
+     * in the cache. Runs the token refresh outside the map, so lookups for
+     * other users never wait on it.
+     */
+    private GmailClient refresh(String principalName, String fallbackRegistrationId) {
+        CompletableFuture<GmailClient> mine = new CompletableFuture<>();
+        CompletableFuture<GmailClient> running = refreshing.putIfAbsent(principalName, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (RuntimeException e) {
+                return null;
             }
         }
 
-        return null;
+        try {
+            GmailClient existing = clients.get(principalName);
+            GmailClient client = existing != null && !existing.needsRefresh(Instant.now())
+                    ? existing
+                    : load(principalName, fallbackRegistrationId, existing);
+            if (client == null) {
+                if (existing != null) {
+                    clients.remove(principalName, existing);
+                }
+            } else if (existing == null) {
+                clients.putIfAbsent(principalName, client);
+            } else if (client != existing) {
+                clients.replace(principalName, existing, client);
+            }
+            mine.complete(client);
+            return client;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshing.remove(principalName, mine);
+        }
     }
 
     /**
-     * Create Gmail service instance with OAuth2 token
+     * Load (and refresh when close to expiry) the user's token, preferring the
+     * dedicated Gmail registration. Reuses the existing client when the
+     * registration did not change. Returns null when the user has no token.
      */
-    private Gmail createGmailService(String accessToken) throws IOException, GeneralSecurityException {
-        NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+    private GmailClient load(String principalName, String fallbackRegistrationId, GmailClient existing) {
+        OAuth2AuthorizedClient authorizedClient = authorize(GMAIL_REGISTRATION, principalName);
+        if (authorizedClient == null && fallbackRegistrationId != null
+                && !GMAIL_REGISTRATION.equals(fallbackRegistrationId)) {
+            authorizedClient = authorize(fallbackRegistrationId, principalName);
+        }
+        if (authorizedClient == null || authorizedClient.getAccessToken() == null) {
+            log.warn("No OAuth2 token found for user: {}", principalName);
+            return null;
+        }
 
+        String registrationId = authorizedClient.getClientRegistration().getRegistrationId();
+        GmailClient client = existing != null && existing.registrationId.equals(registrationId)
+                ? existing
+                : createGmailClient(principalName, registrationId);
+        client.update(authorizedClient.getAccessToken(), Duration.ofSeconds(refreshSkewSeconds));
+        return client;
+    }
+
+    private OAuth2AuthorizedClient authorize(String registrationId, String principalName) {
+        try {
+            return authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                    .withClientRegistrationId(registrationId)
+                    .principal(principalName)
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Failed to get {} OAuth2 token for user: {}: {}", registrationId, principalName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Create Gmail client on the shared transport; its token is set by
+     * {@link GmailClient#update}
+     */
+    private GmailClient createGmailClient(String principalName, String registrationId) {
         // Create credential with access token
         Credential credential = new Credential.Builder(
                 com.google.api.client.auth.oauth2.BearerToken.authorizationHeaderAccessMethod())
@@ -151,11 +409,18 @@ public class GmailService {
                 .setJsonFactory(JSON_FACTORY)
                 .build();
 
-        credential.setAccessToken(accessToken);
-
-        return new Gmail.Builder(httpTransport, JSON_FACTORY, credential)
+        Gmail gmail = new Gmail.Builder(httpTransport, JSON_FACTORY, credential)
                 .setApplicationName("Outreachly")
                 .build();
+        return new GmailClient(principalName, registrationId, credential, gmail);
+    }
+
+    private static NetHttpTransport newHttpTransport() {
+        try {
+            return GoogleNetHttpTransport.newTrustedTransport();
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Failed to create Gmail HTTP transport", e);
+        }
     }
 
     /**
@@ -197,15 +462,14 @@ public class GmailService {
      */
     public void sendHtmlEmail(String to, String subject, String htmlBody) throws IOException, MessagingException {
         try {
-            OAuth2AccessToken accessToken = getCurrentAccessToken();
-            if (accessToken == null) {
+            GmailClient client = getClientForCurrentUser();
+            if (client == null) {
                 throw new IllegalStateException("No valid OAuth2 access token found");
             }
 
-            Gmail service = createGmailService(accessToken.getTokenValue());
             Message message = createHtmlEmailMessage(to, subject, htmlBody);
 
-            service.users().messages().send("me", message).execute();
+            execute(client, message);
 
             log.info("HTML email sent successfully to: {}", to);
 
@@ -248,7 +512,7 @@ public class GmailService {
             }
 
             OAuth2AuthorizedClient gmailClient = authorizedClientService
-                    .loadAuthorizedClient("google-gmail", oauth2Token.getName());
+                    .loadAuthorizedClient(GMAIL_REGISTRATION, oauth2Token.getName());
             if (gmailClient == null || gmailClient.getAccessToken() == null) {
                 return false;
             }
@@ -263,16 +527,58 @@ public class GmailService {
             }
 
             // Token exists and is not expired for the gmail client; treat as connected
-            try {
-                createGmailService(accessToken.getTokenValue());
-                return true;
-            } catch (Exception e) {
-                log.warn("Gmail API access test failed: {}", e.getMessage());
-                return false;
-            }
+            return true;
         } catch (Exception e) {
             log.warn("Failed to check Gmail API access", e);
             return false;
         }
     }
+
+    /**
+     * Gmail client for one user; the token is swapped in place on refresh
+     */
+    private static final class GmailClient {
+        private final String principalName;
+        private final String registrationId;
+        private final Credential credential;
+        private final Gmail gmail;
+        private volatile Instant refreshAt = Instant.MIN;
+        private volatile Instant lastUsed = Instant.now();
+
+        private GmailClient(String principalName, String registrationId, Credential credential, Gmail gmail) {
+            this.principalName = principalName;
+            this.registrationId = registrationId;
+            this.credential = credential;
+            this.gmail = gmail;
+        }
+
+        private void update(OAuth2AccessToken token, Duration refreshSkew) {
+            credential.setAccessToken(token.getTokenValue());
+            Instant now = Instant.now();
+            Instant expiresAt = token.getExpiresAt();
+            Instant refreshDue = expiresAt != null ? expiresAt.minus(refreshSkew) : now.plus(refreshSkew);
+            // A token without a refresh token stays close to expiry; don't look it up on every send
+            Instant earliest = now.plus(RECHECK_INTERVAL);
+            refreshAt = refreshDue.isBefore(earliest) ? earliest : refreshDue;
+        }
+
+        private boolean needsRefresh(Instant now) {
+            return !now.isBefore(refreshAt);
+        }
+    }
+
+    /**
+     * One message of a batch send
+     */
+    public record BatchEmail(String to, String subject, String body, boolean isHtml) {
+    }
+
+    /**
+     * Outcome of one batch message; messageId is Gmail's ID when sent
+     */
+    public record BatchResult(String to, String messageId, boolean success, String error) {
+        static BatchResult failed(String to, String error) {
+            return new BatchResult(to, null, false, error);
+        }
+    }
 }
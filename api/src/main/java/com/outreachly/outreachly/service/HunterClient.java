@@ -2,16 +2,22 @@ package com.outreachly.outreachly.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.HttpClient;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -23,6 +29,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Slf4j
 public class HunterClient {
 
+    private final OutboundLimiter outboundLimiter;
+    private final HttpClient outboundHttpClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${HUNTER_API_KEY:}")
@@ -34,16 +42,18 @@ public class HunterClient {
     @Value("${HUNTER_BASE_URL:https://api.hunter.io/v2}")
     private String baseUrl;
 
-    @Value("${HUNTER_TIMEOUT_MS:500}")
+    @Value("${HUNTER_TIMEOUT_MS:20000}")
     private int timeoutMs;
 
     private final AtomicInteger nextKeyIndex = new AtomicInteger(0);
 
-    private RestTemplate buildClient() {
-        var rt = new RestTemplate();
-        // Keep defaults; short timeouts can be configured with a custom factory if
-        // needed.
-        return rt;
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void init() {
+        // Same pooled connections as the other outbound clients, with Hunter's own read timeout
+        restTemplate = new RestTemplate(new ReactorClientHttpRequestFactory(
+                outboundHttpClient.responseTimeout(Duration.ofMillis(timeoutMs))));
     }
 
     public JsonNode emailFinder(String domain, String firstName, String lastName) throws Exception {
@@ -102,7 +112,8 @@ public class HunterClient {
             b.queryParam("api_key", key);
             URI uri = b.build(true).toUri();
 
-            ResponseEntity<String> res = buildClient().getForEntity(uri, String.class);
+            ResponseEntity<String> res = outboundLimiter.call(Downstream.HUNTER,
+                    () -> restTemplate.getForEntity(uri, String.class));
             if (res.getStatusCode().value() == HttpStatus.OK.value()) {
                 nextKeyIndex.set((idx + 1) % keys.size());
                 return res;
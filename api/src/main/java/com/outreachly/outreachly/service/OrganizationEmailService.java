@@ -127,7 +127,17 @@ public class OrganizationEmailService {
      * Send bulk emails using the organization's configured provider
      */
     public EmailResponse sendBulkEmail(UUID orgId, List<EmailRequest> emailRequests) {
-        EmailProvider provider = getOrganizationProvider(orgId);
+        return sendBulkEmail(orgId, emailRequests, getOrganizationProvider(orgId));
+    }
+
+    /**
+     * Send bulk emails using a specific provider for the organization
+     */
+    public EmailResponse sendBulkEmail(UUID orgId, List<EmailRequest> emailRequests, EmailProviderType providerType) {
+        return sendBulkEmail(orgId, emailRequests, emailProviderFactory.getProvider(providerType));
+    }
+
+    private EmailResponse sendBulkEmail(UUID orgId, List<EmailRequest> emailRequests, EmailProvider provider) {
         Long userId = getCurrentUserId();
         String userIdStr = userId != null ? userId.toString() : null;
         String orgIdStr = orgId.toString();
@@ -140,8 +150,13 @@ public class OrganizationEmailService {
             response = provider.sendBulkEmail(emailRequests);
 
             // Record email events for each recipient in each request
-            for (EmailRequest request : emailRequests) {
-                if (response.isSuccess()) {
+            for (int i = 0; i < emailRequests.size(); i++) {
+                EmailRequest request = emailRequests.get(i);
+                // Providers report per-request message IDs; fall back to the overall result
+                boolean sent = response.getMessageIds() != null
+                        ? response.getMessageIds().get(i) != null
+                        : response.isSuccess();
+                if (sent) {
                     for (String recipient : request.getRecipients()) {
                         deliveryTrackingService.recordEmailDelivered(
                                 messageId + "_" + recipient.hashCode(),
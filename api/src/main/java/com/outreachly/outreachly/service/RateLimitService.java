@@ -1,48 +1,71 @@
 package com.outreachly.outreachly.service;
 
-import com.outreachly.outreachly.entity.EmailEvent;
-import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.entity.OrganizationSettings;
+import com.outreachly.outreachly.repository.OrganizationSettingsRepository;
+import com.outreachly.outreachly.repository.SendQuotaRepository;
+import com.outreachly.outreachly.service.quota.DailySendCounters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitService {
 
-    private final EmailEventRepository emailEventRepository;
+    private static final UUID NIL_UUID = new UUID(0, 0);
 
-    // Daily rate limit: 100 emails per day
-    private static final int DAILY_RATE_LIMIT = 100;
+    private final DailySendCounters dailySendCounters;
+    private final OrganizationSettingsRepository organizationSettingsRepository;
+    private final SendQuotaRepository sendQuotaRepository;
+
+    // Daily rate limit for organizations without their own limit
+    @Value("${rate-limit.daily-default:100}")
+    private int defaultDailyLimit;
+
+    // Reservations not settled or renewed within this long are given back by the recovery sweep
+    @Value("${rate-limit.reservation-ttl-seconds:1800}")
+    private long reservationTtlSeconds;
+
+    // Highest daily limit an organization can have, whatever its settings say
+    @Value("${rate-limit.daily-max:2000}")
+    private int maxDailyLimit;
+
+    // Organization daily limits, refreshed with the send counters
+    private final Map<UUID, Integer> dailyLimits = new ConcurrentHashMap<>();
 
     /**
-     * Check if user has remaining email quota for today
+     * Check if user has remaining email quota for today. Remaining is read from
+     * the same send_quota row {@link #reserve} checks, so quota held by running
+     * sends is not reported as available.
      * 
      * @param userId User ID to check
      * @param orgId  Organization ID to check
      * @return RateLimitInfo containing remaining emails and reset time
      */
     public RateLimitInfo checkRateLimit(String userId, String orgId) {
+        int dailyLimit = defaultDailyLimit;
         try {
+            UUID orgUuid = orgId != null ? UUID.fromString(orgId) : null;
+            dailyLimit = getDailyLimit(orgUuid);
+
             // Use local timezone instead of UTC to match how timestamps are stored
             LocalDate today = LocalDate.now();
-            LocalDateTime startOfDay = today.atStartOfDay();
             LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
 
-            // Count emails sent today by this user/org
-            long emailsSentToday = emailEventRepository.countByUserIdAndOrgIdAndTimestampBetweenAndEventType(
-                    userId,
-                    orgId != null ? java.util.UUID.fromString(orgId) : null,
-                    startOfDay,
-                    endOfDay,
-                    EmailEvent.EmailEventType.DELIVERY);
-
-            int remaining = Math.max(0, DAILY_RATE_LIMIT - (int) emailsSentToday);
+            // Limit minus used (or delivered per the in-memory counters) and reserved
+            int remaining = (int) sendQuotaRepository.remaining(userId, orgUuid != null ? orgUuid : NIL_UUID, today,
+                    dailySendCounters.get(userId, orgUuid), dailyLimit);
 
             // Calculate reset time (next local midnight)
             LocalDateTime resetTime = endOfDay;
@@ -50,7 +73,7 @@ public class RateLimitService {
 
             return RateLimitInfo.builder()
                     .remaining(remaining)
-                    .limit(DAILY_RATE_LIMIT)
+                    .limit(dailyLimit)
                     .resetTime(resetTime)
                     .resetTimeSeconds(resetTimeSeconds)
                     .build();
@@ -59,29 +82,13 @@ public class RateLimitService {
             log.error("Error checking rate limit for user: {} org: {}", userId, orgId, e);
             return RateLimitInfo.builder()
                     .remaining(0)
-                    .limit(DAILY_RATE_LIMIT)
+                    .limit(dailyLimit)
                     .resetTime(LocalDate.now().plusDays(1).atStartOfDay())
                     .resetTimeSeconds(86400)
                     .build();
         }
     }
 
-    /**
-     * Check if user can send the specified number of emails
-     * 
-     * @param userId     User ID to check
-     * @param orgId      Organization ID to check
-     * @param emailCount Number of emails to send
-     * @return true if user can send the emails, false otherwise
-     */
-    public boolean canSendEmails(String userId, String orgId, int emailCount) {
-        RateLimitInfo rateLimitInfo = checkRateLimit(userId, orgId);
-        boolean canSend = rateLimitInfo.getRemaining() >= emailCount;
-        log.info("🚦 CAN SEND RESULT - Remaining: {} >= Requested: {} = {}",
-                rateLimitInfo.getRemaining(), emailCount, canSend);
-        return canSend;
-    }
-
     /**
      * Get rate limit info for a specific user/organization
      * 
@@ -93,6 +100,143 @@ public class RateLimitService {
         return checkRateLimit(userId, orgId);
     }
 
+    /**
+     * Atomically reserve quota for {@code emailCount} emails for a single
+     * request, settled before the request returns.
+     */
+    public Optional<QuotaReservation> reserve(String userId, String orgId, int emailCount) {
+        return reserve(userId, orgId, emailCount, "request:" + UUID.randomUUID());
+    }
+
+    /**
+     * Atomically reserve quota for {@code emailCount} emails. Concurrent callers
+     * for the same user can never reserve more than the daily limit between
+     * them. Returns empty when the quota does not cover the request.
+     *
+     * Every reservation must be settled with {@link #commit} for the emails that
+     * were sent and {@link #release} for the rest. Long runs keep it alive with
+     * {@link #renew}; a reservation left alone for
+     * {@code rate-limit.reservation-ttl-seconds} is given back by
+     * {@link #reclaimExpiredReservations}, and {@link #releaseOwnedBy} gives back
+     * everything held by an owner whose run is known to be gone.
+     */
+    public Optional<QuotaReservation> reserve(String userId, String orgId, int emailCount, String owner) {
+        if (userId == null) {
+            log.warn("Cannot reserve quota without a user (org: {})", orgId);
+            return Optional.empty();
+        }
+
+        UUID orgUuid = orgId != null ? UUID.fromString(orgId) : null;
+        LocalDate today = LocalDate.now();
+        int dailyLimit = getDailyLimit(orgUuid);
+        QuotaReservation reservation = new QuotaReservation(UUID.randomUUID(), userId, orgUuid, today, emailCount);
+
+        sendQuotaRepository.createIfAbsent(userId, reservation.orgKey(), today);
+        boolean reserved = sendQuotaRepository.reserve(reservation.id(), userId, reservation.orgKey(), today, owner,
+                emailCount, dailySendCounters.get(userId, orgUuid), dailyLimit, reservationTtlSeconds) == 1;
+
+        log.info("🚦 QUOTA RESERVATION - User: {} requested {} of {} daily: {}", userId, emailCount, dailyLimit,
+                reserved ? "reserved" : "denied");
+        return reserved ? Optional.of(reservation) : Optional.empty();
+    }
+
+    /**
+     * Mark {@code sentCount} reserved emails as used
+     */
+    public void commit(QuotaReservation reservation, int sentCount) {
+        if (sentCount > 0) {
+            sendQuotaRepository.commit(reservation.id(), reservation.userId(), reservation.orgKey(),
+                    reservation.quotaDate(), sentCount);
+        }
+    }
+
+    /**
+     * Give back {@code unusedCount} reserved emails that were not sent
+     */
+    public void release(QuotaReservation reservation, int unusedCount) {
+        if (unusedCount > 0) {
+            sendQuotaRepository.release(reservation.id(), reservation.userId(), reservation.orgKey(),
+                    reservation.quotaDate(), unusedCount);
+        }
+    }
+
+    /**
+     * Extend a reservation that is still being worked through
+     */
+    public void renew(QuotaReservation reservation) {
+        sendQuotaRepository.renew(reservation.id(), reservationTtlSeconds);
+    }
+
+    /**
+     * Give back emails that were committed as used but then not sent, such as
+     * queued leads whose send failed in the worker
+     */
+    public void refund(String userId, UUID orgId, LocalDate quotaDate, int count) {
+        if (userId != null && count > 0) {
+            sendQuotaRepository.refund(userId, orgId != null ? orgId : NIL_UUID, quotaDate, count);
+        }
+    }
+
+    /**
+     * Give back every reservation held by an owner, once its run is known to be gone
+     */
+    public void releaseOwnedBy(String owner) {
+        int released = sendQuotaRepository.releaseOwnedBy(owner);
+        if (released > 0) {
+            log.info("Released stale quota reservations of {}", owner);
+        }
+    }
+
+    /**
+     * Drop settled reservations and give back the ones that expired
+     */
+    public void reclaimExpiredReservations() {
+        int reclaimed = sendQuotaRepository.reclaimExpired();
+        if (reclaimed > 0) {
+            log.info("Reclaimed expired quota reservations for {} users", reclaimed);
+        }
+    }
+
+    /**
+     * Daily email limit for an organization, falling back to the default
+     */
+    public int getDailyLimit(UUID orgId) {
+        if (orgId == null) {
+            return defaultDailyLimit;
+        }
+        return dailyLimits.computeIfAbsent(orgId, id -> organizationSettingsRepository.findByOrgId(id)
+                .map(OrganizationSettings::getDailyEmailLimit)
+                .map(limit -> Math.min(limit, maxDailyLimit))
+                .orElse(defaultDailyLimit));
+    }
+
+    public int getMaxDailyLimit() {
+        return maxDailyLimit;
+    }
+
+    /**
+     * Forget a cached organization limit after its settings change
+     */
+    public void evictDailyLimit(UUID orgId) {
+        dailyLimits.remove(orgId);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.reconcile-ms:300000}")
+    public void refreshDailyLimits() {
+        dailyLimits.clear();
+    }
+
+    /**
+     * Quota reserved for one send run
+     */
+    public record QuotaReservation(UUID id, String userId, UUID orgId, LocalDate quotaDate, int count) {
+
+        // Quota rows of users without an organization are keyed by the nil UUID
+        UUID orgKey() {
+            return orgId != null ? orgId : NIL_UUID;
+        }
+    }
+
     /**
      * Rate limit information data class
      */
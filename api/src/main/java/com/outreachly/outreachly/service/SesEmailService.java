@@ -1,26 +1,96 @@
 package com.outreachly.outreachly.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.outreachly.outreachly.dto.EmailRequest;
 import com.outreachly.outreachly.dto.EmailResponse;
+import com.outreachly.outreachly.service.delivery.DeliveryChannel;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
 import com.outreachly.outreachly.service.email.AbstractEmailProvider;
 import com.outreachly.outreachly.service.email.EmailProviderType;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import com.outreachly.outreachly.service.template.CompiledTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import software.amazon.awssdk.services.ses.SesClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
 import software.amazon.awssdk.services.ses.model.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * AWS SES provider on the async SES client. Every request runs under the SES
+ * slot of OutboundLimiter, which bounds the requests in flight, and takes one
+ * send permit per recipient from ProviderRateLimiter, whose SES rate follows
+ * the account's max send rate from GetSendQuota.
+ *
+ * Bulk requests that carry a templateId hold the unrendered subject and body,
+ * with {{name}} placeholders, and the recipient's values in templateData. They
+ * are sent per template through SendBulkTemplatedEmail, up to 50 destinations
+ * per call, and SES renders each destination. The SES template is created on
+ * first use, named after a hash of its content, and kept for later sends;
+ * templates unused for an hour are swept hourly. Other bulk requests are sent
+ * one by one. The calls of a bulk send run concurrently and are waited for
+ * together.
+ */
 @Slf4j
 public class SesEmailService extends AbstractEmailProvider {
 
-        private final SesClient sesClient;
+        // SES limit on destinations per SendBulkTemplatedEmail call
+        static final int MAX_BULK_DESTINATIONS = 50;
 
-        public SesEmailService(SesClient sesClient, EmailEventService emailEventService) {
+        static final String TEMPLATE_PREFIX = "outreachly-";
+
+        // Template variables that render as a literal "{{" and "{"
+        static final String OPEN_BRACES_VARIABLE = "outreachlyOpenBraces";
+        static final String OPEN_BRACE_VARIABLE = "outreachlyOpenBrace";
+
+        // SES template variables are named by position: v0, v1, ...
+        private static final String VARIABLE_PREFIX = "v";
+
+        // Templates not used for this long are deleted by the sweep
+        private static final Duration STALE_TEMPLATE_AGE = Duration.ofHours(1);
+
+        private final SesAsyncClient sesClient;
+        private final OutboundLimiter outboundLimiter;
+        private final ProviderRateLimiter rateLimiter;
+        private final ObjectMapper objectMapper;
+
+        // SES templates this instance created or found, by template name
+        private final Map<String, SesTemplate> templates = new ConcurrentHashMap<>();
+
+        public SesEmailService(SesAsyncClient sesClient, EmailEventService emailEventService,
+                        OutboundLimiter outboundLimiter, ProviderRateLimiter rateLimiter, ObjectMapper objectMapper) {
                 super(emailEventService);
                 this.sesClient = sesClient;
+                this.outboundLimiter = outboundLimiter;
+                this.rateLimiter = rateLimiter;
+                this.objectMapper = objectMapper;
         }
 
         @Value("${aws.ses.from-email}")
@@ -34,46 +104,71 @@ public class SesEmailService extends AbstractEmailProvider {
                 return EmailProviderType.AWS_SES;
         }
 
-        @Override
-        protected EmailResponse doSendEmail(EmailRequest emailRequest) {
+        /**
+         * Align the SES send rate with the account's max send rate
+         */
+        @Scheduled(fixedDelayString = "${aws.ses.quota-refresh-ms:3600000}")
+        public void refreshSendQuota() {
                 try {
-                        // Build the email message
-                        Message message = Message.builder()
-                                        .subject(Content.builder()
-                                                        .data(emailRequest.getSubject())
-                                                        .charset("UTF-8")
-                                                        .build())
-                                        .body(Body.builder()
-                                                        .html(emailRequest.isHtml() ? Content.builder()
-                                                                        .data(emailRequest.getContent())
-                                                                        .charset("UTF-8")
-                                                                        .build() : null)
-                                                        .text(emailRequest.isHtml() ? null
-                                                                        : Content.builder()
-                                                                                        .data(emailRequest.getContent())
-                                                                                        .charset("UTF-8")
-                                                                                        .build())
-                                                        .build())
-                                        .build();
-
-                        // Build the destination
-                        Destination destination = Destination.builder()
-                                        .toAddresses(emailRequest.getRecipients())
-                                        .build();
+                        GetSendQuotaResponse quota = call(() -> sesClient.getSendQuota(GetSendQuotaRequest.builder().build()));
+                        Double maxSendRate = quota.maxSendRate();
+                        if (maxSendRate != null && maxSendRate > 0) {
+                                rateLimiter.setConfiguredRate(DeliveryChannel.AWS_SES, maxSendRate);
+                                log.info("SES send quota: {}/s, {} of {} sent in the last 24h", maxSendRate,
+                                                quota.sentLast24Hours(), quota.max24HourSend());
+                        }
+                } catch (Exception e) {
+                        log.warn("Failed to read SES send quota, keeping {}/s: {}",
+                                        rateLimiter.getRatePerSecond(DeliveryChannel.AWS_SES), e.getMessage());
+                }
+        }
 
-                        // Build the send email request
-                        SendEmailRequest sendEmailRequest = SendEmailRequest.builder()
-                                        .source(fromName + " <" + fromEmail + ">")
-                                        .destination(destination)
-                                        .message(message)
-                                        .replyToAddresses(
-                                                        emailRequest.getReplyTo() != null
-                                                                        ? List.of(emailRequest.getReplyTo())
-                                                                        : List.of())
-                                        .build();
+        /**
+         * Delete bulk-send templates that have not been used for an hour. For
+         * templates this instance has not used, the creation time is all there is
+         * to go by; an instance still using one recreates it on its next send.
+         */
+        @Scheduled(initialDelayString = "${aws.ses.template-sweep-ms:3600000}",
+                        fixedDelayString = "${aws.ses.template-sweep-ms:3600000}")
+        public void deleteStaleTemplates() {
+                Instant cutoff = Instant.now().minus(STALE_TEMPLATE_AGE);
+                int deleted = 0;
+                try {
+                        String nextToken = null;
+                        do {
+                                String token = nextToken;
+                                ListTemplatesResponse page = call(() -> sesClient.listTemplates(ListTemplatesRequest.builder()
+                                                .nextToken(token)
+                                                .build()));
+                                for (TemplateMetadata template : page.templatesMetadata()) {
+                                        if (!template.name().startsWith(TEMPLATE_PREFIX)) {
+                                                continue;
+                                        }
+                                        SesTemplate cached = templates.get(template.name());
+                                        Instant lastUsed = cached != null ? cached.lastUsed : template.createdTimestamp();
+                                        if (lastUsed != null && lastUsed.isBefore(cutoff)) {
+                                                templates.remove(template.name());
+                                                deleteTemplate(template.name());
+                                                deleted++;
+                                        }
+                                }
+                                nextToken = page.nextToken();
+                        } while (nextToken != null);
+                } catch (SdkException | IllegalStateException e) {
+                        log.warn("Failed to sweep stale SES templates: {}", e.getMessage());
+                }
+                if (deleted > 0) {
+                        log.info("Deleted {} stale SES templates", deleted);
+                }
+        }
 
-                        // Send the email
-                        SendEmailResponse response = sesClient.sendEmail(sendEmailRequest);
+        @Override
+        protected EmailResponse doSendEmail(EmailRequest emailRequest) {
+                try {
+                        acquireSendPermits(emailRequest.getRecipients().size());
+                        SendEmailResponse response = call(
+                                        () -> sesClient.sendEmail(toSendEmailRequest(emailRequest, emailRequest.getRecipients())));
+                        rateLimiter.onSuccess(DeliveryChannel.AWS_SES, null);
 
                         return EmailResponse.builder()
                                         .messageId(response.messageId())
@@ -85,8 +180,9 @@ public class SesEmailService extends AbstractEmailProvider {
                                         .failedRecipients(new ArrayList<>())
                                         .build();
 
-                } catch (SesException e) {
+                } catch (SdkException | IllegalStateException e) {
                         log.error("SES failed to send email: {}", e.getMessage(), e);
+                        onFailure(e);
 
                         return EmailResponse.builder()
                                         .success(false)
@@ -99,6 +195,383 @@ public class SesEmailService extends AbstractEmailProvider {
                 }
         }
 
+        /**
+         * Requests with a templateId go out per template through
+         * SendBulkTemplatedEmail; the rest are sent one by one. The caller's
+         * requests are not modified.
+         */
+        @Override
+        public EmailResponse sendBulkEmail(List<EmailRequest> emailRequests) {
+                BulkSend bulk = new BulkSend(emailRequests);
+                Map<TemplateKey, List<Integer>> groups = new LinkedHashMap<>();
+                List<Integer> singles = new ArrayList<>();
+                for (int i = 0; i < emailRequests.size(); i++) {
+                        EmailRequest request = emailRequests.get(i);
+                        bulk.totalRecipients += request.getRecipients().size();
+
+                        List<String> recipients = new ArrayList<>(request.getRecipients().size());
+                        for (String recipient : request.getRecipients()) {
+                                if (isEmailSuppressed(recipient)) {
+                                        log.warn("Email suppressed due to previous bounces/complaints: {}", recipient);
+                                        bulk.failedRecipients.add(recipient);
+                                } else {
+                                        recipients.add(recipient);
+                                }
+                        }
+                        bulk.recipients.set(i, recipients);
+                        if (recipients.isEmpty()) {
+                                continue;
+                        }
+                        if (request.getTemplateId() != null) {
+                                groups.computeIfAbsent(TemplateKey.of(request), key -> new ArrayList<>()).add(i);
+                        } else {
+                                singles.add(i);
+                        }
+                }
+
+                log.info("Starting bulk email send via {} for {} requests in {} template groups",
+                                getProviderType().getDisplayName(), emailRequests.size(), groups.size());
+
+                List<CompletableFuture<Void>> sends = new ArrayList<>();
+                for (int index : singles) {
+                        sends.add(sendSingle(index, bulk));
+                }
+                sends.addAll(sendTemplated(groups, bulk, true));
+                awaitAll(sends);
+
+                // Destinations whose template was deleted under them (by another instance's sweep) get one more try
+                if (!bulk.missingTemplate.isEmpty()) {
+                        Map<TemplateKey, List<Integer>> retry = new LinkedHashMap<>();
+                        bulk.missingTemplate.forEach(chunk -> {
+                                templates.remove(chunk.key().templateName());
+                                retry.computeIfAbsent(chunk.key(), key -> new ArrayList<>()).addAll(chunk.indexes());
+                        });
+                        awaitAll(sendTemplated(retry, bulk, false));
+                }
+
+                int successfulCount = bulk.successfulRecipients.get();
+                List<String> failedRecipients = new ArrayList<>(bulk.failedRecipients);
+                log.info("Bulk email send completed via {}. Success: {}, Failed: {}",
+                                getProviderType().getDisplayName(), successfulCount, failedRecipients.size());
+
+                List<String> messageIds = new ArrayList<>(emailRequests.size());
+                for (int i = 0; i < emailRequests.size(); i++) {
+                        messageIds.add(bulk.messageIds.get(i));
+                }
+                return EmailResponse.builder()
+                                .success(failedRecipients.isEmpty())
+                                .message(failedRecipients.isEmpty() ? "All emails sent successfully" : "Some emails failed to send")
+                                .timestamp(LocalDateTime.now())
+                                .totalRecipients(bulk.totalRecipients)
+                                .successfulRecipients(successfulCount)
+                                .failedRecipients(failedRecipients)
+                                .messageIds(messageIds)
+                                .build();
+        }
+
+        // One SendEmail call for a request without a template
+        private CompletableFuture<Void> sendSingle(int index, BulkSend bulk) {
+                EmailRequest request = bulk.requests.get(index);
+                List<String> recipients = bulk.recipients.get(index);
+                try {
+                        acquireSendPermits(recipients.size());
+                } catch (IllegalStateException e) {
+                        bulk.failedRecipients.addAll(recipients);
+                        return CompletableFuture.completedFuture(null);
+                }
+                return callAsync(() -> sesClient.sendEmail(toSendEmailRequest(request, recipients)))
+                                .handle((response, error) -> {
+                                        if (error != null) {
+                                                RuntimeException cause = unwrap(error);
+                                                log.error("SES failed to send email: {}", cause.getMessage(), cause);
+                                                onFailure(cause);
+                                                bulk.failedRecipients.addAll(recipients);
+                                        } else {
+                                                rateLimiter.onSuccess(DeliveryChannel.AWS_SES, null);
+                                                bulk.messageIds.set(index, response.messageId());
+                                                bulk.successfulRecipients.addAndGet(recipients.size());
+                                        }
+                                        return null;
+                                });
+        }
+
+        /**
+         * Make sure every group's SES template exists, then start the bulk calls
+         * of all groups; the returned futures complete when the calls do
+         */
+        private List<CompletableFuture<Void>> sendTemplated(Map<TemplateKey, List<Integer>> groups, BulkSend bulk,
+                        boolean retryMissingTemplate) {
+                Map<TemplateKey, SesTemplateText> texts = new LinkedHashMap<>();
+                Map<TemplateKey, CompletableFuture<String>> names = new LinkedHashMap<>();
+                for (TemplateKey key : groups.keySet()) {
+                        texts.put(key, key.text());
+                        names.put(key, template(key, texts.get(key)));
+                }
+                awaitAll(names.values());
+
+                List<CompletableFuture<Void>> sends = new ArrayList<>();
+                for (Map.Entry<TemplateKey, List<Integer>> group : groups.entrySet()) {
+                        List<Integer> indexes = group.getValue();
+                        CompletableFuture<String> name = names.get(group.getKey());
+                        if (name.isCompletedExceptionally()) {
+                                RuntimeException cause = unwrap(name.handle((result, error) -> error).join());
+                                log.error("Failed to create SES template: {}", cause.getMessage(), cause);
+                                indexes.forEach(i -> bulk.failedRecipients.addAll(bulk.recipients.get(i)));
+                                continue;
+                        }
+                        for (int from = 0; from < indexes.size(); from += MAX_BULK_DESTINATIONS) {
+                                List<Integer> chunk = indexes.subList(from, Math.min(indexes.size(), from + MAX_BULK_DESTINATIONS));
+                                sends.add(sendBulkChunk(name.join(), group.getKey(), texts.get(group.getKey()), chunk, bulk,
+                                                retryMissingTemplate));
+                        }
+                }
+                return sends;
+        }
+
+        // One SendBulkTemplatedEmail call; outcomes are recorded in the bulk send
+        private CompletableFuture<Void> sendBulkChunk(String templateName, TemplateKey key, SesTemplateText text,
+                        List<Integer> chunk, BulkSend bulk, boolean retryMissingTemplate) {
+                List<BulkEmailDestination> destinations = new ArrayList<>(chunk.size());
+                int recipients = 0;
+                try {
+                        for (int index : chunk) {
+                                recipients += bulk.recipients.get(index).size();
+                                destinations.add(BulkEmailDestination.builder()
+                                                .destination(Destination.builder().toAddresses(bulk.recipients.get(index)).build())
+                                                .replacementTemplateData(templateData(text, bulk.requests.get(index).getTemplateData()))
+                                                .build());
+                        }
+                        acquireSendPermits(recipients);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                        log.error("SES bulk send of {} destinations not started: {}", chunk.size(), e.getMessage());
+                        chunk.forEach(i -> bulk.failedRecipients.addAll(bulk.recipients.get(i)));
+                        return CompletableFuture.completedFuture(null);
+                }
+
+                return callAsync(() -> sesClient.sendBulkTemplatedEmail(SendBulkTemplatedEmailRequest.builder()
+                                .source(source())
+                                .template(templateName)
+                                .defaultTemplateData(templateData(text, null))
+                                .destinations(destinations)
+                                .replyToAddresses(key.replyTo() != null ? List.of(key.replyTo()) : List.of())
+                                .build()))
+                                .handle((response, error) -> {
+                                        if (error != null) {
+                                                onBulkFailure(unwrap(error), key, chunk, bulk, retryMissingTemplate);
+                                        } else {
+                                                rateLimiter.onSuccess(DeliveryChannel.AWS_SES, null);
+                                                recordStatuses(response.status(), chunk, bulk);
+                                        }
+                                        return null;
+                                });
+        }
+
+        private void onBulkFailure(RuntimeException error, TemplateKey key, List<Integer> chunk, BulkSend bulk,
+                        boolean retryMissingTemplate) {
+                if (error instanceof TemplateDoesNotExistException && retryMissingTemplate) {
+                        log.warn("SES template {} was deleted, recreating it for {} destinations", key.templateName(),
+                                        chunk.size());
+                        bulk.missingTemplate.add(new Chunk(key, chunk));
+                        return;
+                }
+                // Only this chunk failed; message IDs of other chunks are kept
+                log.error("SES bulk send of {} destinations failed: {}", chunk.size(), error.getMessage(), error);
+                onFailure(error);
+                chunk.forEach(i -> bulk.failedRecipients.addAll(bulk.recipients.get(i)));
+        }
+
+        // Statuses come back in destination order
+        private void recordStatuses(List<BulkEmailDestinationStatus> statuses, List<Integer> chunk, BulkSend bulk) {
+                for (int i = 0; i < chunk.size(); i++) {
+                        List<String> recipients = bulk.recipients.get(chunk.get(i));
+                        BulkEmailDestinationStatus status = i < statuses.size() ? statuses.get(i) : null;
+                        if (status != null && status.status() == BulkEmailStatus.SUCCESS) {
+                                bulk.messageIds.set(chunk.get(i), status.messageId());
+                                bulk.successfulRecipients.addAndGet(recipients.size());
+                        } else {
+                                log.warn("SES rejected bulk destination {}: {}", recipients,
+                                                status != null ? status.statusAsString() + " " + status.error() : "no status");
+                                bulk.failedRecipients.addAll(recipients);
+                        }
+                }
+        }
+
+        /**
+         * The SES template for a group, created on first use. Concurrent sends of
+         * the same content share one CreateTemplate call; a failed one is retried
+         * by the next send.
+         */
+        private CompletableFuture<String> template(TemplateKey key, SesTemplateText text) {
+                String name = key.templateName();
+                SesTemplate created = new SesTemplate();
+                SesTemplate cached = templates.putIfAbsent(name, created);
+                if (cached != null) {
+                        cached.lastUsed = Instant.now();
+                        return cached.name;
+                }
+
+                createTemplate(key.templateName(), key.html(), text).whenComplete((result, error) -> {
+                        if (error != null) {
+                                templates.remove(name, created);
+                                created.name.completeExceptionally(error);
+                        } else {
+                                created.name.complete(name);
+                        }
+                });
+                return created.name;
+        }
+
+        private CompletableFuture<Void> createTemplate(String name, boolean html, SesTemplateText text) {
+                Template.Builder template = Template.builder()
+                                .templateName(name)
+                                .subjectPart(text.subject());
+                if (html) {
+                        template.htmlPart(text.content());
+                } else {
+                        template.textPart(text.content());
+                }
+                return callAsync(() -> sesClient.createTemplate(CreateTemplateRequest.builder().template(template.build()).build()))
+                                .handle((response, error) -> {
+                                        // Same content, same name: created by another instance or an earlier run
+                                        if (error != null && !(unwrap(error) instanceof AlreadyExistsException)) {
+                                                throw unwrap(error);
+                                        }
+                                        log.debug("Created SES template {}", name);
+                                        return null;
+                                });
+        }
+
+        private void deleteTemplate(String name) {
+                call(() -> sesClient.deleteTemplate(DeleteTemplateRequest.builder().templateName(name).build()));
+        }
+
+        /**
+         * Make literal text safe to use in an SES (Handlebars) template: every
+         * "{{" becomes a variable that renders as "{{", and a trailing "{", which
+         * would run into the next placeholder's braces, one that renders as "{".
+         * A "}}" without an opening pair is plain text to Handlebars.
+         */
+        static String escapeBraces(String text) {
+                if (text == null || text.indexOf('{') < 0) {
+                        return text;
+                }
+                String escaped = text.replace("{{", "{{" + OPEN_BRACES_VARIABLE + "}}");
+                if (escaped.endsWith("{")) {
+                        escaped = escaped.substring(0, escaped.length() - 1) + "{{" + OPEN_BRACE_VARIABLE + "}}";
+                }
+                return escaped;
+        }
+
+        private SendEmailRequest toSendEmailRequest(EmailRequest emailRequest, List<String> recipients) {
+                Content content = Content.builder()
+                                .data(emailRequest.getContent())
+                                .charset("UTF-8")
+                                .build();
+                Message message = Message.builder()
+                                .subject(Content.builder()
+                                                .data(emailRequest.getSubject())
+                                                .charset("UTF-8")
+                                                .build())
+                                .body(emailRequest.isHtml()
+                                                ? Body.builder().html(content).build()
+                                                : Body.builder().text(content).build())
+                                .build();
+
+                return SendEmailRequest.builder()
+                                .source(source())
+                                .destination(Destination.builder()
+                                                .toAddresses(recipients)
+                                                .build())
+                                .message(message)
+                                .replyToAddresses(
+                                                emailRequest.getReplyTo() != null
+                                                                ? List.of(emailRequest.getReplyTo())
+                                                                : List.of())
+                                .build();
+        }
+
+        private String source() {
+                return fromName + " <" + fromEmail + ">";
+        }
+
+        /**
+         * A destination's values by SES variable name. Placeholders the request
+         * has no value for render as themselves, as CompiledTemplate does.
+         */
+        private String templateData(SesTemplateText text, Map<String, Object> values) {
+                List<String> variables = text.variables();
+                Map<String, Object> data = new LinkedHashMap<>();
+                for (int i = 0; i < variables.size(); i++) {
+                        String name = variables.get(i);
+                        Object value = values != null && values.containsKey(name) ? values.get(name) : "{{" + name + "}}";
+                        data.put(VARIABLE_PREFIX + i, value != null ? value.toString() : "");
+                }
+                data.put(OPEN_BRACES_VARIABLE, "{{");
+                data.put(OPEN_BRACE_VARIABLE, "{");
+                try {
+                        return objectMapper.writeValueAsString(data);
+                } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException("Template data is not serializable", e);
+                }
+        }
+
+        private void acquireSendPermits(int count) {
+                try {
+                        for (int i = 0; i < count; i++) {
+                                rateLimiter.acquire(DeliveryChannel.AWS_SES);
+                        }
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted waiting for SES send rate", e);
+                }
+        }
+
+        private void onFailure(RuntimeException e) {
+                // "Maximum sending rate exceeded" comes back with the Throttling error code
+                if (e instanceof SdkServiceException serviceException && serviceException.isThrottlingException()) {
+                        rateLimiter.onThrottled(DeliveryChannel.AWS_SES, null, null);
+                }
+        }
+
+        /**
+         * Start an SES call in an outbound SES slot. Blocks only while all SES
+         * slots are taken; failing to get one fails the returned future.
+         */
+        private <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> request) {
+                try {
+                        return outboundLimiter.callAsync(Downstream.SES, request);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return CompletableFuture.failedFuture(
+                                        new IllegalStateException("Interrupted waiting for an SES slot", e));
+                } catch (RuntimeException e) {
+                        return CompletableFuture.failedFuture(e);
+                }
+        }
+
+        /**
+         * Run an SES call in an outbound SES slot and wait for it, rethrowing the
+         * SDK exception the call failed with. For one-off calls outside the send path.
+         */
+        private <T> T call(Supplier<CompletableFuture<T>> request) {
+                try {
+                        return callAsync(request).join();
+                } catch (CompletionException e) {
+                        throw unwrap(e);
+                }
+        }
+
+        private static void awaitAll(Collection<? extends CompletableFuture<?>> futures) {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                                .handle((result, error) -> null)
+                                .join();
+        }
+
+        private static RuntimeException unwrap(Throwable error) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+
         @Override
         public boolean verifyEmailAddress(String emailAddress) {
                 try {
@@ -106,10 +579,10 @@ public class SesEmailService extends AbstractEmailProvider {
                                         .emailAddress(emailAddress)
                                         .build();
 
-                        sesClient.verifyEmailIdentity(request);
+                        call(() -> sesClient.verifyEmailIdentity(request));
                         log.info("Email verification request sent for: {}", emailAddress);
                         return true;
-                } catch (SesException e) {
+                } catch (SdkException e) {
                         log.error("Failed to verify email address {}: {}", emailAddress, e.getMessage());
                         return false;
                 }
@@ -123,17 +596,96 @@ public class SesEmailService extends AbstractEmailProvider {
                                         .identities(List.of(fromEmail))
                                         .build();
 
-                        GetIdentityVerificationAttributesResponse response = sesClient
-                                        .getIdentityVerificationAttributes(request);
+                        GetIdentityVerificationAttributesResponse response = call(
+                                        () -> sesClient.getIdentityVerificationAttributes(request));
 
                         return response.verificationAttributes().entrySet().stream()
                                         .filter(entry -> entry.getValue()
                                                         .verificationStatus() == VerificationStatus.SUCCESS)
                                         .map(entry -> entry.getKey())
                                         .toList();
-                } catch (SesException e) {
+                } catch (SdkException e) {
                         log.error("Failed to get verified email addresses: {}", e.getMessage());
                         return new ArrayList<>();
                 }
         }
+
+        /**
+         * What makes requests share one SES template: the stored template and
+         * its unrendered text
+         */
+        private record TemplateKey(String templateId, String subject, String content, boolean html, String replyTo) {
+
+                static TemplateKey of(EmailRequest request) {
+                        return new TemplateKey(request.getTemplateId(), request.getSubject(), request.getContent(),
+                                        request.isHtml(), request.getReplyTo());
+                }
+
+                SesTemplateText text() {
+                        return SesTemplateText.of(subject, content);
+                }
+
+                // SES template names allow letters, digits, '-' and '_'; the same content always gets the same name
+                String templateName() {
+                        try {
+                                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                                digest.update(subject.getBytes(StandardCharsets.UTF_8));
+                                digest.update((byte) 0);
+                                digest.update(content.getBytes(StandardCharsets.UTF_8));
+                                digest.update((byte) (html ? 1 : 0));
+                                return TEMPLATE_PREFIX + HexFormat.of().formatHex(digest.digest(), 0, 16);
+                        } catch (NoSuchAlgorithmException e) {
+                                throw new IllegalStateException("SHA-256 not available", e);
+                        }
+                }
+        }
+
+        /**
+         * Subject and body rewritten as SES templates: each {{name}} placeholder
+         * becomes {{{v<n>}}}, unescaped like CompiledTemplate output, with n the
+         * position of name in {@code variables}
+         */
+        record SesTemplateText(String subject, String content, List<String> variables) {
+
+                static SesTemplateText of(String subject, String content) {
+                        CompiledTemplate compiledSubject = CompiledTemplate.compile(subject);
+                        CompiledTemplate compiledContent = CompiledTemplate.compile(content);
+                        Set<String> names = new LinkedHashSet<>(compiledSubject.variableNames());
+                        names.addAll(compiledContent.variableNames());
+                        List<String> variables = List.copyOf(names);
+
+                        UnaryOperator<String> variable = name -> "{{{" + VARIABLE_PREFIX + variables.indexOf(name) + "}}}";
+                        return new SesTemplateText(compiledSubject.rewrite(SesEmailService::escapeBraces, variable),
+                                        compiledContent.rewrite(SesEmailService::escapeBraces, variable), variables);
+                }
+        }
+
+        private static final class SesTemplate {
+                private final CompletableFuture<String> name = new CompletableFuture<>();
+                private volatile Instant lastUsed = Instant.now();
+        }
+
+        // Destinations of one bulk call
+        private record Chunk(TemplateKey key, List<Integer> indexes) {
+        }
+
+        /**
+         * State of one sendBulkEmail call, written by the calls' completion handlers
+         */
+        private static final class BulkSend {
+                private final List<EmailRequest> requests;
+                // Recipients of each request that are not suppressed
+                private final AtomicReferenceArray<List<String>> recipients;
+                private final AtomicReferenceArray<String> messageIds;
+                private final Queue<String> failedRecipients = new ConcurrentLinkedQueue<>();
+                private final Queue<Chunk> missingTemplate = new ConcurrentLinkedQueue<>();
+                private final AtomicInteger successfulRecipients = new AtomicInteger();
+                private int totalRecipients;
+
+                private BulkSend(List<EmailRequest> requests) {
+                        this.requests = requests;
+                        this.recipients = new AtomicReferenceArray<>(requests.size());
+                        this.messageIds = new AtomicReferenceArray<>(requests.size());
+                }
+        }
 }
@@ -26,6 +26,7 @@ public class SettingsService {
     private final OrganizationSettingsRepository settingsRepository;
     private final EmailProviderFactory emailProviderFactory;
     private final ObjectMapper objectMapper;
+    private final RateLimitService rateLimitService;
 
     /**
      * Get organization settings for the given org ID
@@ -57,11 +58,33 @@ public class SettingsService {
         }
 
         OrganizationSettings savedSettings = settingsRepository.save(settings);
+        rateLimitService.evictDailyLimit(orgId);
         log.info("Updated organization settings for org: {}", orgId);
 
         return convertToDto(savedSettings);
     }
 
+    /**
+     * Set an organization's daily email limit, up to the platform maximum
+     */
+    @Transactional
+    public OrganizationSettingsDto updateDailyEmailLimit(UUID orgId, int dailyEmailLimit) {
+        int maxDailyLimit = rateLimitService.getMaxDailyLimit();
+        if (dailyEmailLimit < 1 || dailyEmailLimit > maxDailyLimit) {
+            throw new IllegalArgumentException("Daily email limit must be between 1 and " + maxDailyLimit);
+        }
+
+        OrganizationSettings settings = settingsRepository.findByOrgId(orgId)
+                .orElseGet(() -> createSettingsFromDto(orgId, createDefaultSettings(orgId)));
+        settings.setDailyEmailLimit(dailyEmailLimit);
+
+        OrganizationSettings savedSettings = settingsRepository.save(settings);
+        rateLimitService.evictDailyLimit(orgId);
+        log.info("Set daily email limit for org {} to {}", orgId, dailyEmailLimit);
+
+        return convertToDto(savedSettings);
+    }
+
     /**
      * Get available email providers with their status
      */
@@ -188,6 +211,7 @@ public class SettingsService {
                     .emailProviderConfig(config)
                     .notificationSettings(notificationSettings)
                     .featureFlags(featureFlags)
+                    .dailyEmailLimit(settings.getDailyEmailLimit())
                     .build();
         } catch (JsonProcessingException e) {
             log.error("Error converting settings to DTO: {}", e.getMessage());
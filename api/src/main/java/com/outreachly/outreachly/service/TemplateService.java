@@ -2,6 +2,7 @@ package com.outreachly.outreachly.service;
 
 import com.outreachly.outreachly.entity.Template;
 import com.outreachly.outreachly.repository.TemplateRepository;
+import com.outreachly.outreachly.service.template.ParsedTemplateCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,7 @@ import java.util.UUID;
 public class TemplateService {
 
     private final TemplateRepository templateRepository;
+    private final ParsedTemplateCache parsedTemplateCache;
 
     public List<Template> listTemplates(UUID orgId, Template.Platform platform) {
         if (platform != null) {
@@ -55,7 +57,9 @@ public class TemplateService {
             existing.setContentJson(contentJson);
         if (platform != null)
             existing.setPlatform(platform);
-        return templateRepository.save(existing);
+        Template saved = templateRepository.save(existing);
+        parsedTemplateCache.evict(id);
+        return saved;
     }
 
     @Transactional
@@ -64,6 +68,7 @@ public class TemplateService {
         if (existing == null)
             return false;
         templateRepository.delete(existing);
+        parsedTemplateCache.evict(id);
         return true;
     }
 }
@@ -1,6 +1,8 @@
 package com.outreachly.outreachly.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,8 +21,9 @@ import java.util.UUID;
 @Slf4j
 public class WebhookService {
 
+    private final OutboundLimiter outboundLimiter;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate outboundRestTemplate;
 
     @Value("${WEBHOOK_ENABLED:false}")
     private boolean webhookEnabled;
@@ -56,7 +59,8 @@ public class WebhookService {
                     objectMapper.writeValueAsString(payload),
                     headers);
 
-            restTemplate.postForObject(webhookUrl, request, String.class);
+            outboundLimiter.call(Downstream.WEBHOOK,
+                    () -> outboundRestTemplate.postForObject(webhookUrl, request, String.class));
             log.info("Webhook sent for enrichment completion: leadId={}, action={}", leadId, action);
 
         } catch (Exception e) {
@@ -88,7 +92,8 @@ public class WebhookService {
                     objectMapper.writeValueAsString(payload),
                     headers);
 
-            restTemplate.postForObject(webhookUrl, request, String.class);
+            outboundLimiter.call(Downstream.WEBHOOK,
+                    () -> outboundRestTemplate.postForObject(webhookUrl, request, String.class));
             log.info("Webhook sent for enrichment failure: leadId={}", leadId);
 
         } catch (Exception e) {
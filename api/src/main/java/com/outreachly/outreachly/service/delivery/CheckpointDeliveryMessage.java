@@ -0,0 +1,12 @@
+package com.outreachly.outreachly.service.delivery;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Queue message for a single checkpoint lead waiting to be sent.
+ * {@code quotaDate} is the day whose send quota the lead was counted against
+ * (null in messages queued before it was added).
+ */
+public record CheckpointDeliveryMessage(UUID checkpointId, UUID checkpointLeadId, LocalDate quotaDate) {
+}
@@ -0,0 +1,157 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sender stage of checkpoint delivery.
+ * Every channel (Gmail, Resend, SES) has its own bounded queue and is paced by
+ * its own provider limit in ProviderRateLimiter, so a slow or strictly limited
+ * provider never holds up sends going through the others. Sends run on the
+ * shared outbound executor once a rate permit is granted; no thread is held
+ * while waiting for one, and in-flight sends per provider are capped by
+ * OutboundLimiter.
+ *
+ * Permits are granted on the rate limiter's timer thread, which only hands
+ * the send to the outbound executor; it never runs a send itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointDeliveryPipeline {
+
+    private final ProviderRateLimiter rateLimiter;
+    private final OutboundLimiter outboundLimiter;
+    private final ExecutorService outboundExecutor;
+
+    @Value("${delivery.queue-capacity:500}")
+    private int queueCapacity;
+
+    private final Map<DeliveryChannel, SenderLane> lanes = new EnumMap<>(DeliveryChannel.class);
+
+    @PostConstruct
+    public void init() {
+        lanes.put(DeliveryChannel.GMAIL, new SenderLane(DeliveryChannel.GMAIL, Downstream.GMAIL));
+        lanes.put(DeliveryChannel.RESEND, new SenderLane(DeliveryChannel.RESEND, Downstream.RESEND));
+        lanes.put(DeliveryChannel.AWS_SES, new SenderLane(DeliveryChannel.AWS_SES, Downstream.SES));
+
+        lanes.values().forEach(lane -> log.info("Delivery lane {} started with {} senders at {} emails/sec",
+                lane.channel, lane.senders, rateLimiter.getRatePerSecond(lane.channel)));
+    }
+
+    /**
+     * Queue a send on the given channel. Blocks the caller when the channel's
+     * queue is full so rendering never runs far ahead of sending.
+     */
+    public void submit(DeliveryChannel channel, SendTask task) throws InterruptedException {
+        lanes.get(channel).submit(task);
+    }
+
+    /**
+     * Block until the channel's provider limit allows another send. Used by
+     * queue workers that send on their own thread but share the channel rate.
+     */
+    public void awaitPermit(DeliveryChannel channel) throws InterruptedException {
+        rateLimiter.acquire(channel);
+    }
+
+    /**
+     * A single queued send. {@link #abandon(String)} is called instead of
+     * {@link #send()} when the send cannot be started, and after it when
+     * {@link #send()} throws, so the task's lead is always accounted for.
+     */
+    public interface SendTask {
+        void send();
+
+        void abandon(String reason);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(SenderLane::shutdown);
+    }
+
+    /**
+     * Bounded send queue for a single channel
+     */
+    private class SenderLane {
+        private final DeliveryChannel channel;
+        private final int senders;
+        private final int slots;
+        private final Semaphore capacity;
+
+        SenderLane(DeliveryChannel channel, Downstream downstream) {
+            this.channel = channel;
+            this.senders = outboundLimiter.getMaxConcurrency(downstream);
+            this.slots = senders + queueCapacity;
+            this.capacity = new Semaphore(slots);
+        }
+
+        void submit(SendTask task) throws InterruptedException {
+            capacity.acquire();
+            AtomicBoolean started = new AtomicBoolean();
+            CompletableFuture<Void> permit;
+            try {
+                permit = rateLimiter.acquireAsync(channel, null);
+            } catch (RuntimeException e) {
+                capacity.release();
+                log.error("Failed to request a send permit on {}", channel, e);
+                task.abandon("Delivery stopped before sending");
+                return;
+            }
+
+            permit.thenRunAsync(() -> {
+                        started.set(true);
+                        task.send();
+                    }, outboundExecutor)
+                    .whenComplete((ignored, error) -> {
+                        capacity.release();
+                        if (error == null) {
+                            return;
+                        }
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        if (started.get()) {
+                            log.error("Send on {} failed", channel, cause);
+                            task.abandon("Send failed: " + cause.getMessage());
+                        } else if (cause instanceof RejectedExecutionException) {
+                            log.warn("Sender on {} stopped or full before sending", channel);
+                            task.abandon("Delivery stopped before sending");
+                        } else {
+                            log.error("Send permit on {} failed", channel, cause);
+                            task.abandon("No send permit: " + cause.getMessage());
+                        }
+                    });
+        }
+
+        /**
+         * Wait for queued and in-flight sends to finish
+         */
+        void shutdown() {
+            try {
+                if (!capacity.tryAcquire(slots, 30, TimeUnit.SECONDS)) {
+                    log.warn("Delivery lane {} stopped with {} sends still queued", channel,
+                            slots - capacity.availablePermits());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
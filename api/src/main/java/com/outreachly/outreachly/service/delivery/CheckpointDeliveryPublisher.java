@@ -0,0 +1,115 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes checkpoint leads onto the durable delivery queue.
+ * A lead is moved from pending to queued before it is published, so running a
+ * checkpoint twice (or on two replicas) never queues the same lead twice.
+ *
+ * Leads whose message never reached a worker (the process died between the
+ * status change and the publish, or the message was dead-lettered) stay
+ * queued; {@link #republishStale} publishes them again. A worker claims a lead
+ * before sending it, so a republished lead whose first message does turn up
+ * is still sent once.
+ */
+@Component
+@ConditionalOnProperty(name = "delivery.queue.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointDeliveryPublisher {
+
+    private final CampaignCheckpointLeadRepository checkpointLeadRepository;
+    private final AmqpTemplate amqpTemplate;
+
+    @Value("${delivery.queue.name:checkpoint-delivery}")
+    private String queueName;
+
+    /**
+     * Publish one message per lead, counted against the given day's quota.
+     * Returns the number of leads queued.
+     */
+    public int publish(CampaignCheckpoint checkpoint, List<CampaignCheckpointLead> checkpointLeads,
+            LocalDate quotaDate) {
+        int published = 0;
+
+        for (CampaignCheckpointLead checkpointLead : checkpointLeads) {
+            int claimed = checkpointLeadRepository.transitionStatus(checkpointLead.getId(),
+                    CampaignCheckpointLead.DeliveryStatus.pending,
+                    CampaignCheckpointLead.DeliveryStatus.queued,
+                    LocalDateTime.now());
+            if (claimed == 0) {
+                // Already queued or handled by another run
+                continue;
+            }
+
+            try {
+                amqpTemplate.convertAndSend(queueName,
+                        new CheckpointDeliveryMessage(checkpoint.getId(), checkpointLead.getId(), quotaDate));
+                published++;
+            } catch (AmqpException e) {
+                log.error("Failed to publish checkpoint lead: {}", checkpointLead.getId(), e);
+                // Put the lead back so the next run picks it up again
+                checkpointLeadRepository.transitionStatus(checkpointLead.getId(),
+                        CampaignCheckpointLead.DeliveryStatus.queued,
+                        CampaignCheckpointLead.DeliveryStatus.pending,
+                        LocalDateTime.now());
+            }
+        }
+
+        log.info("Queued {} of {} leads for checkpoint: {}", published, checkpointLeads.size(),
+                checkpoint.getName());
+        return published;
+    }
+
+    /**
+     * Publish again every lead of an active checkpoint that has been queued for
+     * longer than {@code staleAfter}, up to {@code limit} leads. Each lead is
+     * counted against the day it was queued. Returns the number republished.
+     */
+    public int republishStale(Duration staleAfter, int limit) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        int republished = 0;
+
+        for (CampaignCheckpointLead checkpointLead : checkpointLeadRepository.findStale(
+                CampaignCheckpointLead.DeliveryStatus.queued, cutoff, PageRequest.of(0, limit))) {
+            LocalDate quotaDate = checkpointLead.getUpdatedAt().toLocalDate();
+            // Only one instance republishes a lead, and it is not stale again for another staleAfter
+            if (checkpointLeadRepository.touchStale(checkpointLead.getId(),
+                    CampaignCheckpointLead.DeliveryStatus.queued, cutoff, LocalDateTime.now()) == 0) {
+                continue;
+            }
+
+            try {
+                amqpTemplate.convertAndSend(queueName, new CheckpointDeliveryMessage(checkpointLead.getCheckpointId(),
+                        checkpointLead.getId(), quotaDate));
+                republished++;
+            } catch (AmqpException e) {
+                // Still queued; picked up again once it is stale
+                log.error("Failed to republish checkpoint lead: {}", checkpointLead.getId(), e);
+            }
+        }
+
+        if (republished > 0) {
+            log.warn("Republished {} checkpoint leads queued for more than {}s", republished,
+                    staleAfter.toSeconds());
+        }
+        return republished;
+    }
+}
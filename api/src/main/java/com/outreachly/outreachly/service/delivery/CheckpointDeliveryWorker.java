@@ -0,0 +1,177 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.entity.Lead;
+import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import com.outreachly.outreachly.repository.LeadRepository;
+import com.outreachly.outreachly.service.CheckpointScheduler;
+import com.outreachly.outreachly.service.EmailDeliveryService;
+import com.outreachly.outreachly.service.RateLimitService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumes checkpoint delivery messages and sends one email per message.
+ * The message is acked once the listener returns, after the lead's status has
+ * been written. The lead is claimed (queued to sending) right before the send,
+ * so a redelivered or republished message for a lead that is no longer queued
+ * is acked without sending again. A message that fails is dead-lettered and
+ * its lead stays queued until CheckpointDeliveryPublisher republishes it.
+ *
+ * A lead's quota is counted as used when it is published, so a lead that
+ * fails here gives its email back to the day it was counted against.
+ *
+ * The checkpoint's delivery context (campaign creator, compiled template) is
+ * cached per checkpoint for {@code delivery.queue.context-ttl-seconds}, and
+ * reloaded sooner when the checkpoint itself changes, so consecutive messages
+ * of one checkpoint do not look it up again.
+ */
+@Component
+@ConditionalOnProperty(name = "delivery.queue.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointDeliveryWorker {
+
+    private final CampaignCheckpointLeadRepository checkpointLeadRepository;
+    private final CampaignCheckpointRepository checkpointRepository;
+    private final LeadRepository leadRepository;
+    private final EmailDeliveryService emailDeliveryService;
+    private final CheckpointDeliveryPipeline deliveryPipeline;
+    private final CheckpointScheduler checkpointScheduler;
+    private final DeliveryContextLoader deliveryContextLoader;
+    private final RateLimitService rateLimitService;
+
+    @Value("${delivery.queue.context-ttl-seconds:60}")
+    private long contextTtlSeconds;
+
+    private final Map<UUID, CachedContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * Send the email for a single queued checkpoint lead
+     */
+    @RabbitListener(queues = "${delivery.queue.name:checkpoint-delivery}", concurrency = "${delivery.queue.consumers:2}")
+    public void handle(CheckpointDeliveryMessage message) throws InterruptedException {
+        CampaignCheckpointLead checkpointLead = checkpointLeadRepository.findById(message.checkpointLeadId())
+                .orElse(null);
+        if (checkpointLead == null || checkpointLead.getStatus() != CampaignCheckpointLead.DeliveryStatus.queued) {
+            log.debug("Skipping checkpoint lead {} - no longer queued", message.checkpointLeadId());
+            return;
+        }
+
+        CampaignCheckpoint checkpoint = checkpointRepository.findById(message.checkpointId()).orElse(null);
+        if (checkpoint == null) {
+            log.warn("Checkpoint not found for queued lead: {}", message.checkpointLeadId());
+            return;
+        }
+
+        if (checkpoint.getStatus() != CampaignCheckpoint.CheckpointStatus.active) {
+            // Checkpoint was paused while the message was queued; leave the lead for the next run,
+            // which counts it against the quota again
+            if (checkpointLeadRepository.transitionStatus(checkpointLead.getId(),
+                    CampaignCheckpointLead.DeliveryStatus.queued,
+                    CampaignCheckpointLead.DeliveryStatus.pending,
+                    LocalDateTime.now()) == 1) {
+                refundQuota(message, checkpoint);
+            }
+            return;
+        }
+
+        DeliveryContext context = context(checkpoint);
+        Lead lead = leadRepository.findById(checkpointLead.getLeadId()).orElse(null);
+        if (lead == null) {
+            if (!claim(checkpointLead)) {
+                return;
+            }
+            refundQuota(message, checkpoint);
+            emailDeliveryService.markLeadAsFailed(checkpointLead, "Lead not found");
+        } else {
+            deliveryPipeline.awaitPermit(context.channel());
+            if (!claim(checkpointLead)) {
+                return;
+            }
+            String error = null;
+            try {
+                emailDeliveryService.sendEmailToLead(LeadSnapshot.from(lead), context);
+            } catch (Exception e) {
+                error = e.getMessage();
+            }
+
+            // Outside the try: a status that cannot be saved fails the message, it does not fail the send
+            if (error == null) {
+                emailDeliveryService.markLeadAsSent(checkpointLead);
+            } else {
+                refundQuota(message, checkpoint);
+                emailDeliveryService.markLeadAsFailed(checkpointLead, error);
+            }
+        }
+
+        // Whoever handles the last lead settles the checkpoint status
+        checkpointScheduler.updateCheckpointStatus(checkpoint);
+    }
+
+    /**
+     * Move the lead from queued to sending. Only one worker wins, so a lead
+     * whose message was republished is still sent once.
+     */
+    private boolean claim(CampaignCheckpointLead checkpointLead) {
+        if (checkpointLeadRepository.transitionStatus(checkpointLead.getId(),
+                CampaignCheckpointLead.DeliveryStatus.queued,
+                CampaignCheckpointLead.DeliveryStatus.sending,
+                LocalDateTime.now()) == 0) {
+            log.debug("Skipping checkpoint lead {} - claimed by another worker", checkpointLead.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Give back the email this lead was counted for when it was published
+     */
+    private void refundQuota(CheckpointDeliveryMessage message, CampaignCheckpoint checkpoint) {
+        try {
+            LocalDate quotaDate = message.quotaDate() != null ? message.quotaDate() : LocalDate.now();
+            rateLimitService.refund(context(checkpoint).campaignCreatorId(), checkpoint.getOrgId(), quotaDate, 1);
+        } catch (Exception e) {
+            log.warn("Failed to refund quota for checkpoint lead {}: {}", message.checkpointLeadId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Delivery context for the checkpoint, loaded once and then reused until
+     * it expires or the checkpoint is updated
+     */
+    private DeliveryContext context(CampaignCheckpoint checkpoint) {
+        long now = System.currentTimeMillis();
+        CachedContext cached = contexts.get(checkpoint.getId());
+        if (cached != null && cached.isValidFor(checkpoint, now)) {
+            return cached.context();
+        }
+
+        DeliveryContext context = deliveryContextLoader.load(checkpoint);
+        long expiresAt = now + contextTtlSeconds * 1000;
+        contexts.values().removeIf(entry -> entry.expiresAt() <= now);
+        contexts.put(checkpoint.getId(), new CachedContext(context, checkpoint.getUpdatedAt(), expiresAt));
+        return context;
+    }
+
+    private record CachedContext(DeliveryContext context, LocalDateTime checkpointUpdatedAt, long expiresAt) {
+
+        boolean isValidFor(CampaignCheckpoint checkpoint, long now) {
+            return now < expiresAt && Objects.equals(checkpointUpdatedAt, checkpoint.getUpdatedAt());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.service.email.EmailProviderType;
+
+/**
+ * Outbound channels used by the checkpoint delivery pipeline.
+ * Each channel gets its own sender pool and send rate.
+ */
+public enum DeliveryChannel {
+    GMAIL,
+    RESEND,
+    AWS_SES;
+
+    /**
+     * Resolve the channel a checkpoint sends through
+     */
+    public static DeliveryChannel forCheckpoint(CampaignCheckpoint checkpoint) {
+        if (checkpoint.getEmailProvider() == CampaignCheckpoint.EmailProvider.RESEND) {
+            return RESEND;
+        }
+        return GMAIL;
+    }
+
+    /**
+     * Provider type used by OrganizationEmailService for non-Gmail channels
+     */
+    public EmailProviderType toProviderType() {
+        return switch (this) {
+            case RESEND -> EmailProviderType.RESEND;
+            case AWS_SES -> EmailProviderType.AWS_SES;
+            case GMAIL -> throw new IllegalStateException("Gmail is not an EmailProvider channel");
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.service.template.CompiledTemplate;
+
+import java.util.UUID;
+
+/**
+ * Everything about a checkpoint that is the same for every email it sends,
+ * resolved once before the send loop starts. The template is already parsed
+ * and compiled, so rendering an email is a single pass over each part.
+ */
+public record DeliveryContext(
+        UUID checkpointId,
+        String checkpointName,
+        UUID campaignId,
+        UUID orgId,
+        DeliveryChannel channel,
+        String campaignCreatorId,
+        Long campaignCreatorUserId,
+        UUID templateId,
+        CompiledTemplate subject,
+        CompiledTemplate body,
+        boolean isHtml) {
+}
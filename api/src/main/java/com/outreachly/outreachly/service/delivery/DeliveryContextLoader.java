@@ -0,0 +1,113 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.Campaign;
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.entity.Template;
+import com.outreachly.outreachly.repository.CampaignRepository;
+import com.outreachly.outreachly.repository.LeadRepository;
+import com.outreachly.outreachly.repository.TemplateRepository;
+import com.outreachly.outreachly.service.template.ParsedTemplate;
+import com.outreachly.outreachly.service.template.ParsedTemplateCache;
+import com.outreachly.outreachly.service.template.TemplateCompiler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loads the data checkpoint delivery needs in as few queries as possible:
+ * campaign, creator and template once per checkpoint, and leads in pages
+ * with a single IN query per page.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryContextLoader {
+
+    private final CampaignRepository campaignRepository;
+    private final TemplateRepository templateRepository;
+    private final LeadRepository leadRepository;
+    private final ParsedTemplateCache parsedTemplateCache;
+    private final TemplateCompiler templateCompiler;
+
+    @Value("${delivery.lead-page-size:500}")
+    private int leadPageSize;
+
+    /**
+     * Resolve the campaign creator and the checkpoint's template
+     */
+    public DeliveryContext load(CampaignCheckpoint checkpoint) {
+        Template template = null;
+        if (checkpoint.getEmailTemplateId() != null) {
+            template = templateRepository.findById(checkpoint.getEmailTemplateId()).orElse(null);
+
+            if (template == null) {
+                log.warn("Email template not found for checkpoint: {} (Template ID: {})",
+                        checkpoint.getName(), checkpoint.getEmailTemplateId());
+            }
+        }
+        return load(checkpoint, template);
+    }
+
+    /**
+     * Resolve the campaign creator for an already loaded template
+     */
+    public DeliveryContext load(CampaignCheckpoint checkpoint, Template template) {
+        Long campaignCreatorUserId = null;
+        try {
+            campaignCreatorUserId = campaignRepository.findById(checkpoint.getCampaignId())
+                    .map(Campaign::getCreatedBy)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Failed to get campaign creator for checkpoint {}: {}", checkpoint.getId(), e.getMessage());
+        }
+
+        // Parsed and compiled once per template version
+        ParsedTemplate parsed = parsedTemplateCache.get(template);
+        UUID templateId = template != null ? template.getId() : null;
+        LocalDateTime templateVersion = template != null ? template.getUpdatedAt() : null;
+
+        return new DeliveryContext(
+                checkpoint.getId(),
+                checkpoint.getName(),
+                checkpoint.getCampaignId(),
+                checkpoint.getOrgId(),
+                DeliveryChannel.forCheckpoint(checkpoint),
+                campaignCreatorUserId != null ? campaignCreatorUserId.toString() : null,
+                campaignCreatorUserId,
+                templateId,
+                templateCompiler.compile(templateId, templateVersion, "subject", parsed.subject()),
+                templateCompiler.compile(templateId, templateVersion, "body", parsed.body()),
+                parsed.isHtml());
+    }
+
+    /**
+     * Load the leads behind a set of checkpoint leads, keyed by lead id.
+     * Issues one IN query per page of {@code delivery.lead-page-size} ids.
+     */
+    public Map<UUID, LeadSnapshot> loadLeads(List<CampaignCheckpointLead> checkpointLeads, UUID orgId) {
+        List<UUID> leadIds = checkpointLeads.stream()
+                .map(CampaignCheckpointLead::getLeadId)
+                .distinct()
+                .toList();
+
+        Map<UUID, LeadSnapshot> leads = new HashMap<>(leadIds.size() * 2);
+        for (int from = 0; from < leadIds.size(); from += leadPageSize) {
+            List<UUID> page = leadIds.subList(from, Math.min(from + leadPageSize, leadIds.size()));
+            leadRepository.findByIdInAndOrgId(page, orgId)
+                    .forEach(lead -> leads.put(lead.getId(), LeadSnapshot.from(lead)));
+        }
+        return leads;
+    }
+
+    public int getLeadPageSize() {
+        return leadPageSize;
+    }
+}
@@ -0,0 +1,275 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writer stage of checkpoint delivery.
+ * Sender threads hand over the outcome of each send and a single writer thread
+ * persists the statuses, so senders never wait on the database. Updates are
+ * buffered and written every {@code delivery.status-writer.batch-size} rows or
+ * {@code delivery.status-writer.flush-ms}, whichever comes first, with one
+ * UPDATE ... FROM (VALUES ...) statement per batch.
+ *
+ * A failed batch is retried with backoff and then written row by row. Each
+ * update's callback is told whether its row was written, so callers can stop
+ * instead of treating an unsaved status as done.
+ *
+ * Leads that were handed to a provider but whose sent status could not be
+ * written go through {@link #persistSent}, a direct write retried with the
+ * same backoff. Leads it cannot write either stay sending in the database,
+ * where no run picks them up again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryStatusWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${delivery.status-writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${delivery.status-writer.flush-ms:200}")
+    private long flushMillis;
+
+    // Attempts at a failed batch before falling back to single rows; the wait doubles each time
+    @Value("${delivery.status-writer.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${delivery.status-writer.retry-backoff-ms:500}")
+    private long retryBackoffMillis;
+
+    private final BlockingQueue<StatusUpdate> updates = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drain, "delivery-status-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a lead as sent. {@code onWritten} gets true once the row is
+     * written, or false if it could not be.
+     */
+    public void markSent(CampaignCheckpointLead checkpointLead, Consumer<Boolean> onWritten) {
+        updates.add(new StatusUpdate(checkpointLead, CampaignCheckpointLead.DeliveryStatus.sent, null, onWritten));
+    }
+
+    /**
+     * Queue a lead as failed. {@code onWritten} gets true once the row is
+     * written, or false if it could not be.
+     */
+    public void markFailed(CampaignCheckpointLead checkpointLead, String errorMessage, Consumer<Boolean> onWritten) {
+        updates.add(new StatusUpdate(checkpointLead, CampaignCheckpointLead.DeliveryStatus.failed, errorMessage,
+                onWritten));
+    }
+
+    /**
+     * Write the sent status of leads whose status the writer could not save,
+     * retrying with backoff. Returns false if they could still not be written.
+     */
+    public boolean persistSent(Collection<CampaignCheckpointLead> checkpointLeads) throws InterruptedException {
+        if (checkpointLeads.isEmpty()) {
+            return true;
+        }
+        List<UUID> ids = checkpointLeads.stream().map(CampaignCheckpointLead::getId).toList();
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeSent(ids);
+                log.info("Wrote sent status for {} checkpoint leads outside the writer", ids.size());
+                return true;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to write sent status for {} checkpoint leads after {} attempts", ids.size(),
+                            attempt, e);
+                    return false;
+                }
+                log.warn("Failed to write sent status for {} checkpoint leads, retrying in {} ms: {}", ids.size(),
+                        backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private void writeSent(List<UUID> ids) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] args = new Object[ids.size() * 4];
+        int i = 0;
+        for (UUID id : ids) {
+            args[i++] = id;
+            args[i++] = CampaignCheckpointLead.DeliveryStatus.sent.name();
+            args[i++] = now;
+            args[i++] = null;
+        }
+        jdbcTemplate.update(batchUpdateSql(ids.size()), args);
+    }
+
+    private void drain() {
+        List<StatusUpdate> batch = new ArrayList<>(batchSize);
+        while (running || !updates.isEmpty()) {
+            try {
+                StatusUpdate first = updates.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+                while (batch.size() < batchSize) {
+                    updates.drainTo(batch, batchSize - batch.size());
+                    long waitNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || waitNanos <= 0 || !running) {
+                        break;
+                    }
+                    StatusUpdate next = updates.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Whoever waits on these rows must not treat them as written
+                for (StatusUpdate update : batch) {
+                    if (update.onWritten() != null) {
+                        update.onWritten().accept(false);
+                    }
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<StatusUpdate> batch) throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch, now);
+                for (StatusUpdate update : batch) {
+                    applied(update, now, true);
+                }
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to persist delivery status for {} checkpoint leads after {} attempts, " +
+                            "writing them one by one", batch.size(), attempt, e);
+                    break;
+                }
+                log.warn("Failed to persist delivery status for {} checkpoint leads, retrying in {} ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+
+        for (StatusUpdate update : batch) {
+            boolean written;
+            try {
+                write(List.of(update), now);
+                written = true;
+            } catch (Exception e) {
+                log.error("Failed to persist delivery status for lead: {}", update.checkpointLead().getLeadId(), e);
+                written = false;
+            }
+            applied(update, now, written);
+        }
+    }
+
+    private void write(List<StatusUpdate> batch, LocalDateTime now) {
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        Object[] args = new Object[batch.size() * 4];
+
+        int i = 0;
+        for (StatusUpdate update : batch) {
+            boolean sent = update.status() == CampaignCheckpointLead.DeliveryStatus.sent;
+            args[i++] = update.checkpointLead().getId();
+            args[i++] = update.status().name();
+            args[i++] = sent ? nowTimestamp : null;
+            args[i++] = update.errorMessage();
+        }
+        jdbcTemplate.update(batchUpdateSql(batch.size()), args);
+    }
+
+    // Keep the in-memory entity in step with the row, then tell the caller
+    private void applied(StatusUpdate update, LocalDateTime now, boolean written) {
+        CampaignCheckpointLead checkpointLead = update.checkpointLead();
+        if (written) {
+            checkpointLead.setStatus(update.status());
+            checkpointLead.setUpdatedAt(now);
+            if (update.status() == CampaignCheckpointLead.DeliveryStatus.sent) {
+                checkpointLead.setSentAt(now);
+            } else {
+                checkpointLead.setErrorMessage(update.errorMessage());
+                log.error("Email failed for lead: {} - {}", checkpointLead.getLeadId(), update.errorMessage());
+            }
+        }
+        if (update.onWritten() != null) {
+            update.onWritten().accept(written);
+        }
+    }
+
+    /**
+     * Single statement updating {@code rows} checkpoint leads. Parameters per
+     * row: id, status, sent_at (null keeps the current value), error_message
+     * (null keeps the current value).
+     */
+    public static String batchUpdateSql(int rows) {
+        StringBuilder sql = new StringBuilder(160 + rows * 48)
+                .append("UPDATE campaign_checkpoint_leads AS ccl SET status = v.status, ")
+                .append("sent_at = COALESCE(v.sent_at, ccl.sent_at), ")
+                .append("error_message = COALESCE(v.error_message, ccl.error_message), ")
+                .append("updated_at = NOW() FROM (VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append("(CAST(? AS uuid), ?, CAST(? AS timestamp), CAST(? AS text))");
+        }
+        return sql.append(") AS v(id, status, sent_at, error_message) WHERE ccl.id = v.id").toString();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record StatusUpdate(CampaignCheckpointLead checkpointLead,
+            CampaignCheckpointLead.DeliveryStatus status,
+            String errorMessage,
+            Consumer<Boolean> onWritten) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.Lead;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of the lead fields used to personalize an email.
+ * Detached from the persistence context so sender threads never touch the entity.
+ */
+public record LeadSnapshot(
+        UUID id,
+        String email,
+        String firstName,
+        String lastName,
+        String position,
+        String phone,
+        String domain,
+        String linkedinUrl,
+        String twitter,
+        String department,
+        String seniority) {
+
+    public static LeadSnapshot from(Lead lead) {
+        return new LeadSnapshot(
+                lead.getId(),
+                lead.getEmail(),
+                lead.getFirstName(),
+                lead.getLastName(),
+                lead.getPosition(),
+                lead.getPhone(),
+                lead.getDomain(),
+                lead.getLinkedinUrl(),
+                lead.getTwitter(),
+                lead.getDepartment(),
+                lead.getSeniority());
+    }
+}
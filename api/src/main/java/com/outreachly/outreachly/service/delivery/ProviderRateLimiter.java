@@ -0,0 +1,259 @@
+package com.outreachly.outreachly.service.delivery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared send-rate limiter for email providers.
+ * Keeps one token bucket per provider, plus one per API key for providers
+ * whose limits apply per key (Resend). Rates adapt AIMD-style: every
+ * throttled response halves the rate and pauses the bucket for the provider's
+ * Retry-After, every success adds back a small step up to the configured rate.
+ *
+ * Current rate and available permits are published as the
+ * {@code delivery.rate.limiter.rate} and {@code delivery.rate.limiter.permits}
+ * gauges, tagged by provider and key fingerprint.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderRateLimiter {
+
+    private static final String SHARED_KEY = "shared";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${delivery.gmail.rate-per-second:2}")
+    private double gmailRatePerSecond;
+
+    @Value("${delivery.resend.rate-per-second:1}")
+    private double resendRatePerSecond;
+
+    @Value("${delivery.resend.per-key-rate-per-second:2}")
+    private double resendPerKeyRatePerSecond;
+
+    @Value("${delivery.ses.rate-per-second:14}")
+    private double sesRatePerSecond;
+
+    // Fraction of the configured rate added back after each successful send
+    @Value("${delivery.rate-limiter.increase-step:0.05}")
+    private double increaseStep;
+
+    @Value("${delivery.rate-limiter.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    // The rate never drops below this fraction of the configured rate
+    @Value("${delivery.rate-limiter.min-fraction:0.1}")
+    private double minFraction;
+
+    // Pause applied on a throttled response that carried no Retry-After
+    @Value("${delivery.rate-limiter.default-retry-after-ms:1000}")
+    private long defaultRetryAfterMillis;
+
+    // Clock of the token buckets; tests swap it for a controllable one
+    private LongSupplier nanoClock = System::nanoTime;
+
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "provider-rate-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Block until the provider allows another send
+     */
+    public void acquire(DeliveryChannel channel) throws InterruptedException {
+        acquire(channel, null);
+    }
+
+    /**
+     * Block until the provider allows another send with the given API key
+     */
+    public void acquire(DeliveryChannel channel, String apiKey) throws InterruptedException {
+        limit(channel, apiKey).bucket.acquire();
+    }
+
+    /**
+     * Non-blocking variant for async senders: the future completes once a
+     * permit has been taken, without holding a thread while waiting.
+     */
+    public CompletableFuture<Void> acquireAsync(DeliveryChannel channel, String apiKey) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        tryAcquire(limit(channel, apiKey), permit);
+        return permit;
+    }
+
+    /**
+     * Record a successful send so a reduced rate can ramp back up
+     */
+    public void onSuccess(DeliveryChannel channel, String apiKey) {
+        limit(channel, apiKey).increase();
+    }
+
+    /**
+     * Record a throttled send: reduce the rate and pause for {@code retryAfter}
+     * (or the default pause when the provider sent none)
+     */
+    public void onThrottled(DeliveryChannel channel, String apiKey, Duration retryAfter) {
+        limit(channel, apiKey).decrease(retryAfter);
+    }
+
+    /**
+     * Replace the provider-wide configured rate, e.g. with a limit the provider
+     * reports for the account. Takes effect immediately.
+     */
+    public void setConfiguredRate(DeliveryChannel channel, double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        limit(channel, null).reconfigure(ratePerSecond);
+    }
+
+    /**
+     * Current provider-wide rate
+     */
+    public double getRatePerSecond(DeliveryChannel channel) {
+        return limit(channel, null).bucket.getRatePerSecond();
+    }
+
+    /**
+     * Parse a Retry-After header value: delay in seconds or an HTTP date.
+     * Returns null when the value is missing or unreadable.
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, try an HTTP date
+        }
+        try {
+            Duration untilDate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void tryAcquire(AdaptiveLimit limit, CompletableFuture<Void> permit) {
+        long waitNanos = limit.bucket.tryAcquire();
+        if (waitNanos == 0) {
+            permit.complete(null);
+        } else {
+            timer.schedule(() -> tryAcquire(limit, permit), waitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private AdaptiveLimit limit(DeliveryChannel channel, String apiKey) {
+        String key = apiKey == null || apiKey.isBlank() ? SHARED_KEY : fingerprint(apiKey);
+        return limits.computeIfAbsent(channel.name() + ":" + key, ignored -> newLimit(channel, key));
+    }
+
+    private AdaptiveLimit newLimit(DeliveryChannel channel, String key) {
+        double configuredRate = switch (channel) {
+            case GMAIL -> gmailRatePerSecond;
+            case RESEND -> SHARED_KEY.equals(key) ? resendRatePerSecond : resendPerKeyRatePerSecond;
+            case AWS_SES -> sesRatePerSecond;
+        };
+
+        AdaptiveLimit limit = new AdaptiveLimit(channel, key, configuredRate);
+        String provider = channel.name().toLowerCase();
+        Gauge.builder("delivery.rate.limiter.permits", limit, l -> l.bucket.availablePermits())
+                .description("Send permits available right now")
+                .tags("provider", provider, "key", key)
+                .register(meterRegistry);
+        Gauge.builder("delivery.rate.limiter.rate", limit, l -> l.bucket.getRatePerSecond())
+                .description("Current send rate in emails per second")
+                .tags("provider", provider, "key", key)
+                .register(meterRegistry);
+        limit.throttled = Counter.builder("delivery.rate.limiter.throttled")
+                .description("Sends rejected by the provider for rate limiting")
+                .tags("provider", provider, "key", key)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    // API keys never show up in logs or metric tags, only a short hash of them
+    private static String fingerprint(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Token bucket with AIMD rate control for one provider (and key)
+     */
+    private class AdaptiveLimit {
+        private final DeliveryChannel channel;
+        private final String key;
+        private volatile double configuredRate;
+        private final TokenBucket bucket;
+        private Counter throttled;
+
+        AdaptiveLimit(DeliveryChannel channel, String key, double configuredRate) {
+            this.channel = channel;
+            this.key = key;
+            this.configuredRate = configuredRate;
+            this.bucket = new TokenBucket(configuredRate, Math.max(1, configuredRate), nanoClock);
+        }
+
+        synchronized void reconfigure(double ratePerSecond) {
+            configuredRate = ratePerSecond;
+            bucket.setRatePerSecond(ratePerSecond);
+        }
+
+        synchronized void increase() {
+            double current = bucket.getRatePerSecond();
+            if (current < configuredRate) {
+                bucket.setRatePerSecond(Math.min(configuredRate, current + configuredRate * increaseStep));
+            }
+        }
+
+        synchronized void decrease(Duration retryAfter) {
+            double reduced = Math.max(configuredRate * minFraction, bucket.getRatePerSecond() * decreaseFactor);
+            bucket.setRatePerSecond(reduced);
+
+            long pauseMillis = retryAfter != null ? retryAfter.toMillis() : defaultRetryAfterMillis;
+            bucket.pauseFor(TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+            throttled.increment();
+
+            log.warn("{} throttled sends (key {}): rate lowered to {}/s, paused for {} ms",
+                    channel, key, String.format("%.2f", reduced), pauseMillis);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.outreachly.outreachly.service.delivery;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an email provider rejects a send because of rate limiting
+ * (HTTP 429 or the provider's equivalent). Carries the provider's Retry-After
+ * when it sent one.
+ */
+public class ProviderThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ProviderThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public ProviderThrottledException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retry-After sent by the provider, or null when it did not send one
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Find a throttling error anywhere in the cause chain
+     */
+    public static ProviderThrottledException find(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ProviderThrottledException throttled) {
+                return throttled;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.outreachly.outreachly.service.delivery;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket used to pace sends against a single provider.
+ * Tokens refill continuously at {@code ratePerSecond} up to {@code capacity}.
+ * The rate can be changed at runtime, and the bucket can be paused until a
+ * given time (e.g. a provider's Retry-After). Waiting happens outside the lock,
+ * so callers never hold a monitor while they sleep.
+ */
+public class TokenBucket {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongSupplier nanoClock;
+    private final double capacity;
+    private volatile double ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this(ratePerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Bucket on the given clock, in nanoseconds like {@link System#nanoTime}
+     */
+    public TokenBucket(double ratePerSecond, double capacity, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        this.nanoClock = nanoClock;
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Block until a token is available and take it
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take a token if one is available. Returns 0 when a token was taken,
+     * otherwise how long to wait (in nanoseconds) before trying again.
+     */
+    public long tryAcquire() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            if (now < pausedUntilNanos) {
+                return pausedUntilNanos - now;
+            }
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) / ratePerSecond * TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Change the refill rate. Tokens accrued so far are kept.
+     */
+    public void setRatePerSecond(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        lock.lock();
+        try {
+            refill(nanoClock.getAsLong());
+            this.ratePerSecond = ratePerSecond;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand out no tokens for the given time and drop the ones already accrued
+     */
+    public void pauseFor(long nanos) {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            pausedUntilNanos = Math.max(pausedUntilNanos, now + nanos);
+            tokens = 0;
+            lastRefillNanos = pausedUntilNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Tokens that could be taken right now
+     */
+    public double availablePermits() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            if (now < pausedUntilNanos) {
+                return 0;
+            }
+            refill(now);
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        if (now <= lastRefillNanos) {
+            return;
+        }
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(capacity, tokens + elapsedSeconds * ratePerSecond);
+        lastRefillNanos = now;
+    }
+}
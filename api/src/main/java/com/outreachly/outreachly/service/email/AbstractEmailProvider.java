@@ -85,6 +85,7 @@ public abstract class AbstractEmailProvider implements EmailProvider {
     public EmailResponse sendBulkEmail(List<EmailRequest> emailRequests) {
         List<String> allRecipients = new ArrayList<>();
         List<String> failedRecipients = new ArrayList<>();
+        List<String> messageIds = new ArrayList<>();
         int successfulCount = 0;
 
         log.info("Starting bulk email send via {} for {} requests",
@@ -96,8 +97,10 @@ public abstract class AbstractEmailProvider implements EmailProvider {
 
             if (response.isSuccess()) {
                 successfulCount += response.getSuccessfulRecipients();
+                messageIds.add(response.getMessageId());
             } else {
                 failedRecipients.addAll(response.getFailedRecipients());
+                messageIds.add(null);
             }
         }
 
@@ -111,6 +114,7 @@ public abstract class AbstractEmailProvider implements EmailProvider {
                 .totalRecipients(allRecipients.size())
                 .successfulRecipients(successfulCount)
                 .failedRecipients(failedRecipients)
+                .messageIds(messageIds)
                 .build();
     }
 
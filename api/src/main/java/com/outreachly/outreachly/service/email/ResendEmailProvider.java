@@ -5,9 +5,15 @@ import com.outreachly.outreachly.dto.EmailResponse;
 import com.outreachly.outreachly.entity.UserResendConfig;
 import com.outreachly.outreachly.service.EmailEventService;
 import com.outreachly.outreachly.service.UserResendConfigService;
+import com.outreachly.outreachly.service.delivery.DeliveryChannel;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.delivery.ProviderThrottledException;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -17,10 +23,10 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.Optional;
 
 /**
@@ -31,14 +37,21 @@ import java.util.Optional;
 @Slf4j
 public class ResendEmailProvider extends AbstractEmailProvider {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final WebClient webClient;
     private final UserResendConfigService userResendConfigService;
+    private final ProviderRateLimiter rateLimiter;
+    private final OutboundLimiter outboundLimiter;
 
     public ResendEmailProvider(EmailEventService emailEventService, WebClient webClient,
-            UserResendConfigService userResendConfigService) {
+            UserResendConfigService userResendConfigService, ProviderRateLimiter rateLimiter,
+            OutboundLimiter outboundLimiter) {
         super(emailEventService);
         this.webClient = webClient;
         this.userResendConfigService = userResendConfigService;
+        this.rateLimiter = rateLimiter;
+        this.outboundLimiter = outboundLimiter;
     }
 
     @Value("${resend.api-key:}")
@@ -47,8 +60,12 @@ public class ResendEmailProvider extends AbstractEmailProvider {
     @Value("${resend.from-email:}")
     private String fromEmail;
 
-    // Rate limiting for Resend API (2 requests per second)
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
+    // Emails per /emails/batch call; Resend accepts at most 100
+    @Value("${resend.batch-size:100}")
+    private int batchSize;
+
+    @Value("${resend.batch-max-retries:2}")
+    private int batchMaxRetries;
 
     @PostConstruct
     public void init() {
@@ -154,86 +171,31 @@ public class ResendEmailProvider extends AbstractEmailProvider {
         }
     }
 
-    /**
-     * Rate limiting to ensure we don't exceed Resend's rate limits
-     * Uses synchronized method to ensure thread safety across multiple checkpoints
-     */
-    private synchronized void enforceRateLimit() {
-        long currentTime = System.currentTimeMillis();
-        long lastTime = lastRequestTime.get();
-        long timeSinceLastRequest = currentTime - lastTime;
-
-        // Use 1 second between requests to be safe
-        if (timeSinceLastRequest < 1000) {
-            long delayNeeded = 1000 - timeSinceLastRequest;
-            try {
-                Thread.sleep(delayNeeded);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Interrupted while rate limiting", e);
-            }
-        }
-
-        // Update the last request time
-        lastRequestTime.set(System.currentTimeMillis());
-    }
-
     /**
      * Core email sending logic with specific configuration
      */
     private EmailResponse sendEmailWithConfig(EmailRequest emailRequest, String userApiKey, String userFromEmail,
             String userFromName) {
         try {
-            // Build Resend API request
-            Map<String, Object> requestBody = new HashMap<>();
-
             // Set from address with optional name
             String fromAddress = userFromName != null && !userFromName.isEmpty()
                     ? userFromName + " <" + userFromEmail + ">"
                     : userFromEmail;
 
-            requestBody.put("from", fromAddress);
-            requestBody.put("to", emailRequest.getRecipients());
-            requestBody.put("subject", emailRequest.getSubject());
-
-            if (emailRequest.isHtml()) {
-                requestBody.put("html", emailRequest.getContent());
-            } else {
-                requestBody.put("text", emailRequest.getContent());
-            }
-
-            if (emailRequest.getReplyTo() != null) {
-                requestBody.put("reply_to", emailRequest.getReplyTo());
-            }
+            // Build Resend API request
+            Map<String, Object> requestBody = buildRequestBody(emailRequest, fromAddress);
 
             log.info("Sending email via Resend to: {}, from: {}", emailRequest.getRecipients(), fromAddress);
 
-            // Enforce rate limiting before making API call
-            enforceRateLimit();
+            // Resend limits requests per API key; wait for this key's permit
+            rateLimiter.acquire(DeliveryChannel.RESEND, userApiKey);
 
             // Send email via Resend API
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = webClient.post()
-                    .uri("https://api.resend.com/emails")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + userApiKey)
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> {
-                                log.error("Resend API error: {} {}", clientResponse.statusCode(),
-                                        clientResponse.statusCode().value());
-                                return clientResponse.bodyToMono(String.class)
-                                        .flatMap(errorBody -> {
-                                            log.error("Resend error response: {}", errorBody);
-                                            return Mono.error(new RuntimeException("Resend API error: "
-                                                    + clientResponse.statusCode() + " - " + errorBody));
-                                        });
-                            })
-                    .bodyToMono(Map.class)
-                    .block();
+            Map<String, Object> response = outboundLimiter.call(Downstream.RESEND,
+                    () -> post("/emails", userApiKey, requestBody));
 
             if (response != null && response.containsKey("id")) {
+                rateLimiter.onSuccess(DeliveryChannel.RESEND, userApiKey);
                 return EmailResponse.builder()
                         .messageId((String) response.get("id"))
                         .success(true)
@@ -247,12 +209,177 @@ public class ResendEmailProvider extends AbstractEmailProvider {
                 throw new RuntimeException("Invalid response from Resend API");
             }
 
+        } catch (ProviderThrottledException e) {
+            log.warn("Resend throttled sending to: {}", emailRequest.getRecipients());
+            rateLimiter.onThrottled(DeliveryChannel.RESEND, userApiKey, e.getRetryAfter());
+            throw new RuntimeException("Failed to send email via Resend", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to send via Resend", e);
         } catch (Exception e) {
             log.error("Resend failed to send email: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to send email via Resend", e);
         }
     }
 
+    /**
+     * Send through Resend's batch endpoint, {@code resend.batch-size} (at most
+     * 100) emails per API call instead of one call per email. Uses the global
+     * Resend configuration like {@link #doSendEmail}. Suppressed recipients are
+     * dropped as in {@link #sendEmail}; a batch rejected for rate limiting is
+     * retried once the limiter's pause has passed.
+     */
+    @Override
+    public EmailResponse sendBulkEmail(List<EmailRequest> emailRequests) {
+        List<String> messageIds = new ArrayList<>(Collections.nCopies(emailRequests.size(), null));
+        List<String> failedRecipients = new ArrayList<>();
+        int totalRecipients = emailRequests.stream().mapToInt(request -> request.getRecipients().size()).sum();
+
+        if (apiKey == null || apiKey.isEmpty() || fromEmail == null || fromEmail.isEmpty()) {
+            log.error("Resend API key or from email is not set!");
+            emailRequests.forEach(request -> failedRecipients.addAll(request.getRecipients()));
+            return bulkResponse("Resend is not configured. Please configure in Settings.", totalRecipients, 0,
+                    failedRecipients, messageIds);
+        }
+
+        // Drop suppressed recipients; requests left without any are not sent
+        List<Integer> sendable = new ArrayList<>();
+        for (int i = 0; i < emailRequests.size(); i++) {
+            EmailRequest request = emailRequests.get(i);
+            List<String> validRecipients = new ArrayList<>();
+            for (String recipient : request.getRecipients()) {
+                if (isEmailSuppressed(recipient)) {
+                    log.warn("Email suppressed due to previous bounces/complaints: {}", recipient);
+                    failedRecipients.add(recipient);
+                } else {
+                    validRecipients.add(recipient);
+                }
+            }
+            if (!validRecipients.isEmpty()) {
+                request.setRecipients(validRecipients);
+                sendable.add(i);
+            }
+        }
+
+        int size = Math.max(1, Math.min(MAX_BATCH_SIZE, batchSize));
+        int successfulRecipients = 0;
+        for (int start = 0; start < sendable.size(); start += size) {
+            List<EmailRequest> batch = sendable.subList(start, Math.min(sendable.size(), start + size)).stream()
+                    .map(emailRequests::get)
+                    .toList();
+            try {
+                List<String> ids = sendBatch(batch);
+                for (int j = 0; j < batch.size(); j++) {
+                    messageIds.set(sendable.get(start + j), ids.get(j));
+                    successfulRecipients += batch.get(j).getRecipients().size();
+                }
+            } catch (Exception e) {
+                log.error("Resend batch of {} emails failed: {}", batch.size(), e.getMessage(), e);
+                batch.forEach(request -> failedRecipients.addAll(request.getRecipients()));
+            }
+        }
+
+        log.info("Bulk email send completed via Resend batches. Success: {}, Failed: {}",
+                successfulRecipients, failedRecipients.size());
+        return bulkResponse(failedRecipients.isEmpty() ? "All emails sent successfully" : "Some emails failed to send",
+                totalRecipients, successfulRecipients, failedRecipients, messageIds);
+    }
+
+    /**
+     * One call to /emails/batch; returns the message IDs in request order
+     */
+    private List<String> sendBatch(List<EmailRequest> batch) throws Exception {
+        List<Map<String, Object>> requestBody = batch.stream()
+                .map(request -> buildRequestBody(request, fromEmail))
+                .toList();
+
+        for (int attempt = 0;; attempt++) {
+            rateLimiter.acquire(DeliveryChannel.RESEND, apiKey);
+            try {
+                Map<String, Object> response = outboundLimiter.call(Downstream.RESEND,
+                        () -> post("/emails/batch", apiKey, requestBody));
+                rateLimiter.onSuccess(DeliveryChannel.RESEND, apiKey);
+
+                Object data = response != null ? response.get("data") : null;
+                if (!(data instanceof List<?> results) || results.size() != batch.size()) {
+                    throw new RuntimeException("Invalid batch response from Resend API");
+                }
+                return results.stream()
+                        .map(result -> result instanceof Map<?, ?> entry ? (String) entry.get("id") : null)
+                        .toList();
+            } catch (Exception e) {
+                ProviderThrottledException throttled = ProviderThrottledException.find(e);
+                if (throttled == null) {
+                    throw e;
+                }
+                rateLimiter.onThrottled(DeliveryChannel.RESEND, apiKey, throttled.getRetryAfter());
+                if (attempt >= batchMaxRetries) {
+                    throw e;
+                }
+                log.warn("Resend throttled a batch of {} emails, retrying", batch.size());
+            }
+        }
+    }
+
+    private Map<String, Object> buildRequestBody(EmailRequest emailRequest, String fromAddress) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("from", fromAddress);
+        requestBody.put("to", emailRequest.getRecipients());
+        requestBody.put("subject", emailRequest.getSubject());
+
+        if (emailRequest.isHtml()) {
+            requestBody.put("html", emailRequest.getContent());
+        } else {
+            requestBody.put("text", emailRequest.getContent());
+        }
+
+        if (emailRequest.getReplyTo() != null) {
+            requestBody.put("reply_to", emailRequest.getReplyTo());
+        }
+        return requestBody;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> post(String path, String userApiKey, Object requestBody) {
+        return webClient.post()
+                .uri("https://api.resend.com" + path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + userApiKey)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.TOO_MANY_REQUESTS.value(),
+                        clientResponse -> Mono.error(new ProviderThrottledException(
+                                "Resend rate limit exceeded",
+                                ProviderRateLimiter.parseRetryAfter(clientResponse.headers().asHttpHeaders()
+                                        .getFirst(HttpHeaders.RETRY_AFTER)))))
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> {
+                            log.error("Resend API error: {} {}", clientResponse.statusCode(),
+                                    clientResponse.statusCode().value());
+                            return clientResponse.bodyToMono(String.class)
+                                    .flatMap(errorBody -> {
+                                        log.error("Resend error response: {}", errorBody);
+                                        return Mono.error(new RuntimeException("Resend API error: "
+                                                + clientResponse.statusCode() + " - " + errorBody));
+                                    });
+                        })
+                .bodyToMono(Map.class)
+                .block();
+    }
+
+    private static EmailResponse bulkResponse(String message, int totalRecipients, int successfulRecipients,
+            List<String> failedRecipients, List<String> messageIds) {
+        return EmailResponse.builder()
+                .success(failedRecipients.isEmpty())
+                .message(message)
+                .timestamp(LocalDateTime.now())
+                .totalRecipients(totalRecipients)
+                .successfulRecipients(successfulRecipients)
+                .failedRecipients(failedRecipients)
+                .messageIds(messageIds)
+                .build();
+    }
+
     @Override
     public boolean verifyEmailAddress(String emailAddress) {
         // Resend doesn't require email verification like SES
@@ -0,0 +1,384 @@
+package com.outreachly.outreachly.service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.entity.EmailEvent;
+import com.outreachly.outreachly.service.suppression.SuppressionList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer stage for provider webhook events and tracked clicks.
+ * Requests only queue the parsed event and return, and a single writer
+ * thread inserts the queue in batches of {@code email-events.writer.batch-size}
+ * rows (or every {@code email-events.writer.flush-ms}) with one multi-row
+ * INSERT. SNS redeliveries are dropped twice over: against the MessageIds seen
+ * recently by this instance, and by the unique sns_message_id index.
+ *
+ * The queue is bounded; when it is full, {@link #submit} refuses the event and
+ * the webhook answers 503 so SNS retries later instead of memory growing.
+ * Tracked events have no sender to retry them, so {@link #record} spills them
+ * to a local append-only file instead, which is replayed into the queue once
+ * it has room again. Clicks and opens whose insert fails are spilled the same
+ * way, and every event that is lost is counted in email.events.dropped.
+ *
+ * A batch that fails to insert is retried with a doubling backoff; when it
+ * keeps failing the events go to the spill file rather than being dropped. A
+ * batch refused by a constraint is written row by row, and only the rows that
+ * are refused on their own are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailEventWriter {
+
+    private static final String INSERT_COLUMNS = "INSERT INTO email_events (message_id, email_address, event_type, " +
+            "bounce_type, bounce_subtype, complaint_feedback_type, clicked_url, timestamp, raw_message, processed, " +
+            "created_at, sns_message_id, campaign_id, user_id, org_id) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), ?, ?, ?, ?)";
+    private static final int COLUMNS = 14;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SuppressionList suppressionList;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${email-events.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${email-events.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${email-events.writer.flush-ms:200}")
+    private long flushMillis;
+
+    // SNS MessageIds remembered for dropping redeliveries before they reach the database
+    @Value("${email-events.writer.dedupe-window:50000}")
+    private int dedupeWindow;
+
+    // Attempts at a failed batch before spilling it; the wait doubles each time
+    @Value("${email-events.writer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${email-events.writer.retry-backoff-ms:500}")
+    private long retryBackoffMillis;
+
+    // Overflow for tracked events when the queue is full, and for batches the database keeps refusing
+    @Value("${email-events.spill.path:${java.io.tmpdir}/outreachly/email-events.spill}")
+    private String spillPath;
+
+    private BlockingQueue<EmailEvent> events;
+    private Map<String, Boolean> recentMessageIds;
+    private EventSpillFile spillFile;
+    private Counter duplicates;
+    private Counter rejected;
+    private Counter spilled;
+    private Counter dropped;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void start() {
+        events = new ArrayBlockingQueue<>(queueCapacity);
+        recentMessageIds = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > dedupeWindow;
+            }
+        };
+        Gauge.builder("email.events.queue.size", events, BlockingQueue::size)
+                .description("Webhook events waiting to be written")
+                .register(meterRegistry);
+        duplicates = Counter.builder("email.events.duplicates")
+                .description("Webhook redeliveries dropped by SNS MessageId")
+                .register(meterRegistry);
+        rejected = Counter.builder("email.events.rejected")
+                .description("Webhook events refused because the queue was full")
+                .register(meterRegistry);
+        spilled = Counter.builder("email.events.spilled")
+                .description("Events written to the spill file because the queue was full or the insert failed")
+                .register(meterRegistry);
+        dropped = Counter.builder("email.events.dropped")
+                .description("Events lost: refused by the database on their own, or taken by neither the " +
+                        "queue nor the spill file")
+                .register(meterRegistry);
+
+        try {
+            spillFile = new EventSpillFile(Path.of(spillPath), objectMapper);
+            Gauge.builder("email.events.spill.size", spillFile, EventSpillFile::pending)
+                    .description("Tracked events waiting in the spill file")
+                    .register(meterRegistry);
+        } catch (IOException e) {
+            log.error("Email event spill file {} is unavailable; tracked events are dropped when the queue is full",
+                    spillPath, e);
+        }
+
+        running = true;
+        writerThread = new Thread(this::drain, "email-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue an event for writing. Returns false when the queue is full; a
+     * redelivered SNS message counts as accepted.
+     */
+    public boolean submit(EmailEvent event) {
+        String snsMessageId = event.getSnsMessageId();
+        if (snsMessageId != null) {
+            synchronized (recentMessageIds) {
+                if (recentMessageIds.putIfAbsent(snsMessageId, Boolean.TRUE) != null) {
+                    duplicates.increment();
+                    return true;
+                }
+            }
+        }
+        if (events.offer(event)) {
+            return true;
+        }
+        if (snsMessageId != null) {
+            // Not queued, so the redelivery must not be treated as a duplicate
+            synchronized (recentMessageIds) {
+                recentMessageIds.remove(snsMessageId);
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Queue a tracked event (click, open) for writing without waiting. When
+     * the queue is full the event goes to the spill file.
+     */
+    public void record(EmailEvent event) {
+        if (events.offer(event) || spill(event)) {
+            return;
+        }
+        dropped.increment();
+    }
+
+    private boolean spill(EmailEvent event) {
+        if (spillFile == null) {
+            return false;
+        }
+        try {
+            spillFile.append(event);
+            spilled.increment();
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to spill {} event for message {}", event.getEventType(), event.getMessageId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Move spilled events back into the queue while it is less than half full
+     */
+    @Scheduled(fixedDelayString = "${email-events.spill.replay-ms:10000}")
+    public void replaySpilled() {
+        if (spillFile == null || spillFile.pending() == 0 || events.remainingCapacity() < queueCapacity / 2) {
+            return;
+        }
+        try {
+            int replayed = spillFile.replay(event -> events.remainingCapacity() > queueCapacity / 4
+                    && events.offer(event));
+            if (replayed > 0) {
+                log.info("Replayed {} spilled email events, {} still spilled", replayed, spillFile.pending());
+            }
+        } catch (IOException e) {
+            log.error("Failed to replay spilled email events", e);
+        }
+    }
+
+    private void drain() {
+        List<EmailEvent> batch = new ArrayList<>(batchSize);
+        while (running || !events.isEmpty()) {
+            try {
+                EmailEvent first = events.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+                while (batch.size() < batchSize) {
+                    events.drainTo(batch, batchSize - batch.size());
+                    long waitNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || waitNanos <= 0 || !running) {
+                        break;
+                    }
+                    EmailEvent next = events.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                spillAll(batch);
+                return;
+            } catch (Exception e) {
+                log.error("Failed to write {} email events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<EmailEvent> batch) throws InterruptedException {
+        List<EmailEvent> inserted = null;
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; inserted == null; attempt++) {
+            try {
+                inserted = insert(batch);
+            } catch (DataIntegrityViolationException e) {
+                // One bad row fails the whole statement; write the rest one by one
+                log.warn("Batch insert of {} email events refused, retrying row by row: {}", batch.size(),
+                        e.getMessage());
+                inserted = insertEach(batch);
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to write {} email events after {} attempts, spilling them", batch.size(),
+                            attempt, e);
+                    spillAll(batch);
+                    return;
+                }
+                log.warn("Failed to write {} email events, retrying in {} ms: {}", batch.size(), backoff,
+                        e.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+
+        // Suppressions only for events written now, not for redeliveries
+        for (EmailEvent event : inserted) {
+            if (event.getEventType() == EmailEvent.EmailEventType.BOUNCE
+                    || event.getEventType() == EmailEvent.EmailEventType.COMPLAINT) {
+                try {
+                    suppressionList.onEvent(event);
+                } catch (Exception e) {
+                    log.error("Failed to update suppression for {}", event.getEmailAddress(), e);
+                }
+            }
+        }
+        log.debug("Wrote {} of {} email events", inserted.size(), batch.size());
+    }
+
+    // Rows refused on their own are dropped; rows that fail for any other reason are spilled
+    private List<EmailEvent> insertEach(List<EmailEvent> batch) {
+        List<EmailEvent> inserted = new ArrayList<>();
+        for (EmailEvent event : batch) {
+            try {
+                inserted.addAll(insert(List.of(event)));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping email event {} for {}: {}", event.getEventType(), event.getEmailAddress(),
+                        e.getMessage());
+                dropped.increment();
+            } catch (Exception e) {
+                log.warn("Failed to write email event {} for {}, spilling it: {}", event.getEventType(),
+                        event.getEmailAddress(), e.getMessage());
+                spillAll(List.of(event));
+            }
+        }
+        return inserted;
+    }
+
+    private void spillAll(List<EmailEvent> batch) {
+        for (EmailEvent event : batch) {
+            if (!spill(event)) {
+                log.error("Lost email event {} for message {}", event.getEventType(), event.getMessageId());
+                dropped.increment();
+            }
+        }
+    }
+
+    // Returns the events actually inserted; rows whose sns_message_id already exists are skipped
+    private List<EmailEvent> insert(List<EmailEvent> batch) {
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (EmailEvent event : batch) {
+            LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+            args[i++] = event.getMessageId();
+            args[i++] = event.getEmailAddress();
+            args[i++] = event.getEventType().name();
+            args[i++] = event.getBounceType();
+            args[i++] = event.getBounceSubtype();
+            args[i++] = event.getComplaintFeedbackType();
+            args[i++] = event.getClickedUrl();
+            args[i++] = Timestamp.valueOf(timestamp);
+            args[i++] = event.getRawMessage();
+            args[i++] = event.isProcessed();
+            args[i++] = event.getSnsMessageId();
+            args[i++] = event.getCampaignId();
+            args[i++] = event.getUserId();
+            args[i++] = event.getOrgId();
+        }
+
+        Set<String> written = new HashSet<>(jdbcTemplate.queryForList(insertSql(batch.size()), String.class, args));
+        List<EmailEvent> inserted = new ArrayList<>(batch.size());
+        for (EmailEvent event : batch) {
+            if (event.getSnsMessageId() == null || written.contains(event.getSnsMessageId())) {
+                inserted.add(event);
+            }
+        }
+        if (inserted.size() < batch.size()) {
+            duplicates.increment(batch.size() - inserted.size());
+        }
+        return inserted;
+    }
+
+    /**
+     * Single statement inserting {@code rows} events, skipping SNS redeliveries
+     * and returning the sns_message_id of each inserted row (null for events
+     * not received over SNS).
+     */
+    static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS.length() + rows * (ROW.length() + 2) + 80)
+                .append(INSERT_COLUMNS);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(" ON CONFLICT (sns_message_id) DO NOTHING RETURNING sns_message_id").toString();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spillFile != null) {
+            spillFile.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.outreachly.outreachly.service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.entity.EmailEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Local append-only overflow for email events that did not fit in the writer
+ * queue, one JSON event per line. Spilled events are read back in file order
+ * once the queue has room again; events that still do not fit are appended
+ * again and read with the next replay.
+ *
+ * Replay first renames the file aside, so events spilled while it runs go to
+ * a fresh file. A file left aside by a crash mid-replay is replayed first.
+ */
+@Slf4j
+class EventSpillFile {
+
+    private final Path path;
+    private final Path replayPath;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong pending = new AtomicLong();
+    private BufferedWriter writer;
+
+    EventSpillFile(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.replayPath = path.resolveSibling(path.getFileName() + ".replay");
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        pending.set(countLines(path) + countLines(replayPath));
+        if (pending.get() > 0) {
+            log.info("{} spilled email events waiting in {}", pending.get(), path);
+        }
+    }
+
+    /**
+     * Events written and not yet read back
+     */
+    long pending() {
+        return pending.get();
+    }
+
+    synchronized void append(EmailEvent event) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(objectMapper.writeValueAsString(event));
+        writer.newLine();
+        // Hand each line to the OS so a crashed JVM does not lose the buffer
+        writer.flush();
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Offer spilled events, oldest first, until {@code sink} refuses one; the
+     * rest are spilled again. Returns the number of events the sink accepted.
+     */
+    int replay(Predicate<EmailEvent> sink) throws IOException {
+        synchronized (this) {
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(path)) {
+                    return 0;
+                }
+                closeWriter();
+                Files.move(path, replayPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        int accepted = 0;
+        List<String> refused = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!refused.isEmpty()) {
+                    refused.add(line);
+                    continue;
+                }
+                EmailEvent event;
+                try {
+                    event = objectMapper.readValue(line, EmailEvent.class);
+                } catch (IOException e) {
+                    log.error("Skipping unreadable spilled email event: {}", line, e);
+                    pending.decrementAndGet();
+                    continue;
+                }
+                if (sink.test(event)) {
+                    accepted++;
+                    pending.decrementAndGet();
+                } else {
+                    refused.add(line);
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (!refused.isEmpty()) {
+                if (writer == null) {
+                    writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (String line : refused) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.flush();
+            }
+            Files.delete(replayPath);
+        }
+        return accepted;
+    }
+
+    synchronized void close() {
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            log.warn("Failed to close email event spill file {}", path, e);
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private static long countLines(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).count();
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.outreachly.outreachly.service.links;
+
+import com.outreachly.outreachly.entity.ShortLink;
+import com.outreachly.outreachly.repository.ShortLinkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Short links for click tracking. Links in outgoing HTML are rewritten at send
+ * time to {@code {tracking.base-url}/track/c/{code}}, where the code is 8
+ * random base62 characters stored in short_links with the target URL and the
+ * message it was sent in.
+ *
+ * Links are created per {@link LinkBatch}: a checkpoint chunk collects the
+ * links of all its emails and writes them with one INSERT before any of them
+ * is sent, and the links of emails that then fail to send are deleted again.
+ *
+ * Redirects are served from a bounded in-memory LRU cache of code to target;
+ * links are cached when created, so the burst of clicks right after a campaign
+ * lands does not touch the database. Unknown codes are remembered for
+ * {@code short-links.miss-ttl-ms}, so repeated requests for a bad code do not
+ * either. Click counts are summed in memory and added to
+ * short_links.click_count in one statement every {@code short-links.flush-ms}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShortLinkService {
+
+    static final int CODE_LENGTH = 8;
+    private static final char[] BASE62 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final Pattern CODE = Pattern.compile("[0-9A-Za-z]{1,10}");
+    private static final Pattern HREF = Pattern.compile("(?i)(\\bhref\\s*=\\s*)([\"'])(https?://.*?)\\2");
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+    // Keeps one INSERT well under PostgreSQL's 65535 bind parameters
+    private static final int MAX_INSERT_ROWS = 1000;
+
+    private static final String INSERT_COLUMNS = "INSERT INTO short_links (short_code, original_url, message_id, " +
+            "recipient_email, user_id, campaign_id, org_id, created_at, expires_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, NOW(), ?)";
+    private static final int COLUMNS = 8;
+
+    private final ShortLinkRepository shortLinkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Public URL of this API; link rewriting is off while it is empty
+    @Value("${tracking.base-url:}")
+    private String baseUrl;
+
+    @Value("${short-links.cache-size:100000}")
+    private int cacheSize;
+
+    @Value("${short-links.ttl-days:365}")
+    private int ttlDays;
+
+    @Value("${short-links.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Codes found in neither the cache nor the database, remembered this long
+    @Value("${short-links.miss-cache-size:10000}")
+    private int missCacheSize;
+
+    @Value("${short-links.miss-ttl-ms:60000}")
+    private long missTtlMillis;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Long> pendingClicks = new ConcurrentHashMap<>();
+    private LruCache<String, Target> cache;
+    // Code to the time (System.nanoTime) its miss expires
+    private LruCache<String, Long> misses;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() {
+        cache = new LruCache<>(cacheSize);
+        misses = new LruCache<>(missCacheSize);
+        Gauge.builder("short.links.cache.size", this, service -> service.cache.size())
+                .description("Short link targets held in memory")
+                .register(meterRegistry);
+        Gauge.builder("short.links.pending.clicks", pendingClicks, Map::size)
+                .description("Short links with click counts not yet written")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("short.links.cache.misses")
+                .description("Short link lookups that went to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return baseUrl != null && !baseUrl.isBlank();
+    }
+
+    /**
+     * Empty batch for collecting the links of one or many emails. The same
+     * URL appearing twice in an email shares one code.
+     */
+    public LinkBatch newBatch() {
+        return new LinkBatch();
+    }
+
+    /**
+     * Target of a short code, or null if the code is unknown or expired
+     */
+    public Target resolve(String code) {
+        if (code == null || !CODE.matcher(code).matches()) {
+            return null;
+        }
+
+        Target target = cache.get(code);
+        if (target == null) {
+            Long missExpiresAt = misses.get(code);
+            if (missExpiresAt != null && System.nanoTime() - missExpiresAt < 0) {
+                return null;
+            }
+            cacheMisses.increment();
+            target = shortLinkRepository.findByShortCode(code).map(Target::from).orElse(null);
+            if (target == null) {
+                misses.put(code, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(missTtlMillis));
+                return null;
+            }
+            misses.remove(code);
+            cache.put(code, target);
+        }
+
+        if (target.expiresAt() != null && target.expiresAt().isBefore(LocalDateTime.now())) {
+            return null;
+        }
+        return target;
+    }
+
+    /**
+     * Count a click; written to short_links with the next flush
+     */
+    public void recordClick(String code) {
+        pendingClicks.merge(code, 1L, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${short-links.flush-ms:5000}")
+    public void flushClickCounts() {
+        if (pendingClicks.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>();
+        for (String code : pendingClicks.keySet()) {
+            Long clicks = pendingClicks.remove(code);
+            if (clicks != null) {
+                args.add(code);
+                args.add(clicks);
+            }
+            if (args.size() == flushBatchSize * 2) {
+                writeClickCounts(args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            writeClickCounts(args);
+        }
+    }
+
+    private void writeClickCounts(List<Object> args) {
+        try {
+            jdbcTemplate.update(clickCountSql(args.size() / 2), args.toArray());
+        } catch (Exception e) {
+            log.error("Failed to write click counts for {} short links, retrying with the next flush",
+                    args.size() / 2, e);
+            for (int i = 0; i < args.size(); i += 2) {
+                pendingClicks.merge((String) args.get(i), (Long) args.get(i + 1), Long::sum);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushClickCounts();
+    }
+
+    /**
+     * Multi-row INSERT of {@code rows} short links, skipping codes that already
+     * exist and returning the codes inserted. Parameters per row: short_code,
+     * original_url, message_id, recipient_email, user_id, campaign_id, org_id,
+     * expires_at.
+     */
+    static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS.length() + rows * (ROW.length() + 2) + 64)
+                .append(INSERT_COLUMNS);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(" ON CONFLICT (short_code) DO NOTHING RETURNING short_code").toString();
+    }
+
+    /**
+     * Single statement deleting {@code rows} short links by code
+     */
+    static String deleteSql(int rows) {
+        return "DELETE FROM short_links WHERE short_code IN (" + String.join(", ", Collections.nCopies(rows, "?"))
+                + ")";
+    }
+
+    /**
+     * Single statement adding click counts to {@code rows} short links.
+     * Parameters per row: short_code, clicks.
+     */
+    static String clickCountSql(int rows) {
+        StringBuilder sql = new StringBuilder(120 + rows * 32)
+                .append("UPDATE short_links AS s SET click_count = COALESCE(s.click_count, 0) + v.clicks FROM (VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append("(CAST(? AS varchar), CAST(? AS integer))");
+        }
+        return sql.append(") AS v(short_code, clicks) WHERE s.short_code = v.short_code").toString();
+    }
+
+    /**
+     * A template's HTML with the URL of every untracked link replaced by a
+     * {@code {{variablePrefix<n>}}} placeholder, for templates the provider
+     * renders per recipient. Each placeholder's value is then
+     * {@link LinkBatch#trackedUrl} of the n-th URL rendered for the recipient.
+     * Only hrefs that start with http(s) in the template itself are replaced.
+     */
+    public TemplateLinks templateLinks(String html, String variablePrefix) {
+        if (!isEnabled() || html == null) {
+            return new TemplateLinks(html, List.of());
+        }
+
+        String prefix = trackingPrefix();
+        List<String> urls = new ArrayList<>();
+        Map<String, Integer> indexes = new HashMap<>();
+        Matcher matcher = HREF.matcher(html);
+        StringBuilder rewritten = new StringBuilder(html.length());
+        while (matcher.find()) {
+            String url = matcher.group(3);
+            String replacement = matcher.group();
+            if (!url.startsWith(prefix)) {
+                int index = indexes.computeIfAbsent(url, u -> {
+                    urls.add(u);
+                    return urls.size() - 1;
+                });
+                replacement = matcher.group(1) + matcher.group(2) + "{{" + variablePrefix + index + "}}"
+                        + matcher.group(2);
+            }
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(rewritten);
+        return new TemplateLinks(rewritten.toString(), urls);
+    }
+
+    private String trackingPrefix() {
+        return (baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl) + "/track/c/";
+    }
+
+    private String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = BASE62[random.nextInt(BASE62.length)];
+        }
+        return new String(code);
+    }
+
+    // URLs in href attributes carry &amp; for &
+    private static String unescapeHtml(String url) {
+        return url.replace("&amp;", "&");
+    }
+
+    /**
+     * Links of a group of emails, created together. Collect every email with
+     * {@link #add}, write them all with {@link #create}, then {@link #rewrite}
+     * each email; {@link #discard} deletes the links of emails that were not
+     * sent. Not thread-safe.
+     */
+    public final class LinkBatch {
+
+        // Message ID to the context and URLs (as they appear in HTML) of its links
+        private final Map<String, LinkContext> contexts = new LinkedHashMap<>();
+        private final Map<String, Set<String>> urls = new HashMap<>();
+        // Message ID to URL to code, for links that were created
+        private final Map<String, Map<String, String>> codes = new HashMap<>();
+
+        private LinkBatch() {
+        }
+
+        /**
+         * Collect the links in an email's HTML; nothing is written yet
+         */
+        public void add(String html, LinkContext context) {
+            if (!isEnabled() || html == null) {
+                return;
+            }
+            String prefix = trackingPrefix();
+            Matcher matcher = HREF.matcher(html);
+            while (matcher.find()) {
+                if (!matcher.group(3).startsWith(prefix)) {
+                    contexts.putIfAbsent(context.messageId(), context);
+                    urls.computeIfAbsent(context.messageId(), id -> new LinkedHashSet<>()).add(matcher.group(3));
+                }
+            }
+        }
+
+        /**
+         * Create every collected link with one INSERT per thousand links.
+         * Codes that collide with existing ones are regenerated; links whose
+         * INSERT fails are left unrewritten.
+         */
+        public void create() {
+            List<PendingLink> links = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : urls.entrySet()) {
+                for (String url : entry.getValue()) {
+                    links.add(new PendingLink(contexts.get(entry.getKey()), url));
+                }
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().plusDays(ttlDays);
+            for (int from = 0; from < links.size(); from += MAX_INSERT_ROWS) {
+                create(links.subList(from, Math.min(links.size(), from + MAX_INSERT_ROWS)), expiresAt);
+            }
+        }
+
+        private void create(List<PendingLink> links, LocalDateTime expiresAt) {
+            List<PendingLink> remaining = links;
+            try {
+                for (int attempt = 0; attempt < MAX_INSERT_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+                    Map<String, PendingLink> byCode = new HashMap<>();
+                    Object[] args = new Object[remaining.size() * COLUMNS];
+                    int i = 0;
+                    for (PendingLink link : remaining) {
+                        String code = newCode();
+                        byCode.put(code, link);
+                        LinkContext context = link.context();
+                        args[i++] = code;
+                        args[i++] = unescapeHtml(link.url());
+                        args[i++] = context.messageId();
+                        args[i++] = context.recipientEmail();
+                        args[i++] = context.userId();
+                        args[i++] = context.campaignId();
+                        args[i++] = context.orgId();
+                        args[i++] = Timestamp.valueOf(expiresAt);
+                    }
+
+                    List<String> inserted = jdbcTemplate.queryForList(insertSql(remaining.size()), String.class, args);
+                    for (String code : inserted) {
+                        PendingLink link = byCode.remove(code);
+                        LinkContext context = link.context();
+                        codes.computeIfAbsent(context.messageId(), id -> new HashMap<>()).put(link.url(), code);
+                        misses.remove(code);
+                        cache.put(code, new Target(unescapeHtml(link.url()), context.messageId(),
+                                context.recipientEmail(), context.userId(), context.campaignId(), context.orgId(),
+                                expiresAt));
+                    }
+                    remaining = new ArrayList<>(byCode.values());
+                }
+            } catch (Exception e) {
+                log.error("Failed to create {} short links; those links are sent unshortened", remaining.size(), e);
+                return;
+            }
+
+            if (!remaining.isEmpty()) {
+                log.warn("Could not create short links for {} URLs", remaining.size());
+            }
+        }
+
+        /**
+         * The email's HTML with its links replaced by the codes created for it
+         */
+        public String rewrite(String html, LinkContext context) {
+            Map<String, String> messageCodes = codes.get(context.messageId());
+            if (html == null || messageCodes == null) {
+                return html;
+            }
+
+            String prefix = trackingPrefix();
+            Matcher matcher = HREF.matcher(html);
+            StringBuilder rewritten = new StringBuilder(html.length());
+            while (matcher.find()) {
+                String code = messageCodes.get(matcher.group(3));
+                String replacement = code == null ? matcher.group()
+                        : matcher.group(1) + matcher.group(2) + prefix + code + matcher.group(2);
+                matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(rewritten);
+            return rewritten.toString();
+        }
+
+        /**
+         * The short URL created for a link of the email, or the URL itself if
+         * none was created
+         */
+        public String trackedUrl(String url, LinkContext context) {
+            Map<String, String> messageCodes = codes.get(context.messageId());
+            String code = messageCodes != null ? messageCodes.get(url) : null;
+            return code != null ? trackingPrefix() + code : url;
+        }
+
+        /**
+         * Delete the links created for messages that were not sent
+         */
+        public void discard(Collection<String> messageIds) {
+            List<String> unused = new ArrayList<>();
+            for (String messageId : messageIds) {
+                Map<String, String> messageCodes = codes.remove(messageId);
+                if (messageCodes != null) {
+                    unused.addAll(messageCodes.values());
+                }
+            }
+            if (unused.isEmpty()) {
+                return;
+            }
+
+            unused.forEach(cache::remove);
+            try {
+                jdbcTemplate.update(deleteSql(unused.size()), unused.toArray());
+            } catch (Exception e) {
+                // They only point at emails that were never sent; left to expire
+                log.warn("Failed to delete {} unused short links: {}", unused.size(), e.getMessage());
+            }
+        }
+    }
+
+    private record PendingLink(LinkContext context, String url) {
+    }
+
+    /**
+     * Template HTML with placeholders for its links, and the links' URLs by placeholder index
+     */
+    public record TemplateLinks(String html, List<String> urls) {
+    }
+
+    /**
+     * The message a short link was sent in
+     */
+    public record LinkContext(String messageId, String recipientEmail, String userId, String campaignId,
+            String orgId) {
+    }
+
+    /**
+     * Where a short code redirects to, and what to attribute the click to
+     */
+    public record Target(String originalUrl, String messageId, String recipientEmail, String userId,
+            String campaignId, String orgId, LocalDateTime expiresAt) {
+
+        static Target from(ShortLink link) {
+            return new Target(link.getOriginalUrl(), link.getMessageId(), link.getRecipientEmail(),
+                    link.getUserId(), link.getCampaignId(), link.getOrgId(), link.getExpiresAt());
+        }
+    }
+}
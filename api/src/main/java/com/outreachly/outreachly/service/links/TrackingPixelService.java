@@ -0,0 +1,269 @@
+package com.outreachly.outreachly.service.links;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Open tracking. HTML emails get a 1x1 image at
+ * {@code {tracking.base-url}/track/open/{token}}, where the token carries the
+ * message, recipient, user, campaign and org of the email, so an open is
+ * attributed without a database lookup.
+ *
+ * The token is encrypted, not just signed, so the recipient's address and the
+ * IDs inside cannot be read from the URL: AES-256-GCM with a key derived from
+ * {@code tracking.token-secret}. Tokens are base64url: a version byte, a
+ * random 12-byte nonce, and the encrypted payload with its 16-byte tag. The
+ * payload holds campaign and org as 16-byte UUIDs and the remaining fields as
+ * length-prefixed UTF-8.
+ */
+@Service
+@Slf4j
+public class TrackingPixelService {
+
+    // Transparent 1x1 GIF
+    private static final byte[] PIXEL = {
+            0x47, 0x49, 0x46, 0x38, 0x39, 0x61, 0x01, 0x00, 0x01, 0x00, (byte) 0x80, 0x00, 0x00,
+            0x00, 0x00, 0x00, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+            0x21, (byte) 0xf9, 0x04, 0x01, 0x00, 0x00, 0x00, 0x00,
+            0x2c, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00,
+            0x02, 0x02, 0x44, 0x01, 0x00, 0x3b
+    };
+
+    private static final byte VERSION = 2;
+    private static final int NONCE_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int HAS_CAMPAIGN = 1;
+    private static final int HAS_ORG = 2;
+    // Context for deriving the token key, so the secret is never used as a key directly
+    private static final byte[] KEY_LABEL = "outreachly open-tracking token key v2".getBytes(StandardCharsets.UTF_8);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Public URL of this API, shared with short links
+    @Value("${tracking.base-url:}")
+    private String baseUrl;
+
+    // Open tracking is off while it is empty; must be the same on every instance
+    @Value("${tracking.token-secret:}")
+    private String tokenSecret;
+
+    private SecretKeySpec key;
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(TrackingPixelService::newCipher);
+
+    @PostConstruct
+    public void init() {
+        if (tokenSecret != null && !tokenSecret.isBlank()) {
+            key = new SecretKeySpec(deriveKey(tokenSecret), "AES");
+        }
+    }
+
+    public boolean isEnabled() {
+        return baseUrl != null && !baseUrl.isBlank() && tokenSecret != null && !tokenSecret.isBlank();
+    }
+
+    /**
+     * The GIF served for every pixel request. Shared; callers must not modify it.
+     */
+    public static byte[] pixel() {
+        return PIXEL;
+    }
+
+    /**
+     * Add the tracking pixel to an HTML body, before {@code </body>} if present
+     */
+    public String injectPixel(String html, ShortLinkService.LinkContext context) {
+        if (!isEnabled() || html == null) {
+            return html;
+        }
+        return insertBeforeBodyEnd(html, pixelImage(context));
+    }
+
+    /**
+     * Add a placeholder where {@link #injectPixel} would put the pixel, for
+     * templates rendered by the provider; the placeholder's value for each
+     * recipient is {@link #pixelImage}
+     */
+    public String injectPixelPlaceholder(String html, String placeholder) {
+        if (!isEnabled() || html == null) {
+            return html;
+        }
+        return insertBeforeBodyEnd(html, placeholder);
+    }
+
+    /**
+     * The pixel's {@code <img>} tag for one email
+     */
+    public String pixelImage(ShortLinkService.LinkContext context) {
+        return "<img src=\"" + stripTrailingSlash(baseUrl) + "/track/open/" + token(context)
+                + "\" width=\"1\" height=\"1\" alt=\"\" style=\"display:none\" />";
+    }
+
+    /**
+     * Encrypted token for an email's pixel
+     */
+    public String token(ShortLinkService.LinkContext context) {
+        UUID campaignId = parseUuid("campaign", context.campaignId());
+        UUID orgId = parseUuid("org", context.orgId());
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        payload.write((campaignId != null ? HAS_CAMPAIGN : 0) | (orgId != null ? HAS_ORG : 0));
+        writeUuid(payload, campaignId);
+        writeUuid(payload, orgId);
+        writeString(payload, context.messageId());
+        writeString(payload, context.recipientEmail());
+        writeString(payload, context.userId());
+
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        byte[] sealed;
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+            cipher.updateAAD(new byte[] {VERSION});
+            sealed = cipher.doFinal(payload.toByteArray());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt tracking token", e);
+        }
+
+        ByteBuffer token = ByteBuffer.allocate(1 + NONCE_BYTES + sealed.length)
+                .put(VERSION)
+                .put(nonce)
+                .put(sealed);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    /**
+     * The email a token was issued for, or null if it is malformed, was not
+     * issued with this secret or was tampered with
+     */
+    public ShortLinkService.LinkContext verify(String token) {
+        if (key == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length < 1 + NONCE_BYTES + TAG_BITS / 8 + 1 || bytes[0] != VERSION) {
+            return null;
+        }
+
+        byte[] plain;
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 1, NONCE_BYTES));
+            cipher.updateAAD(bytes, 0, 1);
+            plain = cipher.doFinal(bytes, 1 + NONCE_BYTES, bytes.length - 1 - NONCE_BYTES);
+        } catch (GeneralSecurityException e) {
+            // Wrong secret or modified token
+            return null;
+        }
+
+        try {
+            ByteBuffer payload = ByteBuffer.wrap(plain);
+            int flags = payload.get();
+            UUID campaignId = (flags & HAS_CAMPAIGN) != 0 ? new UUID(payload.getLong(), payload.getLong()) : null;
+            UUID orgId = (flags & HAS_ORG) != 0 ? new UUID(payload.getLong(), payload.getLong()) : null;
+            return new ShortLinkService.LinkContext(readString(payload), readString(payload), readString(payload),
+                    campaignId != null ? campaignId.toString() : null, orgId != null ? orgId.toString() : null);
+        } catch (RuntimeException e) {
+            // Issued by us but not decodable: a token from an incompatible version
+            // The token is client input; log its length only
+            log.debug("Undecodable tracking token ({} chars)", token.length());
+            return null;
+        }
+    }
+
+    // 256-bit AES key: HMAC-SHA256 of a fixed label, keyed with the secret
+    private static byte[] deriveKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(KEY_LABEL);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM unavailable", e);
+        }
+    }
+
+    private static void writeUuid(ByteArrayOutputStream out, UUID uuid) {
+        if (uuid != null) {
+            out.writeBytes(ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array());
+        }
+    }
+
+    // Length as an unsigned short, 0xffff for null
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            out.write(0xff);
+            out.write(0xff);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= 0xffff) {
+            throw new IllegalArgumentException("Tracking token field too long: " + bytes.length + " bytes");
+        }
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == 0xffff) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The token only has room for UUIDs; anything else is left out, so the open is not attributed to it
+    private static UUID parseUuid(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            log.warn("Leaving non-UUID {} id out of tracking token: {}", field, value);
+            return null;
+        }
+    }
+
+    private static String insertBeforeBodyEnd(String html, String image) {
+        int bodyEnd = html.toLowerCase(Locale.ROOT).lastIndexOf("</body>");
+        return bodyEnd < 0 ? html + image : html.substring(0, bodyEnd) + image + html.substring(bodyEnd);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
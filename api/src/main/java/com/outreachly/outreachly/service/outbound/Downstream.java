@@ -0,0 +1,13 @@
+package com.outreachly.outreachly.service.outbound;
+
+/**
+ * External services the application calls out to, each with its own
+ * concurrency cap in OutboundLimiter
+ */
+public enum Downstream {
+    GMAIL,
+    RESEND,
+    SES,
+    HUNTER,
+    WEBHOOK
+}
@@ -0,0 +1,121 @@
+package com.outreachly.outreachly.service.outbound;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of in-flight calls to each downstream service. The outbound
+ * executor's threads are shared by every service, so its size does not bound
+ * any one of them; every blocking call to Gmail, Resend, SES, Hunter or the
+ * webhook endpoint goes through {@link #call}.
+ *
+ * In-flight calls are published as the {@code outbound.in.flight} gauge,
+ * tagged by downstream.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboundLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbound.gmail.max-concurrency:10}")
+    private int gmailMaxConcurrency;
+
+    @Value("${outbound.resend.max-concurrency:2}")
+    private int resendMaxConcurrency;
+
+    @Value("${outbound.ses.max-concurrency:4}")
+    private int sesMaxConcurrency;
+
+    @Value("${outbound.hunter.max-concurrency:5}")
+    private int hunterMaxConcurrency;
+
+    @Value("${outbound.webhook.max-concurrency:10}")
+    private int webhookMaxConcurrency;
+
+    private final Map<Downstream, Limit> limits = new EnumMap<>(Downstream.class);
+
+    @PostConstruct
+    public void init() {
+        register(Downstream.GMAIL, gmailMaxConcurrency);
+        register(Downstream.RESEND, resendMaxConcurrency);
+        register(Downstream.SES, sesMaxConcurrency);
+        register(Downstream.HUNTER, hunterMaxConcurrency);
+        register(Downstream.WEBHOOK, webhookMaxConcurrency);
+        log.info("Outbound concurrency limits: {}", limits);
+    }
+
+    /**
+     * Run a blocking call once the downstream has a free slot
+     */
+    public <T> T call(Downstream downstream, Callable<T> call) throws Exception {
+        Semaphore permits = limits.get(downstream).permits;
+        permits.acquire();
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Start an async call once the downstream has a free slot; the slot is held
+     * until the returned future completes. Blocks only while the downstream is
+     * at its cap, which bounds the number of requests in flight.
+     */
+    public <T> CompletableFuture<T> callAsync(Downstream downstream, Supplier<CompletableFuture<T>> call)
+            throws InterruptedException {
+        Semaphore permits = limits.get(downstream).permits;
+        permits.acquire();
+        try {
+            return call.get().whenComplete((result, error) -> permits.release());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Maximum number of concurrent calls allowed to the downstream
+     */
+    public int getMaxConcurrency(Downstream downstream) {
+        return limits.get(downstream).maxConcurrency;
+    }
+
+    private void register(Downstream downstream, int maxConcurrency) {
+        Limit limit = new Limit(Math.max(1, maxConcurrency));
+        limits.put(downstream, limit);
+        Gauge.builder("outbound.in.flight", limit, l -> l.maxConcurrency - l.permits.availablePermits())
+                .description("Calls currently in flight to the downstream service")
+                .tags("downstream", downstream.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private static final class Limit {
+        private final int maxConcurrency;
+        private final Semaphore permits;
+
+        private Limit(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(maxConcurrency);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.outreachly.outreachly.service.quota;
+
+import com.outreachly.outreachly.repository.EmailEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory count of emails delivered today per user and organization.
+ * Seeded from email_events with one grouped query per day, incremented as
+ * deliveries are recorded, and periodically reconciled against the database so
+ * deliveries recorded elsewhere (webhooks, other instances) are picked up.
+ * Days follow the server's local date, like the email_events timestamps.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DailySendCounters {
+
+    private final EmailEventRepository emailEventRepository;
+
+    private final AtomicReference<Day> current = new AtomicReference<>();
+
+    /**
+     * Emails delivered today by the user in the organization
+     */
+    public long get(String userId, UUID orgId) {
+        if (userId == null) {
+            return 0;
+        }
+        AtomicLong counter = today().counts.get(new Key(userId, orgId));
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Count one delivered email for today
+     */
+    public void increment(String userId, UUID orgId) {
+        if (userId == null) {
+            return;
+        }
+        today().counts.computeIfAbsent(new Key(userId, orgId), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Re-read today's counts from email_events. Counts only ever move up, so
+     * deliveries counted in memory but not yet visible in the query are kept.
+     */
+    @Scheduled(initialDelayString = "${rate-limit.reconcile-ms:300000}", fixedDelayString = "${rate-limit.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            Day day = today();
+            Map<Key, Long> stored = load(day.date);
+            stored.forEach((key, count) -> day.counts
+                    .computeIfAbsent(key, ignored -> new AtomicLong())
+                    .accumulateAndGet(count, Math::max));
+            log.debug("Reconciled daily send counters for {} users", stored.size());
+        } catch (Exception e) {
+            log.error("Failed to reconcile daily send counters", e);
+        }
+    }
+
+    private Day today() {
+        LocalDate date = LocalDate.now();
+        Day day = current.get();
+        if (day != null && day.date.equals(date)) {
+            return day;
+        }
+
+        synchronized (this) {
+            day = current.get();
+            if (day == null || !day.date.equals(date)) {
+                day = new Day(date);
+                day.counts.putAll(toCounters(load(date)));
+                current.set(day);
+                log.info("Seeded daily send counters for {} with {} users", date, day.counts.size());
+            }
+            return day;
+        }
+    }
+
+    private Map<Key, Long> load(LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        Map<Key, Long> counts = new ConcurrentHashMap<>();
+        for (Object[] row : emailEventRepository.countDeliveriesByUserAndOrg(start, start.plusDays(1))) {
+            counts.put(new Key((String) row[0], (UUID) row[1]), ((Number) row[2]).longValue());
+        }
+        return counts;
+    }
+
+    private static Map<Key, AtomicLong> toCounters(Map<Key, Long> counts) {
+        Map<Key, AtomicLong> counters = new ConcurrentHashMap<>();
+        counts.forEach((key, count) -> counters.put(key, new AtomicLong(count)));
+        return counters;
+    }
+
+    private record Key(String userId, UUID orgId) {
+        Key {
+            Objects.requireNonNull(userId, "userId");
+        }
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final ConcurrentHashMap<Key, AtomicLong> counts = new ConcurrentHashMap<>();
+
+        private Day(LocalDate date) {
+            this.date = date;
+        }
+    }
+}
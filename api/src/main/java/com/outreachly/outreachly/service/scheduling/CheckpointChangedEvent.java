@@ -0,0 +1,10 @@
+package com.outreachly.outreachly.service.scheduling;
+
+import java.util.UUID;
+
+/**
+ * Published when a checkpoint is created, updated (including status changes)
+ * or deleted, so the scheduler can reschedule or drop it.
+ */
+public record CheckpointChangedEvent(UUID checkpointId) {
+}
@@ -0,0 +1,138 @@
+package com.outreachly.outreachly.service.scheduling;
+
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases on campaign checkpoints so that when several API instances run the
+ * scheduler, each checkpoint is executed by exactly one of them. Leases held by
+ * this instance are renewed in the background while the checkpoint runs; if the
+ * instance dies the lease expires and another instance picks the checkpoint up.
+ * Lease expiry is computed and checked with the database's clock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointLeaseService {
+
+    private final CampaignCheckpointRepository checkpointRepository;
+
+    @Value("${checkpoint.scheduler.instance-id:}")
+    private String configuredInstanceId;
+
+    @Value("${checkpoint.scheduler.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final Set<UUID> heldLeases = ConcurrentHashMap.newKeySet();
+    private String instanceId;
+    private ScheduledExecutorService renewer;
+
+    @PostConstruct
+    public void init() {
+        instanceId = configuredInstanceId == null || configuredInstanceId.isBlank()
+                ? defaultInstanceId()
+                : configuredInstanceId;
+
+        renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewSeconds = Math.max(1, leaseSeconds / 3);
+        renewer.scheduleWithFixedDelay(this::renewHeldLeases, renewSeconds, renewSeconds, TimeUnit.SECONDS);
+
+        log.info("Checkpoint leases held as {} ({}s lease)", instanceId, leaseSeconds);
+    }
+
+    /**
+     * Try to take the lease on an active checkpoint. Returns false when the
+     * checkpoint is no longer active or another instance holds a live lease.
+     */
+    public boolean tryClaim(UUID checkpointId) {
+        boolean claimed = checkpointRepository.claim(checkpointId, instanceId, leaseSeconds) == 1;
+        if (claimed) {
+            heldLeases.add(checkpointId);
+        }
+        return claimed;
+    }
+
+    /**
+     * Take over active checkpoints whose lease expired, skipping rows another
+     * instance is recovering at the same time.
+     */
+    @Transactional
+    public List<UUID> claimExpired(int limit) {
+        List<UUID> claimed = new ArrayList<>();
+        for (UUID checkpointId : checkpointRepository.lockExpiredLeases(limit)) {
+            if (checkpointRepository.claim(checkpointId, instanceId, leaseSeconds) == 1) {
+                heldLeases.add(checkpointId);
+                claimed.add(checkpointId);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Give up the lease once this instance is done with the checkpoint
+     */
+    public void release(UUID checkpointId) {
+        heldLeases.remove(checkpointId);
+        try {
+            checkpointRepository.releaseLease(checkpointId, instanceId);
+        } catch (Exception e) {
+            // The lease simply expires and the checkpoint is re-checked by recovery
+            log.warn("Failed to release lease on checkpoint {}: {}", checkpointId, e.getMessage());
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private void renewHeldLeases() {
+        if (heldLeases.isEmpty()) {
+            return;
+        }
+        try {
+            List<UUID> ids = new ArrayList<>(heldLeases);
+            int renewed = checkpointRepository.renewLeases(ids, instanceId, leaseSeconds);
+            if (renewed < ids.size()) {
+                log.warn("Renewed {} of {} checkpoint leases; the rest were taken over or released",
+                        renewed, ids.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to renew checkpoint leases", e);
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+}
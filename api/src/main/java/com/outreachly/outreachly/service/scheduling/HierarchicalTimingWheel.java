@@ -0,0 +1,157 @@
+package com.outreachly.outreachly.service.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by an id.
+ * Level 0 has one bucket per tick; each higher level has buckets that are
+ * {@code wheelSize} times wider. Entries sit in the coarsest level that can
+ * hold them and cascade down as their time approaches, so scheduling,
+ * cancelling and advancing are all O(1) per entry regardless of how many
+ * entries are waiting. Entries beyond the top level wait in an overflow set
+ * that is re-checked each time the top level turns over.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans; // ticks covered by one bucket at each level
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final Set<K> overflow = new LinkedHashSet<>();
+    private final Map<K, Slot> slots = new HashMap<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levelCount];
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            spans[level] = span;
+            span *= wheelSize;
+
+            List<Set<K>> buckets = new ArrayList<>(wheelSize);
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                buckets.add(new HashSet<>());
+            }
+            levels.add(buckets);
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule (or reschedule) a key. Returns false if the time has already
+     * passed, in which case nothing is scheduled.
+     */
+    public synchronized boolean schedule(K key, long dueMillis) {
+        cancel(key);
+        long dueTick = Math.floorDiv(dueMillis, tickMillis);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        place(key, dueTick);
+        return true;
+    }
+
+    /**
+     * Remove a key. Returns false if it was not scheduled.
+     */
+    public synchronized boolean cancel(K key) {
+        Slot slot = slots.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        if (slot.level() < 0) {
+            overflow.remove(key);
+        } else {
+            levels.get(slot.level()).get(slot.bucket()).remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Advance the wheel to the given time and return every key that became due,
+     * in due order.
+     */
+    public synchronized List<K> advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<K> due = new ArrayList<>();
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            int top = spans.length - 1;
+            if (currentTick % spans[top] == 0 && !overflow.isEmpty()) {
+                List<K> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                waiting.forEach(key -> reinsert(key, due));
+            }
+
+            // Cascade coarse buckets whose window starts now, coarsest first
+            for (int level = top; level >= 1; level--) {
+                if (currentTick % spans[level] == 0) {
+                    Set<K> bucket = levels.get(level).get(bucketIndex(currentTick, level));
+                    if (!bucket.isEmpty()) {
+                        List<K> moved = new ArrayList<>(bucket);
+                        bucket.clear();
+                        moved.forEach(key -> reinsert(key, due));
+                    }
+                }
+            }
+
+            Set<K> bucket = levels.get(0).get(bucketIndex(currentTick, 0));
+            for (K key : bucket) {
+                slots.remove(key);
+                due.add(key);
+            }
+            bucket.clear();
+        }
+        return due;
+    }
+
+    /**
+     * Keys currently scheduled
+     */
+    public synchronized Set<K> keys() {
+        return new HashSet<>(slots.keySet());
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private void reinsert(K key, List<K> due) {
+        Slot slot = slots.remove(key);
+        if (slot.dueTick() <= currentTick) {
+            due.add(key);
+        } else {
+            place(key, slot.dueTick());
+        }
+    }
+
+    private void place(K key, long dueTick) {
+        for (int level = 0; level < spans.length; level++) {
+            if (dueTick / spans[level] - currentTick / spans[level] < wheelSize) {
+                int bucket = bucketIndex(dueTick, level);
+                levels.get(level).get(bucket).add(key);
+                slots.put(key, new Slot(dueTick, level, bucket));
+                return;
+            }
+        }
+        overflow.add(key);
+        slots.put(key, new Slot(dueTick, -1, -1));
+    }
+
+    private int bucketIndex(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+
+    private record Slot(long dueTick, int level, int bucket) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.outreachly.outreachly.service.suppression;
+
+import com.outreachly.outreachly.entity.EmailEvent;
+import com.outreachly.outreachly.entity.SuppressedRecipient;
+import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.repository.SuppressedRecipientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recipients suppressed after a complaint in the last 30 days or more than 3
+ * bounces in 30 days. Backed by the suppressed_recipients table, which is
+ * updated as bounce and complaint events are recorded, and held in memory as
+ * a Bloom filter in front of an exact map of suppression end times, so
+ * checking a recipient does not touch the database.
+ *
+ * Rows written by other instances are picked up by a periodic delta load; a
+ * less frequent full rebuild drops expired entries and resizes the filter.
+ * Delta loads start from the newest updated_at read so far, which the
+ * database sets, so they do not depend on this JVM's clock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuppressionList {
+
+    // Suppression rule: any complaint, or more than MAX_BOUNCES bounces, within the window
+    static final int MAX_BOUNCES = 3;
+
+    private final SuppressedRecipientRepository suppressedRecipientRepository;
+    private final EmailEventRepository emailEventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${suppression.window-days:30}")
+    private int windowDays;
+
+    @Value("${suppression.bloom.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${suppression.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${suppression.refresh-ms:60000}")
+    private long refreshMs;
+
+    // Delta load start before any row has been read
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    // Newest updated_at read from the table, on the database's clock
+    private volatile LocalDateTime watermark;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("suppression.list.size", current, ref -> ref.get() != null ? ref.get().until.size() : 0)
+                .description("Recipients currently held in the suppression list")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the recipient is currently suppressed
+     */
+    public boolean isSuppressed(String emailAddress) {
+        if (emailAddress == null) {
+            return false;
+        }
+        String key = normalize(emailAddress);
+        Snapshot snapshot = snapshot();
+        if (!snapshot.bloom.mightContain(key)) {
+            return false;
+        }
+        LocalDateTime until = snapshot.until.get(key);
+        return until != null && until.isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Update the suppression for a newly recorded bounce or complaint
+     */
+    public void onEvent(EmailEvent event) {
+        if (event.getEmailAddress() == null) {
+            return;
+        }
+        LocalDateTime at = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+        LocalDateTime until = switch (event.getEventType()) {
+            case COMPLAINT -> at.plusDays(windowDays);
+            // Suppressed while more than MAX_BOUNCES bounces are inside the window,
+            // i.e. until the (MAX_BOUNCES + 1)-th most recent one leaves it
+            case BOUNCE -> emailEventRepository.findBounceTimesSince(normalize(event.getEmailAddress()),
+                            LocalDateTime.now().minusDays(windowDays), PageRequest.of(MAX_BOUNCES, 1))
+                    .stream().findFirst().map(time -> time.plusDays(windowDays)).orElse(null);
+            default -> null;
+        };
+        if (until == null || !until.isAfter(LocalDateTime.now())) {
+            return;
+        }
+
+        String key = normalize(event.getEmailAddress());
+        suppressedRecipientRepository.suppress(key, event.getEventType().name(), until);
+        snapshot().put(key, until);
+        log.info("Suppressed {} until {} after {}", key, until, event.getEventType());
+    }
+
+    /**
+     * Pick up suppressions recorded by other instances since the last load
+     */
+    @Scheduled(initialDelayString = "${suppression.refresh-ms:60000}", fixedDelayString = "${suppression.refresh-ms:60000}")
+    public void refresh() {
+        try {
+            Snapshot snapshot = snapshot();
+            // Overlap the newest row read so rows committed after it with an earlier updated_at are not missed
+            LocalDateTime since = watermark != null ? watermark.minus(Duration.ofMillis(refreshMs)) : EARLIEST;
+            List<SuppressedRecipient> changed = suppressedRecipientRepository.findActiveUpdatedSince(since,
+                    LocalDateTime.now());
+            changed.forEach(row -> snapshot.put(row.getEmailAddress(), row.getSuppressedUntil()));
+            advanceWatermark(changed);
+            log.debug("Loaded {} changed suppressions", changed.size());
+        } catch (Exception e) {
+            log.error("Failed to refresh suppression list", e);
+        }
+    }
+
+    /**
+     * Rebuild from the table, dropping expired suppressions
+     */
+    @Scheduled(initialDelayString = "${suppression.rebuild-ms:3600000}", fixedDelayString = "${suppression.rebuild-ms:3600000}")
+    public void rebuild() {
+        try {
+            int deleted = suppressedRecipientRepository.deleteExpired(LocalDateTime.now());
+            current.set(load());
+            log.info("Rebuilt suppression list with {} recipients, {} expired removed", current.get().until.size(),
+                    deleted);
+        } catch (Exception e) {
+            log.error("Failed to rebuild suppression list", e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current.get();
+            if (snapshot == null) {
+                snapshot = load();
+                current.set(snapshot);
+                log.info("Loaded suppression list with {} recipients", snapshot.until.size());
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SuppressedRecipient> rows = suppressedRecipientRepository.findActive(now);
+        // Leave headroom so delta loads do not push the filter past its sizing
+        Snapshot snapshot = new Snapshot(new BloomFilter(Math.max(expectedEntries, rows.size() * 2), falsePositiveRate));
+        rows.forEach(row -> snapshot.put(row.getEmailAddress(), row.getSuppressedUntil()));
+        advanceWatermark(rows);
+        return snapshot;
+    }
+
+    private void advanceWatermark(List<SuppressedRecipient> rows) {
+        rows.stream()
+                .map(SuppressedRecipient::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .filter(newest -> watermark == null || newest.isAfter(watermark))
+                .ifPresent(newest -> watermark = newest);
+    }
+
+    private static String normalize(String emailAddress) {
+        return emailAddress.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        private final BloomFilter bloom;
+        private final ConcurrentHashMap<String, LocalDateTime> until = new ConcurrentHashMap<>();
+
+        private Snapshot(BloomFilter bloom) {
+            this.bloom = bloom;
+        }
+
+        void put(String key, LocalDateTime suppressedUntil) {
+            // Map first: a concurrent reader that sees the Bloom bit also sees the entry
+            until.merge(key, suppressedUntil, (a, b) -> a.isAfter(b) ? a : b);
+            bloom.add(key);
+        }
+    }
+}
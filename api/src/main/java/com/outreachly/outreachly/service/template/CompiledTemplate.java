@@ -0,0 +1,149 @@
+package com.outreachly.outreachly.service.template;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * A subject or body pre-split into literal text and {{variable}} segments.
+ * Rendering walks the segments once and appends into a single StringBuilder,
+ * instead of scanning the whole text once per variable.
+ *
+ * Unknown variables are left in place as {{name}}, and substituted values are
+ * never scanned again for placeholders.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    // literals.length == variables.length + 1; text is literals[0] var[0] literals[1] ...
+    private final String source;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private CompiledTemplate(String source, String[] literals, String[] variables) {
+        this.source = source;
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Split the source into segments. A null source compiles to an empty template.
+     */
+    public static CompiledTemplate compile(String source) {
+        if (source == null || source.isEmpty()) {
+            return new CompiledTemplate("", new String[] { "" }, new String[0]);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        int literalStart = 0;
+
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                break;
+            }
+            // "{{a {{b}}" - the placeholder starts at the last "{{" before "}}"
+            int innerOpen = source.lastIndexOf(OPEN, close - 1);
+            if (innerOpen > open && innerOpen + OPEN.length() <= close) {
+                open = innerOpen;
+            }
+            literals.add(source.substring(literalStart, open));
+            variables.add(source.substring(open + OPEN.length(), close));
+            position = close + CLOSE.length();
+            literalStart = position;
+        }
+        literals.add(source.substring(literalStart));
+
+        return new CompiledTemplate(source, literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * Render with the given values using this thread's reusable buffer
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(values, buffer);
+        String result = buffer.toString();
+
+        // Don't keep an oversized buffer alive on a pooled thread
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Append the rendered text to {@code out}
+     */
+    public void renderTo(Map<String, String> values, StringBuilder out) {
+        out.ensureCapacity(out.length() + literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String name = variables[i];
+            if (values.containsKey(name)) {
+                String value = values.get(name);
+                if (value != null) {
+                    out.append(value);
+                }
+            } else {
+                out.append(OPEN).append(name).append(CLOSE);
+            }
+        }
+        out.append(literals[variables.length]);
+    }
+
+    /**
+     * Rebuild the text with every literal segment and every placeholder name
+     * passed through a function, e.g. to translate it into another template
+     * syntax
+     */
+    public String rewrite(UnaryOperator<String> literal, UnaryOperator<String> variable) {
+        StringBuilder out = new StringBuilder(literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literal.apply(literals[i])).append(variable.apply(variables[i]));
+        }
+        return out.append(literal.apply(literals[variables.length])).toString();
+    }
+
+    /**
+     * Names of the placeholders, each once, in order of first appearance
+     */
+    public Set<String> variableNames() {
+        return new LinkedHashSet<>(List.of(variables));
+    }
+
+    /**
+     * The text this template was compiled from
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Whether the text contains any placeholders at all
+     */
+    public boolean hasVariables() {
+        return variables.length > 0;
+    }
+}
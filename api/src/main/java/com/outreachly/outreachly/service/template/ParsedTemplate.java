@@ -0,0 +1,12 @@
+package com.outreachly.outreachly.service.template;
+
+/**
+ * Subject, body and format of an email template, parsed from Template.contentJson
+ */
+public record ParsedTemplate(String subject, String body, boolean isHtml) {
+
+    /**
+     * Used when a checkpoint has no template or the template has no content
+     */
+    public static final ParsedTemplate EMPTY = new ParsedTemplate("No Subject", "No content", false);
+}
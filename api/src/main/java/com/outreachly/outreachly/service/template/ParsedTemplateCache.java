@@ -0,0 +1,86 @@
+package com.outreachly.outreachly.service.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.entity.Template;
+import com.outreachly.outreachly.repository.TemplateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of parsed Template.contentJson, keyed by template id and updatedAt.
+ * A template is parsed once per version instead of once per recipient.
+ * TemplateService evicts entries when a template is updated or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParsedTemplateCache {
+
+    private final ObjectMapper objectMapper;
+    private final TemplateRepository templateRepository;
+    private final TemplateCompiler templateCompiler;
+
+    private final Map<UUID, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Get the parsed form of a template. A null template parses to {@link ParsedTemplate#EMPTY}.
+     */
+    public ParsedTemplate get(Template template) {
+        if (template == null || template.getContentJson() == null) {
+            return ParsedTemplate.EMPTY;
+        }
+        if (template.getId() == null) {
+            return parse(template.getContentJson());
+        }
+
+        CacheEntry entry = cache.get(template.getId());
+        if (entry != null && Objects.equals(entry.version(), template.getUpdatedAt())) {
+            return entry.parsed();
+        }
+
+        ParsedTemplate parsed = parse(template.getContentJson());
+        cache.put(template.getId(), new CacheEntry(template.getUpdatedAt(), parsed));
+        return parsed;
+    }
+
+    /**
+     * Load and parse a template belonging to an organization, or null if it doesn't exist
+     */
+    public ParsedTemplate get(UUID orgId, UUID templateId) {
+        return templateRepository.findByIdAndOrgId(templateId, orgId)
+                .map(this::get)
+                .orElse(null);
+    }
+
+    /**
+     * Drop the cached parsed and compiled forms of a template
+     */
+    public void evict(UUID templateId) {
+        cache.remove(templateId);
+        templateCompiler.evict(templateId);
+        log.debug("Evicted cached template: {}", templateId);
+    }
+
+    private ParsedTemplate parse(String contentJson) {
+        try {
+            JsonNode templateJson = objectMapper.readTree(contentJson);
+            String subject = templateJson.has("subject") ? templateJson.get("subject").asText() : "No Subject";
+            String body = templateJson.has("body") ? templateJson.get("body").asText() : "No content";
+            boolean isHtml = templateJson.has("isHtml") ? templateJson.get("isHtml").asBoolean() : false;
+            return new ParsedTemplate(subject, body, isHtml);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid template content: " + e.getMessage(), e);
+        }
+    }
+
+    private record CacheEntry(LocalDateTime version, ParsedTemplate parsed) {
+    }
+}
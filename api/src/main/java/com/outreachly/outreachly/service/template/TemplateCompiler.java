@@ -0,0 +1,55 @@
+package com.outreachly.outreachly.service.template;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles template subjects and bodies once and caches them per template.
+ * Entries are keyed by template id and part, and recompiled when the template's
+ * version (updatedAt) changes.
+ */
+@Component
+@Slf4j
+public class TemplateCompiler {
+
+    private final Map<CacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Get the compiled form of one part (e.g. "subject", "body") of a stored template
+     */
+    public CompiledTemplate compile(UUID templateId, LocalDateTime version, String part, String source) {
+        if (templateId == null) {
+            return CompiledTemplate.compile(source);
+        }
+
+        CacheKey key = new CacheKey(templateId, part);
+        CacheEntry entry = cache.get(key);
+        if (entry != null && Objects.equals(entry.version(), version)) {
+            return entry.compiled();
+        }
+
+        CompiledTemplate compiled = CompiledTemplate.compile(source);
+        cache.put(key, new CacheEntry(version, compiled));
+        log.debug("Compiled template {} ({}) for version {}", templateId, part, version);
+        return compiled;
+    }
+
+    /**
+     * Drop every cached part of a template
+     */
+    public void evict(UUID templateId) {
+        cache.keySet().removeIf(key -> key.templateId().equals(templateId));
+    }
+
+    private record CacheKey(UUID templateId, String part) {
+    }
+
+    private record CacheEntry(LocalDateTime version, CompiledTemplate compiled) {
+    }
+}
@@ -0,0 +1,5 @@
+-- Add queued status for checkpoint leads published to the delivery queue, and
+-- sending for leads a queue worker has claimed and is sending
+ALTER TABLE campaign_checkpoint_leads DROP CONSTRAINT IF EXISTS campaign_checkpoint_leads_status_check;
+ALTER TABLE campaign_checkpoint_leads ADD CONSTRAINT campaign_checkpoint_leads_status_check 
+    CHECK (status IN ('pending', 'queued', 'sending', 'sent', 'delivered', 'failed'));
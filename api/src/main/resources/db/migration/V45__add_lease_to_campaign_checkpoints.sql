@@ -0,0 +1,8 @@
+-- Lease columns so only one API instance runs a checkpoint at a time. Leases are
+-- computed and compared with the database clock, so they carry a time zone.
+ALTER TABLE campaign_checkpoints ADD COLUMN claimed_by VARCHAR(255);
+ALTER TABLE campaign_checkpoints ADD COLUMN lease_until TIMESTAMPTZ;
+
+-- Lets instances find active checkpoints whose lease has expired
+CREATE INDEX IF NOT EXISTS idx_campaign_checkpoints_lease ON campaign_checkpoints(lease_until)
+    WHERE status = 'active' AND lease_until IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Number of leads a checkpoint's delivery runs have taken out of pending,
+-- committed after every chunk so an interrupted run can be resumed
+ALTER TABLE campaign_checkpoints ADD COLUMN leads_processed INTEGER NOT NULL DEFAULT 0;
+
+-- Pending leads are read in id order, one chunk at a time
+CREATE INDEX IF NOT EXISTS idx_campaign_checkpoint_leads_checkpoint_status_id
+    ON campaign_checkpoint_leads(checkpoint_id, status, id);
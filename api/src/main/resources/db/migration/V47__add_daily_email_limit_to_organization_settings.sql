@@ -0,0 +1,2 @@
+-- Per-organization daily send limit; NULL falls back to rate-limit.daily-default
+ALTER TABLE organization_settings ADD COLUMN daily_email_limit INTEGER;
@@ -0,0 +1,32 @@
+-- Daily send quota per user and organization. Reservations are taken with a
+-- single conditional UPDATE, so concurrent sends cannot overshoot the limit.
+-- Users without an organization get quota rows too; one row per user, org (or none) and day.
+CREATE TABLE IF NOT EXISTS send_quota (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id TEXT NOT NULL,
+    org_id UUID REFERENCES organizations(id) ON DELETE CASCADE,
+    quota_date DATE NOT NULL,
+    reserved INTEGER NOT NULL DEFAULT 0 CHECK (reserved >= 0),
+    used INTEGER NOT NULL DEFAULT 0 CHECK (used >= 0),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_send_quota_user_org_date ON send_quota(user_id,
+    COALESCE(org_id, CAST('00000000-0000-0000-0000-000000000000' AS uuid)), quota_date);
+CREATE INDEX IF NOT EXISTS idx_send_quota_quota_date ON send_quota(quota_date);
+
+-- Every reservation counted in send_quota.reserved, with the run that holds it and
+-- when it lapses. Reservations of runs that died are given back when they expire.
+CREATE TABLE IF NOT EXISTS send_quota_reservations (
+    id UUID PRIMARY KEY,
+    user_id TEXT NOT NULL,
+    org_id UUID,
+    quota_date DATE NOT NULL,
+    owner TEXT NOT NULL,
+    remaining INTEGER NOT NULL CHECK (remaining >= 0),
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_send_quota_reservations_expires_at ON send_quota_reservations(expires_at);
+CREATE INDEX IF NOT EXISTS idx_send_quota_reservations_owner ON send_quota_reservations(owner);
@@ -0,0 +1,33 @@
+-- Recipients that must not be emailed until suppressed_until: a complaint in
+-- the last 30 days, or more than 3 bounces in 30 days. Maintained as bounce
+-- and complaint events arrive; email_address is stored lowercased.
+CREATE TABLE IF NOT EXISTS suppressed_recipients (
+    email_address VARCHAR(255) PRIMARY KEY,
+    reason VARCHAR(20) NOT NULL,
+    suppressed_until TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_suppressed_recipients_updated_at ON suppressed_recipients(updated_at);
+CREATE INDEX IF NOT EXISTS idx_suppressed_recipients_suppressed_until ON suppressed_recipients(suppressed_until);
+
+-- Backfill from existing events. A complaint suppresses for 30 days after the
+-- latest one; bounces suppress until the 4th most recent one is 30 days old.
+INSERT INTO suppressed_recipients (email_address, reason, suppressed_until)
+SELECT LOWER(email_address), 'COMPLAINT', MAX(timestamp) + INTERVAL '30 days'
+FROM email_events
+WHERE event_type = 'COMPLAINT' AND timestamp >= NOW() - INTERVAL '30 days'
+GROUP BY LOWER(email_address)
+ON CONFLICT (email_address) DO NOTHING;
+
+INSERT INTO suppressed_recipients (email_address, reason, suppressed_until)
+SELECT email_address, 'BOUNCE', timestamp + INTERVAL '30 days'
+FROM (
+    SELECT LOWER(email_address) AS email_address, timestamp,
+           ROW_NUMBER() OVER (PARTITION BY LOWER(email_address) ORDER BY timestamp DESC) AS bounce_rank
+    FROM email_events
+    WHERE event_type = 'BOUNCE' AND timestamp >= NOW() - INTERVAL '30 days'
+) bounces
+WHERE bounce_rank = 4
+ON CONFLICT (email_address) DO UPDATE SET
+    suppressed_until = GREATEST(suppressed_recipients.suppressed_until, EXCLUDED.suppressed_until);
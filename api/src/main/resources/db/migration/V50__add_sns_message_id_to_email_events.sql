@@ -0,0 +1,5 @@
+-- SNS MessageId of the webhook notification an event came from. SNS delivers
+-- at least once; the unique index turns redeliveries into no-op inserts.
+ALTER TABLE email_events ADD COLUMN IF NOT EXISTS sns_message_id VARCHAR(255);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_email_events_sns_message_id ON email_events(sns_message_id);
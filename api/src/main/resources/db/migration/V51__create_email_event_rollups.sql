@@ -0,0 +1,130 @@
+-- Hourly event counts per organization, user, campaign and event type, so
+-- dashboards read a few rows per hour instead of counting email_events.
+-- bucket_start is the hour in the same clock as email_events.timestamp.
+-- Missing org/user/campaign are stored as the nil UUID / empty string so the
+-- key can be a plain primary key.
+CREATE TABLE IF NOT EXISTS email_event_rollups (
+    bucket_start TIMESTAMP NOT NULL,
+    org_id UUID NOT NULL DEFAULT '00000000-0000-0000-0000-000000000000',
+    user_id TEXT NOT NULL DEFAULT '',
+    campaign_id UUID NOT NULL DEFAULT '00000000-0000-0000-0000-000000000000',
+    event_type VARCHAR(50) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (bucket_start, event_type, org_id, user_id, campaign_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_event_rollups_user ON email_event_rollups(user_id, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_email_event_rollups_campaign ON email_event_rollups(campaign_id, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_email_event_rollups_org_user ON email_event_rollups(org_id, user_id, bucket_start);
+
+-- Backfill from existing events
+INSERT INTO email_event_rollups (bucket_start, org_id, user_id, campaign_id, event_type, event_count)
+SELECT date_trunc('hour', timestamp),
+       COALESCE(org_id, '00000000-0000-0000-0000-000000000000'),
+       COALESCE(user_id, ''),
+       COALESCE(campaign_id, '00000000-0000-0000-0000-000000000000'),
+       event_type,
+       COUNT(*)
+FROM email_events
+GROUP BY 1, 2, 3, 4, 5
+ON CONFLICT (bucket_start, event_type, org_id, user_id, campaign_id)
+DO UPDATE SET event_count = EXCLUDED.event_count;
+
+-- Statement-level triggers keep the rollups in step: one upsert per touched
+-- bucket per statement, so a batched insert of many events costs a handful of
+-- row updates. Rows are locked in key order to avoid deadlocks between writers.
+CREATE OR REPLACE FUNCTION add_email_event_rollups() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO email_event_rollups (bucket_start, org_id, user_id, campaign_id, event_type, event_count)
+    SELECT date_trunc('hour', timestamp),
+           COALESCE(org_id, '00000000-0000-0000-0000-000000000000'),
+           COALESCE(user_id, ''),
+           COALESCE(campaign_id, '00000000-0000-0000-0000-000000000000'),
+           event_type,
+           COUNT(*)
+    FROM new_events
+    GROUP BY 1, 2, 3, 4, 5
+    ORDER BY 1, 5, 2, 3, 4
+    ON CONFLICT (bucket_start, event_type, org_id, user_id, campaign_id)
+    DO UPDATE SET event_count = email_event_rollups.event_count + EXCLUDED.event_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION remove_email_event_rollups() RETURNS trigger AS $$
+BEGIN
+    UPDATE email_event_rollups r
+    SET event_count = GREATEST(r.event_count - d.event_count, 0)
+    FROM (
+        SELECT date_trunc('hour', timestamp) AS bucket_start,
+               COALESCE(org_id, '00000000-0000-0000-0000-000000000000') AS org_id,
+               COALESCE(user_id, '') AS user_id,
+               COALESCE(campaign_id, '00000000-0000-0000-0000-000000000000') AS campaign_id,
+               event_type,
+               COUNT(*) AS event_count
+        FROM old_events
+        GROUP BY 1, 2, 3, 4, 5
+    ) d
+    WHERE r.bucket_start = d.bucket_start AND r.event_type = d.event_type AND r.org_id = d.org_id
+      AND r.user_id = d.user_id AND r.campaign_id = d.campaign_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Updates only matter when a rollup key changes (not e.g. the processed flag):
+-- such rows move their count from the old bucket to the new one
+CREATE OR REPLACE FUNCTION move_email_event_rollups() RETURNS trigger AS $$
+BEGIN
+    WITH changed AS (
+        SELECT o.timestamp AS old_timestamp, o.event_type AS old_event_type, o.org_id AS old_org_id,
+               o.user_id AS old_user_id, o.campaign_id AS old_campaign_id,
+               n.timestamp, n.event_type, n.org_id, n.user_id, n.campaign_id
+        FROM old_events o JOIN new_events n ON n.id = o.id
+        WHERE (o.timestamp, o.event_type, o.org_id, o.user_id, o.campaign_id)
+              IS DISTINCT FROM (n.timestamp, n.event_type, n.org_id, n.user_id, n.campaign_id)
+    ), moved AS (
+        SELECT -1 AS delta, date_trunc('hour', old_timestamp) AS bucket_start, old_org_id AS org_id,
+               old_user_id AS user_id, old_campaign_id AS campaign_id, old_event_type AS event_type
+        FROM changed
+        UNION ALL
+        SELECT 1, date_trunc('hour', timestamp), org_id, user_id, campaign_id, event_type
+        FROM changed
+    )
+    INSERT INTO email_event_rollups (bucket_start, org_id, user_id, campaign_id, event_type, event_count)
+    SELECT bucket_start,
+           COALESCE(org_id, '00000000-0000-0000-0000-000000000000'),
+           COALESCE(user_id, ''),
+           COALESCE(campaign_id, '00000000-0000-0000-0000-000000000000'),
+           event_type,
+           SUM(delta)
+    FROM moved
+    GROUP BY 1, 2, 3, 4, 5
+    HAVING SUM(delta) <> 0
+    ORDER BY 1, 5, 2, 3, 4
+    ON CONFLICT (bucket_start, event_type, org_id, user_id, campaign_id)
+    DO UPDATE SET event_count = GREATEST(email_event_rollups.event_count + EXCLUDED.event_count, 0);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_email_events_rollup_insert ON email_events;
+CREATE TRIGGER trg_email_events_rollup_insert
+AFTER INSERT ON email_events
+REFERENCING NEW TABLE AS new_events
+FOR EACH STATEMENT
+EXECUTE FUNCTION add_email_event_rollups();
+
+DROP TRIGGER IF EXISTS trg_email_events_rollup_delete ON email_events;
+CREATE TRIGGER trg_email_events_rollup_delete
+AFTER DELETE ON email_events
+REFERENCING OLD TABLE AS old_events
+FOR EACH STATEMENT
+EXECUTE FUNCTION remove_email_event_rollups();
+
+DROP TRIGGER IF EXISTS trg_email_events_rollup_update ON email_events;
+CREATE TRIGGER trg_email_events_rollup_update
+AFTER UPDATE ON email_events
+REFERENCING OLD TABLE AS old_events NEW TABLE AS new_events
+FOR EACH STATEMENT
+EXECUTE FUNCTION move_email_event_rollups();
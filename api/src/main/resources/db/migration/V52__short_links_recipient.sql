@@ -0,0 +1,6 @@
+-- Short links are created per recipient at send time; keep the recipient so
+-- clicks are attributed without the address appearing in the URL
+ALTER TABLE short_links ADD COLUMN recipient_email VARCHAR(255);
+
+-- The UNIQUE constraint on short_code already provides this index
+DROP INDEX IF EXISTS idx_short_links_code;
@@ -0,0 +1,4 @@
+-- Bounce history is looked up by the trimmed, lowercased address so that
+-- differently cased events for one recipient count together
+CREATE INDEX IF NOT EXISTS idx_email_events_normalized_email_type_timestamp
+    ON email_events(LOWER(TRIM(email_address)), event_type, timestamp);
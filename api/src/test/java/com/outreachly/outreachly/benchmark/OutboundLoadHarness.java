@@ -0,0 +1,98 @@
+package com.outreachly.outreachly.benchmark;
+
+import com.outreachly.outreachly.config.AsyncConfig;
+import com.outreachly.outreachly.service.outbound.Downstream;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness for the outbound executor: pushes simulated email sends and
+ * Hunter enrichments (blocking calls with a fixed latency) through the same
+ * executor and OutboundLimiter the application uses, and reports sustained
+ * throughput, queueing latency and peak thread count.
+ *
+ * Run with: mvn test-compile, then run main() from the IDE (or java -cp with
+ * the test classpath). Tune with system properties:
+ * load.sends, load.enrichments, load.send-latency-ms, load.enrich-latency-ms,
+ * load.send-concurrency, load.enrich-concurrency, load.platform-threads.
+ * The executor is the application's bounded platform pool, with a queue large
+ * enough to hold every simulated call.
+ */
+public class OutboundLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        int sends = Integer.getInteger("load.sends", 20_000);
+        int enrichments = Integer.getInteger("load.enrichments", 2_000);
+        long sendLatencyMs = Long.getLong("load.send-latency-ms", 150);
+        long enrichLatencyMs = Long.getLong("load.enrich-latency-ms", 400);
+        int sendConcurrency = Integer.getInteger("load.send-concurrency", 200);
+        int enrichConcurrency = Integer.getInteger("load.enrich-concurrency", 20);
+        int platformThreads = Integer.getInteger("load.platform-threads", 64);
+
+        OutboundLimiter limiter = new OutboundLimiter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "sesMaxConcurrency", sendConcurrency);
+        ReflectionTestUtils.setField(limiter, "hunterMaxConcurrency", enrichConcurrency);
+        limiter.init();
+
+        AsyncConfig asyncConfig = new AsyncConfig();
+        ReflectionTestUtils.setField(asyncConfig, "platformThreads", platformThreads);
+        ReflectionTestUtils.setField(asyncConfig, "queueCapacity", sends + enrichments);
+        ExecutorService executor = asyncConfig.outboundExecutor();
+        String mode = platformThreads + " platform threads";
+
+        System.out.printf("Executor: %s, send cap %d @ %d ms, enrichment cap %d @ %d ms%n",
+                mode, sendConcurrency, sendLatencyMs, enrichConcurrency, enrichLatencyMs);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> sendLatencies = submit(executor, limiter, Downstream.SES, sends, sendLatencyMs);
+        List<CompletableFuture<Long>> enrichLatencies = submit(executor, limiter, Downstream.HUNTER, enrichments,
+                enrichLatencyMs);
+        CompletableFuture.allOf(sendLatencies.toArray(CompletableFuture[]::new)).join();
+        double sendSeconds = (System.nanoTime() - start) / 1e9;
+        CompletableFuture.allOf(enrichLatencies.toArray(CompletableFuture[]::new)).join();
+        double enrichSeconds = (System.nanoTime() - start) / 1e9;
+
+        report("Sends", sends, sendSeconds, sendLatencies);
+        report("Enrichments", enrichments, enrichSeconds, enrichLatencies);
+        System.out.printf("Peak live threads: %d%n", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Each future completes with the call's end-to-end latency in ms, queueing included
+    private static List<CompletableFuture<Long>> submit(ExecutorService executor, OutboundLimiter limiter,
+            Downstream downstream, int count, long latencyMs) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long submitted = System.nanoTime();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    limiter.call(downstream, () -> {
+                        Thread.sleep(latencyMs);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+            }, executor));
+        }
+        return futures;
+    }
+
+    private static void report(String name, int count, double seconds, List<CompletableFuture<Long>> latencies) {
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        System.out.printf("%s: %d in %.1f s = %.0f/s, latency p50 %d ms, p99 %d ms%n",
+                name, count, seconds, count / seconds,
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)]);
+    }
+}
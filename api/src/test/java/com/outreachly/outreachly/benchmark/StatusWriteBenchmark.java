@@ -0,0 +1,161 @@
+package com.outreachly.outreachly.benchmark;
+
+import com.outreachly.outreachly.service.delivery.DeliveryStatusWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-email database cost of writing checkpoint lead statuses: the old
+ * one-save-per-lead path (SELECT for the merge, then UPDATE, each in its own
+ * transaction) against DeliveryStatusWriter's single UPDATE ... FROM (VALUES ...)
+ * per batch.
+ *
+ * Needs a local Postgres. Tables are created in a scratch "status_bench"
+ * schema. Override the connection with -Dbench.jdbc.url, -Dbench.jdbc.user and
+ * -Dbench.jdbc.password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatusWriteBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH = 200;
+
+    private Connection connection;
+    private final List<UUID> ids = new ArrayList<>(ROWS);
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/outreachly_bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS status_bench");
+            statement.execute("SET search_path TO status_bench");
+            statement.execute("DROP TABLE IF EXISTS campaign_checkpoint_leads");
+            statement.execute("CREATE TABLE campaign_checkpoint_leads (" +
+                    "id UUID PRIMARY KEY, checkpoint_id UUID NOT NULL, lead_id UUID NOT NULL, " +
+                    "org_id UUID NOT NULL, status TEXT NOT NULL DEFAULT 'pending', " +
+                    "scheduled_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), sent_at TIMESTAMPTZ, error_message TEXT, " +
+                    "created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW())");
+        }
+
+        UUID checkpointId = UUID.randomUUID();
+        UUID orgId = UUID.randomUUID();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO campaign_checkpoint_leads (id, checkpoint_id, lead_id, org_id) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                insert.setObject(1, id);
+                insert.setObject(2, checkpointId);
+                insert.setObject(3, UUID.randomUUID());
+                insert.setObject(4, orgId);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA status_bench CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int perRowSave() throws SQLException {
+        int updated = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, status, sent_at, error_message, updated_at FROM campaign_checkpoint_leads WHERE id = ?");
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE campaign_checkpoint_leads SET status = ?, sent_at = ?, error_message = ?, " +
+                                "updated_at = ? WHERE id = ?")) {
+            for (int i = 0; i < BATCH; i++) {
+                UUID id = nextId();
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+
+                select.setObject(1, id);
+                try (ResultSet ignored = select.executeQuery()) {
+                    // merge() loads the row before the dirty check
+                }
+
+                update.setString(1, "sent");
+                update.setTimestamp(2, now);
+                update.setString(3, null);
+                update.setTimestamp(4, now);
+                update.setObject(5, id);
+                updated += update.executeUpdate();
+            }
+        }
+        return updated;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int batchedWriter() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement update = connection.prepareStatement(DeliveryStatusWriter.batchUpdateSql(BATCH))) {
+            int parameter = 1;
+            for (int i = 0; i < BATCH; i++) {
+                update.setObject(parameter++, nextId());
+                update.setString(parameter++, "sent");
+                update.setTimestamp(parameter++, now);
+                update.setString(parameter++, null);
+            }
+            return update.executeUpdate();
+        }
+    }
+
+    private UUID nextId() {
+        UUID id = ids.get(cursor);
+        cursor = (cursor + 1) % ROWS;
+        return id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatusWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.outreachly.outreachly.benchmark;
+
+import com.outreachly.outreachly.service.template.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old per-variable String.replace personalization with
+ * CompiledTemplate on a ~10 KB HTML body.
+ *
+ * Run with: mvn test-compile, then run main() from the IDE (or java -cp with
+ * the test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    private String body;
+    private CompiledTemplate compiledBody;
+    private Map<String, String> leadData;
+
+    @Setup
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        while (html.length() < 10 * 1024) {
+            html.append("<p>Hi {{firstName}}, I noticed {{domain}} is hiring for {{position}} roles. ")
+                    .append("Our customers in {{department}} usually see results within a month. ")
+                    .append("Would you be open to a quick chat, {{fullName}}?</p>\n");
+        }
+        html.append("<p>Best,<br/>The team</p></body></html>");
+        body = html.toString();
+        compiledBody = CompiledTemplate.compile(body);
+
+        leadData = new HashMap<>();
+        leadData.put("email", "jane.doe@example.com");
+        leadData.put("firstName", "Jane");
+        leadData.put("lastName", "Doe");
+        leadData.put("position", "Engineering");
+        leadData.put("phone", "+1 555 0100");
+        leadData.put("domain", "example.com");
+        leadData.put("linkedinUrl", "https://linkedin.com/in/janedoe");
+        leadData.put("twitter", "@janedoe");
+        leadData.put("department", "Engineering");
+        leadData.put("seniority", "Senior");
+        leadData.put("fullName", "Jane Doe");
+        leadData.put("first_name", "Jane");
+        leadData.put("last_name", "Doe");
+    }
+
+    @Benchmark
+    public String replaceLoop() {
+        String result = body;
+        for (Map.Entry<String, String> entry : leadData.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            result = result.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return compiledBody.render(leadData);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TemplateRenderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,192 @@
+package com.outreachly.outreachly.benchmark;
+
+import com.outreachly.outreachly.repository.EmailEventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of a 30-day delivery trend for one user: the old per-day loop (three
+ * COUNT queries per day) against the single date_trunc ... GROUP BY query over
+ * email_events, and the same query over the hourly rollups.
+ *
+ * Needs a local Postgres. Seeds -Dbench.rows events (default 10M, spread over
+ * 90 days and 100 users) into a scratch "trend_bench" schema, with the same
+ * indexes as production; seeding 10M rows takes a few minutes. Override the
+ * connection with -Dbench.jdbc.url, -Dbench.jdbc.user and -Dbench.jdbc.password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TrendQueryBenchmark {
+
+    private static final int DAYS = 30;
+    private static final String USER_ID = "user_7";
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":([a-zA-Z]+)");
+
+    private Connection connection;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        long rows = Long.getLong("bench.rows", 10_000_000L);
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/outreachly_bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS trend_bench");
+            statement.execute("SET search_path TO trend_bench");
+            statement.execute("DROP TABLE IF EXISTS email_events");
+            statement.execute("DROP TABLE IF EXISTS email_event_rollups");
+            statement.execute("CREATE TABLE email_events (id BIGSERIAL PRIMARY KEY, " +
+                    "message_id VARCHAR(255) NOT NULL, email_address VARCHAR(255) NOT NULL, " +
+                    "event_type VARCHAR(50) NOT NULL, timestamp TIMESTAMP NOT NULL, " +
+                    "user_id VARCHAR(255), campaign_id UUID, org_id UUID)");
+            statement.execute("CREATE TABLE email_event_rollups (bucket_start TIMESTAMP NOT NULL, " +
+                    "org_id UUID NOT NULL, user_id TEXT NOT NULL, campaign_id UUID NOT NULL, " +
+                    "event_type VARCHAR(50) NOT NULL, event_count BIGINT NOT NULL, " +
+                    "PRIMARY KEY (bucket_start, event_type, org_id, user_id, campaign_id))");
+
+            // Mostly deliveries, as in production
+            statement.execute("INSERT INTO email_events (message_id, email_address, event_type, timestamp, user_id) " +
+                    "SELECT 'm' || g, 'lead' || (g % 50000) || '@example.com', " +
+                    "(ARRAY['DELIVERY','DELIVERY','DELIVERY','DELIVERY','REJECT','CLICK','OPEN'])[1 + g % 7], " +
+                    "NOW() - random() * INTERVAL '90 days', 'user_' || (g % 100) " +
+                    "FROM generate_series(1, " + rows + ") g");
+
+            statement.execute("CREATE INDEX ON email_events(event_type)");
+            statement.execute("CREATE INDEX ON email_events(timestamp)");
+            statement.execute("CREATE INDEX ON email_events(user_id)");
+            statement.execute("CREATE INDEX ON email_events(email_address, event_type, timestamp)");
+            statement.execute("INSERT INTO email_event_rollups " +
+                    "SELECT date_trunc('hour', timestamp), '00000000-0000-0000-0000-000000000000', " +
+                    "COALESCE(user_id, ''), '00000000-0000-0000-0000-000000000000', event_type, COUNT(*) " +
+                    "FROM email_events GROUP BY 1, 2, 3, 4, 5");
+            statement.execute("CREATE INDEX ON email_event_rollups(user_id, bucket_start)");
+            statement.execute("ANALYZE email_events");
+            statement.execute("ANALYZE email_event_rollups");
+        }
+
+        LocalDate today = LocalDate.now();
+        start = today.minusDays(DAYS - 1).atStartOfDay();
+        end = today.plusDays(1).atStartOfDay();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA trend_bench CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long perDayLoop() throws SQLException {
+        long total = 0;
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT COUNT(*) FROM email_events WHERE event_type = ? AND user_id = ? " +
+                        "AND timestamp BETWEEN ? AND ?")) {
+            for (LocalDate day = start.toLocalDate(); day.isBefore(end.toLocalDate()); day = day.plusDays(1)) {
+                for (String eventType : List.of("DELIVERY", "REJECT", "CLICK")) {
+                    count.setString(1, eventType);
+                    count.setString(2, USER_ID);
+                    count.setTimestamp(3, Timestamp.valueOf(day.atStartOfDay()));
+                    count.setTimestamp(4, Timestamp.valueOf(day.atTime(23, 59, 59)));
+                    try (ResultSet result = count.executeQuery()) {
+                        result.next();
+                        total += result.getLong(1);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long singlePassGroupBy() throws SQLException {
+        return runBuckets(EmailEventRepository.EVENT_BUCKETS_SQL);
+    }
+
+    @Benchmark
+    public long rollupGroupBy() throws SQLException {
+        return runBuckets(EmailEventRepository.ROLLUP_BUCKETS_SQL);
+    }
+
+    // Runs a repository query with its named parameters bound positionally
+    private long runBuckets(String namedSql) throws SQLException {
+        Map<String, Object> values = Map.of(
+                "unit", "day",
+                "storedZone", "UTC",
+                "zone", "Europe/Berlin",
+                "start", Timestamp.valueOf(start),
+                "end", Timestamp.valueOf(end),
+                "byUser", true,
+                "userId", USER_ID,
+                "byCampaign", false,
+                "campaignId", new UUID(0, 0));
+
+        List<String> order = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(namedSql);
+        StringBuilder sql = new StringBuilder();
+        while (matcher.find()) {
+            order.add(matcher.group(1));
+            matcher.appendReplacement(sql, "?");
+        }
+        matcher.appendTail(sql);
+
+        long total = 0;
+        try (PreparedStatement query = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < order.size(); i++) {
+                query.setObject(i + 1, values.get(order.get(i)));
+            }
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    total += result.getLong("count");
+                }
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrendQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
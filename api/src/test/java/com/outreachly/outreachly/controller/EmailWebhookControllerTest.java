@@ -0,0 +1,60 @@
+package com.outreachly.outreachly.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.outreachly.outreachly.entity.EmailEvent;
+import com.outreachly.outreachly.service.events.EmailEventWriter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailWebhookControllerTest {
+
+    private final EmailEventWriter emailEventWriter = mock(EmailEventWriter.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmailWebhookController controller = new EmailWebhookController(emailEventWriter, objectMapper);
+
+    @Test
+    void bounceIsQueuedWithItsSnsMessageId() {
+        when(emailEventWriter.submit(any())).thenReturn(true);
+
+        ResponseEntity<String> response = controller.handleSesWebhook(notification("bounce"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<EmailEvent> event = ArgumentCaptor.forClass(EmailEvent.class);
+        verify(emailEventWriter).submit(event.capture());
+        assertEquals(EmailEvent.EmailEventType.BOUNCE, event.getValue().getEventType());
+        assertEquals("lead@example.com", event.getValue().getEmailAddress());
+        assertEquals("sns-1", event.getValue().getSnsMessageId());
+        assertEquals("Permanent", event.getValue().getBounceType());
+    }
+
+    @Test
+    void fullQueueAnswers503SoSnsRetries() {
+        when(emailEventWriter.submit(any())).thenReturn(false);
+
+        ResponseEntity<String> response = controller.handleSesWebhook(notification("bounce"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    private String notification(String eventType) {
+        ObjectNode message = objectMapper.createObjectNode().put("eventType", eventType);
+        ObjectNode mail = message.putObject("mail").put("messageId", "ses-1");
+        mail.putArray("destination").add("lead@example.com");
+        message.putObject("bounce").put("bounceType", "Permanent").put("bounceSubType", "General");
+
+        return objectMapper.createObjectNode()
+                .put("Type", "Notification")
+                .put("MessageId", "sns-1")
+                .put("Message", message.toString())
+                .toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.outreachly.outreachly.controller;
+
+import com.outreachly.outreachly.service.DeliveryTrackingService;
+import com.outreachly.outreachly.service.GmailService;
+import com.outreachly.outreachly.service.LeadDataService;
+import com.outreachly.outreachly.service.UserService;
+import com.outreachly.outreachly.service.template.ParsedTemplateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Placeholder substitution in single Gmail sends, including the lowercase
+ * aliases of the lead's fields
+ */
+class GmailControllerTest {
+
+    private static final String TO = "ada@example.com";
+
+    private final GmailService gmailService = mock(GmailService.class);
+    private final LeadDataService leadDataService = mock(LeadDataService.class);
+    private final GmailController controller = new GmailController(gmailService, leadDataService,
+            mock(DeliveryTrackingService.class), mock(UserService.class), mock(ParsedTemplateCache.class));
+    private final Authentication authentication = mock(Authentication.class);
+
+    @BeforeEach
+    void setUp() {
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn("sender@example.com");
+    }
+
+    @Test
+    void fieldsMatchTheirOwnNameAndTheirLowercaseAlias() throws Exception {
+        leadData(Map.of("firstName", "Ada", "company", "Acme"));
+
+        assertEquals("Ada Ada Acme {{Company}}", send("{{firstName}} {{firstname}} {{company}} {{Company}}"));
+    }
+
+    @Test
+    void lowercaseFieldIsNotOverriddenByAnAlias() throws Exception {
+        leadData(Map.of("firstName", "Ada", "firstname", "Augusta"));
+
+        assertEquals("Ada Augusta", send("{{firstName}} {{firstname}}"));
+    }
+
+    @Test
+    void nullFieldRendersAsEmptyUnderBothNames() throws Exception {
+        Map<String, String> data = new HashMap<>();
+        data.put("lastName", null);
+        leadData(data);
+
+        assertEquals("[] []", send("[{{lastName}}] [{{lastname}}]"));
+    }
+
+    @Test
+    void valuesContainingPlaceholdersAreSentAsIs() throws Exception {
+        leadData(Map.of("firstName", "{{lastName}}", "lastName", "Lovelace"));
+
+        assertEquals("Hi {{lastName}}", send("Hi {{firstname}}"));
+    }
+
+    @Test
+    void leadLookupFailureFallsBackToANameFromTheAddress() throws Exception {
+        when(leadDataService.getLeadDataForEmail(eq(TO), anyString())).thenThrow(new RuntimeException("down"));
+
+        assertEquals("Hi Ada {{company}}", send("Hi {{firstname}} {{company}}"));
+    }
+
+    private void leadData(Map<String, String> data) {
+        when(leadDataService.getLeadDataForEmail(eq(TO), anyString())).thenReturn(data);
+    }
+
+    private String send(String body) throws Exception {
+        ResponseEntity<Map<String, Object>> response = controller.sendEmail(
+                new GmailController.GmailRequest(TO, "Hello", body), authentication);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        ArgumentCaptor<String> sent = ArgumentCaptor.forClass(String.class);
+        verify(gmailService).sendEmail(eq(TO), eq("Hello"), sent.capture(), anyBoolean(), any());
+        return sent.getValue();
+    }
+}
@@ -0,0 +1,81 @@
+package com.outreachly.outreachly.service;
+
+import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.service.events.EmailEventWriter;
+import com.outreachly.outreachly.service.quota.DailySendCounters;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Zone handling of the trend queries: user timezones and the zone names bound
+ * into AT TIME ZONE.
+ */
+class DeliveryTrackingServiceTest {
+
+    @Test
+    void wholeHourOffsetsUseEtcGmtNamesWithInvertedSign() {
+        assertEquals("UTC", DeliveryTrackingService.sqlZoneName(ZoneOffset.UTC));
+        assertEquals("Etc/GMT-5", DeliveryTrackingService.sqlZoneName(ZoneOffset.ofHours(5)));
+        assertEquals("Etc/GMT+8", DeliveryTrackingService.sqlZoneName(ZoneOffset.ofHours(-8)));
+    }
+
+    @Test
+    void fractionalOffsetsUsePosixZoneSpecs() {
+        assertEquals("<+0530>-05:30", DeliveryTrackingService.sqlZoneName(ZoneOffset.of("+05:30")));
+        assertEquals("<+0930>-09:30", DeliveryTrackingService.sqlZoneName(ZoneOffset.of("+09:30")));
+        assertEquals("<+0545>-05:45", DeliveryTrackingService.sqlZoneName(ZoneOffset.of("+05:45")));
+        assertEquals("<-0330>+03:30", DeliveryTrackingService.sqlZoneName(ZoneOffset.of("-03:30")));
+        assertEquals("<+053015>-05:30:15", DeliveryTrackingService.sqlZoneName(ZoneOffset.of("+05:30:15")));
+    }
+
+    @Test
+    void regionZonesKeepTheirId() {
+        assertEquals("Asia/Kolkata", DeliveryTrackingService.sqlZoneName(ZoneId.of("Asia/Kolkata")));
+    }
+
+    @Test
+    void resolvesUserTimezones() {
+        assertEquals(ZoneOffset.UTC, DeliveryTrackingService.resolveZone(null));
+        assertEquals(ZoneOffset.UTC, DeliveryTrackingService.resolveZone("UTC±0"));
+        assertEquals(ZoneOffset.ofHours(5), DeliveryTrackingService.resolveZone("UTC+5"));
+        assertEquals(ZoneOffset.ofHours(-8), DeliveryTrackingService.resolveZone("UTC−8"));
+        assertEquals(ZoneOffset.of("+05:30"), DeliveryTrackingService.resolveZone("+05:30"));
+        assertEquals(ZoneId.of("Europe/Berlin"), DeliveryTrackingService.resolveZone("Europe/Berlin"));
+    }
+
+    @Test
+    void trendsForFractionalOffsetQueryThePosixZone() {
+        List<String> zones = new ArrayList<>();
+        EmailEventRepository repository = mock(EmailEventRepository.class);
+        when(repository.countEventsByBucket(anyString(), anyString(), anyString(), any(), any(), anyBoolean(),
+                anyString(), anyBoolean(), any())).thenAnswer(inv -> {
+                    zones.add(inv.getArgument(2));
+                    return List.of();
+                });
+        when(repository.sumRollupsByBucket(anyString(), anyString(), anyString(), any(), any(), anyBoolean(),
+                anyString(), anyBoolean(), any())).thenAnswer(inv -> {
+                    zones.add(inv.getArgument(2));
+                    return List.of();
+                });
+        DeliveryTrackingService service = new DeliveryTrackingService(repository, mock(DailySendCounters.class),
+                mock(EmailEventWriter.class));
+
+        List<DeliveryTrackingService.TrendData> trends = service.getDeliveryTrends(7, "user-1", null, "+05:30");
+
+        assertEquals(7, trends.size());
+        assertEquals(List.of("<+0530>-05:30"), zones);
+        assertTrue(trends.stream().allMatch(trend -> trend.getTotalSent() == 0));
+    }
+}
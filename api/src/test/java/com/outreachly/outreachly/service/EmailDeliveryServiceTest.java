@@ -0,0 +1,209 @@
+package com.outreachly.outreachly.service;
+
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import com.outreachly.outreachly.repository.ShortLinkRepository;
+import com.outreachly.outreachly.service.delivery.CheckpointDeliveryPipeline;
+import com.outreachly.outreachly.service.delivery.CheckpointDeliveryPublisher;
+import com.outreachly.outreachly.service.delivery.DeliveryChannel;
+import com.outreachly.outreachly.service.delivery.DeliveryContext;
+import com.outreachly.outreachly.service.delivery.DeliveryContextLoader;
+import com.outreachly.outreachly.service.delivery.DeliveryStatusWriter;
+import com.outreachly.outreachly.service.delivery.LeadSnapshot;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.links.ShortLinkService;
+import com.outreachly.outreachly.service.links.TrackingPixelService;
+import com.outreachly.outreachly.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkpoint runs against a real status writer on a stubbed JdbcTemplate,
+ * with lead statuses kept in an in-memory stand-in for the claim and pending
+ * queries
+ */
+class EmailDeliveryServiceTest {
+
+    private final CampaignCheckpointLeadRepository checkpointLeadRepository =
+            mock(CampaignCheckpointLeadRepository.class);
+    private final GmailService gmailService = mock(GmailService.class);
+    private final RateLimitService rateLimitService = mock(RateLimitService.class);
+    private final CheckpointDeliveryPipeline deliveryPipeline = mock(CheckpointDeliveryPipeline.class);
+    private final DeliveryContextLoader deliveryContextLoader = mock(DeliveryContextLoader.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final CampaignCheckpoint checkpoint = CampaignCheckpoint.builder()
+            .id(UUID.randomUUID()).orgId(UUID.randomUUID()).name("Day 1").build();
+    private final List<CampaignCheckpointLead> leads = List.of(checkpointLead(), checkpointLead());
+    private final Map<UUID, CampaignCheckpointLead.DeliveryStatus> statuses = new ConcurrentHashMap<>();
+
+    private DeliveryStatusWriter statusWriter;
+    private EmailDeliveryService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        statusWriter = new DeliveryStatusWriter(jdbcTemplate);
+        ReflectionTestUtils.setField(statusWriter, "batchSize", 200);
+        ReflectionTestUtils.setField(statusWriter, "flushMillis", 10L);
+        ReflectionTestUtils.setField(statusWriter, "maxAttempts", 1);
+        ReflectionTestUtils.setField(statusWriter, "retryBackoffMillis", 0L);
+        statusWriter.start();
+
+        ObjectProvider<CheckpointDeliveryPublisher> publisherProvider = mock(ObjectProvider.class);
+        service = new EmailDeliveryService(checkpointLeadRepository, gmailService,
+                mock(OrganizationEmailService.class), rateLimitService, mock(DeliveryTrackingService.class),
+                mock(CampaignCheckpointRepository.class), deliveryPipeline, statusWriter, publisherProvider,
+                deliveryContextLoader, mock(ProviderRateLimiter.class),
+                new ShortLinkService(mock(ShortLinkRepository.class), jdbcTemplate, new SimpleMeterRegistry()),
+                mock(TrackingPixelService.class));
+
+        DeliveryContext context = new DeliveryContext(checkpoint.getId(), checkpoint.getName(), UUID.randomUUID(),
+                checkpoint.getOrgId(), DeliveryChannel.GMAIL, "creator", 1L, null,
+                CompiledTemplate.compile("Hello {{firstName}}"), CompiledTemplate.compile("Hi {{firstName}}"),
+                false);
+        when(deliveryContextLoader.load(checkpoint)).thenReturn(context);
+        when(deliveryContextLoader.getLeadPageSize()).thenReturn(500);
+        when(deliveryContextLoader.loadLeads(any(), any())).thenReturn(Map.of(
+                leads.get(0).getLeadId(), lead(leads.get(0), "a@example.com"),
+                leads.get(1).getLeadId(), lead(leads.get(1), "b@example.com")));
+        when(rateLimitService.reserve(anyString(), anyString(), anyInt(), anyString())).thenAnswer(invocation ->
+                Optional.of(new RateLimitService.QuotaReservation(UUID.randomUUID(), "creator",
+                        checkpoint.getOrgId(), LocalDate.now(), invocation.getArgument(2))));
+
+        leads.forEach(lead -> statuses.put(lead.getId(), CampaignCheckpointLead.DeliveryStatus.pending));
+        when(checkpointLeadRepository.countByCheckpointIdAndStatus(checkpoint.getId(),
+                CampaignCheckpointLead.DeliveryStatus.pending)).thenAnswer(invocation -> (long) pending().size());
+        when(checkpointLeadRepository.findPendingChunk(eq(checkpoint.getId()), any()))
+                .thenAnswer(invocation -> pending());
+        when(checkpointLeadRepository.claimPending(any(), any())).thenAnswer(invocation -> {
+            List<UUID> claimed = new ArrayList<>();
+            for (UUID id : invocation.<Collection<UUID>>getArgument(0)) {
+                if (statuses.replace(id, CampaignCheckpointLead.DeliveryStatus.pending,
+                        CampaignCheckpointLead.DeliveryStatus.sending)) {
+                    claimed.add(id);
+                }
+            }
+            return claimed;
+        });
+
+        doAnswer(invocation -> {
+            invocation.<CheckpointDeliveryPipeline.SendTask>getArgument(1).send();
+            return null;
+        }).when(deliveryPipeline).submit(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        statusWriter.stop();
+    }
+
+    @Test
+    void resumedRunDoesNotResendLeadsWhoseSentStatusWasNotSaved() throws Exception {
+        failStatusWrites();
+
+        assertThrows(RuntimeException.class, () -> service.sendCheckpointEmails(checkpoint));
+        verify(gmailService, times(2)).sendEmail(anyString(), anyString(), anyString(), anyBoolean(), any(), any());
+        leads.forEach(lead -> assertEquals(CampaignCheckpointLead.DeliveryStatus.sending,
+                statuses.get(lead.getId())));
+
+        // Any run on any instance finds nothing pending
+        service.sendCheckpointEmails(checkpoint);
+
+        verify(gmailService, times(2)).sendEmail(anyString(), anyString(), anyString(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void leadClaimedByAnotherRunIsNotSent() throws Exception {
+        // Read as pending by this run, claimed by another run just before this one claims it
+        List<CampaignCheckpointLead> chunk = pending();
+        when(checkpointLeadRepository.findPendingChunk(eq(checkpoint.getId()), any())).thenReturn(chunk);
+        statuses.put(leads.get(0).getId(), CampaignCheckpointLead.DeliveryStatus.sending);
+
+        service.sendCheckpointEmails(checkpoint);
+
+        verify(gmailService, never()).sendEmail(eq("a@example.com"), anyString(), anyString(), anyBoolean(), any(),
+                any());
+        verify(gmailService).sendEmail(eq("b@example.com"), anyString(), anyString(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void leadsLeftSendingAreFailedNotResent() {
+        failStatusWrites();
+        assertThrows(RuntimeException.class, () -> service.sendCheckpointEmails(checkpoint));
+
+        when(checkpointLeadRepository.findInterrupted(any(), any())).thenReturn(leads);
+        when(checkpointLeadRepository.transitionStatus(any(), eq(CampaignCheckpointLead.DeliveryStatus.sending),
+                eq(CampaignCheckpointLead.DeliveryStatus.failed), anyString(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> statuses.replace(invocation.getArgument(0),
+                        CampaignCheckpointLead.DeliveryStatus.sending,
+                        CampaignCheckpointLead.DeliveryStatus.failed) ? 1 : 0);
+
+        assertEquals(Set.of(checkpoint.getId()), service.failInterrupted(Duration.ofSeconds(300), 100));
+        // A second pass, or another instance, finds them already failed
+        assertEquals(Set.of(), service.failInterrupted(Duration.ofSeconds(300), 100));
+
+        leads.forEach(lead -> assertEquals(CampaignCheckpointLead.DeliveryStatus.failed,
+                statuses.get(lead.getId())));
+        verify(gmailService, times(2)).sendEmail(anyString(), anyString(), anyString(), anyBoolean(), any(), any());
+    }
+
+    private List<CampaignCheckpointLead> pending() {
+        return leads.stream()
+                .filter(lead -> statuses.get(lead.getId()) == CampaignCheckpointLead.DeliveryStatus.pending)
+                .toList();
+    }
+
+    private void failStatusWrites() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+    }
+
+    private CampaignCheckpointLead checkpointLead() {
+        return CampaignCheckpointLead.builder()
+                .id(UUID.randomUUID())
+                .checkpointId(checkpoint.getId())
+                .leadId(UUID.randomUUID())
+                .orgId(checkpoint.getOrgId())
+                .build();
+    }
+
+    private static LeadSnapshot lead(CampaignCheckpointLead checkpointLead, String email) {
+        return new LeadSnapshot(checkpointLead.getLeadId(), email, "Ada", null, null, null, null, null, null, null,
+                null);
+    }
+}
@@ -0,0 +1,192 @@
+package com.outreachly.outreachly.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.dto.EmailRequest;
+import com.outreachly.outreachly.dto.EmailResponse;
+import com.outreachly.outreachly.service.delivery.ProviderRateLimiter;
+import com.outreachly.outreachly.service.outbound.OutboundLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.model.BulkEmailDestinationStatus;
+import software.amazon.awssdk.services.ses.model.BulkEmailStatus;
+import software.amazon.awssdk.services.ses.model.CreateTemplateRequest;
+import software.amazon.awssdk.services.ses.model.CreateTemplateResponse;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailResponse;
+import software.amazon.awssdk.services.ses.model.TemplateDoesNotExistException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk sends against a stubbed SesAsyncClient that accepts every destination
+ */
+class SesEmailServiceTest {
+
+    private static final String TEMPLATE_ID = "5f0c6a52-8a0e-4d5e-9a43-1f7ad3c2b111";
+
+    private final SesAsyncClient sesClient = mock(SesAsyncClient.class);
+    private final EmailEventService emailEventService = mock(EmailEventService.class);
+    private final AtomicInteger messageCounter = new AtomicInteger();
+
+    private SesEmailService service;
+
+    @BeforeEach
+    void setUp() {
+        OutboundLimiter outboundLimiter = new OutboundLimiter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outboundLimiter, "sesMaxConcurrency", 4);
+        outboundLimiter.init();
+
+        service = new SesEmailService(sesClient, emailEventService, outboundLimiter, mock(ProviderRateLimiter.class),
+                new ObjectMapper());
+        ReflectionTestUtils.setField(service, "fromEmail", "team@example.com");
+        ReflectionTestUtils.setField(service, "fromName", "Team");
+
+        when(emailEventService.isEmailSuppressed(anyString())).thenReturn(false);
+        when(sesClient.createTemplate(any(CreateTemplateRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateTemplateResponse.builder().build()));
+        when(sesClient.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class)))
+                .thenAnswer(invocation -> accepted(invocation.getArgument(0)));
+    }
+
+    @Test
+    void leadsOfOneTemplateGoOutInOneBulkCall() {
+        List<EmailRequest> requests = templatedRequests(20);
+
+        EmailResponse response = service.sendBulkEmail(requests);
+
+        assertTrue(response.isSuccess());
+        assertEquals(20, response.getSuccessfulRecipients());
+        assertTrue(response.getMessageIds().stream().allMatch(id -> id != null));
+        verify(sesClient, times(1)).createTemplate(any(CreateTemplateRequest.class));
+
+        ArgumentCaptor<SendBulkTemplatedEmailRequest> bulk = ArgumentCaptor.forClass(SendBulkTemplatedEmailRequest.class);
+        verify(sesClient, times(1)).sendBulkTemplatedEmail(bulk.capture());
+        assertEquals(20, bulk.getValue().destinations().size());
+        assertTrue(bulk.getValue().destinations().get(3).replacementTemplateData().contains("\"v0\":\"Lead 3\""));
+    }
+
+    @Test
+    void templateIsWrittenWithSesPlaceholders() {
+        service.sendBulkEmail(templatedRequests(2));
+
+        ArgumentCaptor<CreateTemplateRequest> create = ArgumentCaptor.forClass(CreateTemplateRequest.class);
+        verify(sesClient).createTemplate(create.capture());
+        assertEquals("Hello {{{v0}}}", create.getValue().template().subjectPart());
+        assertEquals("<p>Hi {{{v0}}} from {{{v1}}}</p>", create.getValue().template().htmlPart());
+    }
+
+    @Test
+    void templateIsCreatedOnceAcrossSends() {
+        service.sendBulkEmail(templatedRequests(5));
+        service.sendBulkEmail(templatedRequests(5));
+
+        verify(sesClient, times(1)).createTemplate(any(CreateTemplateRequest.class));
+        verify(sesClient, times(2)).sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class));
+    }
+
+    @Test
+    void moreThanFiftyLeadsAreSentInChunks() {
+        EmailResponse response = service.sendBulkEmail(templatedRequests(120));
+
+        assertEquals(120, response.getSuccessfulRecipients());
+        verify(sesClient, times(3)).sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class));
+    }
+
+    @Test
+    void suppressedRecipientsAreLeftOutWithoutChangingTheRequest() {
+        List<EmailRequest> requests = templatedRequests(3);
+        when(emailEventService.isEmailSuppressed("lead1@example.com")).thenReturn(true);
+
+        EmailResponse response = service.sendBulkEmail(requests);
+
+        assertEquals(List.of("lead1@example.com"), response.getFailedRecipients());
+        assertEquals(List.of("lead1@example.com"), requests.get(1).getRecipients());
+        assertNull(response.getMessageIds().get(1));
+        ArgumentCaptor<SendBulkTemplatedEmailRequest> bulk = ArgumentCaptor.forClass(SendBulkTemplatedEmailRequest.class);
+        verify(sesClient).sendBulkTemplatedEmail(bulk.capture());
+        assertEquals(2, bulk.getValue().destinations().size());
+    }
+
+    @Test
+    void deletedTemplateIsRecreatedAndTheChunkRetried() {
+        AtomicBoolean deleted = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (deleted.getAndSet(false)) {
+                return CompletableFuture.failedFuture(TemplateDoesNotExistException.builder().message("gone").build());
+            }
+            return accepted(invocation.getArgument(0));
+        }).when(sesClient).sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class));
+
+        EmailResponse response = service.sendBulkEmail(templatedRequests(4));
+
+        assertTrue(response.isSuccess());
+        verify(sesClient, times(2)).createTemplate(any(CreateTemplateRequest.class));
+        verify(sesClient, times(2)).sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class));
+    }
+
+    @Test
+    void placeholdersWithoutValuesRenderAsThemselves() {
+        SesEmailService.SesTemplateText text = SesEmailService.SesTemplateText.of("Hi {{firstName}}",
+                "<p>{{ {{firstName}} {{unknown}}</p>");
+
+        assertEquals(List.of("firstName", "unknown"), text.variables());
+        assertEquals("<p>{{outreachlyOpenBraces}} {{{v0}}} {{{v1}}}</p>", text.content());
+
+        EmailRequest request = templatedRequest(0);
+        request.setTemplateData(Map.of("firstName", "Ada"));
+        service.sendBulkEmail(List.of(request));
+
+        ArgumentCaptor<SendBulkTemplatedEmailRequest> bulk = ArgumentCaptor.forClass(SendBulkTemplatedEmailRequest.class);
+        verify(sesClient).sendBulkTemplatedEmail(bulk.capture());
+        assertTrue(bulk.getValue().destinations().get(0).replacementTemplateData().contains("\"v1\":\"{{company}}\""));
+    }
+
+    private List<EmailRequest> templatedRequests(int count) {
+        List<EmailRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(templatedRequest(i));
+        }
+        return requests;
+    }
+
+    private static EmailRequest templatedRequest(int lead) {
+        EmailRequest request = new EmailRequest();
+        request.setTemplateId(TEMPLATE_ID);
+        request.setSubject("Hello {{firstName}}");
+        request.setContent("<p>Hi {{firstName}} from {{company}}</p>");
+        request.setHtml(true);
+        request.setRecipients(new ArrayList<>(List.of("lead" + lead + "@example.com")));
+        request.setTemplateData(Map.of("firstName", "Lead " + lead, "company", "Acme"));
+        return request;
+    }
+
+    private CompletableFuture<SendBulkTemplatedEmailResponse> accepted(SendBulkTemplatedEmailRequest request) {
+        List<BulkEmailDestinationStatus> statuses = request.destinations().stream()
+                .map(destination -> BulkEmailDestinationStatus.builder()
+                        .status(BulkEmailStatus.SUCCESS)
+                        .messageId("ses-" + messageCounter.incrementAndGet())
+                        .build())
+                .toList();
+        return CompletableFuture.completedFuture(SendBulkTemplatedEmailResponse.builder().status(statuses).build());
+    }
+}
@@ -0,0 +1,392 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.config.DeliveryQueueConfig;
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.entity.Lead;
+import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import com.outreachly.outreachly.repository.LeadRepository;
+import com.outreachly.outreachly.service.CheckpointScheduler;
+import com.outreachly.outreachly.service.EmailDeliveryService;
+import com.outreachly.outreachly.service.RateLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publisher and worker against a real RabbitMQ broker (Testcontainers), with
+ * messages consumed through the {@code @RabbitListener} container, so acks,
+ * rejects and dead-lettering behave as in production. The repositories are
+ * in-memory stand-ins. Skipped when Docker is not available;
+ * CheckpointDeliveryWorkerTest covers the same flow without a broker.
+ */
+@SpringJUnitConfig(CheckpointDeliveryQueueTest.QueueTestConfig.class)
+@TestPropertySource(properties = {
+        "delivery.queue.enabled=true",
+        "delivery.queue.name=" + CheckpointDeliveryQueueTest.QUEUE,
+        "delivery.queue.consumers=1"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class CheckpointDeliveryQueueTest {
+
+    static final String QUEUE = "checkpoint-delivery";
+    private static final String DEAD_LETTER_QUEUE = QUEUE + ".dlq";
+    private static final Duration LEASE = Duration.ofSeconds(300);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    static final RabbitMQContainer RABBIT = new RabbitMQContainer("rabbitmq:3.13-management-alpine");
+
+    @Configuration
+    @EnableRabbit
+    @Import({DeliveryQueueConfig.class, CheckpointDeliveryPublisher.class, CheckpointDeliveryWorker.class})
+    static class QueueTestConfig {
+
+        @Bean
+        static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+
+        @Bean
+        ConnectionFactory connectionFactory() {
+            CachingConnectionFactory connectionFactory = new CachingConnectionFactory(RABBIT.getHost(),
+                    RABBIT.getAmqpPort());
+            connectionFactory.setUsername(RABBIT.getAdminUsername());
+            connectionFactory.setPassword(RABBIT.getAdminPassword());
+            return connectionFactory;
+        }
+
+        @Bean
+        RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
+            return new RabbitAdmin(connectionFactory);
+        }
+
+        @Bean
+        RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter converter) {
+            RabbitTemplate template = new RabbitTemplate(connectionFactory);
+            template.setMessageConverter(converter);
+            return template;
+        }
+
+        // As configured by spring.rabbitmq.listener.simple.* in application.properties
+        @Bean
+        SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                MessageConverter converter) {
+            SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+            factory.setConnectionFactory(connectionFactory);
+            factory.setMessageConverter(converter);
+            factory.setPrefetchCount(10);
+            factory.setDefaultRequeueRejected(false);
+            return factory;
+        }
+    }
+
+    private final Map<UUID, CampaignCheckpointLead> checkpointLeads = new ConcurrentHashMap<>();
+    private final Map<UUID, Lead> leads = new ConcurrentHashMap<>();
+
+    @MockitoBean
+    private CampaignCheckpointLeadRepository checkpointLeadRepository;
+    @MockitoBean
+    private CampaignCheckpointRepository checkpointRepository;
+    @MockitoBean
+    private LeadRepository leadRepository;
+    @MockitoBean
+    private EmailDeliveryService emailDeliveryService;
+    @MockitoBean
+    private CheckpointDeliveryPipeline deliveryPipeline;
+    @MockitoBean
+    private CheckpointScheduler checkpointScheduler;
+    @MockitoBean
+    private DeliveryContextLoader deliveryContextLoader;
+    @MockitoBean
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private CheckpointDeliveryPublisher publisher;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private RabbitAdmin rabbitAdmin;
+
+    private CampaignCheckpoint checkpoint;
+
+    @BeforeEach
+    void setUp() {
+        rabbitAdmin.purgeQueue(QUEUE, false);
+        rabbitAdmin.purgeQueue(DEAD_LETTER_QUEUE, false);
+
+        checkpoint = CampaignCheckpoint.builder()
+                .id(UUID.randomUUID())
+                .campaignId(UUID.randomUUID())
+                .orgId(UUID.randomUUID())
+                .name("Day 1")
+                .emailProvider(CampaignCheckpoint.EmailProvider.RESEND)
+                .status(CampaignCheckpoint.CheckpointStatus.active)
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            Lead lead = Lead.builder().id(UUID.randomUUID()).email("lead" + i + "@example.com").build();
+            leads.put(lead.getId(), lead);
+            CampaignCheckpointLead checkpointLead = CampaignCheckpointLead.builder()
+                    .id(UUID.randomUUID())
+                    .checkpointId(checkpoint.getId())
+                    .leadId(lead.getId())
+                    .status(CampaignCheckpointLead.DeliveryStatus.pending)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            checkpointLeads.put(checkpointLead.getId(), checkpointLead);
+        }
+
+        when(checkpointLeadRepository.findById(any()))
+                .thenAnswer(inv -> Optional.ofNullable(checkpointLeads.get(inv.<UUID>getArgument(0))));
+        when(checkpointLeadRepository.transitionStatus(any(), any(), any(), any()))
+                .thenAnswer(inv -> transition(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2),
+                        inv.getArgument(3)));
+        when(checkpointLeadRepository.transitionStatus(any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> transition(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2),
+                        inv.getArgument(4)));
+        when(checkpointLeadRepository.findStale(any(), any(), any())).thenAnswer(inv -> findStale(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)));
+        when(checkpointLeadRepository.touchStale(any(), any(), any(), any())).thenAnswer(inv -> touchStale(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        when(checkpointRepository.findById(checkpoint.getId())).thenReturn(Optional.of(checkpoint));
+        when(leadRepository.findById(any()))
+                .thenAnswer(inv -> Optional.ofNullable(leads.get(inv.<UUID>getArgument(0))));
+
+        doAnswer(inv -> setStatus(inv.getArgument(0), CampaignCheckpointLead.DeliveryStatus.sent))
+                .when(emailDeliveryService).markLeadAsSent(any());
+        doAnswer(inv -> setStatus(inv.getArgument(0), CampaignCheckpointLead.DeliveryStatus.failed))
+                .when(emailDeliveryService).markLeadAsFailed(any(), anyString());
+
+        DeliveryContext context = mock(DeliveryContext.class);
+        when(context.campaignCreatorId()).thenReturn("42");
+        when(context.channel()).thenReturn(DeliveryChannel.RESEND);
+        when(deliveryContextLoader.load(any())).thenReturn(context);
+    }
+
+    @Test
+    void publishesAndSendsEachPendingLeadOnce() {
+        List<CampaignCheckpointLead> pending = new ArrayList<>(checkpointLeads.values());
+
+        assertEquals(2, publisher.publish(checkpoint, pending, LocalDate.now()));
+        assertEquals(0, publisher.publish(checkpoint, pending, LocalDate.now()));
+
+        awaitStatus(CampaignCheckpointLead.DeliveryStatus.sent);
+        verify(emailDeliveryService, times(2)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+        verify(deliveryContextLoader, times(1)).load(checkpoint);
+        await().atMost(TIMEOUT).untilAsserted(() ->
+                verify(checkpointScheduler, times(2)).updateCheckpointStatus(checkpoint));
+    }
+
+    @Test
+    void duplicateMessagesAreNotSentTwice() {
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+        awaitStatus(CampaignCheckpointLead.DeliveryStatus.sent);
+
+        for (CampaignCheckpointLead checkpointLead : checkpointLeads.values()) {
+            rabbitTemplate.convertAndSend(QUEUE,
+                    new CheckpointDeliveryMessage(checkpoint.getId(), checkpointLead.getId(), LocalDate.now()));
+        }
+
+        // A duplicate is dropped as soon as its lead has been read
+        await().atMost(TIMEOUT).until(() -> mockingDetails(checkpointLeadRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("findById"))
+                .count() == 4);
+        verify(emailDeliveryService, times(2)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void failedSendMarksLeadFailedAndRefundsQuota() {
+        doThrow(new RuntimeException("Resend API error")).when(emailDeliveryService)
+                .sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+
+        awaitStatus(CampaignCheckpointLead.DeliveryStatus.failed);
+        verify(rateLimitService, times(2)).refund("42", checkpoint.getOrgId(), LocalDate.now(), 1);
+    }
+
+    @Test
+    void pausedCheckpointReturnsLeadsToPendingAndRefundsQuota() {
+        checkpoint.setStatus(CampaignCheckpoint.CheckpointStatus.paused);
+
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+
+        awaitStatus(CampaignCheckpointLead.DeliveryStatus.pending);
+        await().atMost(TIMEOUT).untilAsserted(() ->
+                verify(rateLimitService, times(2)).refund("42", checkpoint.getOrgId(), LocalDate.now(), 1));
+        verify(emailDeliveryService, never()).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void failedMessageIsDeadLetteredAndItsLeadRepublished() {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        when(checkpointRepository.findById(checkpoint.getId()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(Optional.of(checkpoint));
+
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+
+        CheckpointDeliveryMessage deadLettered = rabbitTemplate.receiveAndConvert(DEAD_LETTER_QUEUE,
+                TIMEOUT.toMillis(), new ParameterizedTypeReference<>() {
+                });
+        assertNotNull(deadLettered);
+        assertEquals(checkpointLead.getId(), deadLettered.checkpointLeadId());
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.queued, checkpointLead.getStatus());
+
+        // Not stale yet
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+
+        age(checkpointLead);
+        assertEquals(1, publisher.republishStale(LEASE, 100));
+
+        await().atMost(TIMEOUT).until(() -> checkpointLead.getStatus() == CampaignCheckpointLead.DeliveryStatus.sent);
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void leadQueuedByARunThatDiedBeforePublishingIsRepublished() {
+        // The run moved the lead to queued and died before publishing its message
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        transition(checkpointLead.getId(), CampaignCheckpointLead.DeliveryStatus.pending,
+                CampaignCheckpointLead.DeliveryStatus.queued, LocalDateTime.now().minus(LEASE).minusMinutes(1));
+
+        assertEquals(1, publisher.republishStale(LEASE, 100));
+        // A second pass, or another instance, does not publish it again
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+
+        await().atMost(TIMEOUT).until(() -> checkpointLead.getStatus() == CampaignCheckpointLead.DeliveryStatus.sent);
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+        await().atMost(TIMEOUT).untilAsserted(() -> verify(checkpointScheduler).updateCheckpointStatus(checkpoint));
+    }
+
+    @Test
+    void sendWhoseStatusWasNotSavedIsNotRepublished() {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        doThrow(new RuntimeException("Failed to save delivery status"))
+                .when(emailDeliveryService).markLeadAsSent(any());
+
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+
+        assertNotNull(rabbitTemplate.receive(DEAD_LETTER_QUEUE, TIMEOUT.toMillis()));
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.sending, checkpointLead.getStatus());
+
+        // Left sending for EmailDeliveryService.failInterrupted, never queued again
+        age(checkpointLead);
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.sending, checkpointLead.getStatus());
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    private void awaitStatus(CampaignCheckpointLead.DeliveryStatus status) {
+        await().atMost(TIMEOUT).untilAsserted(() -> checkpointLeads.values()
+                .forEach(cl -> assertEquals(status, cl.getStatus())));
+    }
+
+    // Last touched before the lease, as if its message had been lost a while ago
+    private void age(CampaignCheckpointLead checkpointLead) {
+        synchronized (checkpointLeads) {
+            checkpointLead.setUpdatedAt(LocalDateTime.now().minus(LEASE).minusMinutes(1));
+        }
+    }
+
+    private int transition(UUID id, CampaignCheckpointLead.DeliveryStatus expected,
+            CampaignCheckpointLead.DeliveryStatus status, LocalDateTime now) {
+        synchronized (checkpointLeads) {
+            CampaignCheckpointLead row = checkpointLeads.get(id);
+            if (row == null || row.getStatus() != expected) {
+                return 0;
+            }
+            row.setStatus(status);
+            row.setUpdatedAt(now);
+            return 1;
+        }
+    }
+
+    private Object setStatus(CampaignCheckpointLead checkpointLead, CampaignCheckpointLead.DeliveryStatus status) {
+        synchronized (checkpointLeads) {
+            checkpointLead.setStatus(status);
+            checkpointLead.setUpdatedAt(LocalDateTime.now());
+            return null;
+        }
+    }
+
+    private List<CampaignCheckpointLead> findStale(CampaignCheckpointLead.DeliveryStatus status,
+            LocalDateTime updatedBefore, Pageable page) {
+        synchronized (checkpointLeads) {
+            if (checkpoint.getStatus() != CampaignCheckpoint.CheckpointStatus.active) {
+                return List.of();
+            }
+            return checkpointLeads.values().stream()
+                    .filter(row -> row.getStatus() == status && row.getUpdatedAt().isBefore(updatedBefore))
+                    .sorted(Comparator.comparing(CampaignCheckpointLead::getUpdatedAt))
+                    .limit(page.getPageSize())
+                    .toList();
+        }
+    }
+
+    private int touchStale(UUID id, CampaignCheckpointLead.DeliveryStatus status, LocalDateTime updatedBefore,
+            LocalDateTime now) {
+        synchronized (checkpointLeads) {
+            CampaignCheckpointLead row = checkpointLeads.get(id);
+            if (row == null || row.getStatus() != status || !row.getUpdatedAt().isBefore(updatedBefore)) {
+                return 0;
+            }
+            row.setUpdatedAt(now);
+            return 1;
+        }
+    }
+}
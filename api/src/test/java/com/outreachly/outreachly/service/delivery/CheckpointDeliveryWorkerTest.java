@@ -0,0 +1,354 @@
+package com.outreachly.outreachly.service.delivery;
+
+import com.outreachly.outreachly.entity.CampaignCheckpoint;
+import com.outreachly.outreachly.entity.CampaignCheckpointLead;
+import com.outreachly.outreachly.entity.Lead;
+import com.outreachly.outreachly.repository.CampaignCheckpointLeadRepository;
+import com.outreachly.outreachly.repository.CampaignCheckpointRepository;
+import com.outreachly.outreachly.repository.LeadRepository;
+import com.outreachly.outreachly.service.CheckpointScheduler;
+import com.outreachly.outreachly.service.EmailDeliveryService;
+import com.outreachly.outreachly.service.RateLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publisher and worker without a broker: published messages are collected
+ * from a mocked AmqpTemplate and handed to the listener method directly, and a
+ * message whose handler throws is treated as dead-lettered. The repositories
+ * are in-memory stand-ins. CheckpointDeliveryQueueTest covers the same flow
+ * against a real RabbitMQ broker when Docker is available.
+ */
+class CheckpointDeliveryWorkerTest {
+
+    private static final String QUEUE = "checkpoint-delivery";
+    private static final Duration LEASE = Duration.ofSeconds(300);
+
+    private final CampaignCheckpointLeadRepository checkpointLeadRepository =
+            mock(CampaignCheckpointLeadRepository.class);
+    private final CampaignCheckpointRepository checkpointRepository = mock(CampaignCheckpointRepository.class);
+    private final LeadRepository leadRepository = mock(LeadRepository.class);
+    private final EmailDeliveryService emailDeliveryService = mock(EmailDeliveryService.class);
+    private final CheckpointDeliveryPipeline deliveryPipeline = mock(CheckpointDeliveryPipeline.class);
+    private final CheckpointScheduler checkpointScheduler = mock(CheckpointScheduler.class);
+    private final DeliveryContextLoader deliveryContextLoader = mock(DeliveryContextLoader.class);
+    private final RateLimitService rateLimitService = mock(RateLimitService.class);
+    private final AmqpTemplate amqpTemplate = mock(AmqpTemplate.class);
+
+    private final Map<UUID, CampaignCheckpointLead> checkpointLeads = new LinkedHashMap<>();
+    private final Map<UUID, Lead> leads = new LinkedHashMap<>();
+    private final Deque<CheckpointDeliveryMessage> queue = new ArrayDeque<>();
+    private final List<CheckpointDeliveryMessage> deadLettered = new ArrayList<>();
+
+    private CheckpointDeliveryPublisher publisher;
+    private CheckpointDeliveryWorker worker;
+    private CampaignCheckpoint checkpoint;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new CheckpointDeliveryPublisher(checkpointLeadRepository, amqpTemplate);
+        ReflectionTestUtils.setField(publisher, "queueName", QUEUE);
+        worker = new CheckpointDeliveryWorker(checkpointLeadRepository, checkpointRepository, leadRepository,
+                emailDeliveryService, deliveryPipeline, checkpointScheduler, deliveryContextLoader, rateLimitService);
+        ReflectionTestUtils.setField(worker, "contextTtlSeconds", 60L);
+
+        checkpoint = CampaignCheckpoint.builder()
+                .id(UUID.randomUUID())
+                .campaignId(UUID.randomUUID())
+                .orgId(UUID.randomUUID())
+                .name("Day 1")
+                .emailProvider(CampaignCheckpoint.EmailProvider.RESEND)
+                .status(CampaignCheckpoint.CheckpointStatus.active)
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            Lead lead = Lead.builder().id(UUID.randomUUID()).email("lead" + i + "@example.com").build();
+            leads.put(lead.getId(), lead);
+            CampaignCheckpointLead checkpointLead = CampaignCheckpointLead.builder()
+                    .id(UUID.randomUUID())
+                    .checkpointId(checkpoint.getId())
+                    .leadId(lead.getId())
+                    .status(CampaignCheckpointLead.DeliveryStatus.pending)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            checkpointLeads.put(checkpointLead.getId(), checkpointLead);
+        }
+
+        doAnswer(inv -> queue.add(inv.getArgument(1)))
+                .when(amqpTemplate).convertAndSend(eq(QUEUE), any(CheckpointDeliveryMessage.class));
+
+        when(checkpointLeadRepository.findById(any()))
+                .thenAnswer(inv -> Optional.ofNullable(checkpointLeads.get(inv.<UUID>getArgument(0))));
+        when(checkpointLeadRepository.transitionStatus(any(), any(), any(), any()))
+                .thenAnswer(inv -> transition(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2),
+                        inv.getArgument(3)));
+        when(checkpointLeadRepository.findStale(any(), any(), any())).thenAnswer(inv -> findStale(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)));
+        when(checkpointLeadRepository.touchStale(any(), any(), any(), any())).thenAnswer(inv -> touchStale(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        when(checkpointRepository.findById(checkpoint.getId())).thenReturn(Optional.of(checkpoint));
+        when(leadRepository.findById(any()))
+                .thenAnswer(inv -> Optional.ofNullable(leads.get(inv.<UUID>getArgument(0))));
+
+        doAnswer(inv -> setStatus(inv.getArgument(0), CampaignCheckpointLead.DeliveryStatus.sent))
+                .when(emailDeliveryService).markLeadAsSent(any());
+        doAnswer(inv -> setStatus(inv.getArgument(0), CampaignCheckpointLead.DeliveryStatus.failed))
+                .when(emailDeliveryService).markLeadAsFailed(any(), anyString());
+
+        DeliveryContext context = mock(DeliveryContext.class);
+        when(context.campaignCreatorId()).thenReturn("42");
+        when(context.channel()).thenReturn(DeliveryChannel.RESEND);
+        when(deliveryContextLoader.load(any())).thenReturn(context);
+    }
+
+    @Test
+    void publishesAndSendsEachPendingLeadOnce() throws Exception {
+        List<CampaignCheckpointLead> pending = new ArrayList<>(checkpointLeads.values());
+
+        assertEquals(2, publisher.publish(checkpoint, pending, LocalDate.now()));
+        assertEquals(0, publisher.publish(checkpoint, pending, LocalDate.now()));
+        assertEquals(2, queue.size());
+
+        deliverAll();
+
+        assertStatus(CampaignCheckpointLead.DeliveryStatus.sent);
+        verify(emailDeliveryService, times(2)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+        verify(deliveryPipeline, times(2)).awaitPermit(DeliveryChannel.RESEND);
+        verify(deliveryContextLoader, times(1)).load(checkpoint);
+        verify(checkpointScheduler, times(2)).updateCheckpointStatus(checkpoint);
+        verify(rateLimitService, never()).refund(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void duplicateMessagesAreAckedWithoutSending() throws Exception {
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+        List<CheckpointDeliveryMessage> published = new ArrayList<>(queue);
+        deliverAll();
+
+        // Redelivered after the leads were sent
+        queue.addAll(published);
+        deliverAll();
+
+        assertEquals(List.of(), deadLettered);
+        verify(emailDeliveryService, times(2)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void leadClaimedByAnotherWorkerIsNotSent() throws Exception {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+
+        // Another worker claims the lead while this one waits for a send permit
+        doAnswer(inv -> transition(checkpointLead.getId(), CampaignCheckpointLead.DeliveryStatus.queued,
+                CampaignCheckpointLead.DeliveryStatus.sending, LocalDateTime.now()))
+                .when(deliveryPipeline).awaitPermit(any());
+        deliverAll();
+
+        verify(emailDeliveryService, never()).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+        verify(checkpointScheduler, never()).updateCheckpointStatus(any());
+    }
+
+    @Test
+    void failedSendMarksLeadFailedAndRefundsQuota() throws Exception {
+        doThrow(new RuntimeException("Resend API error")).when(emailDeliveryService)
+                .sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+        deliverAll();
+
+        assertStatus(CampaignCheckpointLead.DeliveryStatus.failed);
+        verify(rateLimitService, times(2)).refund("42", checkpoint.getOrgId(), LocalDate.now(), 1);
+        verify(emailDeliveryService, times(2)).markLeadAsFailed(any(), eq("Resend API error"));
+    }
+
+    @Test
+    void missingLeadIsFailedAndRefundsQuota() throws Exception {
+        leads.clear();
+        LocalDate quotaDate = LocalDate.now().minusDays(1);
+
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), quotaDate);
+        deliverAll();
+
+        assertStatus(CampaignCheckpointLead.DeliveryStatus.failed);
+        // Refunded to the day the leads were counted against
+        verify(rateLimitService, times(2)).refund("42", checkpoint.getOrgId(), quotaDate, 1);
+        verify(emailDeliveryService, never()).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void pausedCheckpointReturnsLeadsToPendingAndRefundsQuota() throws Exception {
+        checkpoint.setStatus(CampaignCheckpoint.CheckpointStatus.paused);
+
+        publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now());
+        deliverAll();
+
+        assertStatus(CampaignCheckpointLead.DeliveryStatus.pending);
+        verify(rateLimitService, times(2)).refund("42", checkpoint.getOrgId(), LocalDate.now(), 1);
+        verify(emailDeliveryService, never()).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void leadWhoseMessageCouldNotBePublishedGoesBackToPending() {
+        doThrow(new AmqpConnectException(new RuntimeException("Connection refused")))
+                .when(amqpTemplate).convertAndSend(eq(QUEUE), any(CheckpointDeliveryMessage.class));
+
+        assertEquals(0, publisher.publish(checkpoint, new ArrayList<>(checkpointLeads.values()), LocalDate.now()));
+
+        assertStatus(CampaignCheckpointLead.DeliveryStatus.pending);
+    }
+
+    @Test
+    void failedMessageIsDeadLetteredAndItsLeadRepublished() throws Exception {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        when(checkpointRepository.findById(checkpoint.getId()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(Optional.of(checkpoint));
+
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+        deliverAll();
+
+        assertEquals(1, deadLettered.size());
+        assertEquals(checkpointLead.getId(), deadLettered.get(0).checkpointLeadId());
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.queued, checkpointLead.getStatus());
+
+        // Not stale yet
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+
+        age(checkpointLead);
+        assertEquals(1, publisher.republishStale(LEASE, 100));
+        // A second pass, or another instance, does not publish it again
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+        deliverAll();
+
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.sent, checkpointLead.getStatus());
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void republishedLeadWhoseFirstMessageTurnsUpIsSentOnce() throws Exception {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+
+        // The first message is only late, not lost
+        age(checkpointLead);
+        assertEquals(1, publisher.republishStale(LEASE, 100));
+        assertEquals(2, queue.size());
+        deliverAll();
+
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.sent, checkpointLead.getStatus());
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    @Test
+    void sendWhoseStatusWasNotSavedIsDeadLetteredAndNotRepublished() throws Exception {
+        CampaignCheckpointLead checkpointLead = checkpointLeads.values().iterator().next();
+        doThrow(new RuntimeException("Failed to save delivery status"))
+                .when(emailDeliveryService).markLeadAsSent(any());
+
+        publisher.publish(checkpoint, List.of(checkpointLead), LocalDate.now());
+        deliverAll();
+
+        assertEquals(1, deadLettered.size());
+        assertEquals(CampaignCheckpointLead.DeliveryStatus.sending, checkpointLead.getStatus());
+        // The send itself succeeded, so the quota is kept
+        verify(rateLimitService, never()).refund(anyString(), any(), any(), anyInt());
+
+        // Left sending for EmailDeliveryService.failInterrupted, never queued again
+        age(checkpointLead);
+        assertEquals(0, publisher.republishStale(LEASE, 100));
+        assertEquals(0, queue.size());
+        verify(emailDeliveryService, times(1)).sendEmailToLead(any(LeadSnapshot.class), any(DeliveryContext.class));
+    }
+
+    // Hand every queued message to the listener, as the listener container would; a message whose
+    // handler throws is rejected without requeue and ends up on the dead-letter queue
+    private void deliverAll() throws InterruptedException {
+        CheckpointDeliveryMessage message;
+        while ((message = queue.poll()) != null) {
+            try {
+                worker.handle(message);
+            } catch (RuntimeException e) {
+                deadLettered.add(message);
+            }
+        }
+    }
+
+    private void assertStatus(CampaignCheckpointLead.DeliveryStatus status) {
+        checkpointLeads.values().forEach(cl -> assertEquals(status, cl.getStatus()));
+    }
+
+    // Last touched before the lease, as if its message had been lost a while ago
+    private void age(CampaignCheckpointLead checkpointLead) {
+        checkpointLead.setUpdatedAt(LocalDateTime.now().minus(LEASE).minusMinutes(1));
+    }
+
+    private int transition(UUID id, CampaignCheckpointLead.DeliveryStatus expected,
+            CampaignCheckpointLead.DeliveryStatus status, LocalDateTime now) {
+        CampaignCheckpointLead row = checkpointLeads.get(id);
+        if (row == null || row.getStatus() != expected) {
+            return 0;
+        }
+        row.setStatus(status);
+        row.setUpdatedAt(now);
+        return 1;
+    }
+
+    private Object setStatus(CampaignCheckpointLead checkpointLead, CampaignCheckpointLead.DeliveryStatus status) {
+        checkpointLead.setStatus(status);
+        checkpointLead.setUpdatedAt(LocalDateTime.now());
+        return null;
+    }
+
+    private List<CampaignCheckpointLead> findStale(CampaignCheckpointLead.DeliveryStatus status,
+            LocalDateTime updatedBefore, Pageable page) {
+        if (checkpoint.getStatus() != CampaignCheckpoint.CheckpointStatus.active) {
+            return List.of();
+        }
+        return checkpointLeads.values().stream()
+                .filter(row -> row.getStatus() == status && row.getUpdatedAt().isBefore(updatedBefore))
+                .sorted(Comparator.comparing(CampaignCheckpointLead::getUpdatedAt))
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    private int touchStale(UUID id, CampaignCheckpointLead.DeliveryStatus status, LocalDateTime updatedBefore,
+            LocalDateTime now) {
+        CampaignCheckpointLead row = checkpointLeads.get(id);
+        if (row == null || row.getStatus() != status || !row.getUpdatedAt().isBefore(updatedBefore)) {
+            return 0;
+        }
+        row.setUpdatedAt(now);
+        return 1;
+    }
+}
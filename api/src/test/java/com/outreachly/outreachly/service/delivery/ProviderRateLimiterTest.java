@@ -0,0 +1,152 @@
+package com.outreachly.outreachly.service.delivery;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AIMD rate control and Retry-After pauses, on a clock the test advances by hand
+ */
+class ProviderRateLimiterTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProviderRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ProviderRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "gmailRatePerSecond", 10.0);
+        ReflectionTestUtils.setField(limiter, "resendRatePerSecond", 1.0);
+        ReflectionTestUtils.setField(limiter, "resendPerKeyRatePerSecond", 4.0);
+        ReflectionTestUtils.setField(limiter, "sesRatePerSecond", 14.0);
+        ReflectionTestUtils.setField(limiter, "increaseStep", 0.05);
+        ReflectionTestUtils.setField(limiter, "decreaseFactor", 0.5);
+        ReflectionTestUtils.setField(limiter, "minFraction", 0.1);
+        ReflectionTestUtils.setField(limiter, "defaultRetryAfterMillis", 1000L);
+        ReflectionTestUtils.setField(limiter, "nanoClock", (LongSupplier) now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void throttlingHalvesTheRateDownToTheFloor() {
+        double[] expected = {5, 2.5, 1.25, 1, 1};
+        for (double rate : expected) {
+            limiter.onThrottled(DeliveryChannel.GMAIL, null, Duration.ZERO);
+            assertEquals(rate, limiter.getRatePerSecond(DeliveryChannel.GMAIL), DELTA);
+        }
+        assertEquals(expected.length, meterRegistry.get("delivery.rate.limiter.throttled")
+                .tags("provider", "gmail", "key", "shared").counter().count(), DELTA);
+    }
+
+    @Test
+    void successesAddBackAStepUpToTheConfiguredRate() {
+        limiter.onThrottled(DeliveryChannel.GMAIL, null, Duration.ZERO);
+
+        for (int i = 1; i <= 10; i++) {
+            limiter.onSuccess(DeliveryChannel.GMAIL, null);
+            assertEquals(5 + 0.5 * i, limiter.getRatePerSecond(DeliveryChannel.GMAIL), DELTA);
+        }
+        limiter.onSuccess(DeliveryChannel.GMAIL, null);
+        assertEquals(10, limiter.getRatePerSecond(DeliveryChannel.GMAIL), DELTA);
+    }
+
+    @Test
+    void retryAfterPausesTheBucket() {
+        limiter.onThrottled(DeliveryChannel.GMAIL, null, Duration.ofSeconds(3));
+
+        advanceMillis(2999);
+        assertEquals(0, permits("gmail", "shared"), DELTA);
+
+        // Rate is 5/s after the decrease, accruing from the end of the pause
+        advanceMillis(1);
+        assertEquals(0, permits("gmail", "shared"), DELTA);
+        advanceMillis(200);
+        assertEquals(1, permits("gmail", "shared"), DELTA);
+    }
+
+    @Test
+    void missingRetryAfterUsesTheDefaultPause() {
+        limiter.onThrottled(DeliveryChannel.GMAIL, null, null);
+
+        advanceMillis(999);
+        assertEquals(0, permits("gmail", "shared"), DELTA);
+        advanceMillis(201);
+        assertEquals(1, permits("gmail", "shared"), DELTA);
+    }
+
+    @Test
+    void configuredRateTakesEffectAndScalesTheSteps() {
+        limiter.onThrottled(DeliveryChannel.AWS_SES, null, Duration.ZERO);
+        assertEquals(7, limiter.getRatePerSecond(DeliveryChannel.AWS_SES), DELTA);
+
+        limiter.setConfiguredRate(DeliveryChannel.AWS_SES, 20);
+        assertEquals(20, limiter.getRatePerSecond(DeliveryChannel.AWS_SES), DELTA);
+
+        limiter.onThrottled(DeliveryChannel.AWS_SES, null, Duration.ZERO);
+        limiter.onSuccess(DeliveryChannel.AWS_SES, null);
+        assertEquals(11, limiter.getRatePerSecond(DeliveryChannel.AWS_SES), DELTA);
+
+        assertThrows(IllegalArgumentException.class, () -> limiter.setConfiguredRate(DeliveryChannel.AWS_SES, 0));
+    }
+
+    @Test
+    void perKeyLimitsAreIndependentAndTaggedByFingerprint() {
+        limiter.onThrottled(DeliveryChannel.RESEND, "re_key_one", Duration.ZERO);
+
+        assertEquals(1, limiter.getRatePerSecond(DeliveryChannel.RESEND), DELTA);
+        for (Gauge gauge : meterRegistry.find("delivery.rate.limiter.rate").tag("provider", "resend").gauges()) {
+            String key = gauge.getId().getTag("key");
+            assertFalse(key.contains("re_key_one"));
+            assertEquals("shared".equals(key) ? 1 : 2, gauge.value(), DELTA);
+        }
+        limiter.onThrottled(DeliveryChannel.RESEND, "re_key_two", Duration.ZERO);
+        assertEquals(3, meterRegistry.find("delivery.rate.limiter.rate").tag("provider", "resend").gauges().size());
+    }
+
+    @Test
+    void parsesRetryAfterHeaders() {
+        assertEquals(Duration.ofSeconds(120), ProviderRateLimiter.parseRetryAfter(" 120 "));
+        assertEquals(Duration.ZERO, ProviderRateLimiter.parseRetryAfter("-5"));
+        assertNull(ProviderRateLimiter.parseRetryAfter(null));
+        assertNull(ProviderRateLimiter.parseRetryAfter("soon"));
+
+        String inAMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusMinutes(1));
+        Duration untilDate = ProviderRateLimiter.parseRetryAfter(inAMinute);
+        assertTrue(untilDate.compareTo(Duration.ofSeconds(50)) > 0 && untilDate.compareTo(Duration.ofSeconds(61)) < 0);
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusMinutes(1));
+        assertEquals(Duration.ZERO, ProviderRateLimiter.parseRetryAfter(past));
+    }
+
+    private double permits(String provider, String key) {
+        return meterRegistry.get("delivery.rate.limiter.permits").tags("provider", provider, "key", key)
+                .gauge().value();
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
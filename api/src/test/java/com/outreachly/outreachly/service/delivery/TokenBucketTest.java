@@ -0,0 +1,96 @@
+package com.outreachly.outreachly.service.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Token bucket on a clock the test advances by hand
+ */
+class TokenBucketTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void startsFullAndReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.tryAcquire());
+
+        advanceMillis(500);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryAcquire());
+        advanceMillis(500);
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 3, now::get);
+        bucket.tryAcquire();
+
+        advanceMillis(10_000);
+
+        assertEquals(3, bucket.availablePermits(), DELTA);
+    }
+
+    @Test
+    void rateChangeKeepsAccruedTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, now::get);
+        bucket.tryAcquire();
+        advanceMillis(500);
+
+        bucket.setRatePerSecond(2);
+        assertEquals(0.5, bucket.availablePermits(), DELTA);
+
+        advanceMillis(250);
+        assertEquals(1, bucket.availablePermits(), DELTA);
+        assertEquals(2, bucket.getRatePerSecond(), DELTA);
+    }
+
+    @Test
+    void pauseDropsTokensAndHandsOutNoneUntilItEnds() {
+        TokenBucket bucket = new TokenBucket(4, 4, now::get);
+
+        bucket.pauseFor(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(0, bucket.availablePermits(), DELTA);
+        advanceMillis(1500);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryAcquire());
+
+        // Tokens accrue again from the end of the pause
+        advanceMillis(500);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), bucket.tryAcquire());
+        advanceMillis(250);
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void shorterPauseDoesNotCutALongerOneShort() {
+        TokenBucket bucket = new TokenBucket(1, 1, now::get);
+
+        bucket.pauseFor(TimeUnit.SECONDS.toNanos(5));
+        bucket.pauseFor(TimeUnit.SECONDS.toNanos(1));
+
+        advanceMillis(1000);
+        assertEquals(TimeUnit.SECONDS.toNanos(4), bucket.tryAcquire());
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, now::get));
+        TokenBucket bucket = new TokenBucket(1, 1, now::get);
+        assertThrows(IllegalArgumentException.class, () -> bucket.setRatePerSecond(-1));
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
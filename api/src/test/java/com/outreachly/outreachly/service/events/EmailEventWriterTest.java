@@ -0,0 +1,321 @@
+package com.outreachly.outreachly.service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.entity.EmailEvent;
+import com.outreachly.outreachly.service.suppression.SuppressionList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writer stage against a stubbed JdbcTemplate standing in for email_events and
+ * its unique sns_message_id index, with the spill file in a temp directory
+ */
+class EmailEventWriterTest {
+
+    private static final int COLUMNS = 14;
+
+    @TempDir
+    Path spillDir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SuppressionList suppressionList = mock(SuppressionList.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    // Addresses of the rows written, and the sns_message_ids already in the table
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> snsMessageIds = Collections.synchronizedSet(new HashSet<>());
+
+    private SimpleMeterRegistry meterRegistry;
+    private CountDownLatch inserting;
+    private EmailEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenAnswer(this::insert);
+        writer = newWriter(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void redeliveredSnsMessageIsQueuedOnce() {
+        assertTrue(writer.submit(event("lead@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-1")));
+        assertTrue(writer.submit(event("lead@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-1")));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 1);
+        assertEquals(1, counter("email.events.duplicates"));
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), any(Object[].class));
+    }
+
+    @Test
+    void redeliveryAlreadyInTheTableIsSkippedAndDoesNotSuppressAgain() {
+        // Written before this instance started, so only the unique index knows it
+        snsMessageIds.add("sns-1");
+
+        writer.submit(event("lead@example.com", EmailEvent.EmailEventType.BOUNCE, "sns-1"));
+        writer.submit(event("other@example.com", EmailEvent.EmailEventType.BOUNCE, "sns-2"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> counter("email.events.duplicates") == 1);
+        assertEquals(List.of("other@example.com"), written);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(suppressionList, times(1)).onEvent(any()));
+    }
+
+    @Test
+    void batchThatKeepsFailingIsRetriedThenSpilled() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        writer.submit(event("lead@example.com", EmailEvent.EmailEventType.BOUNCE, "sns-1"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> counter("email.events.spilled") == 1);
+        verify(jdbcTemplate, times(3)).queryForList(anyString(), eq(String.class), any(Object[].class));
+        verify(suppressionList, never()).onEvent(any());
+        assertEquals(0, counter("email.events.dropped"));
+    }
+
+    @Test
+    void batchRefusedByAConstraintIsWrittenRowByRow() throws Exception {
+        // Hold the first event in the writer so the next three are drained as one batch
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenAnswer(inv -> {
+            Object[] args = (Object[]) inv.getRawArguments()[2];
+            if ("first@example.com".equals(args[1])) {
+                inserting.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } else if (args.length > COLUMNS || "bad@example.com".equals(args[1])) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return insert(inv);
+        });
+
+        writer.submit(event("first@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-0"));
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+        writer.submit(event("a@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-1"));
+        writer.submit(event("bad@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-2"));
+        writer.submit(event("b@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-3"));
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 3);
+        assertEquals(List.of("first@example.com", "a@example.com", "b@example.com"), written);
+        assertEquals(1, counter("email.events.dropped"));
+        assertEquals(0, counter("email.events.spilled"));
+    }
+
+    @Test
+    void fullQueueRefusesTheEventAndForgetsItsMessageId() throws Exception {
+        writer.stop();
+        writer = newWriter(1);
+        CountDownLatch release = blockInserts();
+
+        try {
+            writer.submit(event("a@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-1"));
+            awaitBlocked();
+            assertTrue(writer.submit(event("b@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-2")));
+
+            assertFalse(writer.submit(event("c@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-3")));
+            assertEquals(1, counter("email.events.rejected"));
+        } finally {
+            release.countDown();
+        }
+
+        // The refused message is accepted when SNS delivers it again
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertTrue(writer.submit(event("c@example.com", EmailEvent.EmailEventType.DELIVERY, "sns-3")));
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 3);
+    }
+
+    @Test
+    void eventsSpilledBeforeARestartAreReplayedByTheNextInstance() throws Exception {
+        writer.stop();
+        EventSpillFile spillFile = new EventSpillFile(spillPath(), objectMapper);
+        spillFile.append(event("a@example.com", EmailEvent.EmailEventType.BOUNCE, "sns-1"));
+        spillFile.append(event("b@example.com", EmailEvent.EmailEventType.COMPLAINT, "sns-2"));
+        spillFile.close();
+
+        writer = newWriter(100);
+        writer.replaySpilled();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertEquals(List.of("a@example.com", "b@example.com"), written);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(suppressionList, times(2)).onEvent(any()));
+        assertEquals(0, new EventSpillFile(spillPath(), objectMapper).pending());
+    }
+
+    @Test
+    void recordedClickIsWritten() {
+        writer.record(event("lead@example.com", EmailEvent.EmailEventType.CLICK, null));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 1);
+        assertEquals(0, counter("email.events.spilled"));
+    }
+
+    @Test
+    void recordedClickWhoseInsertKeepsFailingIsSpilled() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        writer.record(event("lead@example.com", EmailEvent.EmailEventType.CLICK, null));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> counter("email.events.spilled") == 1);
+        assertEquals(0, counter("email.events.dropped"));
+    }
+
+    @Test
+    void recordedEventsSpillWhileTheQueueIsFullAndAreReplayedLater() throws Exception {
+        writer.stop();
+        writer = newWriter(1);
+        CountDownLatch release = blockInserts();
+
+        try {
+            writer.record(event("a@example.com", EmailEvent.EmailEventType.OPEN, null));
+            awaitBlocked();
+            writer.record(event("b@example.com", EmailEvent.EmailEventType.CLICK, null));
+            writer.record(event("c@example.com", EmailEvent.EmailEventType.CLICK, null));
+
+            assertEquals(1, counter("email.events.spilled"));
+        } finally {
+            release.countDown();
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        writer.replaySpilled();
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 3);
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), written);
+        assertEquals(0, counter("email.events.dropped"));
+    }
+
+    @Test
+    void recordedEventIsCountedAsDroppedWhenNeitherTheQueueNorTheSpillFileTakesIt() throws Exception {
+        writer.stop();
+        // A regular file where the spill directory should be
+        Path blocked = Files.createFile(spillDir.resolve("not-a-directory"));
+        writer = newWriter(1, blocked.resolve("email-events.spill"));
+        CountDownLatch release = blockInserts();
+
+        try {
+            writer.record(event("a@example.com", EmailEvent.EmailEventType.OPEN, null));
+            awaitBlocked();
+            writer.record(event("b@example.com", EmailEvent.EmailEventType.CLICK, null));
+            writer.record(event("c@example.com", EmailEvent.EmailEventType.CLICK, null));
+
+            assertEquals(1, counter("email.events.dropped"));
+            assertEquals(0, counter("email.events.spilled"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void insertStatementSkipsRedeliveries() {
+        String sql = EmailEventWriter.insertSql(2);
+
+        assertTrue(sql.contains("NOW(), ?, ?, ?, ?), (?, "));
+        assertTrue(sql.endsWith("ON CONFLICT (sns_message_id) DO NOTHING RETURNING sns_message_id"));
+    }
+
+    private EmailEventWriter newWriter(int queueCapacity) {
+        return newWriter(queueCapacity, spillPath());
+    }
+
+    private EmailEventWriter newWriter(int queueCapacity, Path spillPath) {
+        meterRegistry = new SimpleMeterRegistry();
+        EmailEventWriter eventWriter = new EmailEventWriter(jdbcTemplate, suppressionList, meterRegistry,
+                objectMapper);
+        ReflectionTestUtils.setField(eventWriter, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(eventWriter, "batchSize", 50);
+        ReflectionTestUtils.setField(eventWriter, "flushMillis", 200L);
+        ReflectionTestUtils.setField(eventWriter, "dedupeWindow", 1000);
+        ReflectionTestUtils.setField(eventWriter, "maxAttempts", 3);
+        ReflectionTestUtils.setField(eventWriter, "retryBackoffMillis", 1L);
+        ReflectionTestUtils.setField(eventWriter, "spillPath", spillPath.toString());
+        eventWriter.start();
+        return eventWriter;
+    }
+
+    // Inserts wait on the returned latch; awaitBlocked() returns once the writer is held in one
+    private CountDownLatch blockInserts() {
+        CountDownLatch release = new CountDownLatch(1);
+        inserting = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenAnswer(inv -> {
+            inserting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return insert(inv);
+        });
+        return release;
+    }
+
+    private void awaitBlocked() throws InterruptedException {
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+    }
+
+    private Path spillPath() {
+        return spillDir.resolve("email-events.spill");
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    // Rows whose sns_message_id is already in the table are skipped, like ON CONFLICT DO NOTHING
+    private List<String> insert(InvocationOnMock invocation) {
+        Object[] args = (Object[]) invocation.getRawArguments()[2];
+        List<String> returned = new ArrayList<>();
+        for (int row = 0; row < args.length / COLUMNS; row++) {
+            String snsMessageId = (String) args[row * COLUMNS + 10];
+            if (snsMessageId == null || snsMessageIds.add(snsMessageId)) {
+                written.add((String) args[row * COLUMNS + 1]);
+                returned.add(snsMessageId);
+            }
+        }
+        return returned;
+    }
+
+    static EmailEvent event(String emailAddress, EmailEvent.EmailEventType type, String snsMessageId) {
+        return EmailEvent.builder()
+                .messageId("message-" + emailAddress)
+                .emailAddress(emailAddress)
+                .eventType(type)
+                .timestamp(LocalDateTime.now())
+                .snsMessageId(snsMessageId)
+                .build();
+    }
+}
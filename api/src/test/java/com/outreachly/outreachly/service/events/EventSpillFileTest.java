@@ -0,0 +1,60 @@
+package com.outreachly.outreachly.service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.outreachly.outreachly.entity.EmailEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class EventSpillFileTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void replayStopsAtTheFirstRefusedEventAndKeepsTheRestInOrder() throws Exception {
+        EventSpillFile spillFile = new EventSpillFile(dir.resolve("events.spill"), objectMapper);
+        for (String address : List.of("a@example.com", "b@example.com", "c@example.com")) {
+            spillFile.append(EmailEventWriterTest.event(address, EmailEvent.EmailEventType.CLICK, null));
+        }
+
+        List<String> accepted = new ArrayList<>();
+        assertEquals(1, spillFile.replay(event -> accepted.isEmpty() && accepted.add(event.getEmailAddress())));
+        assertEquals(2, spillFile.pending());
+
+        assertEquals(2, spillFile.replay(event -> accepted.add(event.getEmailAddress())));
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), accepted);
+        assertEquals(0, spillFile.pending());
+        spillFile.close();
+    }
+
+    @Test
+    void fileLeftAsideByACrashedReplayIsReplayedFirst() throws Exception {
+        Path path = dir.resolve("events.spill");
+        EventSpillFile crashed = new EventSpillFile(path, objectMapper);
+        crashed.append(EmailEventWriterTest.event("old@example.com", EmailEvent.EmailEventType.OPEN, null));
+        crashed.close();
+        Files.move(path, dir.resolve("events.spill.replay"));
+
+        EventSpillFile spillFile = new EventSpillFile(path, objectMapper);
+        spillFile.append(EmailEventWriterTest.event("new@example.com", EmailEvent.EmailEventType.OPEN, null));
+        assertEquals(2, spillFile.pending());
+
+        List<String> accepted = new ArrayList<>();
+        spillFile.replay(event -> accepted.add(event.getEmailAddress()));
+        spillFile.replay(event -> accepted.add(event.getEmailAddress()));
+
+        assertEquals(List.of("old@example.com", "new@example.com"), accepted);
+        assertFalse(Files.exists(dir.resolve("events.spill.replay")));
+        spillFile.close();
+    }
+}
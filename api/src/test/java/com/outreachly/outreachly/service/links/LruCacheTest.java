@@ -0,0 +1,47 @@
+package com.outreachly.outreachly.service.links;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LruCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryOfASegmentIsEvictedFirst() {
+        // Two entries per segment; small Integer keys 16 apart share a segment
+        LruCache<Integer, String> cache = new LruCache<>(32);
+        cache.put(0, "zero");
+        cache.put(16, "sixteen");
+        cache.get(0);
+
+        cache.put(32, "thirty-two");
+
+        assertEquals("zero", cache.get(0));
+        assertNull(cache.get(16));
+        assertEquals("thirty-two", cache.get(32));
+    }
+
+    @Test
+    void sizeStaysWithinTheBound() {
+        LruCache<String, Integer> cache = new LruCache<>(64);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("code-" + i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(9_999, cache.get("code-9999"));
+    }
+
+    @Test
+    void removedEntriesAreGone() {
+        LruCache<String, Integer> cache = new LruCache<>(64);
+        cache.put("code", 1);
+
+        cache.remove("code");
+
+        assertNull(cache.get("code"));
+        assertEquals(0, cache.size());
+    }
+}
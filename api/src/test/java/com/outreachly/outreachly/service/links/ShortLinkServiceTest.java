@@ -0,0 +1,190 @@
+package com.outreachly.outreachly.service.links;
+
+import com.outreachly.outreachly.repository.ShortLinkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Link creation and rewriting against a stubbed JdbcTemplate standing in for
+ * short_links and its unique short_code
+ */
+class ShortLinkServiceTest {
+
+    private static final String PREFIX = "https://api.example.com/track/c/";
+    private static final int COLUMNS = 8;
+
+    private final ShortLinkRepository shortLinkRepository = mock(ShortLinkRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // Code to original_url of the rows written
+    private final Map<String, String> rows = new HashMap<>();
+    // Codes whose INSERT is skipped as if another row already had them
+    private final Set<String> taken = new HashSet<>();
+    private int inserts;
+    private int collisionsLeft;
+
+    private ShortLinkService service;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenAnswer(this::insert);
+        when(shortLinkRepository.findByShortCode(anyString())).thenReturn(Optional.empty());
+
+        service = new ShortLinkService(shortLinkRepository, jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "baseUrl", "https://api.example.com/");
+        ReflectionTestUtils.setField(service, "cacheSize", 1000);
+        ReflectionTestUtils.setField(service, "ttlDays", 365);
+        ReflectionTestUtils.setField(service, "missCacheSize", 100);
+        ReflectionTestUtils.setField(service, "missTtlMillis", 60_000L);
+        service.init();
+    }
+
+    @Test
+    void onlyUntrackedHttpLinksAreRewritten() {
+        String html = "<a href=\"https://example.com/a?x=1&amp;y=2\">a</a>"
+                + "<a href='" + PREFIX + "AbCdEf12'>tracked</a>"
+                + "<a href=\"mailto:lead@example.com\">mail</a>"
+                + "<a href=\"/relative\">relative</a>";
+        ShortLinkService.LinkContext context = context("msg-1");
+
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add(html, context);
+        links.create();
+        String rewritten = links.rewrite(html, context);
+
+        assertEquals(1, rows.size());
+        String code = rows.keySet().iterator().next();
+        assertEquals("https://example.com/a?x=1&y=2", rows.get(code));
+        assertEquals("<a href=\"" + PREFIX + code + "\">a</a>"
+                + "<a href='" + PREFIX + "AbCdEf12'>tracked</a>"
+                + "<a href=\"mailto:lead@example.com\">mail</a>"
+                + "<a href=\"/relative\">relative</a>", rewritten);
+    }
+
+    @Test
+    void sameUrlTwiceInAnEmailSharesOneCode() {
+        String html = "<a href=\"https://example.com\">one</a><a href=\"https://example.com\">two</a>";
+
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add(html, context("msg-1"));
+        links.create();
+
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void collidingCodesAreRegeneratedForOnlyTheLinksThatCollided() {
+        collisionsLeft = 1;
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add("<a href=\"https://example.com/a\">a</a>", context("msg-1"));
+        links.add("<a href=\"https://example.com/b\">b</a>", context("msg-2"));
+
+        links.create();
+
+        assertEquals(2, inserts);
+        assertEquals(2, rows.size());
+        assertTrue(links.trackedUrl("https://example.com/a", context("msg-1")).startsWith(PREFIX));
+        assertTrue(links.trackedUrl("https://example.com/b", context("msg-2")).startsWith(PREFIX));
+    }
+
+    @Test
+    void linksThatKeepCollidingAreSentUnshortened() {
+        collisionsLeft = Integer.MAX_VALUE;
+        String html = "<a href=\"https://example.com/a\">a</a>";
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add(html, context("msg-1"));
+
+        links.create();
+
+        assertEquals(3, inserts);
+        assertEquals(html, links.rewrite(html, context("msg-1")));
+    }
+
+    @Test
+    void createdLinksResolveWithoutTheDatabase() {
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add("<a href=\"https://example.com/a\">a</a>", context("msg-1"));
+        links.create();
+        String code = rows.keySet().iterator().next();
+
+        ShortLinkService.Target target = service.resolve(code);
+
+        assertEquals("https://example.com/a", target.originalUrl());
+        assertEquals("msg-1", target.messageId());
+        assertEquals("lead@example.com", target.recipientEmail());
+        verify(shortLinkRepository, never()).findByShortCode(anyString());
+    }
+
+    @Test
+    void discardDeletesOnlyTheLinksOfUnsentMessages() {
+        String html = "<a href=\"https://example.com/a\">a</a>";
+        ShortLinkService.LinkBatch links = service.newBatch();
+        links.add(html, context("msg-sent"));
+        links.add(html, context("msg-unsent"));
+        links.create();
+        String sentCode = links.trackedUrl("https://example.com/a", context("msg-sent")).substring(PREFIX.length());
+        String unsentCode = links.trackedUrl("https://example.com/a", context("msg-unsent"))
+                .substring(PREFIX.length());
+
+        links.discard(List.of("msg-unsent", "msg-unknown"));
+
+        verify(jdbcTemplate, times(1)).update(ShortLinkService.deleteSql(1), unsentCode);
+        assertEquals(html, links.rewrite(html, context("msg-unsent")));
+        assertNull(service.resolve(unsentCode));
+        assertEquals("https://example.com/a", service.resolve(sentCode).originalUrl());
+    }
+
+    @Test
+    void discardWithNothingCreatedDoesNotTouchTheDatabase() {
+        service.newBatch().discard(List.of("msg-1"));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    private static ShortLinkService.LinkContext context(String messageId) {
+        return new ShortLinkService.LinkContext(messageId, "lead@example.com", "user-1", null, null);
+    }
+
+    // Codes already taken are skipped and left out of the returned codes, like ON CONFLICT DO NOTHING
+    private List<String> insert(InvocationOnMock invocation) {
+        inserts++;
+        Object[] args = (Object[]) invocation.getRawArguments()[2];
+        List<String> inserted = new ArrayList<>();
+        for (int row = 0; row < args.length / COLUMNS; row++) {
+            String code = (String) args[row * COLUMNS];
+            if (collisionsLeft > 0) {
+                collisionsLeft--;
+                taken.add(code);
+                continue;
+            }
+            if (!taken.contains(code) && rows.putIfAbsent(code, (String) args[row * COLUMNS + 1]) == null) {
+                inserted.add(code);
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,133 @@
+package com.outreachly.outreachly.service.links;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackingPixelServiceTest {
+
+    private final ShortLinkService.LinkContext context = new ShortLinkService.LinkContext("msg-1",
+            "lead@example.com", "user-1", UUID.randomUUID().toString(), UUID.randomUUID().toString());
+
+    private TrackingPixelService service;
+
+    @BeforeEach
+    void setUp() {
+        service = service("secret-one");
+    }
+
+    @Test
+    void tokenRoundTrips() {
+        assertEquals(context, service.verify(service.token(context)));
+    }
+
+    @Test
+    void tokensAreRandomizedAndDoNotExposeTheRecipient() {
+        String first = service.token(context);
+        String second = service.token(context);
+
+        assertNotEquals(first, second);
+        assertFalse(new String(Base64.getUrlDecoder().decode(first)).contains("lead@example.com"));
+    }
+
+    @Test
+    void nullFieldsRoundTrip() {
+        ShortLinkService.LinkContext sparse = new ShortLinkService.LinkContext("msg-1", null, null, null, null);
+
+        assertEquals(sparse, service.verify(service.token(sparse)));
+    }
+
+    @Test
+    void emptyStringsStayDistinctFromNull() {
+        ShortLinkService.LinkContext empty = new ShortLinkService.LinkContext("", "", "", null, null);
+
+        assertEquals(empty, service.verify(service.token(empty)));
+    }
+
+    @Test
+    void nonUuidIdsAreLeftOut() {
+        ShortLinkService.LinkContext legacy = new ShortLinkService.LinkContext("msg-1", "lead@example.com",
+                "user-1", "campaign-42", "not-a-uuid");
+
+        ShortLinkService.LinkContext decoded = service.verify(service.token(legacy));
+
+        assertEquals("msg-1", decoded.messageId());
+        assertEquals("lead@example.com", decoded.recipientEmail());
+        assertNull(decoded.campaignId());
+        assertNull(decoded.orgId());
+    }
+
+    @Test
+    void rejectsChangedCiphertext() {
+        byte[] token = Base64.getUrlDecoder().decode(service.token(context));
+        token[token.length - 20] ^= 1;
+
+        assertNull(service.verify(encode(token)));
+    }
+
+    @Test
+    void rejectsChangedTag() {
+        byte[] token = Base64.getUrlDecoder().decode(service.token(context));
+        token[token.length - 1] ^= 1;
+
+        assertNull(service.verify(encode(token)));
+    }
+
+    @Test
+    void rejectsChangedVersionByte() {
+        byte[] token = Base64.getUrlDecoder().decode(service.token(context));
+        token[0] = 1;
+
+        assertNull(service.verify(encode(token)));
+    }
+
+    @Test
+    void rejectsTokensIssuedWithAnotherSecret() {
+        assertNull(service("secret-two").verify(service.token(context)));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertNull(service.verify("not base64!"));
+        assertNull(service.verify(""));
+        assertNull(service.verify(encode(new byte[] {2, 0, 0})));
+    }
+
+    @Test
+    void disabledWithoutSecret() {
+        TrackingPixelService disabled = service("");
+
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.verify(service.token(context)));
+        assertEquals("<p>Hi</p>", disabled.injectPixel("<p>Hi</p>", context));
+    }
+
+    @Test
+    void injectsPixelBeforeBodyEnd() {
+        String html = service.injectPixel("<html><body><p>Hi</p></BODY></html>", context);
+
+        assertTrue(html.startsWith("<html><body><p>Hi</p><img src=\"https://api.example.com/track/open/"));
+        assertTrue(html.endsWith("</BODY></html>"));
+    }
+
+    private static TrackingPixelService service(String secret) {
+        TrackingPixelService service = new TrackingPixelService();
+        ReflectionTestUtils.setField(service, "baseUrl", "https://api.example.com/");
+        ReflectionTestUtils.setField(service, "tokenSecret", secret);
+        service.init();
+        return service;
+    }
+
+    private static String encode(byte[] token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+}
@@ -0,0 +1,150 @@
+package com.outreachly.outreachly.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A small wheel (1s ticks, 4 buckets, 2 levels: 4 ticks at level 0, 16 at
+ * level 1, overflow beyond) driven by explicit times instead of the clock.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, 2, 0);
+
+    @Test
+    void firesLevelZeroEntriesOnTheirTick() {
+        wheel.schedule("a", 3 * TICK);
+        wheel.schedule("b", TICK);
+
+        assertEquals(List.of(), wheel.advanceTo(TICK - 1));
+        assertEquals(List.of("b"), wheel.advanceTo(TICK));
+        assertEquals(List.of(), wheel.advanceTo(3 * TICK - 1));
+        assertEquals(List.of("a"), wheel.advanceTo(3 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsTimesThatHavePassed() {
+        wheel.advanceTo(5 * TICK);
+
+        assertFalse(wheel.schedule("past", 4 * TICK));
+        // Same tick as now
+        assertFalse(wheel.schedule("now", 5 * TICK + 500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromTheUpperLevelOnTime() {
+        wheel.schedule("k", 9 * TICK);
+
+        for (long tick = 1; tick < 9; tick++) {
+            assertEquals(List.of(), wheel.advanceTo(tick * TICK), "tick " + tick);
+        }
+        assertEquals(List.of("k"), wheel.advanceTo(9 * TICK));
+    }
+
+    @Test
+    void returnsEntriesInDueOrderAcrossLevelsInOneAdvance() {
+        wheel.schedule("thirteen", 13 * TICK);
+        wheel.schedule("two", 2 * TICK);
+        wheel.schedule("thirty", 30 * TICK);
+        wheel.schedule("nine", 9 * TICK);
+
+        assertEquals(List.of("two", "nine", "thirteen", "thirty"), wheel.advanceTo(100 * TICK));
+    }
+
+    @Test
+    void entriesPastTheTopLevelWaitInOverflow() {
+        wheel.schedule("far", 40 * TICK);
+
+        assertEquals(List.of(), wheel.advanceTo(39 * TICK + 999));
+        assertEquals(Set.of("far"), wheel.keys());
+        assertEquals(List.of("far"), wheel.advanceTo(40 * TICK));
+    }
+
+    @Test
+    void cancelRemovesEntriesFromEveryLevel() {
+        wheel.schedule("level0", 2 * TICK);
+        wheel.schedule("level1", 9 * TICK);
+        wheel.schedule("overflow", 40 * TICK);
+
+        assertTrue(wheel.cancel("level0"));
+        assertTrue(wheel.cancel("level1"));
+        assertTrue(wheel.cancel("overflow"));
+        assertFalse(wheel.cancel("level0"));
+
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advanceTo(100 * TICK));
+    }
+
+    @Test
+    void rescheduleMovesTheEntry() {
+        wheel.schedule("k", 5 * TICK);
+        wheel.schedule("k", 12 * TICK);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advanceTo(11 * TICK));
+        assertEquals(List.of("k"), wheel.advanceTo(12 * TICK));
+
+        wheel.schedule("k", 60 * TICK);
+        wheel.schedule("k", 14 * TICK);
+        assertEquals(List.of("k"), wheel.advanceTo(14 * TICK));
+        assertEquals(List.of(), wheel.advanceTo(100 * TICK));
+    }
+
+    @Test
+    void startTimeNeedNotBeTickAligned() {
+        HierarchicalTimingWheel<String> offset = new HierarchicalTimingWheel<>(TICK, 4, 2, 1_000_500);
+        offset.schedule("k", 1_007_200);
+
+        assertEquals(List.of(), offset.advanceTo(1_006_999));
+        assertEquals(List.of("k"), offset.advanceTo(1_007_000));
+    }
+
+    @Test
+    void matchesASortedScheduleForRandomTimesAndSteps() {
+        Random random = new Random(42);
+        Map<String, Long> dueTicks = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            long tick = 1 + random.nextInt(200);
+            dueTicks.put("k" + i, tick);
+            assertTrue(wheel.schedule("k" + i, tick * TICK + random.nextInt((int) TICK)));
+        }
+        for (int i = 0; i < 100; i += 3) {
+            assertTrue(wheel.cancel("k" + i));
+            dueTicks.remove("k" + i);
+        }
+
+        List<String> fired = new ArrayList<>();
+        long now = 0;
+        while (now < 210 * TICK) {
+            long previousTick = now / TICK;
+            now += random.nextInt(5 * (int) TICK);
+            long currentTick = now / TICK;
+            for (String key : wheel.advanceTo(now)) {
+                long due = dueTicks.get(key);
+                assertTrue(due > previousTick && due <= currentTick, key + " due at tick " + due
+                        + " fired between " + previousTick + " and " + currentTick);
+                fired.add(key);
+            }
+        }
+
+        assertEquals(dueTicks.size(), fired.size());
+        assertEquals(Set.copyOf(dueTicks.keySet()), Set.copyOf(fired));
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(dueTicks.get(fired.get(i - 1)) <= dueTicks.get(fired.get(i)));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.outreachly.outreachly.service.suppression;
+
+import com.outreachly.outreachly.entity.EmailEvent;
+import com.outreachly.outreachly.entity.SuppressedRecipient;
+import com.outreachly.outreachly.repository.EmailEventRepository;
+import com.outreachly.outreachly.repository.SuppressedRecipientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Suppression rules against an in-memory stand-in for the bounce history and
+ * the suppressed_recipients table.
+ */
+class SuppressionListTest {
+
+    private static final String EMAIL = "lead@example.com";
+
+    private final List<LocalDateTime> bounces = new ArrayList<>();
+    private final List<SuppressedRecipient> rows = new ArrayList<>();
+
+    private EmailEventRepository emailEventRepository;
+    private SuppressedRecipientRepository suppressedRecipientRepository;
+    private SuppressionList suppressionList;
+
+    @BeforeEach
+    void setUp() {
+        emailEventRepository = mock(EmailEventRepository.class);
+        // Newest first from 'since', paged like the JPQL query
+        when(emailEventRepository.findBounceTimesSince(anyString(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime since = inv.getArgument(1);
+            Pageable page = inv.getArgument(2);
+            return bounces.stream()
+                    .filter(time -> !time.isBefore(since))
+                    .sorted(Comparator.reverseOrder())
+                    .skip(page.getOffset())
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+
+        suppressedRecipientRepository = mock(SuppressedRecipientRepository.class);
+        when(suppressedRecipientRepository.findActive(any())).thenAnswer(inv -> active(inv.getArgument(0)));
+
+        suppressionList = new SuppressionList(suppressedRecipientRepository, emailEventRepository,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(suppressionList, "windowDays", 30);
+        ReflectionTestUtils.setField(suppressionList, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(suppressionList, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(suppressionList, "refreshMs", 60_000L);
+        suppressionList.init();
+    }
+
+    @Test
+    void threeBouncesInTheWindowDoNotSuppress() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int days = 3; days >= 1; days--) {
+            bounces.add(now.minusDays(days));
+            suppressionList.onEvent(event(EmailEvent.EmailEventType.BOUNCE, now.minusDays(days)));
+        }
+
+        assertFalse(suppressionList.isSuppressed(EMAIL));
+        verify(suppressedRecipientRepository, never()).suppress(anyString(), anyString(), any());
+    }
+
+    @Test
+    void fourthBounceSuppressesUntilTheOldestOfTheFourLeavesTheWindow() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        // The oldest bounce is outside the window and does not count
+        bounces.add(now.minusDays(40));
+        for (int days = 4; days >= 1; days--) {
+            bounces.add(now.minusDays(days));
+        }
+
+        suppressionList.onEvent(event(EmailEvent.EmailEventType.BOUNCE, now.minusDays(1)));
+
+        assertTrue(suppressionList.isSuppressed(EMAIL));
+        verify(suppressedRecipientRepository).suppress(EMAIL, "BOUNCE", now.minusDays(4).plusDays(30));
+    }
+
+    @Test
+    void bounceHistoryIsLookedUpByTheNormalizedAddress() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailEvent bounce = event(EmailEvent.EmailEventType.BOUNCE, now);
+        bounce.setEmailAddress(" Lead@Example.COM ");
+
+        suppressionList.onEvent(bounce);
+
+        verify(emailEventRepository).findBounceTimesSince(eq(EMAIL), any(), any());
+    }
+
+    @Test
+    void complaintSuppressesForTheWindowFromTheComplaint() {
+        LocalDateTime at = LocalDateTime.now().minusDays(29);
+
+        suppressionList.onEvent(event(EmailEvent.EmailEventType.COMPLAINT, at));
+
+        assertTrue(suppressionList.isSuppressed(" Lead@Example.com "));
+        verify(suppressedRecipientRepository).suppress(EMAIL, "COMPLAINT", at.plusDays(30));
+    }
+
+    @Test
+    void complaintOlderThanTheWindowIsIgnored() {
+        suppressionList.onEvent(event(EmailEvent.EmailEventType.COMPLAINT, LocalDateTime.now().minusDays(31)));
+
+        assertFalse(suppressionList.isSuppressed(EMAIL));
+        verify(suppressedRecipientRepository, never()).suppress(anyString(), anyString(), any());
+    }
+
+    @Test
+    void expiredSuppressionsAreNotReported() {
+        rows.add(row(EMAIL, LocalDateTime.now().minusMinutes(1)));
+
+        assertFalse(suppressionList.isSuppressed(EMAIL));
+    }
+
+    @Test
+    void rebuildDropsExpiredRowsAndRefreshAddsRowsFromOtherInstances() {
+        // The database's clock runs two hours behind this JVM's
+        LocalDateTime databaseNow = LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.SECONDS);
+        rows.add(row(EMAIL, LocalDateTime.now().plusDays(1), databaseNow));
+        assertTrue(suppressionList.isSuppressed(EMAIL));
+
+        rows.clear();
+        suppressionList.rebuild();
+        assertFalse(suppressionList.isSuppressed(EMAIL));
+        verify(suppressedRecipientRepository).deleteExpired(any());
+
+        SuppressedRecipient other = row("other@example.com", LocalDateTime.now().plusDays(1),
+                databaseNow.plusMinutes(5));
+        when(suppressedRecipientRepository.findActiveUpdatedSince(any(), any())).thenReturn(List.of(other));
+        suppressionList.refresh();
+
+        assertTrue(suppressionList.isSuppressed("other@example.com"));
+        assertFalse(suppressionList.isSuppressed(EMAIL));
+        // Each delta load starts one refresh interval before the newest updated_at read so far
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(suppressedRecipientRepository).findActiveUpdatedSince(since.capture(), any());
+        assertEquals(databaseNow.minusSeconds(60), since.getValue());
+
+        when(suppressedRecipientRepository.findActiveUpdatedSince(any(), any())).thenReturn(List.of());
+        suppressionList.refresh();
+        suppressionList.refresh();
+
+        verify(suppressedRecipientRepository, times(3)).findActiveUpdatedSince(since.capture(), any());
+        assertEquals(databaseNow.plusMinutes(5).minusSeconds(60), since.getValue());
+    }
+
+    private List<SuppressedRecipient> active(LocalDateTime now) {
+        return rows.stream().filter(row -> row.getSuppressedUntil().isAfter(now)).toList();
+    }
+
+    private static SuppressedRecipient row(String emailAddress, LocalDateTime until) {
+        return row(emailAddress, until, LocalDateTime.now());
+    }
+
+    private static SuppressedRecipient row(String emailAddress, LocalDateTime until, LocalDateTime updatedAt) {
+        return SuppressedRecipient.builder()
+                .emailAddress(emailAddress)
+                .reason(EmailEvent.EmailEventType.COMPLAINT)
+                .suppressedUntil(until)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static EmailEvent event(EmailEvent.EmailEventType type, LocalDateTime timestamp) {
+        return EmailEvent.builder()
+                .emailAddress(EMAIL)
+                .eventType(type)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.outreachly.outreachly.service.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledTemplateTest {
+
+    @Test
+    void knownVariablesAreSubstituted() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}} {{lastName}}, welcome to {{company}}!");
+
+        assertEquals("Hi Ada Lovelace, welcome to Acme!",
+                template.render(Map.of("firstName", "Ada", "lastName", "Lovelace", "company", "Acme")));
+    }
+
+    @Test
+    void unknownVariablesAreLeftInPlace() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}} from {{company}}");
+
+        assertEquals("Hi Ada from {{company}}", template.render(Map.of("firstName", "Ada")));
+        assertEquals("Hi {{firstName}} from {{company}}", template.render(Map.of()));
+    }
+
+    @Test
+    void substitutedValuesAreNotScannedAgain() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}}");
+
+        assertEquals("Hi {{lastName}}", template.render(Map.of("firstName", "{{lastName}}", "lastName", "Lovelace")));
+        assertEquals("Hi {{firstName}}", template.render(Map.of("firstName", "{{firstName}}")));
+    }
+
+    @Test
+    void unclosedPlaceholderIsLiteralText() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}}, see {{link");
+
+        assertEquals(List.of("firstName"), List.copyOf(template.variableNames()));
+        assertEquals("Hi Ada, see {{link", template.render(Map.of("firstName", "Ada", "link", "x")));
+        assertFalse(CompiledTemplate.compile("Hi {{firstName").hasVariables());
+    }
+
+    @Test
+    void nestedOpeningBracesBelongToTheInnermostPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("{{a {{b}}");
+
+        assertEquals(List.of("b"), List.copyOf(template.variableNames()));
+        assertEquals("{{a 1", template.render(Map.of("a", "0", "b", "1")));
+        assertEquals("{{a {{b}}", template.render(Map.of()));
+    }
+
+    @Test
+    void nullValueRendersAsEmpty() {
+        Map<String, String> values = new HashMap<>();
+        values.put("firstName", null);
+
+        assertEquals("Hi !", CompiledTemplate.compile("Hi {{firstName}}!").render(values));
+    }
+
+    @Test
+    void nullOrEmptySourceRendersAsEmpty() {
+        assertEquals("", CompiledTemplate.compile(null).render(Map.of("firstName", "Ada")));
+        assertEquals("", CompiledTemplate.compile("").source());
+        assertFalse(CompiledTemplate.compile(null).hasVariables());
+    }
+
+    @Test
+    void textWithoutPlaceholdersIsReturnedAsIs() {
+        CompiledTemplate template = CompiledTemplate.compile("Plain {text} with } and { braces");
+
+        assertFalse(template.hasVariables());
+        assertEquals("Plain {text} with } and { braces", template.render(Map.of("text", "x")));
+    }
+
+    @Test
+    void variableNamesAreListedOnceInOrderOfFirstAppearance() {
+        CompiledTemplate template = CompiledTemplate.compile("{{b}} {{a}} {{b}} {{c}}");
+
+        assertTrue(template.hasVariables());
+        assertEquals(List.of("b", "a", "c"), List.copyOf(template.variableNames()));
+    }
+
+    @Test
+    void renderToAppendsToTheGivenBuilder() {
+        StringBuilder out = new StringBuilder("> ");
+
+        CompiledTemplate.compile("Hi {{firstName}}").renderTo(Map.of("firstName", "Ada"), out);
+
+        assertEquals("> Hi Ada", out.toString());
+    }
+
+    @Test
+    void rendersDoNotShareTheThreadBuffer() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}}");
+
+        String first = template.render(Map.of("firstName", "Ada"));
+        String second = template.render(Map.of("firstName", "Grace"));
+        String large = template.render(Map.of("firstName", "x".repeat(100_000)));
+
+        assertEquals("Hi Ada", first);
+        assertEquals("Hi Grace", second);
+        assertEquals(100_003, large.length());
+        assertEquals("Hi Ada", template.render(Map.of("firstName", "Ada")));
+    }
+
+    @Test
+    void rewriteMapsLiteralsAndPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{firstName}} & co");
+
+        assertEquals("Hi {{first_name}} &amp; co", template.rewrite(
+                literal -> literal.replace("&", "&amp;"),
+                name -> "{{" + name.replaceAll("([A-Z])", "_$1").toLowerCase() + "}}"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.outreachly.outreachly.service.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TemplateCompilerTest {
+
+    private final TemplateCompiler compiler = new TemplateCompiler();
+    private final UUID templateId = UUID.randomUUID();
+    private final LocalDateTime version = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    void sameVersionIsCompiledOnce() {
+        CompiledTemplate first = compiler.compile(templateId, version, "body", "Hi {{firstName}}");
+        CompiledTemplate second = compiler.compile(templateId, version, "body", "Hi {{firstName}}");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void newVersionIsRecompiled() {
+        CompiledTemplate old = compiler.compile(templateId, version, "body", "Hi {{firstName}}");
+        CompiledTemplate updated = compiler.compile(templateId, version.plusMinutes(5), "body", "Hello {{firstName}}");
+
+        assertNotSame(old, updated);
+        assertEquals("Hello Ada", updated.render(Map.of("firstName", "Ada")));
+        // The new version is what stays cached
+        assertSame(updated, compiler.compile(templateId, version.plusMinutes(5), "body", "Hello {{firstName}}"));
+    }
+
+    @Test
+    void nullVersionIsCachedLikeAnyOther() {
+        CompiledTemplate first = compiler.compile(templateId, null, "body", "Hi {{firstName}}");
+
+        assertSame(first, compiler.compile(templateId, null, "body", "Hi {{firstName}}"));
+        assertNotSame(first, compiler.compile(templateId, version, "body", "Hi {{firstName}}"));
+    }
+
+    @Test
+    void partsAreCachedSeparately() {
+        CompiledTemplate subject = compiler.compile(templateId, version, "subject", "Hello {{company}}");
+        CompiledTemplate body = compiler.compile(templateId, version, "body", "Hi {{firstName}}");
+
+        assertEquals("Hello Acme", subject.render(Map.of("company", "Acme")));
+        assertEquals("Hi Ada", body.render(Map.of("firstName", "Ada")));
+        assertSame(subject, compiler.compile(templateId, version, "subject", "Hello {{company}}"));
+    }
+
+    @Test
+    void evictDropsEveryPartOfTheTemplate() {
+        CompiledTemplate subject = compiler.compile(templateId, version, "subject", "Hello {{company}}");
+        CompiledTemplate body = compiler.compile(templateId, version, "body", "Hi {{firstName}}");
+        UUID otherId = UUID.randomUUID();
+        CompiledTemplate other = compiler.compile(otherId, version, "body", "Hey {{firstName}}");
+
+        compiler.evict(templateId);
+
+        assertNotSame(subject, compiler.compile(templateId, version, "subject", "Hello {{company}}"));
+        assertNotSame(body, compiler.compile(templateId, version, "body", "Hi {{firstName}}"));
+        assertSame(other, compiler.compile(otherId, version, "body", "Hey {{firstName}}"));
+    }
+
+    @Test
+    void unsavedTemplateIsNotCached() {
+        CompiledTemplate first = compiler.compile(null, version, "body", "Hi {{firstName}}");
+
+        assertNotSame(first, compiler.compile(null, version, "body", "Hi {{firstName}}"));
+        assertEquals("Hi Ada", first.render(Map.of("firstName", "Ada")));
+    }
+}